@@ -0,0 +1,260 @@
+package Tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import modelo.eventos.Evento;
+import modelo.eventos.Localidad;
+import modelo.eventos.Venue;
+import modelo.pagos.AgregadosIngresos;
+import modelo.pagos.AgregadosIngresos.Acumulado;
+import modelo.pagos.AgregadosIngresos.Dimension;
+import modelo.pagos.Compra;
+import modelo.pagos.LibroMayor;
+import modelo.pagos.Pagos;
+import modelo.tiquetes.Tiquete;
+import modelo.usuarios.Comprador;
+import modelo.usuarios.Organizador;
+
+public class TestAgregadosIngresos {
+
+	private File diario;
+	private AgregadosIngresos agregados;
+	private ArrayList<Compra> compras;
+	private Organizador luis;
+	private Comprador comprador;
+	private Evento concierto;
+	private Evento teatro;
+	private Evento festival;
+	private Localidad general;
+	private Localidad vip;
+	private int siguienteTiquete;
+
+	@BeforeEach
+    public void setup() throws Exception {
+    	diario = File.createTempFile("agregados", ".csv");
+    	diario.delete();
+    	agregados = new AgregadosIngresos(diario);
+    	compras = new ArrayList<>();
+    	luis = new Organizador("luis", "luis123");
+    	comprador = new Comprador("ana", "ana123");
+    	Venue venue = new Venue("V1", "Estadio", "San José", 1000);
+    	general = new Localidad("L1", "General", false, venue, 500, 20.0);
+    	vip = new Localidad("L2", "VIP", false, venue, 100, 50.0);
+    	venue.agregarLocalidad(general);
+    	venue.agregarLocalidad(vip);
+    	Date fecha = new Date(System.currentTimeMillis() + 86400000L * 30);
+    	concierto = new Evento("E1", "Concierto", fecha, venue, luis);
+    	teatro = new Evento("E2", "Teatro", fecha, venue, new Organizador("sofia", "sofia123"));
+    	festival = new Evento("E3", "Festival", new Date(fecha.getTime() + 86400000L), venue, luis);
+    	luis.agregarEvento(concierto);
+    	luis.agregarEvento(festival);
+    	for (int i = 0; i < 10; i++) {
+    		concierto.agregarTiquete(new Tiquete("P" + i, 20.0, fecha, general, concierto));
+    	}
+    }
+
+	@AfterEach
+    public void limpiar() {
+    	diario.delete();
+    }
+
+	private Compra comprar(Evento evento, Localidad localidad, int cantidad) {
+		ArrayList<Tiquete> tiquetes = new ArrayList<>();
+		for (int i = 0; i < cantidad; i++) {
+			tiquetes.add(new Tiquete("T" + (siguienteTiquete++), localidad.getPrecioBase(), evento.getFechaHora(), localidad, evento));
+		}
+		Pagos.getInstancia().fijarPreciosPagados(tiquetes);
+		double montoTotal = Pagos.getInstancia().calcularPrecioTotal(tiquetes, 0.10, 5.0);
+		Compra compra = new Compra("C" + siguienteTiquete, new Date(), montoTotal, tiquetes, comprador);
+		compra.setEstado("aprobada");
+		agregados.registrarCompra(compra, 5.0);
+		compras.add(compra);
+		return compra;
+	}
+
+	@Test
+    void testTotalesPorDimension()
+    {
+		comprar(concierto, general, 3);
+		comprar(concierto, vip, 2);
+		comprar(teatro, general, 1);
+
+		Acumulado total = agregados.getTotal();
+		assertEquals(3, total.getCompras(), "Tres compras");
+		assertEquals(6, total.getTiquetes(), "Seis tiquetes");
+		assertEquals(180.0, total.getVentasBrutas(), 0.001, "3x20 + 2x50 + 20");
+		assertEquals(30.0, total.getIngresosCobroFijo(), 0.001, "$5 por tiquete");
+		assertEquals(18.0, total.getIngresosPorcentaje(), 0.001, "10% de las ventas");
+
+		assertEquals(160.0, agregados.getAcumulado(Dimension.EVENTO, "E1").getVentasBrutas(), 0.001, "Ventas del concierto");
+		assertEquals(2, agregados.getAcumulado(Dimension.LOCALIDAD, "E1|L2").getTiquetes(), "VIP del concierto");
+		assertEquals(1, agregados.getAcumulado(Dimension.ORGANIZADOR, "sofia").getCompras(), "Compras de la organizadora");
+		String hoy = new SimpleDateFormat("yyyy-MM-dd").format(new Date());
+		assertEquals(6, agregados.getAcumulado(Dimension.DIA, hoy).getTiquetes(), "Todo se vendió hoy");
+		assertEquals(0, agregados.getAcumulado(Dimension.EVENTO, "E9").getTiquetes(), "Un evento sin ventas da ceros");
+    }
+
+	@Test
+    void testReembolsosDescuentanUnaSolaVez()
+    {
+		Compra compra = comprar(concierto, general, 3);
+		Tiquete reembolsado = compra.getTiquetes().get(0);
+
+		assertTrue(agregados.registrarReembolso(reembolsado, 20.0), "Se descuenta el tiquete");
+		assertFalse(agregados.registrarReembolso(reembolsado, 20.0), "No se descuenta dos veces");
+		Acumulado evento = agregados.getAcumulado(Dimension.EVENTO, "E1");
+		assertEquals(2, evento.getTiquetes(), "Quedan dos tiquetes vendidos");
+		assertEquals(40.0, evento.getVentasBrutas(), 0.001, "La venta bruta baja");
+		assertEquals(15.0, evento.getIngresosCobroFijo(), 0.001, "Los cargos cobrados no se devuelven");
+		assertEquals(1, evento.getReembolsados(), "Un reembolso");
+
+		ArrayList<String> vendidos = agregados.getTiquetesVendidos("E1");
+		assertEquals(2, agregados.registrarReembolsosCancelacion(vendidos, 5.0), "La cancelación descuenta el resto");
+		assertEquals(0, agregados.registrarReembolsosCancelacion(vendidos, 5.0), "Repetirla no descuenta nada");
+		assertEquals(50.0, agregados.getAcumulado(Dimension.ORGANIZADOR, "luis").getMontoReembolsado(), 0.001,
+					 "20 por calamidad + 2x(20-5) por cancelación");
+    }
+
+	@Test
+    void testSobrevivenAlReinicio()
+    {
+		Compra compra = comprar(concierto, vip, 4);
+		comprar(teatro, general, 2);
+		agregados.registrarReembolso(compra.getTiquetes().get(1), 50.0);
+
+		AgregadosIngresos recargados = new AgregadosIngresos(diario);
+		assertEquals(7, recargados.cargar(), "Seis ventas y un reembolso");
+		Acumulado antes = agregados.getTotal();
+		Acumulado despues = recargados.getTotal();
+		assertEquals(antes.getCompras(), despues.getCompras(), "Mismas compras");
+		assertEquals(antes.getTiquetes(), despues.getTiquetes(), "Mismos tiquetes");
+		assertEquals(antes.getIngresosTotales(), despues.getIngresosTotales(), 0.001, "Mismos ingresos");
+		assertFalse(recargados.registrarReembolso(compra.getTiquetes().get(1), 50.0), "El reembolso ya estaba aplicado");
+		assertTrue(recargados.getTiquetesVendidos("E1").containsAll(
+			Arrays.asList(compra.getTiquetes().get(0).getId(), compra.getTiquetes().get(3).getId())), "Las ventas vigentes se recuperan");
+    }
+
+	@Test
+    void testCuadraConLoCobrado()
+    {
+		ArrayList<Tiquete> tiquetes = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			Tiquete tiquete = new Tiquete("D" + i, 20.0, concierto.getFechaHora(), general, concierto);
+			tiquete.setPrecioPagado(33.33); // precio dinámico cobrado, distinto del base
+			tiquetes.add(tiquete);
+		}
+		double montoTotal = Pagos.getInstancia().calcularPrecioTotal(tiquetes, 0.10, 5.0);
+		Compra compra = new Compra("CD", new Date(), montoTotal, tiquetes, comprador);
+		agregados.registrarCompra(compra, 5.0);
+
+		Acumulado total = agregados.getTotal();
+		assertEquals(99.99, total.getVentasBrutas(), 0.001, "Las ventas usan el precio cobrado");
+		assertEquals(LibroMayor.aCentavos(montoTotal),
+					 LibroMayor.aCentavos(total.getVentasBrutas() + total.getIngresosTotales()),
+					 "Ventas y cargos suman exactamente lo debitado");
+    }
+
+	@Test
+    void testRestoVaAlUltimoTiqueteAplicado()
+    {
+		ArrayList<Tiquete> tiquetes = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			Tiquete tiquete = new Tiquete("R" + i, 20.0, concierto.getFechaHora(), general, concierto);
+			tiquete.setPrecioPagado(33.33);
+			tiquetes.add(tiquete);
+		}
+		// El último tiquete ya tenía su venta registrada en otra compra
+		ArrayList<Tiquete> previa = new ArrayList<>(tiquetes.subList(2, 3));
+		agregados.registrarCompra(new Compra("CP", new Date(), Pagos.getInstancia().calcularPrecioTotal(previa, 0.10, 5.0),
+											 previa, comprador), 5.0);
+		long antes = LibroMayor.aCentavos(agregados.getTotal().getIngresosPorcentaje());
+
+		double montoTotal = Pagos.getInstancia().calcularPrecioTotal(tiquetes, 0.10, 5.0);
+		agregados.registrarCompra(new Compra("CR", new Date(), montoTotal, tiquetes, comprador), 5.0);
+
+		long servicio = LibroMayor.aCentavos(montoTotal) - 3 * 3333 - 3 * 500;
+		long parteDelYaRegistrado = servicio * 3333 / (3 * 3333);
+		assertEquals(servicio - parteDelYaRegistrado,
+					 LibroMayor.aCentavos(agregados.getTotal().getIngresosPorcentaje()) - antes,
+					 "Los tiquetes aplicados llevan todo el cargo menos la parte del ya registrado");
+    }
+
+	@Test
+    void testVistaCoincideConLasCompras()
+    {
+		comprar(concierto, general, 3);
+		comprar(concierto, vip, 2);
+		comprar(festival, general, 4);
+		comprar(teatro, vip, 5);
+
+		AgregadosIngresos.VistaOrganizador vista = agregados.getVistaOrganizador("luis");
+		assertEquals(2, vista.getEventos().size(), "Solo los eventos del organizador");
+		assertEquals(240.0, vista.getTotal().getVentasBrutas(), 0.001, "160 del concierto + 80 del festival");
+		assertEquals(160.0, vista.getEvento("E1").getVentasBrutas(), 0.001, "Ganancias del concierto");
+		assertEquals(2, vista.getLocalidad("E1", "L2").getTiquetes(), "VIP del concierto");
+		assertEquals(4, vista.getLocalidad("E3", "L1").getTiquetes(), "General del festival");
+		assertEquals(0, vista.getLocalidad("E3", "L2").getTiquetes(), "Localidad sin ventas");
+
+		for (Evento evento : luis.getEventosCreados()) {
+			assertEquals(luis.getPorcentajeVentaEvento(evento, compras), luis.getPorcentajeVentaEvento(evento, agregados), 0.001,
+						 "El porcentaje de la vista es el mismo que recorriendo las compras");
+		}
+    }
+
+	@Test
+    void testReembolsosYCancelacionActualizanLaVista()
+    {
+		Compra compra = comprar(concierto, vip, 3);
+		comprar(festival, general, 2);
+
+		agregados.registrarReembolso(compra.getTiquetes().get(0), 50.0);
+		AgregadosIngresos.VistaOrganizador vista = agregados.getVistaOrganizador("luis");
+		assertEquals(2, vista.getLocalidad("E1", "L2").getTiquetes(), "El reembolso descuenta el tiquete de su localidad");
+		assertEquals(100.0, vista.getEvento("E1").getVentasBrutas(), 0.001, "Y su venta del evento");
+
+		agregados.registrarReembolsosCancelacion(agregados.getTiquetesVendidos("E3"), 5.0);
+		vista = agregados.getVistaOrganizador("luis");
+		assertEquals(0, vista.getEvento("E3").getTiquetes(), "La cancelación deja el festival sin ventas");
+		assertEquals(100.0, vista.getTotal().getVentasBrutas(), 0.001, "El total del organizador se ajusta");
+		assertTrue(agregados.getVistaOrganizador("nadie").getEventos().isEmpty(), "Un organizador sin ventas tiene la vista vacía");
+    }
+
+	@Test
+    void testVariantesCoincidenConPrecioDinamico()
+    {
+		for (int i = 0; i < 8; i++) {
+			festival.agregarTiquete(new Tiquete("F" + i, 50.0, festival.getFechaHora(), vip, festival));
+		}
+		vip.fijarPrecioDinamico(festival.getId(), 80.0);
+		comprar(festival, vip, 2);
+
+		assertEquals(160.0, luis.calcularGananciasEvento(festival, compras), 0.001, "Las compras suman lo cobrado");
+		assertEquals(160.0, agregados.getVistaOrganizador("luis").getEvento("E3").getVentasBrutas(), 0.001,
+					 "La vista suma lo mismo");
+		assertEquals(25.0, luis.getPorcentajeVentaEvento(festival, compras), 0.001, "2 de 8 tiquetes del festival");
+		assertEquals(25.0, luis.getPorcentajeVentaEvento(festival, agregados), 0.001, "Mismo total en las dos variantes");
+		assertEquals(8, festival.getTotalTiquetes(vip), "El total por localidad cuenta solo los tiquetes del evento");
+    }
+
+	@Test
+    void testPorcentajeIncluyeElInventarioCompacto()
+    {
+		vip.activarInventarioCompacto();
+		vip.asignarTiquetesCompactos(festival, 100);
+		comprar(festival, vip, 4);
+		assertEquals(4.0, luis.getPorcentajeVentaEvento(festival, agregados), 0.001,
+					 "Los asientos del inventario cuentan en el total del evento");
+    }
+}
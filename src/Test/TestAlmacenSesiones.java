@@ -0,0 +1,79 @@
+package Tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import modelo.usuarios.AlmacenSesiones;
+import modelo.usuarios.Comprador;
+
+public class TestAlmacenSesiones {
+
+	private Comprador ana;
+
+	@BeforeEach
+    public void setup() throws Exception {
+    	ana = new Comprador("Ana", "Ana123");
+    }
+
+	@Test
+    void testVariosDispositivos()
+    {
+		AlmacenSesiones sesiones = new AlmacenSesiones(60000, 2, 100);
+		AlmacenSesiones.Sesion celular = sesiones.abrir(ana, "celular");
+		AlmacenSesiones.Sesion portatil = sesiones.abrir(ana, "portátil");
+
+		assertNotEquals(celular.getToken(), portatil.getToken(), "Cada dispositivo tiene su token");
+		assertSame(ana, sesiones.buscar(celular.getToken()).getUsuario(), "El token del celular es de Ana");
+		assertSame(ana, sesiones.buscar(portatil.getToken()).getUsuario(), "Iniciar en otro dispositivo no cierra el primero");
+		assertNull(sesiones.buscar("token-inventado"), "Un token desconocido no abre sesión");
+
+		// Un tercer dispositivo cierra la sesión usada hace más tiempo
+		sesiones.abrir(ana, "tableta");
+		assertEquals(2, sesiones.getSesiones("Ana").size(), "Máximo dos dispositivos");
+		assertNull(sesiones.buscar(celular.getToken()), "La sesión más antigua se cerró");
+
+		assertTrue(sesiones.cerrar(portatil.getToken()), "Se cierra un solo dispositivo");
+		assertEquals(1, sesiones.cerrarTodas("Ana"), "Quedaba la sesión de la tableta");
+		assertFalse(sesiones.tieneSesion("Ana"), "Ana ya no tiene sesiones");
+		assertEquals(0, sesiones.getSesionesAbiertas(), "No quedan sesiones abiertas");
+    }
+
+	@Test
+    void testSesionInactivaVence()
+    {
+		AtomicLong reloj = new AtomicLong(System.currentTimeMillis());
+		AlmacenSesiones sesiones = new AlmacenSesiones(200, 5, 100, reloj::get);
+		AlmacenSesiones.Sesion inactiva = sesiones.abrir(ana, "celular");
+		AlmacenSesiones.Sesion activa = sesiones.abrir(new Comprador("Luis", "Luis123"), "celular");
+
+		for (int i = 0; i < 6; i++) {
+			reloj.addAndGet(50);
+			assertSame(activa, sesiones.buscar(activa.getToken()), "Usar la sesión la mantiene viva");
+		}
+		sesiones.avanzar(reloj.addAndGet(50));
+
+		assertTrue(inactiva.estaCerrada(), "La rueda cierra la sesión sin uso");
+		assertFalse(activa.estaCerrada(), "La sesión en uso sigue abierta");
+		assertEquals(1, sesiones.getSesionesAbiertas(), "Solo queda la sesión en uso");
+    }
+
+	@Test
+    void testTopeDeSesiones()
+    {
+		AlmacenSesiones sesiones = new AlmacenSesiones(60000, 5, 3);
+		for (int i = 0; i < 3; i++) {
+			sesiones.abrir(new Comprador("usuario" + i, "clave"), "celular");
+		}
+		assertNull(sesiones.abrir(ana, "celular"), "Con el tope alcanzado no se abren más sesiones");
+		assertEquals(3, sesiones.getSesionesAbiertas(), "El tope se respeta");
+    }
+}
@@ -0,0 +1,155 @@
+package Tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import modelo.eventos.CatalogoEventos;
+import modelo.eventos.ConsultaEventos;
+import modelo.eventos.Evento;
+import modelo.eventos.Localidad;
+import modelo.eventos.Oferta;
+import modelo.eventos.PaginaEventos;
+import modelo.eventos.Venue;
+import modelo.tiquetes.Tiquete;
+import modelo.usuarios.Organizador;
+
+public class TestCatalogoEventos {
+
+	private static final long UN_DIA = 24L * 60 * 60 * 1000;
+
+	private CatalogoEventos catalogo;
+	private Venue venueBarato;
+	private Venue venueCaro;
+	private Localidad general;
+	private Localidad vip;
+	private Organizador organizador;
+	private AtomicLong reloj;
+
+	@BeforeEach
+    public void setup() throws Exception {
+    	reloj = new AtomicLong(System.currentTimeMillis());
+    	catalogo = new CatalogoEventos(reloj::get);
+    	organizador = new Organizador("Pedro", "Pedro1010");
+    	venueBarato = new Venue("V001", "Auditorio Nacional", "Ciudad de México", 5000);
+    	venueCaro = new Venue("V002", "Teatro Colón", "Buenos Aires", 3000);
+    	general = new Localidad("L001", "General", false, venueBarato, 400, 50.0);
+    	vip = new Localidad("L002", "VIP", true, venueCaro, 100, 200.0);
+    	venueBarato.agregarLocalidad(general);
+    	venueCaro.agregarLocalidad(vip);
+
+    	// 12 eventos: los pares en el venue barato y los impares en el caro
+    	for (int i = 0; i < 12; i++) {
+    		Venue venue = (i % 2 == 0) ? venueBarato : venueCaro;
+    		Localidad localidad = (i % 2 == 0) ? general : vip;
+    		Date fecha = new Date(System.currentTimeMillis() + (i + 1) * UN_DIA);
+    		Evento evento = new Evento("E" + (100 + i), "Evento " + i, fecha, venue, organizador);
+    		evento.setAprobado(true);
+    		evento.agregarTiquete(new Tiquete("T" + i, localidad.getPrecioBase(), fecha, localidad, evento));
+    		catalogo.indexarEvento(evento);
+    	}
+    }
+
+	@Test
+    void testPaginacionPorFecha()
+    {
+		ConsultaEventos consulta = new ConsultaEventos();
+		consulta.setTamanoPagina(5);
+
+		ArrayList<Evento> vistos = new ArrayList<>();
+		String cursor = null;
+		do {
+			PaginaEventos pagina = catalogo.consultar(consulta, cursor);
+			vistos.addAll(pagina.getEventos());
+			cursor = pagina.getCursorSiguiente();
+		} while (cursor != null);
+
+		assertEquals(12, vistos.size(), "Deben recorrerse todos los eventos");
+		for (int i = 1; i < vistos.size(); i++) {
+			assertTrue(vistos.get(i - 1).getFechaHora().before(vistos.get(i).getFechaHora()), "El orden por fecha es incorrecto");
+		}
+    }
+
+	@Test
+    void testFiltroPrecioMaximo()
+    {
+		ConsultaEventos consulta = new ConsultaEventos();
+		consulta.setOrdenarPorPrecio(true);
+		consulta.setPrecioMaximo(80.0);
+
+		PaginaEventos pagina = catalogo.consultar(consulta, null);
+		assertEquals(6, pagina.getTamano(), "Solo los eventos del venue barato cumplen");
+		for (Evento evento : pagina.getEventos()) {
+			assertEquals(venueBarato, evento.getVenue(), "Venue incorrecto");
+		}
+		assertFalse(pagina.tieneSiguiente(), "No debe haber otra página");
+    }
+
+	@Test
+    void testOfertaQueEmpiezaDespuesDeIndexar()
+    {
+		long ahora = reloj.get();
+		Evento evento = catalogo.consultar(new ConsultaEventos(), null).getEventos().get(0);
+		general.agregarOferta(new Oferta("O1", "Preventa", 0.5, new Date(ahora + 150), new Date(ahora + UN_DIA), evento, general));
+		catalogo.actualizarPreciosVenue(venueBarato);
+
+		ConsultaEventos consulta = new ConsultaEventos();
+		consulta.setOrdenarPorPrecio(true);
+		consulta.setPrecioMaximo(30.0);
+		assertTrue(catalogo.consultar(consulta, null).estaVacia(), "La oferta todavía no empieza");
+
+		reloj.addAndGet(300);
+		assertEquals(6, catalogo.consultar(consulta, null).getTamano(), "Al empezar la oferta los eventos se reindexan");
+    }
+
+	@Test
+    void testFiltroVentanaYTipoLocalidad()
+    {
+		ConsultaEventos consulta = new ConsultaEventos();
+		consulta.setDesde(new Date());
+		consulta.setHasta(new Date(System.currentTimeMillis() + 4 * UN_DIA + UN_DIA / 2));
+		consulta.setTipoLocalidad("VIP");
+
+		PaginaEventos pagina = catalogo.consultar(consulta, null);
+		assertEquals(2, pagina.getTamano(), "Solo los eventos VIP de los próximos 4 días");
+    }
+
+	@Test
+    void testCursorEstableAlAgregarEventos()
+    {
+		ConsultaEventos consulta = new ConsultaEventos();
+		consulta.setTamanoPagina(3);
+		PaginaEventos primera = catalogo.consultar(consulta, null);
+		assertNotNull(primera.getCursorSiguiente(), "Debe haber cursor");
+
+		// Un evento anterior a la última posición no altera la página siguiente
+		Evento nuevo = new Evento("E000", "Nuevo", new Date(System.currentTimeMillis() + UN_DIA / 2), venueBarato, organizador);
+		nuevo.setAprobado(true);
+		nuevo.agregarTiquete(new Tiquete("TN", 50.0, nuevo.getFechaHora(), general, nuevo));
+		catalogo.indexarEvento(nuevo);
+
+		PaginaEventos segunda = catalogo.consultar(consulta, primera.getCursorSiguiente());
+		assertEquals("E103", segunda.getEventos().get(0).getId(), "La página siguiente cambió");
+    }
+
+	@Test
+    void testCursorInvalido()
+    {
+		ConsultaEventos consulta = new ConsultaEventos();
+		consulta.setTamanoPagina(3);
+		String cursorFecha = catalogo.consultar(consulta, null).getCursorSiguiente();
+		consulta.setOrdenarPorPrecio(true);
+		assertThrows(IllegalArgumentException.class, () -> catalogo.consultar(consulta, cursorFecha));
+		assertThrows(IllegalArgumentException.class, () -> catalogo.consultar(consulta, "no-es-un-cursor"));
+		assertFalse(catalogo.consultar(consulta, null).estaVacia(), "Debe haber resultados");
+    }
+}
@@ -0,0 +1,79 @@
+package Tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import modelo.eventos.CerrojosLocalidad;
+import modelo.eventos.Evento;
+import modelo.eventos.Localidad;
+import modelo.eventos.Venue;
+import modelo.usuarios.Comprador;
+import modelo.usuarios.Organizador;
+
+public class TestCerrojosLocalidad {
+
+	private Venue venue;
+	private Evento evento;
+
+	@BeforeEach
+    public void setup() throws Exception {
+    	venue = new Venue("V001", "Estadio Atanasio Girardot", "Medellín", 10000);
+    	evento = new Evento("E001", "Clásico", new Date(System.currentTimeMillis() + 86400000L), venue,
+    			new Organizador("Pedro", "Pedro1010"));
+    	evento.aprobar();
+    }
+
+	@Test
+    void testMismaLocalidadMismoCerrojo()
+    {
+		Localidad norte = new Localidad("L001", "Norte", false, venue, 100, 10.0);
+		Localidad sur = new Localidad("L002", "Sur", false, venue, 100, 10.0);
+		assertSame(CerrojosLocalidad.de(norte), CerrojosLocalidad.de(norte), "Una localidad usa siempre su cerrojo");
+		assertNotSame(CerrojosLocalidad.de(norte), CerrojosLocalidad.de(sur), "Localidades distintas no deben competir");
+    }
+
+	@Test
+    void testComprasConcurrentesNoSobrevenden() throws Exception
+    {
+		Localidad general = new Localidad("L003", "General", false, venue, 5000, 10.0);
+		general.asignarTiquetesCompactos(evento, 5000);
+
+		// 64 compradores piden 100 tiquetes cada uno: solo caben 50 compras
+		AtomicInteger comprasExitosas = new AtomicInteger();
+		CountDownLatch salida = new CountDownLatch(1);
+		ArrayList<Thread> hilos = new ArrayList<>();
+		for (int h = 0; h < 64; h++) {
+			Comprador comprador = new Comprador("comprador" + h, "clave");
+			comprador.agregarSaldo(100000);
+			Thread hilo = new Thread(() -> {
+				try {
+					salida.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				if (!comprador.comprarTiquete(evento, general, 100, 0, 0).isEmpty()) {
+					comprasExitosas.incrementAndGet();
+				}
+			});
+			hilos.add(hilo);
+			hilo.start();
+		}
+		salida.countDown();
+		for (Thread hilo : hilos) {
+			hilo.join();
+		}
+
+		assertEquals(50, comprasExitosas.get(), "Solo caben 50 compras de 100");
+		assertEquals(5000, general.getInventario(evento).getVendidos(), "Vendidos incorrectos");
+		assertEquals(0, general.getTiquetesDisponibles(evento), "No pueden quedar ni faltar asientos");
+    }
+}
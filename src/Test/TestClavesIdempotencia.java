@@ -0,0 +1,131 @@
+package Tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import modelo.pagos.ClavesIdempotencia;
+
+public class TestClavesIdempotencia {
+
+	private File diario;
+	private AtomicInteger cobros;
+
+	@BeforeEach
+    public void setup() throws Exception {
+    	diario = File.createTempFile("claves", ".csv");
+    	diario.delete();
+    	cobros = new AtomicInteger();
+    }
+
+	@AfterEach
+    public void limpiar() {
+    	diario.delete();
+    }
+
+	private String comprar(ClavesIdempotencia claves, String clave) {
+		return claves.ejecutar(clave, "COMPRAR", () -> "COMP-" + cobros.incrementAndGet(), id -> id, id -> id);
+	}
+
+	@Test
+    void testReintentoNoCobraDosVeces()
+    {
+		ClavesIdempotencia claves = new ClavesIdempotencia(60000, 100, diario);
+		String primera = comprar(claves, "Ana|k1");
+		String reintento = comprar(claves, "Ana|k1");
+
+		assertEquals(primera, reintento, "El reintento recibe la compra original");
+		assertEquals(1, cobros.get(), "Solo se cobra una vez");
+		assertEquals("COMP-2", comprar(claves, "Ana|k2"), "Otra clave es otra compra");
+		assertNull(claves.ejecutar("Ana|k1", "REVENTA", () -> "x", id -> id, id -> id),
+				   "La clave no sirve para otra operación");
+    }
+
+	@Test
+    void testReintentosConcurrentes() throws Exception
+    {
+		ClavesIdempotencia claves = new ClavesIdempotencia(60000, 100, diario);
+		CountDownLatch salida = new CountDownLatch(1);
+		ArrayList<String> resultados = new ArrayList<>();
+		ArrayList<Thread> hilos = new ArrayList<>();
+		for (int h = 0; h < 16; h++) {
+			Thread hilo = new Thread(() -> {
+				try {
+					salida.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				String resultado = claves.ejecutar("Ana|k1", "COMPRAR", () -> {
+					try {
+						Thread.sleep(20); // la primera sigue en curso cuando llegan las demás
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					return "COMP-" + cobros.incrementAndGet();
+				}, id -> id, id -> id);
+				synchronized (resultados) {
+					resultados.add(resultado);
+				}
+			});
+			hilos.add(hilo);
+			hilo.start();
+		}
+		salida.countDown();
+		for (Thread hilo : hilos) {
+			hilo.join();
+		}
+
+		assertEquals(1, cobros.get(), "La operación se ejecuta una sola vez");
+		for (String resultado : resultados) {
+			assertEquals("COMP-1", resultado, "Todos reciben el mismo resultado");
+		}
+    }
+
+	@Test
+    void testFalloSePuedeReintentar()
+    {
+		ClavesIdempotencia claves = new ClavesIdempotencia(60000, 100, diario);
+		Boolean fallo = claves.ejecutar("Ana|k1", "REVENTA", () -> false, ok -> ok ? "true" : null, r -> true);
+		assertFalse(fallo, "La primera ejecución falla");
+		assertFalse(claves.contiene("Ana|k1"), "Un fallo no se recuerda");
+		Boolean exito = claves.ejecutar("Ana|k1", "REVENTA", () -> true, ok -> ok ? "true" : null, r -> true);
+		assertTrue(exito, "El reintento sí se ejecuta");
+    }
+
+	@Test
+    void testTopeVencimientoYDiario() throws Exception
+    {
+		ClavesIdempotencia claves = new ClavesIdempotencia(60000, 3, diario);
+		for (int i = 0; i < 5; i++) {
+			comprar(claves, "Ana|k" + i);
+		}
+		comprar(claves, "Ana|k5");
+		assertTrue(claves.getCantidad() <= 3, "El caché respeta su tamaño máximo");
+		assertFalse(claves.contiene("Ana|k0"), "Se descartan primero las claves más antiguas");
+
+		// Tras un reinicio, las claves vigentes se recuperan del diario
+		ClavesIdempotencia reiniciadas = new ClavesIdempotencia(60000, 100, diario);
+		assertEquals(6, reiniciadas.cargar(), "Se cargan las claves anotadas");
+		assertEquals("COMP-4", comprar(reiniciadas, "Ana|k3"), "El reintento tras reiniciar no cobra");
+		assertEquals(6, cobros.get(), "No hubo cobros nuevos");
+
+		AtomicLong reloj = new AtomicLong(System.currentTimeMillis());
+		ClavesIdempotencia cortas = new ClavesIdempotencia(100, 100, null, reloj::get);
+		comprar(cortas, "Ana|k9");
+		reloj.addAndGet(150);
+		assertFalse(cortas.contiene("Ana|k9"), "Las claves vencen");
+		comprar(cortas, "Ana|k9");
+		assertEquals(8, cobros.get(), "Una clave vencida vuelve a ejecutar la operación");
+    }
+}
@@ -0,0 +1,133 @@
+package Tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import modelo.eventos.Evento;
+import modelo.eventos.Venue;
+import modelo.persistencia.ColaAprobaciones;
+import modelo.persistencia.ColaAprobaciones.TipoPendiente;
+import modelo.persistencia.GestorPersistencia;
+import modelo.persistencia.Solicitud;
+import modelo.usuarios.Administrador;
+import modelo.usuarios.Organizador;
+
+public class TestColaAprobaciones {
+
+	private GestorPersistencia gestor;
+	private ColaAprobaciones cola;
+	private Administrador admin;
+	private Organizador ana;
+	private Organizador luis;
+	private Venue estadio;
+
+	@BeforeEach
+    public void setup() throws Exception {
+    	gestor = new GestorPersistencia();
+    	cola = new ColaAprobaciones(gestor);
+    	admin = new Administrador("admin", "admin123");
+    	ana = new Organizador("ana", "ana123");
+    	luis = new Organizador("luis", "luis123");
+    	estadio = new Venue("V1", "Estadio", "San José", 5000);
+    	estadio.aprobar();
+    	gestor.agregarVenue(estadio);
+    	Venue teatro = new Venue("V2", "Teatro", "Cartago", 800);
+    	teatro.aprobar();
+    	gestor.agregarVenue(teatro);
+    	for (int i = 0; i < 45; i++) {
+    		Organizador organizador = i % 3 == 0 ? luis : ana;
+    		Venue venue = i % 2 == 0 ? estadio : teatro;
+    		Date fecha = new Date(System.currentTimeMillis() + (i + 1) * 86400000L);
+    		Evento evento = new Evento(String.format("E%03d", i), "Evento " + i, fecha, venue, organizador);
+    		venue.programarEventoVerificado(evento, fecha);
+    		gestor.agregarEvento(evento);
+    	}
+    }
+
+	@Test
+    void testPaginasYFiltros()
+    {
+		ColaAprobaciones.Pagina primera = cola.listar(TipoPendiente.EVENTO, null, null, null, 20);
+		assertEquals(45, primera.getTotal(), "Todos los eventos están pendientes");
+		assertEquals(20, primera.getPendientes().size(), "Página de 20");
+		assertEquals("E000", primera.getPendientes().get(0).getId(), "Orden por id");
+
+		ColaAprobaciones.Pagina segunda = cola.listar(TipoPendiente.EVENTO, null, null, primera.getCursorSiguiente(), 20);
+		ColaAprobaciones.Pagina tercera = cola.listar(TipoPendiente.EVENTO, null, null, segunda.getCursorSiguiente(), 20);
+		assertEquals("E020", segunda.getPendientes().get(0).getId(), "La segunda página sigue a la primera");
+		assertEquals(5, tercera.getPendientes().size(), "Quedan 5 en la última página");
+		assertFalse(tercera.tieneSiguiente(), "No hay más páginas");
+
+		assertEquals(15, cola.listar(TipoPendiente.EVENTO, "luis", null, null, 100).getTotal(), "Filtro por organizador");
+		assertEquals(8, cola.listar(TipoPendiente.EVENTO, "luis", "V1", null, 100).getTotal(), "Filtro por organizador y venue");
+    }
+
+	@Test
+    void testAprobarYRechazarEnLote()
+    {
+		ArrayList<String> deLuis = new ArrayList<>();
+		for (ColaAprobaciones.Pendiente pendiente : cola.listar(TipoPendiente.EVENTO, "luis", null, null, 100).getPendientes()) {
+			deLuis.add(pendiente.getId());
+		}
+		ColaAprobaciones.ResultadoLote aprobados = cola.resolver(admin, TipoPendiente.EVENTO, deLuis, true, null);
+		assertEquals(15, aprobados.getCantidadResueltos(), "Se aprueban los 15 eventos de Luis");
+		assertTrue(gestor.buscarEventoPorId("E000").estaActivo(), "El evento aprobado queda activo");
+		assertEquals(30, cola.listar(TipoPendiente.EVENTO, null, null, null, 100).getTotal(), "Quedan los de Ana");
+
+		ColaAprobaciones.ResultadoLote rechazados = cola.resolver(admin, TipoPendiente.EVENTO,
+			Arrays.asList("E001", "E002", "E000", "E999"), false, null);
+		assertEquals(2, rechazados.getCantidadResueltos(), "Solo se rechazan los pendientes");
+		assertEquals(2, rechazados.getNoEncontrados().size(), "E000 ya estaba aprobado y E999 no existe");
+		Evento rechazado = gestor.buscarEventoPorId("E002");
+		assertTrue(rechazado.isCancelado(), "El evento rechazado sale de la cola");
+		assertNull(estadio.getEventoParaFecha(rechazado.getFechaHora()), "El rechazo libera la fecha del venue");
+    }
+
+	@Test
+    void testVenuesYSolicitudes()
+    {
+		Venue sugerido = ana.sugerirVenue("V9", "Parque", "Alajuela", 2000);
+		Venue otro = ana.sugerirVenue("V10", "Bodega", "Heredia", 300);
+		gestor.agregarVenue(sugerido);
+		gestor.agregarVenue(otro);
+		assertEquals(2, cola.listar(TipoPendiente.VENUE, null, null, null, 10).getTotal(), "Dos venues sugeridos");
+
+		cola.resolver(admin, TipoPendiente.VENUE, Arrays.asList("V9"), true, null);
+		cola.resolver(admin, TipoPendiente.VENUE, Arrays.asList("V10"), false, null);
+		assertTrue(sugerido.isAprobado(), "El venue aprobado se puede usar");
+		assertNull(gestor.buscarVenuePorId("V10"), "El venue rechazado se retira");
+
+		Solicitud solicitud = new Solicitud("S1", Solicitud.TipoSolicitud.APROBACION_EVENTO, new Date(), ana, "Aprobar E001");
+		solicitud.setEvento(gestor.buscarEventoPorId("E001"));
+		gestor.agregarSolicitud(solicitud);
+		assertEquals(1, cola.listar(TipoPendiente.SOLICITUD, "ana", "V2", null, 10).getTotal(), "La solicitud se filtra por el venue de su evento");
+
+		cola.resolver(admin, TipoPendiente.SOLICITUD, Arrays.asList("S1"), true, "Aprobado");
+		assertFalse(solicitud.estaPendiente(), "La solicitud quedó resuelta");
+		assertTrue(gestor.buscarEventoPorId("E001").estaActivo(), "Aprobar la solicitud aprueba su evento");
+    }
+
+	@Test
+    void testSolicitudSobreEventoYaDecididoNoLoToca()
+    {
+		Evento evento = gestor.buscarEventoPorId("E002");
+		cola.resolver(admin, TipoPendiente.EVENTO, Arrays.asList("E002"), true, null);
+		Solicitud solicitud = new Solicitud("S2", Solicitud.TipoSolicitud.APROBACION_EVENTO, new Date(), ana, "Aprobar E002");
+		solicitud.setEvento(evento);
+		gestor.agregarSolicitud(solicitud);
+
+		cola.resolver(admin, TipoPendiente.SOLICITUD, Arrays.asList("S2"), false, "Rechazada");
+		assertFalse(solicitud.estaPendiente(), "La solicitud quedó resuelta");
+		assertTrue(evento.estaActivo(), "Rechazar la solicitud tardía no cancela un evento ya aprobado");
+		assertFalse(estadio.estaDisponible(evento.getFechaHora()), "Ni libera su fecha en el venue");
+    }
+}
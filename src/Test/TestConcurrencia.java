@@ -0,0 +1,116 @@
+package Tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import modelo.persistencia.GestorPersistencia;
+import modelo.persistencia.ProcesoEntreUsuarios;
+import modelo.tiquetes.RegistroPropiedad;
+import modelo.tiquetes.Tiquete;
+import modelo.usuarios.Comprador;
+
+public class TestConcurrencia {
+
+	private static final int HILOS = 64;
+
+	private GestorPersistencia gestor;
+	private Comprador comprador;
+
+	@BeforeEach
+    public void setup() throws Exception {
+    	gestor = new GestorPersistencia();
+    	comprador = new Comprador("Ana", "Ana123");
+    }
+
+	@Test
+    void testSinActualizacionesPerdidasEnElGestor() throws Exception
+    {
+		AtomicInteger registrosExitosos = new AtomicInteger();
+		ejecutarEnParalelo(hilo -> {
+			for (int i = 0; i < 100; i++) {
+				gestor.agregarProceso(new ProcesoEntreUsuarios("P-" + hilo + "-" + i,
+						ProcesoEntreUsuarios.TipoProceso.COMPRA_TIQUETE, new Date(), comprador));
+			}
+			gestor.agregarUsuarioNuevo(new Comprador("usuario" + hilo, "clave"));
+			if (gestor.agregarUsuarioNuevo(new Comprador("repetido", "clave"))) {
+				registrosExitosos.incrementAndGet();
+			}
+		});
+
+		assertEquals(HILOS * 100, gestor.getProcesos().size(), "Se perdieron procesos");
+		assertEquals(HILOS + 1, gestor.getUsuarios().size(), "Usuarios incorrectos");
+		assertEquals(1, registrosExitosos.get(), "El login repetido solo se registra una vez");
+    }
+
+	@Test
+    void testSaldoSinActualizacionesPerdidas() throws Exception
+    {
+		comprador.agregarSaldo(1000);
+		AtomicInteger cobrosExitosos = new AtomicInteger();
+		ejecutarEnParalelo(hilo -> {
+			for (int i = 0; i < 1000; i++) {
+				comprador.agregarSaldo(1);
+			}
+			for (int i = 0; i < 1000; i++) {
+				if (comprador.descontarSaldo(1)) {
+					cobrosExitosos.incrementAndGet();
+				}
+			}
+		});
+
+		assertEquals(HILOS * 1000 + 1000 - cobrosExitosos.get(), comprador.getSaldoVirtual(), 0.001, "Saldo inconsistente");
+		assertEquals(HILOS * 1000, cobrosExitosos.get(), "Todos los cobros tenían saldo");
+    }
+
+	@Test
+    void testHistorialYRegistroConcurrentes() throws Exception
+    {
+		RegistroPropiedad registro = new RegistroPropiedad();
+		ejecutarEnParalelo(hilo -> {
+			for (int i = 0; i < 200; i++) {
+				Tiquete tiquete = new Tiquete("TQ-" + hilo + "-" + i, 50.0, new Date(), null, null);
+				comprador.agregarTiqueteAlHistorial(tiquete);
+				registro.registrar(tiquete, comprador, RegistroPropiedad.TipoTraspaso.COMPRA);
+			}
+		});
+
+		assertEquals(HILOS * 200, comprador.getHistorialTiquetes().size(), "Se perdieron tiquetes del historial");
+		assertEquals(HILOS * 200, registro.getCantidadTiquetes(), "Se perdieron tiquetes del registro");
+    }
+
+	private interface Tarea {
+		void ejecutar(int hilo);
+	}
+
+	/**
+	 * Lanza la tarea en todos los hilos a la vez y espera a que terminen
+	 */
+	private void ejecutarEnParalelo(Tarea tarea) throws Exception {
+		CountDownLatch salida = new CountDownLatch(1);
+		ArrayList<Thread> hilos = new ArrayList<>();
+		for (int h = 0; h < HILOS; h++) {
+			int hilo = h;
+			Thread thread = new Thread(() -> {
+				try {
+					salida.await();
+					tarea.ejecutar(hilo);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+			hilos.add(thread);
+			thread.start();
+		}
+		salida.countDown();
+		for (Thread thread : hilos) {
+			thread.join();
+		}
+	}
+}
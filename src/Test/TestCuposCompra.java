@@ -0,0 +1,120 @@
+package Tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import modelo.eventos.Evento;
+import modelo.eventos.Localidad;
+import modelo.eventos.Venue;
+import modelo.pagos.Compra;
+import modelo.pagos.CuposCompra;
+import modelo.tiquetes.Tiquete;
+import modelo.usuarios.Comprador;
+import modelo.usuarios.Organizador;
+
+public class TestCuposCompra {
+
+	private CuposCompra cupos;
+
+	@BeforeEach
+    public void setup() throws Exception {
+    	cupos = new CuposCompra();
+    }
+
+	@Test
+    void testSesionesParalelasNoSuperanElCupo() throws Exception
+    {
+		// 64 sesiones del mismo comprador intentan apartar 3 tiquetes cada una
+		AtomicInteger aprobadas = new AtomicInteger();
+		CountDownLatch salida = new CountDownLatch(1);
+		ArrayList<Thread> hilos = new ArrayList<>();
+		for (int h = 0; h < 64; h++) {
+			Thread hilo = new Thread(() -> {
+				try {
+					salida.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				if (cupos.apartar("E001", "revendedor", 3)) {
+					aprobadas.incrementAndGet();
+				}
+			});
+			hilos.add(hilo);
+			hilo.start();
+		}
+		salida.countDown();
+		for (Thread hilo : hilos) {
+			hilo.join();
+		}
+
+		assertEquals(3, aprobadas.get(), "Con cupo de 10 solo caben 3 compras de 3");
+		assertEquals(9, cupos.getApartados("E001", "revendedor"), "Apartados incorrectos");
+		assertEquals(1, cupos.getDisponibles("E001", "revendedor"), "Queda un tiquete de cupo");
+    }
+
+	@Test
+    void testReembolsoDevuelveCupo()
+    {
+		assertTrue(cupos.apartar("E001", "Ana", 10), "Ana puede comprar 10");
+		assertFalse(cupos.apartar("E001", "Ana", 1), "Ana llegó a su cupo");
+		assertTrue(cupos.apartar("E002", "Ana", 10), "El cupo es por evento");
+		assertTrue(cupos.apartar("E001", "Luis", 10), "El cupo es por comprador");
+
+		cupos.liberar("E001", "Ana", 2);
+		assertTrue(cupos.apartar("E001", "Ana", 2), "El reembolso devuelve cupo");
+		cupos.liberar("E001", "Ana", 50);
+		assertEquals(0, cupos.getApartados("E001", "Ana"), "El contador no baja de cero");
+    }
+
+	@Test
+    void testCupoPorEvento()
+    {
+		cupos.setCupo("E001", 4);
+		assertFalse(cupos.apartar("E001", "Ana", 5), "El evento solo permite 4 por comprador");
+		assertTrue(cupos.apartar("E001", "Ana", 4), "Caben 4");
+		assertEquals(CuposCompra.CUPO_POR_DEFECTO, cupos.getCupo("E002"), "Los demás eventos usan el cupo por defecto");
+    }
+
+	@Test
+    void testSobreviveAlReinicio() throws Exception
+    {
+		File diario = File.createTempFile("cupos", ".csv");
+		diario.delete();
+		try {
+			new CuposCompra(diario).setCupo("E001", 4);
+
+			Venue venue = new Venue("V1", "Estadio", "San José", 1000);
+			Localidad general = new Localidad("L1", "General", false, venue, 100, 20.0);
+			Evento evento = new Evento("E001", "Concierto", new Date(System.currentTimeMillis() + 86400000L), venue,
+									   new Organizador("luis", "luis123"));
+			ArrayList<Tiquete> tiquetes = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				tiquetes.add(new Tiquete("T" + i, 20.0, evento.getFechaHora(), general, evento));
+			}
+			Compra compra = new Compra("C1", new Date(), 60.0, tiquetes, new Comprador("Ana", "ana123"));
+			compra.setEstado("aprobada");
+			tiquetes.get(0).marcarComoUtilizado(); // reembolsado
+
+			CuposCompra reiniciado = new CuposCompra(diario);
+			assertEquals(1, reiniciado.cargar(), "Se carga el cupo fijado");
+			reiniciado.reconstruir(Arrays.asList(compra));
+			assertEquals(4, reiniciado.getCupo("E001"), "El cupo del evento sobrevive");
+			assertEquals(2, reiniciado.getApartados("E001", "Ana"), "Solo cuentan los tiquetes vigentes");
+			assertFalse(reiniciado.apartar("E001", "Ana", 3), "El cupo sigue valiendo tras reiniciar");
+			assertTrue(reiniciado.apartar("E001", "Ana", 2), "Caben los que faltan");
+		} finally {
+			diario.delete();
+		}
+    }
+}
@@ -0,0 +1,98 @@
+package Tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+import modelo.GeneradorIds;
+
+public class TestGeneradorIds {
+
+	@Test
+    void testIdsUnicosEntreHilos() throws Exception
+    {
+		GeneradorIds generador = new GeneradorIds(7);
+		Set<Long> ids = ConcurrentHashMap.newKeySet();
+		CountDownLatch salida = new CountDownLatch(1);
+		ArrayList<Thread> hilos = new ArrayList<>();
+		for (int h = 0; h < 8; h++) {
+			Thread hilo = new Thread(() -> {
+				try {
+					salida.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				long anterior = -1;
+				for (int i = 0; i < 20000; i++) {
+					long id = generador.siguiente();
+					assertTrue(id > anterior, "Los ids de un hilo son crecientes");
+					anterior = id;
+					ids.add(id);
+				}
+			});
+			hilos.add(hilo);
+			hilo.start();
+		}
+		salida.countDown();
+		for (Thread hilo : hilos) {
+			hilo.join();
+		}
+		// 160 000 ids caen en muy pocos milisegundos: antes colisionaban casi todos
+		assertEquals(160000, ids.size(), "Ningún id se repite");
+    }
+
+	@Test
+    void testPartesDelId()
+    {
+		long antes = System.currentTimeMillis();
+		long id = new GeneradorIds(513).siguiente();
+		long despues = System.currentTimeMillis();
+
+		assertTrue(id > 0, "El id cabe en 63 bits");
+		assertEquals(513, GeneradorIds.getNodo(id), "El nodo va dentro del id");
+		long marca = GeneradorIds.getMarcaTiempo(id);
+		assertTrue(marca >= antes && marca <= despues, "La marca de tiempo es la de generación");
+		assertNotEquals(new GeneradorIds(1).siguiente(), new GeneradorIds(2).siguiente(),
+						"Nodos distintos no generan el mismo id");
+		assertThrows(IllegalArgumentException.class, () -> new GeneradorIds(1024), "Solo hay 1024 nodos");
+    }
+
+	@Test
+    void testTextoBase32()
+    {
+		GeneradorIds generador = new GeneradorIds(3);
+		String anterior = "";
+		for (int i = 0; i < 1000; i++) {
+			long id = generador.siguiente();
+			String texto = GeneradorIds.aBase32(id);
+			assertEquals(13, texto.length(), "Ancho fijo");
+			assertEquals(id, GeneradorIds.deBase32(texto), "El texto se convierte de vuelta al id");
+			assertTrue(texto.compareTo(anterior) > 0, "El orden alfabético es el de generación");
+			anterior = texto;
+		}
+		assertTrue(generador.siguiente("COMP").startsWith("COMP-"), "El prefijo se conserva");
+		assertThrows(IllegalArgumentException.class, () -> GeneradorIds.deBase32("NO-ES-UN-ID!!"), "Texto inválido");
+		assertEquals(Long.MAX_VALUE, GeneradorIds.deBase32(GeneradorIds.aBase32(Long.MAX_VALUE)), "El mayor id cabe");
+		assertThrows(IllegalArgumentException.class, () -> GeneradorIds.deBase32("8000000000000"), "No cabe en 64 bits");
+    }
+
+	@Test
+    void testNodosArrendadosNoSeRepiten() throws Exception
+    {
+		File directorio = Files.createTempDirectory("nodos").toFile();
+		long primero = GeneradorIds.arrendarNodo(directorio);
+		long segundo = GeneradorIds.arrendarNodo(directorio);
+		assertNotEquals(primero, segundo, "Mientras el primer arriendo siga vivo, su nodo no se entrega de nuevo");
+		assertTrue(new File(directorio, "nodo-" + primero + ".lock").exists(), "Cada nodo arrendado tiene su archivo");
+    }
+}
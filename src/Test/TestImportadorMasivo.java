@@ -0,0 +1,134 @@
+package Tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import modelo.eventos.Evento;
+import modelo.persistencia.GestorPersistencia;
+import modelo.persistencia.ImportadorMasivo;
+import modelo.usuarios.Organizador;
+
+public class TestImportadorMasivo {
+
+	private GestorPersistencia gestor;
+
+	@BeforeEach
+    public void setup() throws Exception {
+    	gestor = new GestorPersistencia();
+    	gestor.agregarUsuario(new Organizador("promotor1", "promo123"));
+    }
+
+	@Test
+    void testImportarCsv() throws Exception
+    {
+		String csv = "# temporada 2030\n" +
+					 "VENUE,V100,\"Arena, Sur\",Cartago,3000\n" +
+					 "LOCALIDAD,L100,V100,General,false,200,40.0\n" +
+					 "EVENTO,E100,Concierto,2030-03-01 20:00:00,V100,promotor1\n" +
+					 "EVENTO,E101,Teatro,2030-03-02 20:00:00,V100,promotor1\n" +
+					 "TIQUETES,E100,L100,50,40.0\n" +
+					 "TIQUETES,E101,L100,30,45.0\n";
+		ImportadorMasivo.Resultado resultado = new ImportadorMasivo(gestor).importar(new StringReader(csv), false);
+
+		assertTrue(resultado.isAplicado(), "La importación se aplica: " + resultado.getErrores());
+		assertEquals(1, resultado.getVenues(), "Un venue");
+		assertEquals(2, resultado.getEventos(), "Dos eventos");
+		assertEquals(80, resultado.getTiquetes(), "80 tiquetes");
+		assertEquals("Arena, Sur", gestor.buscarVenuePorId("V100").getNombre(), "Los valores entre comillas pueden tener comas");
+		Evento concierto = gestor.buscarEventoPorId("E100");
+		assertNotNull(concierto, "El evento quedó en el gestor");
+		assertEquals(50, concierto.getTiquetesDisponibles(), "El evento tiene sus tiquetes");
+		assertEquals(1, gestor.buscarVenuePorId("V100").getLocalidades().size(), "La localidad quedó en su venue");
+    }
+
+	@Test
+    void testErroresPorLineaNoAplicanNada() throws Exception
+    {
+		String csv = "VENUE,V200,Coliseo,Heredia,1000\n" +
+					 "LOCALIDAD,L200,V200,General,false,100,20.0\n" +
+					 "EVENTO,E200,Feria,2030-04-01 10:00:00,V999,promotor1\n" +
+					 "EVENTO,E201,Feria,2030-04-01 10:00:00,V200,nadie\n" +
+					 "EVENTO,E202,Feria,fecha-mala,V200,promotor1\n" +
+					 "EVENTO,E203,Feria,2030-04-02 10:00:00,V200,promotor1\n" +
+					 "EVENTO,E204,Otra,2030-04-02 18:00:00,V200,promotor1\n" +
+					 "TIQUETES,E203,L200,150,20.0\n" +
+					 "BOLETA,x\n";
+		ImportadorMasivo.Resultado resultado = new ImportadorMasivo(gestor).importar(new StringReader(csv), false);
+
+		assertFalse(resultado.isAplicado(), "Con errores no se aplica nada");
+		ArrayList<String> errores = resultado.getErrores();
+		assertEquals(6, errores.size(), "Un error por línea inválida: " + errores);
+		assertTrue(errores.get(0).startsWith("Línea 3:"), "El error indica la línea");
+		assertTrue(errores.get(3).contains("ya tiene un evento ese día"), "Un venue no tiene dos eventos el mismo día");
+		assertTrue(errores.get(4).contains("cupo"), "No se asignan más tiquetes que la capacidad");
+		assertEquals(null, gestor.buscarVenuePorId("V200"), "El venue válido tampoco se importó");
+		assertTrue(gestor.getEventos().isEmpty(), "No se importó ningún evento");
+    }
+
+	@Test
+    void testPrecioDistintoEnInventarioCompacto() throws Exception
+    {
+		String csv = "VENUE,V400,Estadio,Limón,20000\n" +
+					 "LOCALIDAD,L400,V400,General,false,10000,35.0\n" +
+					 "EVENTO,E400,Clásico,2030-06-01 19:00:00,V400,promotor1\n" +
+					 "TIQUETES,E400,L400,5000,35.0\n" +
+					 "TIQUETES,E400,L400,100,50.0\n";
+		ImportadorMasivo.Resultado resultado = new ImportadorMasivo(gestor).importar(new StringReader(csv), false);
+
+		assertFalse(resultado.isAplicado(), "Un precio que el inventario no puede guardar no se ignora");
+		assertEquals(1, resultado.getErrores().size(), "Solo la línea con otro precio falla: " + resultado.getErrores());
+		assertTrue(resultado.getErrores().get(0).startsWith("Línea 5:"), "El error indica la línea");
+		assertTrue(resultado.getErrores().get(0).contains("precio base"), "El error explica el precio esperado");
+    }
+
+	@Test
+    void testImportarJsonLines() throws Exception
+    {
+		String jsonl = "{\"tipo\":\"VENUE\",\"id\":\"V301\",\"nombre\":{\"a\":1}}\n" +
+					   "{\"tipo\":\"LOCALIDAD\",\"id\":\"L300\"\n";
+		ImportadorMasivo.Resultado resultado = new ImportadorMasivo(gestor).importar(new StringReader(jsonl), true);
+		assertFalse(resultado.isAplicado(), "Las líneas JSON mal formadas no se importan");
+		assertEquals(2, resultado.getErrores().size(), "Un error por línea mal formada");
+
+		jsonl = "{\"tipo\":\"VENUE\",\"id\":\"V300\",\"nombre\":\"Estadio \\\"Norte\\\"\",\"ubicacion\":\"Liberia\",\"capacidad\":50000}\n" +
+				"{\"tipo\":\"EVENTO\",\"id\":\"E300\",\"nombre\":\"Final\",\"fechaHora\":\"2030-05-01 19:00:00\",\"venueId\":\"V300\",\"organizadorLogin\":\"promotor1\"}\n";
+		resultado = new ImportadorMasivo(gestor).importar(new StringReader(jsonl), true);
+		assertTrue(resultado.isAplicado(), "La importación JSON se aplica: " + resultado.getErrores());
+		assertEquals("Estadio \"Norte\"", gestor.buscarVenuePorId("V300").getNombre(), "Los escapes JSON se respetan");
+    }
+
+	@Test
+    void testDiezMilEventos() throws Exception
+    {
+		StringBuilder csv = new StringBuilder();
+		for (int v = 0; v < 100; v++) {
+			csv.append("VENUE,VM").append(v).append(",Venue ").append(v).append(",Ciudad,1000\n");
+			csv.append("LOCALIDAD,LM").append(v).append(",VM").append(v).append(",General,false,1000,30.0\n");
+		}
+		for (int e = 0; e < 10000; e++) {
+			int v = e % 100;
+			int dia = e / 100;
+			String fecha = String.format("2031-%02d-%02d 20:00:00", dia / 28 + 1, dia % 28 + 1);
+			csv.append("EVENTO,EM").append(e).append(",Evento ").append(e).append(",").append(fecha)
+			   .append(",VM").append(v).append(",promotor1\n");
+			csv.append("TIQUETES,EM").append(e).append(",LM").append(v).append(",5,30.0\n");
+		}
+
+		long inicio = System.currentTimeMillis();
+		ImportadorMasivo.Resultado resultado = new ImportadorMasivo(gestor).importar(new StringReader(csv.toString()), false);
+		long duracion = System.currentTimeMillis() - inicio;
+
+		assertTrue(resultado.isAplicado(), "La importación se aplica: " + resultado.getErrores().size() + " errores");
+		assertEquals(10000, gestor.getEventos().size(), "Se importaron los 10 000 eventos");
+		assertEquals(50000, resultado.getTiquetes(), "Se asignaron 50 000 tiquetes");
+		assertTrue(duracion < 20000, "La importación toma segundos, no minutos: " + duracion + " ms");
+    }
+}
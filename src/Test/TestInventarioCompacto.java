@@ -0,0 +1,107 @@
+package Tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import modelo.eventos.Evento;
+import modelo.eventos.InventarioCompacto;
+import modelo.eventos.Localidad;
+import modelo.eventos.Venue;
+import modelo.tiquetes.Tiquete;
+import modelo.usuarios.Organizador;
+
+public class TestInventarioCompacto {
+
+	private Localidad estadio;
+	private Evento evento;
+	private Organizador organizador;
+
+	@BeforeEach
+    public void setup() throws Exception {
+    	Venue venue = new Venue("V001", "Estadio El Campín", "Bogotá", 50000);
+    	estadio = new Localidad("L001", "General", false, venue, 50000, 80.0);
+    	venue.agregarLocalidad(estadio);
+    	organizador = new Organizador("Pedro", "Pedro1010");
+    	evento = organizador.crearEvento("E001", "Final", new Date(System.currentTimeMillis() + 24L * 60 * 60 * 1000), venue);
+    }
+
+	@Test
+    void testLocalidadGrandeUsaInventarioCompacto()
+    {
+		assertTrue(estadio.usaInventarioCompacto(), "Una localidad de 50.000 sillas debe ser compacta");
+		organizador.asignarTiquetes(evento, estadio, 50000, 80.0);
+
+		assertEquals(50000, estadio.getTiquetesDisponibles(evento), "Disponibles incorrectos");
+		assertEquals(0, estadio.getTiquetesLocalidad().size(), "No deben crearse tiquetes sin vender");
+		assertEquals(0, evento.getTiquetes().size(), "El evento no debe guardar objetos por asiento");
+		assertEquals(50000, evento.getCantidadDisponiblesPorLocalidad(estadio), "El evento debe contar el inventario compacto");
+    }
+
+	@Test
+    void testVenderYLiberar()
+    {
+		estadio.asignarTiquetesCompactos(evento, 100);
+		ArrayList<Tiquete> vendidos = estadio.venderTiquetesCompactos(evento, 3);
+
+		assertEquals(3, vendidos.size(), "Deben venderse tres tiquetes");
+		assertEquals(97, estadio.getTiquetesDisponibles(evento), "Disponibles incorrectos");
+		assertEquals(3, estadio.getTiquetesVendidos(evento), "Vendidos incorrectos");
+		assertEquals(evento, vendidos.get(0).getEvento(), "El tiquete debe conocer su evento");
+
+		estadio.liberarTiquetesCompactos(vendidos);
+		assertEquals(100, estadio.getTiquetesDisponibles(evento), "Los asientos deben volver al inventario");
+    }
+
+	@Test
+    void testVentaTodoONada()
+    {
+		estadio.asignarTiquetesCompactos(evento, 5);
+		assertEquals(0, estadio.venderTiquetesCompactos(evento, 6).size(), "No debe venderse una parte");
+		assertEquals(5, estadio.getTiquetesDisponibles(evento), "No debe cambiar el inventario");
+    }
+
+	@Test
+    void testCadaEventoVendeSusAsientos()
+    {
+		Evento otro = organizador.crearEvento("E002", "Revancha", new Date(System.currentTimeMillis() + 48L * 60 * 60 * 1000), estadio.getVenue());
+		estadio.asignarTiquetesCompactos(evento, 10);
+		estadio.asignarTiquetesCompactos(otro, 10);
+
+		Tiquete final1 = estadio.venderTiquetesCompactos(evento, 1).get(0);
+		Tiquete revancha1 = estadio.venderTiquetesCompactos(otro, 1).get(0);
+		assertEquals(9, estadio.getTiquetesDisponibles(evento), "La venta de un evento no descuenta asientos del otro");
+		assertEquals(9, estadio.getTiquetesDisponibles(otro), "Cada evento tiene su propio inventario");
+		assertEquals(1, evento.getTiquetesVendidos(), "El evento solo cuenta sus ventas");
+		assertFalse(final1.getId().equals(revancha1.getId()), "El mismo asiento en dos eventos son tiquetes distintos");
+		assertTrue(final1.getId().contains("E001") && revancha1.getId().contains("E002"), "El id lleva el evento");
+
+		estadio.liberarTiquetesCompactos(new ArrayList<>(Arrays.asList(final1)));
+		assertEquals(10, estadio.getTiquetesDisponibles(evento), "Liberar devuelve el asiento a su evento");
+		assertEquals(9, estadio.getTiquetesDisponibles(otro), "Sin tocar el otro evento");
+    }
+
+	@Test
+    void testMaterializacionEstable()
+    {
+		InventarioCompacto inventario = new InventarioCompacto("E001", "L009", 10);
+		inventario.asignar(10);
+		assertTrue(inventario.venderAsiento(4), "El asiento estaba libre");
+		assertFalse(inventario.venderAsiento(4), "No se puede vender dos veces");
+
+		Tiquete tiquete = inventario.materializar(4, evento, estadio, 80.0);
+		assertSame(tiquete, inventario.materializar(4, evento, estadio, 80.0), "Un asiento vendido se crea una sola vez");
+		assertEquals(4, inventario.asientoDe(tiquete), "El id debe llevar al asiento");
+
+		inventario.marcarUtilizado(4);
+		assertTrue(tiquete.isUtilizado(), "El tiquete creado debe reflejar el bit de utilizado");
+    }
+}
@@ -0,0 +1,118 @@
+package Tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import modelo.eventos.Evento;
+import modelo.eventos.InventarioFueraDeHeap;
+import modelo.eventos.Localidad;
+import modelo.eventos.Venue;
+import modelo.tiquetes.Tiquete;
+import modelo.usuarios.Organizador;
+
+public class TestInventarioFueraDeHeap {
+
+	private File archivo;
+
+	@BeforeEach
+    public void setup() throws Exception {
+    	archivo = File.createTempFile("inventario", ".inv");
+    	archivo.delete();
+    	archivo.deleteOnExit();
+    	new File(archivo.getPath() + ".propietarios").deleteOnExit();
+    }
+
+	@Test
+    void testLocalidadMegaUsaInventarioFueraDeHeap()
+    {
+		Venue venue = new Venue("V001", "Estadio Azteca", "Ciudad de México", 80000);
+		Localidad general = new Localidad("L001", "General", false, venue, 80000, 60.0);
+		Evento evento = new Evento("E001", "Final", new Date(System.currentTimeMillis() + 86400000L), venue,
+				new Organizador("Pedro", "Pedro1010"));
+		assertEquals(80000, general.asignarTiquetesCompactos(evento, 80000), "Deben asignarse todos los asientos");
+		assertTrue(general.getInventario(evento) instanceof InventarioFueraDeHeap, "Debe guardarse fuera del heap");
+		assertEquals(80000, general.getTiquetesDisponibles(evento), "Disponibles incorrectos");
+    }
+
+	@Test
+    void testRegistroDeAsiento()
+    {
+		InventarioFueraDeHeap inventario = new InventarioFueraDeHeap("E001", "L002", 100);
+		inventario.asignar(100);
+		int versionInicial = inventario.getVersion(7);
+
+		assertTrue(inventario.venderAsiento(7), "El asiento estaba libre");
+		inventario.asignarPropietario(7, "Juan");
+		inventario.setNivelPrecio(7, 3);
+
+		assertEquals("Juan", inventario.getPropietario(7), "Propietario incorrecto");
+		assertEquals(3, inventario.getNivelPrecio(7), "Nivel de precio incorrecto");
+		assertTrue(inventario.getVersion(7) > versionInicial, "La versión debe aumentar con cada cambio");
+		assertEquals(1, inventario.getVendidos(), "Vendidos incorrectos");
+
+		inventario.liberar(7);
+		assertFalse(inventario.estaVendido(7), "El asiento debe quedar libre");
+		assertNull(inventario.getPropietario(7), "El asiento liberado no tiene dueño");
+    }
+
+	@Test
+    void testSobreviveReinicio() throws Exception
+    {
+		InventarioFueraDeHeap inventario = new InventarioFueraDeHeap("E001", "L003", 1000, archivo);
+		inventario.asignar(1000);
+		inventario.vender(10);
+		inventario.asignarPropietario(3, "Ana");
+		inventario.sincronizar();
+
+		InventarioFueraDeHeap reabierto = new InventarioFueraDeHeap("E001", "L003", 1000, archivo);
+		assertEquals(1000, reabierto.getAsignados(), "Asignados incorrectos tras reabrir");
+		assertEquals(10, reabierto.getVendidos(), "Vendidos incorrectos tras reabrir");
+		assertTrue(reabierto.estaVendido(9), "El asiento vendido debe conservarse");
+		assertEquals("Ana", reabierto.getPropietario(3), "El propietario debe conservarse");
+    }
+
+	@Test
+    void testLocalidadReabreSuInventarioAlCargar() throws Exception
+    {
+		File directorio = Files.createTempDirectory("inventarios").toFile();
+		Venue venue = new Venue("V001", "Estadio Azteca", "Ciudad de México", 80000);
+		Evento evento = new Evento("E001", "Final", new Date(System.currentTimeMillis() + 86400000L), venue,
+				new Organizador("Pedro", "Pedro1010"));
+		try {
+			Localidad general = new Localidad("L004", "General", false, venue, 1000, 60.0);
+			assertTrue(general.respaldarInventariosEnArchivo(directorio), "Se respalda en archivo");
+			general.asignarTiquetesCompactos(evento, 1000);
+			ArrayList<Tiquete> vendidos = general.venderTiquetesCompactos(evento, 10);
+			general.sincronizarInventario();
+
+			// Reinicio: la localidad cargada reabre el archivo del evento
+			Localidad cargada = new Localidad("L004", "General", false, venue, 1000, 60.0);
+			cargada.respaldarInventariosEnArchivo(directorio);
+			assertEquals(1, cargada.reabrirInventarios(Arrays.asList(evento)), "Se reabre el inventario del evento");
+			assertEquals(990, cargada.getTiquetesDisponibles(evento), "Las ventas anteriores siguen vendidas");
+			assertEquals(10, cargada.getTiquetesVendidos(evento), "Vendidos incorrectos tras reiniciar");
+			assertTrue(cargada.haySuficienteDisponibilidad(evento, 990), "Lo que queda se puede vender");
+			assertNotNull(cargada.getInventario(evento), "El inventario queda abierto");
+
+			cargada.agregarTiquete(vendidos.get(0));
+			assertEquals(990, cargada.getTiquetesDisponibles(evento), "Un tiquete del inventario no vuelve a la lista");
+		} finally {
+			for (File archivoInventario : directorio.listFiles()) {
+				archivoInventario.delete();
+			}
+			directorio.delete();
+		}
+    }
+}
@@ -0,0 +1,134 @@
+package Tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import modelo.pagos.LibroMayor;
+import modelo.pagos.Pagos;
+import modelo.usuarios.Comprador;
+
+public class TestLibroMayor {
+
+	private static int contador = 0;
+
+	private LibroMayor libro;
+	private Comprador comprador;
+
+	@BeforeEach
+    public void setup() throws Exception {
+    	libro = LibroMayor.getInstancia();
+    	// El libro es único en el sistema: cada prueba usa un login nuevo
+    	comprador = new Comprador("billetera" + (contador++), "clave");
+    }
+
+	@Test
+    void testCentavosSinErrorDeRedondeo()
+    {
+		for (int i = 0; i < 1000; i++) {
+			comprador.agregarSaldo(0.1);
+		}
+		assertEquals(10000, comprador.getSaldoCentavos(), "1000 x $0.10 son exactamente $100");
+		assertEquals(100.0, comprador.getSaldoVirtual(), 0.0, "El saldo en pesos debe ser exacto");
+    }
+
+	@Test
+    void testDebitoConcurrenteNoGastaDosVeces() throws Exception
+    {
+		comprador.agregarSaldo(100);
+
+		// 64 pagos de $10 contra un saldo de $100: solo 10 pueden pasar
+		AtomicInteger pagosExitosos = new AtomicInteger();
+		CountDownLatch salida = new CountDownLatch(1);
+		ArrayList<Thread> hilos = new ArrayList<>();
+		for (int h = 0; h < 64; h++) {
+			Thread hilo = new Thread(() -> {
+				try {
+					salida.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				if (Pagos.getInstancia().procesarPagoConSaldo(comprador, 10.0)) {
+					pagosExitosos.incrementAndGet();
+				}
+			});
+			hilos.add(hilo);
+			hilo.start();
+		}
+		salida.countDown();
+		for (Thread hilo : hilos) {
+			hilo.join();
+		}
+
+		assertEquals(10, pagosExitosos.get(), "Solo alcanza para 10 pagos");
+		assertEquals(0, comprador.getSaldoCentavos(), "El saldo no puede quedar negativo");
+		assertEquals(11, libro.getMovimientos(comprador.getLogin()).size(), "Un crédito y diez débitos");
+    }
+
+	@Test
+    void testReconstruirYAuditarSaldos()
+    {
+		comprador.setSaldoVirtual(50);
+		comprador.agregarSaldo(25.5);
+		assertTrue(comprador.descontarSaldo(10.25), "Hay saldo suficiente");
+		assertFalse(comprador.descontarSaldo(1000), "No hay saldo suficiente");
+
+		assertEquals(6525L, (long) libro.reconstruirSaldos().get(comprador.getLogin()), "El libro reconstruye el saldo");
+
+		HashMap<String, Long> saldos = new HashMap<>();
+		saldos.put(comprador.getLogin(), comprador.getSaldoCentavos());
+		assertTrue(libro.auditar(saldos).isEmpty(), "El saldo cuadra con el libro");
+		saldos.put(comprador.getLogin(), comprador.getSaldoCentavos() + 1);
+		assertEquals(1, libro.auditar(saldos).size(), "Un saldo alterado debe descuadrar");
+    }
+
+	@Test
+    void testCargarContinuaLaSecuenciaGuardada() throws Exception
+    {
+		File archivo = File.createTempFile("libro", ".csv");
+		String login = "recuperada" + (contador++);
+		long base = libro.getUltimaSecuencia() + 1000000;
+		try (PrintWriter writer = new PrintWriter(new FileWriter(archivo))) {
+			writer.println("secuencia,login,tipo,centavos,saldoResultante,fecha,concepto");
+			writer.println(base + "," + login + ",APERTURA,5000,5000,0,");
+			writer.println((base + 1) + "," + login + ",DEBITO,-1200,3800,0,Pago");
+		}
+
+		int pendientes = libro.getCantidadPendientes();
+		assertEquals(2, libro.cargar(archivo), "Se cargan los dos movimientos");
+		assertEquals(pendientes, libro.getCantidadPendientes(), "Lo cargado no queda pendiente de guardar");
+		assertEquals(3800L, (long) libro.reconstruirSaldos().get(login), "La reconstrucción incluye la historia guardada");
+		assertTrue(libro.tieneMovimiento(login, "Pago"), "Los conceptos guardados se consultan");
+
+		LibroMayor.Movimiento nuevo = libro.registrar(login, LibroMayor.TipoMovimiento.CREDITO, 200, 4000, "Recarga");
+		assertTrue(nuevo.getSecuencia() > base + 1, "La secuencia continúa desde la mayor guardada");
+		archivo.delete();
+    }
+
+	@Test
+    void testAperturaSoloSinHistoria()
+    {
+		comprador.setSaldoVirtual(50);
+		comprador.agregarSaldo(25);
+		assertEquals(2, libro.getMovimientos(comprador.getLogin()).size(), "Una apertura y un crédito");
+
+		// Reinicio: la billetera se vuelve a cargar con el saldo guardado
+		Comprador recargado = new Comprador(comprador.getLogin(), "clave");
+		recargado.setSaldoVirtual(75);
+		assertEquals(2, libro.getMovimientos(comprador.getLogin()).size(), "Con historia no se agrega otra apertura");
+		assertEquals(7500L, (long) libro.reconstruirSaldos().get(comprador.getLogin()), "La historia sigue sumando el saldo");
+		assertTrue(libro.tieneHistoria(comprador.getLogin()), "El usuario tiene historia");
+		assertFalse(libro.tieneHistoria("sin-billetera" + contador), "Un login nuevo no tiene historia");
+    }
+}
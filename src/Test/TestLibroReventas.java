@@ -0,0 +1,115 @@
+package Tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import modelo.eventos.Evento;
+import modelo.eventos.Localidad;
+import modelo.eventos.Venue;
+import modelo.tiquetes.LibroReventas;
+import modelo.tiquetes.Tiquete;
+import modelo.tiquetes.TiqueteReventa;
+import modelo.usuarios.Comprador;
+import modelo.usuarios.Organizador;
+
+public class TestLibroReventas {
+
+	private static final long UN_DIA = 24L * 60 * 60 * 1000;
+
+	private LibroReventas libro;
+	private Evento evento;
+	private Localidad general;
+	private Localidad vip;
+	private Comprador vendedor;
+	private Date fecha;
+
+	@BeforeEach
+    public void setup() throws Exception {
+    	libro = new LibroReventas();
+    	vendedor = new Comprador("Juan", "Juan123");
+    	Venue venue = new Venue("V001", "Auditorio Nacional", "Ciudad de México", 5000);
+    	general = new Localidad("L001", "General", false, venue, 400, 50.0);
+    	vip = new Localidad("L002", "VIP", true, venue, 100, 200.0);
+    	fecha = new Date(System.currentTimeMillis() + UN_DIA);
+    	evento = new Evento("E001", "Concierto", fecha, venue, new Organizador("Pedro", "Pedro1010"));
+    }
+
+	private TiqueteReventa publicar(String id, Localidad localidad, double precio) {
+		Tiquete tiquete = new Tiquete("T" + id, localidad.getPrecioBase(), fecha, localidad, evento);
+		TiqueteReventa reventa = new TiqueteReventa("R" + id, tiquete, vendedor, precio);
+		libro.publicar(reventa);
+		return reventa;
+	}
+
+	@Test
+    void testMejorOfertaYProfundidad()
+    {
+		publicar("1", general, 90.0);
+		TiqueteReventa barata = publicar("2", general, 60.0);
+		publicar("3", general, 75.0);
+		publicar("4", vip, 10.0);
+
+		assertSame(barata, libro.mejorOferta(evento, general), "La mejor oferta debe ser la más barata");
+		assertEquals(3, libro.profundidad(evento, general), "Profundidad incorrecta");
+		assertEquals(1, libro.profundidad(evento, vip), "Los libros deben estar separados por localidad");
+    }
+
+	@Test
+    void testPrioridadPorTiempoAIgualPrecio()
+    {
+		TiqueteReventa primera = publicar("1", general, 60.0);
+		publicar("2", general, 60.0);
+
+		ArrayList<TiqueteReventa> mejores = libro.getMejoresOfertas(evento, general, 2);
+		assertSame(primera, mejores.get(0), "A igual precio gana la publicación más antigua");
+    }
+
+	@Test
+    void testTomarMasBaratas()
+    {
+		publicar("1", general, 90.0);
+		publicar("2", general, 60.0);
+		publicar("3", general, 75.0);
+
+		ArrayList<TiqueteReventa> tomadas = libro.tomarMasBaratas(evento, general, 2);
+		assertEquals(2, tomadas.size(), "Deben tomarse dos reventas");
+		assertEquals(60.0, tomadas.get(0).getPrecioReventa(), "Orden incorrecto");
+		assertEquals(75.0, tomadas.get(1).getPrecioReventa(), "Orden incorrecto");
+		assertEquals(1, libro.profundidad(evento, general), "Las tomadas deben salir del libro");
+    }
+
+	@Test
+    void testRetirarYTiqueteUsado()
+    {
+		TiqueteReventa vendida = publicar("1", general, 60.0);
+		TiqueteReventa usada = publicar("2", general, 70.0);
+		publicar("3", general, 80.0);
+
+		assertTrue(libro.retirar(vendida), "La reventa debía estar publicada");
+		assertNull(libro.buscarPorTiquete(vendida.getTiquete()), "La reventa retirada no debe encontrarse");
+
+		usada.getTiquete().marcarComoUtilizado();
+		assertEquals(80.0, libro.mejorOferta(evento, general).getPrecioReventa(), "El tiquete usado debe salir del libro");
+		assertFalse(usada.isActivo(), "La reventa del tiquete usado debe desactivarse");
+    }
+
+	@Test
+    void testActualizarPrecioReordena()
+    {
+		publicar("1", general, 60.0);
+		TiqueteReventa cara = publicar("2", general, 90.0);
+
+		libro.actualizarPrecio(cara, 40.0);
+		assertSame(cara, libro.mejorOferta(evento, general), "El nuevo precio debe reordenar el libro");
+		assertEquals(2, libro.getCantidadReventas(), "No deben duplicarse reventas");
+    }
+}
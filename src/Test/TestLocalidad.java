@@ -129,7 +129,11 @@ public class TestLocalidad {
     	assertEquals(null, localidad2.crearTiquete(evento1), "No hay disponibilidad");
     	localidad2.agregarTiquete(tiquete1);
     	assertEquals(null, localidad2.crearTiquete(null), "No hay disponibilidad");
-    	assertEquals(tiquete5, localidad1.crearTiquete(evento1), "Tiquete incorrecto");
+    	Tiquete creado = localidad1.crearTiquete(evento1);
+    	assertTrue(creado.getId().startsWith("TQ-E001-L001-"), "Id incorrecto");
+    	assertEquals(tiquete5.getPrecioBase(), creado.getPrecioBase(), "Precio incorrecto");
+    	assertEquals(tiquete5.getEvento(), creado.getEvento(), "Evento incorrecto");
+    	assertEquals(tiquete5.getLocalidad(), creado.getLocalidad(), "Localidad incorrecta");
     }
     
     @Test
@@ -0,0 +1,81 @@
+package Tests;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import modelo.eventos.Evento;
+import modelo.eventos.Localidad;
+import modelo.eventos.MapaAsientos;
+import modelo.eventos.Venue;
+import modelo.tiquetes.Tiquete;
+import modelo.usuarios.Organizador;
+
+public class TestMapaAsientos {
+
+	private MapaAsientos mapa;
+
+	@BeforeEach
+    public void setup() throws Exception {
+    	mapa = new MapaAsientos(3, 10);
+    }
+
+	@Test
+    void testMejorBloqueEsElTramoMasCorto()
+    {
+		// Fila 0: libres 0-3 y 5-9; fila 1: libres 0-1 y 3-9
+		mapa.ocupar(4);
+		mapa.ocupar(12);
+
+		assertArrayEquals(new int[] {10, 11}, mapa.buscarBloque(2), "Debe usarse el tramo de 2 de la fila 1");
+		assertArrayEquals(new int[] {0, 1, 2}, mapa.buscarBloque(3), "Debe usarse el tramo de 4 de la fila 0");
+		assertEquals(0, mapa.buscarBloque(11).length, "Ninguna fila tiene 11 asientos");
+    }
+
+	@Test
+    void testOcuparYLiberarUnenTramos()
+    {
+		assertEquals(3, mapa.getCantidadTramos(), "Cada fila empieza con un tramo");
+		mapa.ocupar(5);
+		assertEquals(4, mapa.getCantidadTramos(), "Ocupar en medio parte el tramo");
+		assertFalse(mapa.ocupar(5), "No se puede ocupar dos veces");
+
+		assertTrue(mapa.liberar(5), "El asiento estaba ocupado");
+		assertEquals(3, mapa.getCantidadTramos(), "Liberar debe unir los tramos vecinos");
+		assertEquals(10, mapa.getMayorBloqueLibre(), "La fila debe quedar completa");
+		assertEquals(30, mapa.getLibres(), "Libres incorrectos");
+    }
+
+	@Test
+    void testVentaDeAsientosContiguosEnLocalidad()
+    {
+		Venue venue = new Venue("V001", "Teatro Colón", "Bogotá", 100);
+		Localidad platea = new Localidad("L001", "Platea", true, venue, 100, 120.0);
+		assertTrue(platea.configurarMapaAsientos(10, 10), "La localidad numerada admite filas");
+		Evento evento = new Evento("E001", "Ópera", new Date(System.currentTimeMillis() + 86400000L), venue,
+				new Organizador("Pedro", "Pedro1010"));
+
+		ArrayList<Tiquete> tiquetes = platea.venderAsientosContiguos(evento, 4);
+		assertEquals(4, tiquetes.size(), "Deben venderse cuatro asientos");
+		assertEquals("Fila 1, asiento 4", platea.describirAsiento(tiquetes.get(3)), "Asiento incorrecto");
+		assertEquals(96, platea.getTiquetesDisponibles(evento), "El inventario debe reflejar la venta");
+
+		platea.liberarTiquetesCompactos(tiquetes);
+		assertEquals(10, platea.getMapaAsientos(evento).getMayorBloqueLibre(), "La fila debe volver a estar libre");
+    }
+
+	@Test
+    void testLocalidadNoNumeradaSinMapa()
+    {
+		Venue venue = new Venue("V001", "Teatro Colón", "Bogotá", 100);
+		Localidad general = new Localidad("L002", "General", false, venue, 100, 50.0);
+		assertFalse(general.configurarMapaAsientos(10, 10), "Solo las numeradas tienen mapa");
+    }
+}
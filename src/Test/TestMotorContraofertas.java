@@ -0,0 +1,109 @@
+package Tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import modelo.eventos.Evento;
+import modelo.eventos.Localidad;
+import modelo.eventos.Venue;
+import modelo.tiquetes.Contraoferta;
+import modelo.tiquetes.MotorContraofertas;
+import modelo.tiquetes.MotorContraofertas.Decision;
+import modelo.tiquetes.Tiquete;
+import modelo.tiquetes.TiqueteReventa;
+import modelo.usuarios.Comprador;
+import modelo.usuarios.Organizador;
+
+public class TestMotorContraofertas {
+
+	private MotorContraofertas motor;
+	private TiqueteReventa reventa;
+
+	@BeforeEach
+    public void setup() throws Exception {
+    	motor = new MotorContraofertas();
+    	Venue venue = new Venue("V001", "Auditorio Nacional", "Ciudad de México", 5000);
+    	Localidad general = new Localidad("L001", "General", false, venue, 400, 50.0);
+    	Date fecha = new Date(System.currentTimeMillis() + 24L * 60 * 60 * 1000);
+    	Evento evento = new Evento("E001", "Concierto", fecha, venue, new Organizador("Pedro", "Pedro1010"));
+    	Tiquete tiquete = new Tiquete("T001", 50.0, fecha, general, evento);
+    	reventa = new TiqueteReventa("R001", tiquete, new Comprador("Juan", "Juan123"), 100.0);
+    	reventa.setReglasContraoferta(60.0, 90.0);
+    }
+
+	private Contraoferta ofertar(String login, double precio) {
+		return new Contraoferta("C-" + login, reventa, new Comprador(login, "clave"), precio);
+	}
+
+	@Test
+    void testEvaluacionPorReglas()
+    {
+		assertEquals(Decision.RECHAZAR, motor.recibir(ofertar("ana", 40.0)), "Debe rechazarse bajo el mínimo");
+		assertEquals(Decision.ACEPTAR, motor.recibir(ofertar("luis", 95.0)), "Debe aceptarse desde el umbral");
+		assertEquals(Decision.PENDIENTE, motor.recibir(ofertar("sara", 70.0)), "Debe quedar para el vendedor");
+		assertEquals(1, motor.getPendientes(reventa).size(), "Solo la pendiente debe registrarse");
+    }
+
+	@Test
+    void testPendientesEnOrdenDePrecio()
+    {
+		motor.recibir(ofertar("ana", 65.0));
+		Contraoferta mejor = ofertar("luis", 80.0);
+		motor.recibir(mejor);
+		motor.recibir(ofertar("sara", 70.0));
+
+		assertSame(mejor, motor.mejorPendiente(reventa), "La mejor pendiente es la de mayor precio");
+		ArrayList<Contraoferta> pendientes = motor.getPendientes(reventa);
+		assertEquals(70.0, pendientes.get(1).getPrecioOfertado(), "Orden incorrecto");
+		assertEquals(65.0, pendientes.get(2).getPrecioOfertado(), "Orden incorrecto");
+		assertNull(motor.ganadoraAutomatica(reventa), "Ninguna alcanza el umbral");
+    }
+
+	@Test
+    void testCerrarReventaRechazaEnLote()
+    {
+		Contraoferta ana = ofertar("ana", 65.0);
+		Contraoferta luis = ofertar("luis", 80.0);
+		motor.recibir(ana);
+		motor.recibir(luis);
+
+		ArrayList<Contraoferta> rechazadas = motor.cerrarReventa(reventa);
+		assertEquals(2, rechazadas.size(), "Todas las pendientes deben rechazarse");
+		assertEquals("rechazada", ana.getEstado(), "Estado incorrecto");
+		assertNull(motor.buscarPendiente(reventa, luis.getComprador()), "No deben quedar pendientes");
+    }
+
+	@Test
+    void testCambioDeReglasReevaluaPendientes()
+    {
+		motor.recibir(ofertar("ana", 62.0));
+		motor.recibir(ofertar("luis", 85.0));
+		motor.recibir(ofertar("sara", 70.0));
+
+		reventa.setReglasContraoferta(68.0, 84.0);
+		assertEquals(1, motor.rechazarBajoMinimo(reventa).size(), "Solo una queda bajo el nuevo mínimo");
+		Contraoferta ganadora = motor.ganadoraAutomatica(reventa);
+		assertNotNull(ganadora, "La mejor puja alcanza el nuevo umbral");
+		assertEquals(85.0, ganadora.getPrecioOfertado(), "Debe ganar la de mayor precio");
+		assertTrue(motor.retirar(ganadora), "La ganadora debe poder retirarse");
+		assertEquals(1, motor.cerrarReventa(reventa).size(), "La perdedora se rechaza al cerrar");
+    }
+
+	@Test
+    void testReglasInvalidas()
+    {
+		assertThrows(IllegalArgumentException.class, () -> reventa.setReglasContraoferta(-1.0, 0));
+		assertThrows(IllegalArgumentException.class, () -> reventa.setReglasContraoferta(100.0, 0));
+		assertThrows(IllegalArgumentException.class, () -> reventa.setReglasContraoferta(70.0, 60.0));
+    }
+}
@@ -0,0 +1,175 @@
+package Tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import modelo.eventos.CatalogoEventos;
+import modelo.eventos.ConsultaEventos;
+import modelo.eventos.Evento;
+import modelo.eventos.Localidad;
+import modelo.eventos.MotorPrecios;
+import modelo.eventos.MotorPrecios.Criterio;
+import modelo.eventos.MotorPrecios.ReglaPrecio;
+import modelo.eventos.Venue;
+import modelo.pagos.Pagos;
+import modelo.tiquetes.LibroReventas;
+import modelo.tiquetes.Tiquete;
+import modelo.tiquetes.TiqueteReventa;
+import modelo.usuarios.Comprador;
+import modelo.usuarios.Organizador;
+
+public class TestMotorPrecios {
+
+	private static final long HORA = 60 * 60 * 1000L;
+
+	private long ahora;
+	private Evento evento;
+	private Localidad general;
+	private LibroReventas libro;
+	private MotorPrecios motor;
+
+	@BeforeEach
+    public void setup() throws Exception {
+    	ahora = System.currentTimeMillis();
+    	Venue venue = new Venue("V1", "Estadio", "San José", 1000);
+    	general = new Localidad("L1", "General", false, venue, 100, 10.0);
+    	venue.agregarLocalidad(general);
+    	evento = new Evento("E1", "Concierto", new Date(ahora + 72 * HORA), venue, new Organizador("org", "org123"));
+    	for (int i = 0; i < 100; i++) {
+    		general.agregarTiquete(new Tiquete("T" + i, 10.0, evento.getFechaHora(), general, evento));
+    	}
+    	libro = new LibroReventas();
+    	motor = new MotorPrecios(libro);
+    	libro.setAlCambiar(motor::marcarCambio);
+    	motor.registrar(evento);
+    }
+
+	private void vender(int cantidad) {
+		int vendidos = 0;
+		for (Tiquete tiquete : general.getTiquetesLocalidad()) {
+			if (vendidos < cantidad && tiquete.estaVigente()) {
+				tiquete.setUtilizado(true);
+				vendidos++;
+			}
+		}
+		motor.marcarCambio(evento, general);
+	}
+
+	@Test
+    void testPrecioPorVentaConTecho()
+    {
+		motor.configurarReglas(new ArrayList<>(Arrays.asList(
+			new ReglaPrecio(Criterio.VENTA, 50, 1.2),
+			new ReglaPrecio(Criterio.VENTA, 80, 1.5))), 0.8, 1.4);
+		assertEquals(1, motor.ejecutar(ahora), "El par registrado se evalúa");
+		assertEquals(10.0, general.getPrecioVigente(evento), 0.001, "Sin ventas se cobra el precio base");
+		assertEquals(0, motor.ejecutar(ahora), "Sin cambios no se reevalúa nada");
+
+		vender(60);
+		assertEquals(1, motor.ejecutar(ahora), "La venta marca el par para reevaluarlo");
+		assertEquals(12.0, general.getPrecioVigente(evento), 0.001, "Con 60% vendido aplica la regla de 50%");
+
+		vender(30);
+		motor.ejecutar(ahora);
+		assertEquals(14.0, general.getPrecioVigente(evento), 0.001, "Con 90% vendido el precio se topa en el techo");
+    }
+
+	@Test
+    void testUmbralDeTiempoAgendado()
+    {
+		motor.configurarReglas(new ArrayList<>(Arrays.asList(new ReglaPrecio(Criterio.TIEMPO, 48, 1.3))), 0.8, 2.0);
+		motor.ejecutar(ahora);
+		assertEquals(10.0, general.getPrecioVigente(evento), 0.001, "Faltan 72 horas: precio base");
+
+		assertEquals(0, motor.ejecutar(ahora + 10 * HORA), "Antes del umbral no se reevalúa");
+		assertEquals(1, motor.ejecutar(ahora + 25 * HORA), "Al cruzar las 48 horas el par se reevalúa solo");
+		assertEquals(13.0, general.getPrecioVigente(evento), 0.001, "Dentro de las 48 horas sube el precio");
+
+		motor.ejecutar(ahora + 73 * HORA);
+		assertFalse(general.tienePrecioDinamico(evento), "Un evento ya realizado sale del motor");
+		assertEquals(0, motor.getCantidadPares(), "No quedan pares del evento");
+    }
+
+	@Test
+    void testDemandaDeReventaYCompra()
+    {
+		motor.configurarReglas(new ArrayList<>(Arrays.asList(new ReglaPrecio(Criterio.REVENTA, 1.5, 1.25))), 0.8, 2.0);
+		motor.ejecutar(ahora);
+
+		Tiquete revendido = new Tiquete("TR", 10.0, evento.getFechaHora(), general, evento);
+		assertTrue(libro.publicar(new TiqueteReventa("R1", revendido, new Comprador("ana", "ana123"), 20.0)), "Se publica la reventa");
+		assertEquals(1, motor.getCantidadPendientes(), "Publicar en la reventa marca el par");
+		motor.ejecutar(ahora);
+		assertEquals(12.5, general.getPrecioVigente(evento), 0.001, "La reventa al doble del base sube el precio");
+
+		ArrayList<Tiquete> compra = new ArrayList<>(general.obtenerTiquetesDisponibles(2));
+		assertEquals(25.0, Pagos.getInstancia().calcularPrecioTotal(compra, 0, 0), 0.001, "La compra cobra el precio dinámico");
+
+		motor.retirar(evento);
+		assertEquals(10.0, general.getPrecioVigente(evento), 0.001, "Retirar el evento vuelve al precio base");
+    }
+
+	@Test
+    void testCatalogoSigueElPrecioDinamico()
+    {
+		Venue otroVenue = new Venue("V2", "Coliseo", "Cartago", 1000);
+		Localidad otraGeneral = new Localidad("L2", "General", false, otroVenue, 100, 11.0);
+		otroVenue.agregarLocalidad(otraGeneral);
+		Evento otro = new Evento("E2", "Festival", new Date(ahora + 72 * HORA), otroVenue, new Organizador("org", "org123"));
+		otro.agregarTiquete(new Tiquete("O1", 11.0, otro.getFechaHora(), otraGeneral, otro));
+		for (Tiquete tiquete : general.getTiquetesLocalidad()) {
+			evento.agregarTiquete(tiquete);
+		}
+		evento.aprobar();
+		otro.aprobar();
+		CatalogoEventos catalogo = new CatalogoEventos();
+		catalogo.indexarEvento(evento);
+		catalogo.indexarEvento(otro);
+		motor.setAlCambiarPrecio(catalogo::actualizarPrecioEvento);
+
+		ConsultaEventos porPrecio = new ConsultaEventos();
+		porPrecio.setOrdenarPorPrecio(true);
+		assertEquals(evento, catalogo.consultar(porPrecio, null).getEventos().get(0), "A $10 el concierto va primero");
+
+		motor.configurarReglas(new ArrayList<>(Arrays.asList(new ReglaPrecio(Criterio.VENTA, 50, 1.2))), 0.8, 2.0);
+		vender(60);
+		motor.ejecutar(ahora);
+		assertEquals(12.0, CatalogoEventos.calcularPrecioMinimo(evento), 0.001, "El catálogo muestra lo que se cobra");
+		assertEquals(otro, catalogo.consultar(porPrecio, null).getEventos().get(0), "El cambio de precio reindexa el evento");
+
+		ConsultaEventos hastaOnce = new ConsultaEventos();
+		hastaOnce.setPrecioMaximo(11.0);
+		assertEquals(Arrays.asList(otro), catalogo.consultar(hastaOnce, null).getEventos(),
+					 "El filtro de precio usa el precio vigente");
+    }
+
+	@Test
+    void testReembolsoConElPrecioCobrado()
+    {
+		motor.configurarReglas(new ArrayList<>(Arrays.asList(new ReglaPrecio(Criterio.TIEMPO, 96, 1.5))), 0.8, 2.0);
+		motor.ejecutar(ahora);
+		evento.aprobar();
+		Comprador comprador = new Comprador("ana", "ana123");
+		comprador.agregarSaldo(100);
+
+		ArrayList<Tiquete> comprados = comprador.comprarTiquete(evento, general, 1, 0, 0);
+		assertEquals(1, comprados.size(), "La compra se hace");
+		Tiquete tiquete = comprados.get(0);
+		assertEquals(85.0, comprador.getSaldoVirtual(), 0.001, "Se cobra el precio dinámico");
+		assertEquals(15.0, tiquete.getPrecioPagado(), 0.001, "El tiquete guarda lo que se cobró");
+
+		motor.retirar(evento);
+		assertEquals(15.0, Pagos.getInstancia().calcularMontoReembolso(tiquete, false, 5.0), 0.001,
+					 "La calamidad devuelve lo cobrado aunque el precio haya bajado");
+		assertEquals(10.0, Pagos.getInstancia().calcularReembolsoCancelacion(tiquete, 5.0), 0.001,
+					 "La cancelación devuelve lo cobrado menos la emisión");
+    }
+}
@@ -0,0 +1,163 @@
+package Tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import modelo.eventos.Evento;
+import modelo.eventos.Venue;
+import modelo.pagos.ReembolsoMasivo;
+import modelo.tiquetes.Tiquete;
+import modelo.usuarios.Comprador;
+import modelo.usuarios.Organizador;
+import modelo.usuarios.Usuario;
+
+public class TestReembolsoMasivo {
+
+	private Evento evento;
+	private LinkedHashMap<Usuario, ArrayList<Tiquete>> tenedores;
+	private ArrayList<Comprador> compradores;
+	private File archivo;
+
+	@BeforeEach
+    public void setup() throws Exception {
+    	Date manana = new Date(System.currentTimeMillis() + 86400000L);
+    	Venue venue = new Venue("V001", "Estadio El Campín", "Bogotá", 40000);
+    	evento = new Evento("E001", "Final", manana, venue, new Organizador("Pedro", "Pedro1010"));
+
+    	// 50 compradores con 20 tiquetes de $105 cada uno
+    	tenedores = new LinkedHashMap<>();
+    	compradores = new ArrayList<>();
+    	for (int c = 0; c < 50; c++) {
+    		Comprador comprador = new Comprador("comprador" + c, "clave");
+    		ArrayList<Tiquete> tiquetes = new ArrayList<>();
+    		for (int t = 0; t < 20; t++) {
+    			tiquetes.add(new Tiquete("TQ-" + c + "-" + t, 105.0, manana, null, evento));
+    		}
+    		compradores.add(comprador);
+    		tenedores.put(comprador, tiquetes);
+    	}
+
+    	archivo = File.createTempFile("reembolsos", ".ckpt");
+    	archivo.delete();
+    	archivo.deleteOnExit();
+    }
+
+	@Test
+    void testReembolsaTodosEnParalelo()
+    {
+		ReembolsoMasivo trabajo = new ReembolsoMasivo(evento, 5.0, null);
+		assertTrue(trabajo.ejecutar(tenedores, 4, 16), "El trabajo debe terminar");
+
+		assertEquals(1000, trabajo.getProcesados(), "Procesados incorrectos");
+		assertEquals(100000.0, trabajo.getMontoReembolsado(), 0.001, "Monto total incorrecto");
+		for (Comprador comprador : compradores) {
+			assertEquals(2000.0, comprador.getSaldoVirtual(), 0.001, "Cada comprador recibe 20 x $100");
+		}
+		assertFalse(tenedores.get(compradores.get(0)).get(0).estaVigente(), "El tiquete reembolsado ya no es vigente");
+		assertEquals(100.0, trabajo.getPorcentajeAvance(), 0.001, "Avance incorrecto");
+		assertTrue(trabajo.getTiquetesPorSegundo() > 0, "Debe medirse la velocidad");
+    }
+
+	@Test
+    void testReanudarNoPagaDosVeces() throws Exception
+    {
+		// Un punto de control que anotó los tiquetes del primer comprador antes de la interrupción
+		try (PrintWriter writer = new PrintWriter(new FileWriter(archivo))) {
+			for (int t = 0; t < 20; t++) {
+				writer.println("TQ-0-" + t + ";comprador0;100.0");
+			}
+		}
+
+		ReembolsoMasivo trabajo = new ReembolsoMasivo(evento, 5.0, archivo);
+		assertEquals(20, trabajo.getProcesados(), "El punto de control ya cuenta 20 reembolsos");
+		assertTrue(trabajo.ejecutar(tenedores, 3, 7), "El trabajo debe terminar");
+
+		assertEquals(1000, trabajo.getProcesados(), "Procesados incorrectos al reanudar");
+		assertEquals(0.0, compradores.get(0).getSaldoVirtual(), 0.001, "El primer comprador ya había sido pagado");
+		assertEquals(2000.0, compradores.get(1).getSaldoVirtual(), 0.001, "Los demás se pagan al reanudar");
+    }
+
+	@Test
+    void testIntencionSinConfirmarNoPagaDosVeces() throws Exception
+    {
+		// Interrupción entre la intención y la confirmación: 10 tiquetes alcanzaron a acreditarse
+		Comprador ana = new Comprador("ana" + System.nanoTime(), "clave");
+		ArrayList<Tiquete> tiquetes = new ArrayList<>();
+		try (PrintWriter writer = new PrintWriter(new FileWriter(archivo))) {
+			for (int t = 0; t < 20; t++) {
+				Tiquete tiquete = new Tiquete("TQ-" + ana.getLogin() + "-" + t, 105.0, evento.getFechaHora(), null, evento);
+				tiquetes.add(tiquete);
+				writer.println(tiquete.getId() + ";" + ana.getLogin() + ";100.0;INTENCION");
+				if (t < 10) {
+					ana.acreditar(10000, "Reembolso por cancelación de E001: " + tiquete.getId());
+				}
+			}
+		}
+		LinkedHashMap<Usuario, ArrayList<Tiquete>> soloAna = new LinkedHashMap<>();
+		soloAna.put(ana, tiquetes);
+
+		ReembolsoMasivo trabajo = new ReembolsoMasivo(evento, 5.0, archivo);
+		assertEquals(0, trabajo.getProcesados(), "Una intención no cuenta como reembolso");
+		assertTrue(trabajo.ejecutar(soloAna, 2, 4), "El trabajo debe terminar");
+		assertEquals(20, trabajo.getProcesados(), "Se confirman todos los tiquetes");
+		assertEquals(2000.0, ana.getSaldoVirtual(), 0.001, "Solo se acreditan los que faltaban");
+    }
+
+	@Test
+    void testCaidaAMitadNoPierdeReembolsos() throws Exception
+    {
+		// Un hilo, lotes de 4: el trabajo muere justo después de guardar el tercer lote
+		String login = "ana" + System.nanoTime();
+		Comprador ana = new Comprador(login, "clave");
+		ArrayList<Tiquete> tiquetes = new ArrayList<>();
+		for (int t = 0; t < 20; t++) {
+			tiquetes.add(new Tiquete("TQ-" + login + "-" + t, 105.0, evento.getFechaHora(), null, evento));
+		}
+		LinkedHashMap<Usuario, ArrayList<Tiquete>> soloAna = new LinkedHashMap<>();
+		soloAna.put(ana, tiquetes);
+
+		double[] saldoEnDisco = { 0 };
+		int[] guardados = { 0 };
+		ReembolsoMasivo trabajo = new ReembolsoMasivo(evento, 5.0, archivo, () -> {
+			saldoEnDisco[0] = ana.getSaldoVirtual();
+			if (++guardados[0] == 3) {
+				throw new IllegalStateException("caída");
+			}
+		});
+		assertFalse(trabajo.ejecutar(soloAna, 1, 4), "El trabajo se interrumpe");
+		assertEquals(8, trabajo.getProcesados(), "Solo se confirman los lotes anteriores a la caída");
+
+		// Reinicio: la billetera vuelve con el saldo guardado y el trabajo se reanuda
+		Comprador reiniciada = new Comprador(login, "clave");
+		reiniciada.setSaldoVirtual(saldoEnDisco[0]);
+		soloAna.clear();
+		soloAna.put(reiniciada, tiquetes);
+		ReembolsoMasivo reanudado = new ReembolsoMasivo(evento, 5.0, archivo);
+		assertTrue(reanudado.ejecutar(soloAna, 1, 4), "El trabajo reanudado termina");
+
+		assertEquals(20, reanudado.getProcesados(), "Todos los tiquetes quedan reembolsados");
+		assertEquals(2000.0, reiniciada.getSaldoVirtual(), 0.001, "Cada tiquete se paga exactamente una vez");
+    }
+
+	@Test
+    void testSegundaEjecucionNoRepite()
+    {
+		new ReembolsoMasivo(evento, 5.0, archivo).ejecutar(tenedores, 4, 32);
+		ReembolsoMasivo reanudado = new ReembolsoMasivo(evento, 5.0, archivo);
+		assertTrue(reanudado.ejecutar(tenedores, 4, 32), "No queda nada pendiente");
+
+		assertEquals(1000, reanudado.getProcesados(), "El punto de control tiene todos los tiquetes");
+		assertEquals(2000.0, compradores.get(7).getSaldoVirtual(), 0.001, "Nadie cobra dos veces");
+    }
+}
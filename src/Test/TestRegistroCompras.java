@@ -0,0 +1,95 @@
+package Tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import modelo.eventos.Evento;
+import modelo.eventos.Localidad;
+import modelo.eventos.Venue;
+import modelo.pagos.Compra;
+import modelo.pagos.RegistroCompras;
+import modelo.tiquetes.Tiquete;
+import modelo.usuarios.Comprador;
+import modelo.usuarios.Organizador;
+
+public class TestRegistroCompras {
+
+	private File diario;
+	private RegistroCompras registro;
+	private Comprador comprador;
+	private Evento evento;
+	private Localidad general;
+	private HashMap<String, Tiquete> tiquetes;
+
+	@BeforeEach
+    public void setup() throws Exception {
+    	diario = File.createTempFile("compras", ".csv");
+    	diario.delete();
+    	registro = new RegistroCompras(diario);
+    	comprador = new Comprador("ana", "ana123");
+    	Venue venue = new Venue("V1", "Estadio", "San José", 1000);
+    	general = new Localidad("L1", "General", false, venue, 100, 20.0);
+    	evento = new Evento("E1", "Concierto", new Date(System.currentTimeMillis() + 86400000L), venue,
+    						new Organizador("luis", "luis123"));
+    	tiquetes = new HashMap<>();
+    }
+
+	@AfterEach
+    public void limpiar() {
+    	diario.delete();
+    }
+
+	private Compra comprar(String id, int cantidad) {
+		ArrayList<Tiquete> comprados = new ArrayList<>();
+		for (int i = 0; i < cantidad; i++) {
+			Tiquete tiquete = new Tiquete(id + "-T" + i, 20.0, evento.getFechaHora(), general, evento);
+			tiquetes.put(tiquete.getId(), tiquete);
+			comprados.add(tiquete);
+		}
+		Compra compra = new Compra(id, new Date(), 20.0 * cantidad, comprados, comprador);
+		compra.setEstado("aprobada");
+		return compra;
+	}
+
+	@Test
+    void testBuscarPorId()
+    {
+		Compra compra = comprar("C1", 2);
+		assertTrue(registro.registrar(compra), "Se registra la compra");
+		assertFalse(registro.registrar(compra), "El mismo id no se registra dos veces");
+		registro.registrar(comprar("C2", 1));
+
+		assertEquals(compra, registro.buscar("C1"), "La compra se encuentra por id");
+		assertNull(registro.buscar("C9"), "Un id desconocido no tiene compra");
+		assertEquals(2, registro.getCompras().size(), "Dos compras en orden de registro");
+		assertEquals("C1", registro.getCompras().get(0).getId(), "La primera registrada va primero");
+    }
+
+	@Test
+    void testSobreviveAlReinicio()
+    {
+		registro.registrar(comprar("C1", 3));
+		registro.registrar(comprar("C2", 1));
+
+		RegistroCompras recargado = new RegistroCompras(diario);
+		assertEquals(2, recargado.cargar(login -> login.equals("ana") ? comprador : null, tiquetes::get),
+					 "Las dos compras vuelven del diario");
+		Compra compra = recargado.buscar("C1");
+		assertEquals(comprador, compra.getComprador(), "Se resuelve el comprador");
+		assertEquals(3, compra.getTiquetes().size(), "Se resuelven sus tiquetes");
+		assertEquals(60.0, compra.getMontoTotal(), 0.001, "Con el monto cobrado");
+		assertTrue(compra.estaAprobada(), "Y su estado");
+		assertEquals(0, recargado.cargar(login -> comprador, tiquetes::get), "Cargar de nuevo no duplica compras");
+    }
+}
@@ -0,0 +1,150 @@
+package Tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import modelo.eventos.Evento;
+import modelo.eventos.Venue;
+import modelo.tiquetes.RegistroPropiedad;
+import modelo.tiquetes.RegistroPropiedad.TipoTraspaso;
+import modelo.tiquetes.Tiquete;
+import modelo.usuarios.Administrador;
+import modelo.usuarios.Comprador;
+import modelo.usuarios.Organizador;
+import modelo.usuarios.Usuario;
+
+public class TestRegistroPropiedad {
+
+	private RegistroPropiedad registro;
+	private Comprador ana;
+	private Comprador juan;
+	private Comprador luis;
+	private Tiquete tiquete;
+
+	@BeforeEach
+    public void setup() throws Exception {
+    	registro = new RegistroPropiedad();
+    	ana = new Comprador("Ana", "Ana123");
+    	juan = new Comprador("Juan", "Juan123");
+    	luis = new Comprador("Luis", "Luis123");
+    	tiquete = new Tiquete("TQ-1", 100.0, new Date(), null, null);
+    }
+
+	@Test
+    void testRegistrarYTraspasar()
+    {
+		assertTrue(registro.registrar(tiquete, ana, TipoTraspaso.COMPRA), "El tiquete no tenía dueño");
+		assertFalse(registro.registrar(tiquete, juan, TipoTraspaso.COMPRA), "No se puede registrar dos veces");
+		assertTrue(registro.esPropietario(ana, tiquete), "Ana debe ser la propietaria");
+
+		assertTrue(registro.traspasar(tiquete, ana, juan, TipoTraspaso.REVENTA), "Ana puede vender su tiquete");
+		assertFalse(registro.esPropietario(ana, tiquete), "Ana ya no es la propietaria");
+		assertEquals(juan, registro.getPropietario(tiquete), "Juan debe ser el propietario");
+    }
+
+	@Test
+    void testSoloElPropietarioPuedeTraspasar()
+    {
+		registro.registrar(tiquete, ana, TipoTraspaso.COMPRA);
+		assertFalse(registro.traspasar(tiquete, juan, luis, TipoTraspaso.TRANSFERENCIA), "Juan no es el dueño");
+		assertEquals(1, registro.getCadena(tiquete).size(), "Un traspaso rechazado no se anota");
+    }
+
+	@Test
+    void testCadenaDePropietarios()
+    {
+		registro.registrar(tiquete, ana, TipoTraspaso.COMPRA);
+		registro.traspasar(tiquete, ana, juan, TipoTraspaso.TRANSFERENCIA);
+		registro.traspasar(tiquete, juan, luis, TipoTraspaso.REVENTA);
+
+		assertEquals(Arrays.asList("Ana", "Juan", "Luis"), registro.getPropietariosHistoricos(tiquete), "Cadena incorrecta");
+		assertEquals(TipoTraspaso.REVENTA, registro.getCadena(tiquete).get(2).getTipo(), "Tipo del último traspaso incorrecto");
+		assertEquals("Juan", registro.getCadena(tiquete).get(2).getOrigen(), "Origen del último traspaso incorrecto");
+		assertTrue(registro.fuePropietario(ana, tiquete), "Ana tuvo el tiquete");
+    }
+
+	@Test
+    void testTiqueteSinRegistrar()
+    {
+		assertNull(registro.getPropietario(tiquete), "El tiquete no tiene dueño registrado");
+		assertTrue(registro.getCadena(tiquete).isEmpty(), "La cadena debe estar vacía");
+    }
+
+	@Test
+    void testTenedoresDelEventoSiguenAlPropietarioActual()
+    {
+		Date manana = new Date(System.currentTimeMillis() + 86400000L);
+		Venue venue = new Venue("V001", "Movistar Arena", "Bogotá", 100);
+		Evento evento = new Evento("E001", "Concierto", manana, venue, new Organizador("Pedro", "Pedro1010"));
+		Evento otro = new Evento("E002", "Obra", manana, venue, new Organizador("Pedro", "Pedro1010"));
+		Tiquete primero = new Tiquete("TQ-E1", 100.0, manana, null, evento);
+		Tiquete segundo = new Tiquete("TQ-E2", 100.0, manana, null, evento);
+		registro.registrar(primero, ana, TipoTraspaso.COMPRA);
+		registro.registrar(segundo, ana, TipoTraspaso.COMPRA);
+		registro.registrar(new Tiquete("TQ-O1", 50.0, manana, null, otro), juan, TipoTraspaso.COMPRA);
+
+		registro.traspasar(segundo, ana, luis, TipoTraspaso.REVENTA);
+
+		assertEquals(2, registro.getTiquetesDelEvento(evento).size(), "Solo los tiquetes del evento");
+		assertEquals(Arrays.asList(primero), registro.getTenedores(evento).get(ana), "Ana conserva un tiquete");
+		assertEquals(Arrays.asList(segundo), registro.getTenedores(evento).get(luis), "Luis compró el otro");
+		assertFalse(registro.getTenedores(evento).containsKey(juan), "Juan no tiene tiquetes del evento");
+    }
+
+	@Test
+    void testCancelacionReembolsaSoloAlPropietarioActual()
+    {
+		Date manana = new Date(System.currentTimeMillis() + 86400000L);
+		Venue venue = new Venue("V001", "Movistar Arena", "Bogotá", 100);
+		Evento evento = new Evento("E001", "Concierto", manana, venue, new Organizador("Pedro", "Pedro1010"));
+		Tiquete vendido = new Tiquete("TQ-E1", 100.0, manana, null, evento);
+		registro.registrar(vendido, ana, TipoTraspaso.COMPRA);
+		registro.traspasar(vendido, ana, juan, TipoTraspaso.REVENTA);
+		double saldoAna = ana.getSaldoVirtual();
+		double saldoJuan = juan.getSaldoVirtual();
+
+		new Administrador("admin", "admin123").cancelarEvento(evento, registro);
+
+		assertEquals(saldoAna, ana.getSaldoVirtual(), "Ana ya no tenía el tiquete");
+		assertEquals(saldoJuan + 95.0, juan.getSaldoVirtual(), 0.001, "Juan recibe precio base menos emisión");
+		assertFalse(vendido.estaVigente(), "El tiquete reembolsado deja de estar vigente");
+		assertTrue(registro.getTiquetesDelEvento(evento).isEmpty(), "No quedan tiquetes por reembolsar");
+    }
+
+	@Test
+    void testCadenaSobreviveAlReinicio() throws Exception
+    {
+		File diario = File.createTempFile("propiedad", ".csv");
+		diario.delete();
+		HashMap<String, Usuario> usuarios = new HashMap<>();
+		usuarios.put("Ana", ana);
+		usuarios.put("Juan", juan);
+		usuarios.put("Luis", luis);
+		try {
+			registro.cargar(diario, usuarios::get, id -> tiquete);
+			registro.registrar(tiquete, ana, TipoTraspaso.COMPRA);
+			registro.traspasar(tiquete, ana, juan, TipoTraspaso.TRANSFERENCIA);
+			registro.traspasar(tiquete, juan, luis, TipoTraspaso.REVENTA);
+
+			RegistroPropiedad recargado = new RegistroPropiedad();
+			assertEquals(3, recargado.cargar(diario, usuarios::get, id -> tiquete), "Vuelven los tres traspasos");
+			assertEquals(luis, recargado.getPropietario(tiquete), "Luis sigue siendo el propietario");
+			assertFalse(recargado.registrar(tiquete, luis, TipoTraspaso.CARGA), "No se agrega una CARGA al recargar");
+			assertEquals(Arrays.asList("Ana", "Juan", "Luis"), recargado.getPropietariosHistoricos(tiquete),
+						 "La cadena se conserva tal como ocurrió");
+			assertEquals(TipoTraspaso.TRANSFERENCIA, recargado.getCadena(tiquete).get(1).getTipo(), "Con el tipo de cada traspaso");
+		} finally {
+			diario.delete();
+		}
+    }
+}
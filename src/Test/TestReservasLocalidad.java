@@ -0,0 +1,132 @@
+package Tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import modelo.eventos.Evento;
+import modelo.eventos.Localidad;
+import modelo.eventos.ReservasLocalidad;
+import modelo.eventos.Venue;
+import modelo.tiquetes.Tiquete;
+import modelo.usuarios.Comprador;
+import modelo.usuarios.Organizador;
+
+public class TestReservasLocalidad {
+
+	private Evento evento;
+	private Localidad general;
+	private Comprador comprador;
+
+	@BeforeEach
+    public void setup() throws Exception {
+    	Venue venue = new Venue("V001", "Movistar Arena", "Bogotá", 14000);
+    	evento = new Evento("E001", "Concierto", new Date(System.currentTimeMillis() + 86400000L), venue,
+    			new Organizador("Pedro", "Pedro1010"));
+    	evento.aprobar();
+    	general = new Localidad("L001", "General", false, venue, 5000, 10.0);
+    	general.asignarTiquetesCompactos(evento, 5000);
+    	comprador = new Comprador("Ana", "Ana123");
+    	comprador.agregarSaldo(1000);
+    }
+
+	@Test
+    void testReservasConcurrentesNoExcedenLosLibres() throws Exception
+    {
+		// 64 hilos intentan retener 100 asientos cada uno: solo caben 50 reservas
+		AtomicInteger reservasExitosas = new AtomicInteger();
+		CountDownLatch salida = new CountDownLatch(1);
+		ArrayList<Thread> hilos = new ArrayList<>();
+		for (int h = 0; h < 64; h++) {
+			String login = "comprador" + h;
+			Thread hilo = new Thread(() -> {
+				try {
+					salida.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				if (general.getReservas(evento).reservar(login, 100, ReservasLocalidad.TTL_POR_DEFECTO) != null) {
+					reservasExitosas.incrementAndGet();
+				}
+			});
+			hilos.add(hilo);
+			hilo.start();
+		}
+		salida.countDown();
+		for (Thread hilo : hilos) {
+			hilo.join();
+		}
+
+		assertEquals(50, reservasExitosas.get(), "Solo caben 50 reservas de 100");
+		assertEquals(5000, general.getReservas(evento).getRetenidos(), "Retenidos incorrectos");
+		assertEquals(0, general.getTiquetesDisponibles(evento), "Los asientos retenidos no están disponibles");
+		assertTrue(comprador.comprarTiquete(evento, general, 1, 0, 0).isEmpty(), "La venta directa respeta las reservas");
+    }
+
+	@Test
+    void testReservaVencidaVuelveALosLibres() throws Exception
+    {
+		ReservasLocalidad.Reserva reserva = general.getReservas(evento).reservar("Ana", 4000, 1);
+		assertNotNull(reserva, "Había asientos para reservar");
+		Thread.sleep(20);
+
+		assertEquals(5000, general.getTiquetesDisponibles(evento), "La reserva vencida devuelve sus asientos");
+		assertEquals(ReservasLocalidad.Estado.VENCIDA, reserva.getEstado(), "La reserva debe vencer");
+		assertTrue(comprador.comprarReserva(evento, general, reserva, 0, 0).isEmpty(), "No se compra una reserva vencida");
+		assertEquals(1000.0, comprador.getSaldoVirtual(), 0.001, "No se cobra una reserva vencida");
+    }
+
+	@Test
+    void testComprarReservaEmiteLosTiquetes()
+    {
+		ReservasLocalidad.Reserva reserva = general.getReservas(evento).reservar("Ana", 3, ReservasLocalidad.TTL_POR_DEFECTO);
+		assertEquals(4997, general.getTiquetesDisponibles(evento), "Los asientos quedan retenidos");
+
+		ArrayList<Tiquete> tiquetes = comprador.comprarReserva(evento, general, reserva, 0, 0);
+		assertEquals(3, tiquetes.size(), "Debe emitir los tiquetes reservados");
+		assertEquals(970.0, comprador.getSaldoVirtual(), 0.001, "Se cobra el precio de 3 tiquetes");
+		assertEquals(3, general.getInventario(evento).getVendidos(), "Vendidos incorrectos");
+		assertEquals(4997, general.getTiquetesDisponibles(evento), "No se descuentan dos veces");
+		assertEquals(0, general.getReservas(evento).getRetenidos(), "La reserva ya no retiene asientos");
+		assertTrue(comprador.comprarReserva(evento, general, reserva, 0, 0).isEmpty(), "Una reserva se usa una sola vez");
+    }
+
+	@Test
+    void testPagoFallidoLiberaLaReserva()
+    {
+		Comprador sinSaldo = new Comprador("Luis", "Luis123");
+		ReservasLocalidad.Reserva reserva = general.getReservas(evento).reservar("Luis", 10, ReservasLocalidad.TTL_POR_DEFECTO);
+
+		assertTrue(sinSaldo.comprarReserva(evento, general, reserva, 0, 0).isEmpty(), "Sin saldo no hay compra");
+		assertEquals(ReservasLocalidad.Estado.CANCELADA, reserva.getEstado(), "La reserva se cancela");
+		assertEquals(5000, general.getTiquetesDisponibles(evento), "Los asientos vuelven a estar libres");
+		assertNull(general.getReservas(evento).buscarReserva(reserva.getId()), "La reserva ya no está activa");
+		assertFalse(general.getReservas(evento).confirmar(reserva), "Una reserva cancelada no se confirma");
+    }
+
+	@Test
+    void testReservaAjenaNoSeTocaNiSeCobra()
+    {
+		ReservasLocalidad.Reserva reserva = general.getReservas(evento).reservar("Ana", 2, ReservasLocalidad.TTL_POR_DEFECTO);
+		Comprador otro = new Comprador("Luis", "Luis123");
+		otro.agregarSaldo(1000);
+		Evento sinInventario = new Evento("E002", "Obra", evento.getFechaHora(), evento.getVenue(), evento.getOrganizador());
+
+		assertTrue(comprador.esSuReserva(evento, general, reserva), "La reserva es de Ana");
+		assertFalse(otro.esSuReserva(evento, general, reserva), "Luis no es el dueño");
+		assertFalse(comprador.esSuReserva(sinInventario, general, reserva), "Ni es de otro evento sin reservas");
+		assertTrue(otro.comprarReserva(evento, general, reserva, 0, 0).isEmpty(), "Luis no puede pagarla");
+		assertEquals(ReservasLocalidad.Estado.ACTIVA, reserva.getEstado(), "La reserva de Ana sigue activa");
+		assertEquals(1000.0, otro.getSaldoVirtual(), 0.001, "A Luis no se le cobra nada");
+    }
+}
@@ -0,0 +1,80 @@
+package Tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import modelo.eventos.SalaEspera;
+
+public class TestSalaEspera {
+
+	@Test
+    void testAdmiteHastaElLimiteDeConcurrencia()
+    {
+		SalaEspera sala = new SalaEspera("E001", 2, 0);
+		SalaEspera.Turno ana = sala.entrar("Ana");
+		SalaEspera.Turno luis = sala.entrar("Luis");
+		SalaEspera.Turno eva = sala.entrar("Eva");
+		SalaEspera.Turno juan = sala.entrar("Juan");
+
+		assertEquals(SalaEspera.EstadoTurno.ADMITIDO, ana.getEstado(), "Hay cupo para Ana");
+		assertEquals(SalaEspera.EstadoTurno.ADMITIDO, luis.getEstado(), "Hay cupo para Luis");
+		assertEquals(SalaEspera.EstadoTurno.EN_ESPERA, eva.getEstado(), "Eva debe esperar");
+		assertEquals(1, sala.getPosicion(eva), "Eva es la siguiente");
+		assertEquals(2, sala.getPosicion(juan), "Juan va detrás de Eva");
+		assertTrue(sala.estimarEsperaMs(juan) > sala.estimarEsperaMs(eva), "Más atrás en la fila es más espera");
+		assertSame(eva, sala.entrar("Eva"), "Volver a entrar conserva el turno");
+
+		assertTrue(sala.consumirToken("Ana", ana.getToken()), "Ana compra y libera su cupo");
+		assertEquals(SalaEspera.EstadoTurno.ADMITIDO, eva.getEstado(), "El cupo pasa a Eva");
+		assertEquals(SalaEspera.EstadoTurno.EN_ESPERA, juan.getEstado(), "Juan sigue esperando");
+		assertEquals(2, sala.getComprando(), "Nunca más de 2 comprando");
+    }
+
+	@Test
+    void testTokenSoloSirveASuDueno()
+    {
+		SalaEspera sala = new SalaEspera("E001", 1, 0);
+		SalaEspera.Turno ana = sala.entrar("Ana");
+		assertNotNull(ana.getToken(), "Ana fue admitida");
+
+		assertTrue(sala.validarToken("Ana", ana.getToken()), "El token es de Ana");
+		assertFalse(sala.validarToken("Luis", ana.getToken()), "Luis no puede usar el token de Ana");
+		assertFalse(sala.validarToken("Ana", "ADM-falso"), "Un token inventado no sirve");
+		assertTrue(sala.consumirToken("Ana", ana.getToken()), "El token se consume al comprar");
+		assertFalse(sala.validarToken("Ana", ana.getToken()), "Un token usado no sirve otra vez");
+    }
+
+	@Test
+    void testTokenVencidoLiberaElCupo()
+    {
+		AtomicLong reloj = new AtomicLong(System.currentTimeMillis());
+		SalaEspera sala = new SalaEspera("E001", 1, 0, 200, reloj::get);
+		SalaEspera.Turno ana = sala.entrar("Ana");
+		SalaEspera.Turno luis = sala.entrar("Luis");
+		assertEquals(SalaEspera.EstadoTurno.EN_ESPERA, luis.getEstado(), "Solo hay un cupo");
+
+		reloj.addAndGet(300);
+		sala.avanzar();
+		assertEquals(SalaEspera.EstadoTurno.VENCIDO, ana.getEstado(), "Ana no compró a tiempo");
+		assertEquals(SalaEspera.EstadoTurno.ADMITIDO, luis.getEstado(), "El cupo de Ana pasa a Luis");
+    }
+
+	@Test
+    void testTasaDeAdmision()
+    {
+		SalaEspera sala = new SalaEspera("E001", 100, 1);
+		for (int i = 0; i < 10; i++) {
+			sala.entrar("comprador" + i);
+		}
+		assertEquals(1, sala.getComprando(), "Con una admisión por segundo solo entra uno de inmediato");
+		assertEquals(9, sala.getEnEspera(), "Los demás esperan su turno");
+		assertTrue(sala.estimarEsperaMs(sala.consultar("comprador9")) >= 8000, "La espera estimada sigue la tasa");
+    }
+}
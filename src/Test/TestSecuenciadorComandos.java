@@ -0,0 +1,260 @@
+package Tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import modelo.Comando;
+import modelo.SecuenciadorComandos;
+
+public class TestSecuenciadorComandos {
+
+	/**
+	 * Comando de prueba: agrega un valor a una lista compartida sin sincronización
+	 */
+	private static class Agregar implements Comando {
+		private final List<Integer> destino;
+		private final int valor;
+
+		Agregar(List<Integer> destino, int valor) {
+			this.destino = destino;
+			this.valor = valor;
+		}
+
+		public String getTipo() { return "AGREGAR"; }
+		public String codificar() { return "AGREGAR;" + valor; }
+		public Object ejecutar() {
+			destino.add(valor);
+			return destino.size();
+		}
+	}
+
+	/**
+	 * Comando de prueba: descuenta un monto de un saldo
+	 */
+	private static class Debitar implements Comando {
+		private final long[] saldo;
+		private final long monto;
+
+		Debitar(long[] saldo, long monto) {
+			this.saldo = saldo;
+			this.monto = monto;
+		}
+
+		public String getTipo() { return "DEBITAR"; }
+		public String codificar() { return "DEBITAR;" + monto; }
+		public Object ejecutar() {
+			saldo[0] -= monto;
+			return saldo[0];
+		}
+	}
+
+	private File diario;
+
+	@BeforeEach
+    public void setup() throws Exception {
+    	diario = File.createTempFile("diario", ".txt");
+    	diario.delete();
+    }
+
+	@AfterEach
+    public void limpiar() {
+    	diario.delete();
+    	SecuenciadorComandos.limpiarDiario(diario);
+    }
+
+	private static void escribir(File archivo, String contenido) throws Exception {
+		Files.write(archivo.toPath(), contenido.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static long leerSaldo(File archivo) throws Exception {
+		return Long.parseLong(new String(Files.readAllBytes(archivo.toPath()), StandardCharsets.UTF_8).trim());
+	}
+
+	@Test
+    void testCaidaTrasGuardarNoDebitaDosVeces() throws Exception
+    {
+		File guardado = File.createTempFile("saldo", ".txt");
+		try {
+			escribir(guardado, "100");
+			long[] saldo = { leerSaldo(guardado) };
+			CountDownLatch loteGuardado = new CountDownLatch(1);
+			// La instantánea se toma después de guardar el lote y vaciar el diario
+			SecuenciadorComandos secuenciador = new SecuenciadorComandos(4, diario, () -> {
+				if (saldo[0] < 100) {
+					loteGuardado.countDown();
+				}
+				return null;
+			}, () -> {
+				try {
+					escribir(guardado, String.valueOf(saldo[0]));
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+			});
+			secuenciador.iniciar();
+			assertEquals(70L, secuenciador.enviar(new Debitar(saldo, 30)).get(), "La compra debita una vez");
+			assertTrue(loteGuardado.await(5, TimeUnit.SECONDS), "El escritor guarda el lote");
+
+			// Caída: el secuenciador no se detiene; se reinicia desde lo que quedó en disco
+			long[] recuperado = { leerSaldo(guardado) };
+			int reproducidos = SecuenciadorComandos.reproducir(diario,
+				linea -> new Debitar(recuperado, Long.parseLong(linea.split(";")[1])));
+			assertEquals(0, reproducidos, "Lo ya guardado no se reproduce");
+			assertEquals(70L, recuperado[0], "El comprador queda debitado una sola vez");
+
+			// Caída entre el guardado y el vaciado del diario: la secuencia guardada se salta
+			escribir(diario, "0;DEBITAR;30\n1;DEBITAR;5\n");
+			reproducidos = SecuenciadorComandos.reproducir(diario,
+				linea -> new Debitar(recuperado, Long.parseLong(linea.split(";")[1])));
+			assertEquals(1, reproducidos, "Solo se reproduce lo posterior al último guardado");
+			assertEquals(65L, recuperado[0], "La compra guardada no se vuelve a debitar");
+			secuenciador.detener();
+		} finally {
+			guardado.delete();
+		}
+    }
+
+	@Test
+    void testProductoresConcurrentesUnSoloEscritor() throws Exception
+    {
+		ArrayList<Integer> aplicados = new ArrayList<>(); // solo la toca el escritor
+		SecuenciadorComandos secuenciador = new SecuenciadorComandos(16, null, null);
+		secuenciador.iniciar();
+
+		CountDownLatch salida = new CountDownLatch(1);
+		ArrayList<Thread> hilos = new ArrayList<>();
+		for (int h = 0; h < 8; h++) {
+			int base = h * 1000;
+			Thread hilo = new Thread(() -> {
+				try {
+					salida.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				for (int i = 0; i < 500; i++) {
+					secuenciador.enviar(new Agregar(aplicados, base + i));
+				}
+			});
+			hilos.add(hilo);
+			hilo.start();
+		}
+		salida.countDown();
+		for (Thread hilo : hilos) {
+			hilo.join();
+		}
+		secuenciador.detener();
+
+		assertEquals(4000, aplicados.size(), "Todos los comandos se aplican, aunque el buffer dé muchas vueltas");
+		assertEquals(3999, secuenciador.getAplicada(), "Última secuencia aplicada");
+		// Cada productor ve sus propios comandos aplicados en el orden en que los envió
+		int[] ultimo = new int[8];
+		Arrays.fill(ultimo, -1);
+		for (int valor : aplicados) {
+			int h = valor / 1000;
+			assertTrue(valor % 1000 > ultimo[h], "El orden de un productor se conserva");
+			ultimo[h] = valor % 1000;
+		}
+    }
+
+	@Test
+    void testResultadoYLotes() throws Exception
+    {
+		ArrayList<Integer> aplicados = new ArrayList<>();
+		ArrayList<Integer> vistos = new ArrayList<>(); // tamaño visto por cada instantánea
+		SecuenciadorComandos secuenciador = new SecuenciadorComandos(8, null, () -> {
+			vistos.add(aplicados.size());
+			return null;
+		});
+		secuenciador.iniciar();
+
+		CompletableFuture<Object> primero = secuenciador.enviar(new Agregar(aplicados, 7));
+		assertEquals(1, primero.get(), "El resultado llega cuando el comando se aplica");
+		CompletableFuture<Object> ultimo = null;
+		for (int i = 0; i < 20; i++) {
+			ultimo = secuenciador.enviar(new Agregar(aplicados, i));
+		}
+		assertEquals(21, ultimo.get(), "Los comandos se aplican en orden de secuencia");
+		secuenciador.detener();
+
+		assertEquals(secuenciador.getLotes() + 1, vistos.size(), "Una instantánea inicial y una por lote");
+		assertEquals(21, (int) vistos.get(vistos.size() - 1), "La última instantánea ve todos los comandos");
+		assertTrue(secuenciador.getLotes() <= 21, "Los comandos publicados juntos se aplican en un mismo lote");
+    }
+
+	@Test
+    void testReproducirDiario() throws Exception
+    {
+		ArrayList<Integer> originales = new ArrayList<>();
+		SecuenciadorComandos secuenciador = new SecuenciadorComandos(4, diario, null);
+		secuenciador.iniciar();
+		for (int i = 0; i < 10; i++) {
+			secuenciador.enviar(new Agregar(originales, i * i));
+		}
+		secuenciador.detener();
+
+		// Recuperación: el diario reconstruye el mismo estado, en el mismo orden
+		ArrayList<Integer> recuperados = new ArrayList<>();
+		int reproducidos = SecuenciadorComandos.reproducir(diario,
+			linea -> new Agregar(recuperados, Integer.parseInt(linea.split(";")[1])));
+
+		assertEquals(10, reproducidos, "Se reproducen todos los comandos anotados");
+		assertEquals(originales, recuperados, "El estado recuperado es idéntico");
+    }
+
+	@Test
+    void testDetenerConEnviosEnCurso() throws Exception
+    {
+		ArrayList<Integer> aplicados = new ArrayList<>();
+		SecuenciadorComandos secuenciador = new SecuenciadorComandos(4, null, null);
+		secuenciador.iniciar();
+
+		List<CompletableFuture<Object>> resultados = Collections.synchronizedList(new ArrayList<>());
+		ArrayList<Thread> hilos = new ArrayList<>();
+		for (int h = 0; h < 8; h++) {
+			Thread hilo = new Thread(() -> {
+				try {
+					while (true) {
+						resultados.add(secuenciador.enviar(new Agregar(aplicados, 1)));
+					}
+				} catch (IllegalStateException e) {
+					// el secuenciador ya no acepta comandos
+				}
+			});
+			hilos.add(hilo);
+			hilo.start();
+		}
+		Thread.sleep(20);
+		secuenciador.detener();
+		for (Thread hilo : hilos) {
+			hilo.join(5000);
+			assertFalse(hilo.isAlive(), "Ningún productor queda esperando una ranura");
+		}
+
+		int fallidos = 0;
+		for (CompletableFuture<Object> resultado : resultados) {
+			try {
+				resultado.get(5, TimeUnit.SECONDS);
+			} catch (ExecutionException e) {
+				fallidos++;
+			}
+		}
+		assertEquals(resultados.size() - fallidos, aplicados.size(), "Los envíos aceptados se aplican y los demás fallan");
+    }
+}
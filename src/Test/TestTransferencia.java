@@ -0,0 +1,120 @@
+package Tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import modelo.pagos.Transferencia;
+import modelo.usuarios.Comprador;
+import modelo.usuarios.CuentaPlataforma;
+
+public class TestTransferencia {
+
+	private Comprador ana;
+	private Comprador luis;
+	private CuentaPlataforma plataforma;
+
+	@BeforeEach
+    public void setup() throws Exception {
+    	ana = new Comprador("AnaTransfer", "Ana123");
+    	luis = new Comprador("LuisTransfer", "Luis123");
+    	plataforma = new CuentaPlataforma();
+    	ana.agregarSaldo(1000);
+    	luis.agregarSaldo(1000);
+    }
+
+	@Test
+    void testComisionParaLaPlataforma()
+    {
+		assertTrue(Transferencia.ejecutar(ana, luis, 10000, plataforma, 500, "Reventa", null), "Hay saldo suficiente");
+		assertEquals(900.0, ana.getSaldoVirtual(), 0.001, "Se debita el precio completo");
+		assertEquals(1095.0, luis.getSaldoVirtual(), 0.001, "El vendedor recibe el precio menos la comisión");
+		assertEquals(5.0, plataforma.getSaldoVirtual(), 0.001, "La plataforma recibe la comisión");
+
+		assertFalse(Transferencia.ejecutar(ana, luis, 1000000, plataforma, 0, "Reventa", null), "No hay saldo suficiente");
+		assertEquals(900.0, ana.getSaldoVirtual(), 0.001, "Un débito fallido no cambia nada");
+		assertEquals(1095.0, luis.getSaldoVirtual(), 0.001, "Un débito fallido no acredita");
+    }
+
+	@Test
+    void testTransferenciasCruzadasSinInterbloqueo() throws Exception
+    {
+		// La mitad de los hilos paga de Ana a Luis y la otra mitad de Luis a Ana
+		ejecutarEnParalelo(hilo -> {
+			for (int i = 0; i < 500; i++) {
+				if (hilo % 2 == 0) {
+					Transferencia.ejecutar(ana, luis, 100, plataforma, 1, "Cruce", null);
+				} else {
+					Transferencia.ejecutar(luis, ana, 100, plataforma, 1, "Cruce", null);
+				}
+			}
+		});
+
+		long total = ana.getSaldoCentavos() + luis.getSaldoCentavos() + plataforma.getSaldoCentavos();
+		assertEquals(200000, total, "El dinero no se crea ni se pierde");
+    }
+
+	@Test
+    void testUnTiqueteNoSeVendeDosVeces() throws Exception
+    {
+		AtomicBoolean enVenta = new AtomicBoolean(true);
+		AtomicInteger ventas = new AtomicInteger();
+		Comprador vendedor = new Comprador("VendedorTransfer", "clave");
+		ejecutarEnParalelo(hilo -> {
+			Comprador comprador = new Comprador("compradorTransfer" + hilo, "clave");
+			comprador.agregarSaldo(50);
+			boolean vendido = Transferencia.ejecutar(comprador, vendedor, 5000, null, 0, "Reventa",
+				new Transferencia.Traspaso() {
+					@Override
+					public boolean validar() {
+						return enVenta.get();
+					}
+
+					@Override
+					public void aplicar() {
+						enVenta.set(false);
+					}
+				});
+			if (vendido) {
+				ventas.incrementAndGet();
+			}
+		});
+
+		assertEquals(1, ventas.get(), "Solo un comprador se lleva el tiquete");
+		assertEquals(50.0, vendedor.getSaldoVirtual(), 0.001, "El vendedor cobra una sola vez");
+    }
+
+	private interface Tarea {
+		void ejecutar(int hilo);
+	}
+
+	private void ejecutarEnParalelo(Tarea tarea) throws Exception {
+		CountDownLatch salida = new CountDownLatch(1);
+		ArrayList<Thread> hilos = new ArrayList<>();
+		for (int h = 0; h < 16; h++) {
+			int hilo = h;
+			Thread thread = new Thread(() -> {
+				try {
+					salida.await();
+					tarea.ejecutar(hilo);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+			hilos.add(thread);
+			thread.start();
+		}
+		salida.countDown();
+		for (Thread thread : hilos) {
+			thread.join();
+		}
+	}
+}
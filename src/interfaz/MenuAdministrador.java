@@ -1,6 +1,7 @@
 package interfaz;
 
 import modelo.Aplicacion;
+import modelo.GeneradorIds;
 import modelo.usuarios.Administrador;
 import modelo.usuarios.Usuario;
 import modelo.eventos.Evento;
@@ -8,7 +9,12 @@ import modelo.eventos.Venue;
 import modelo.tiquetes.TiqueteReventa;
 import interfaz.util.ValidadorEntradas;
 import modelo.eventos.Localidad;
+import modelo.eventos.MotorPrecios;
+import modelo.persistencia.ImportadorMasivo;
+import modelo.persistencia.ColaAprobaciones;
+import modelo.pagos.AgregadosIngresos;
 
+import java.io.File;
 import java.util.ArrayList;
 
 /**
@@ -34,9 +40,12 @@ public class MenuAdministrador extends MenuBase {
             System.out.println("4. Ver reportes de ganancias");
             System.out.println("5. Eliminar oferta de reventa");
             System.out.println("6. Configurar tarifas del sistema");
+            System.out.println("7. Importar venues y eventos desde archivo");
+            System.out.println("8. Moderar pendientes en lote");
+            System.out.println("9. Configurar precios dinámicos");
             System.out.println("0. Cerrar sesión");
             
-            int opcion = ValidadorEntradas.leerEntero("\nSeleccione una opción: ", 0, 6);
+            int opcion = ValidadorEntradas.leerEntero("\nSeleccione una opción: ", 0, 9);
             
             switch (opcion) {
                 case 1:
@@ -57,6 +66,15 @@ public class MenuAdministrador extends MenuBase {
                 case 6:
                     configurarTarifas(admin);
                     break;
+                case 7:
+                    importarArchivo(admin);
+                    break;
+                case 8:
+                    moderarEnLote(admin);
+                    break;
+                case 9:
+                    configurarPreciosDinamicos(admin);
+                    break;
                 case 0:
                     salir = true;
                     break;
@@ -69,7 +87,7 @@ public class MenuAdministrador extends MenuBase {
     private void crearVenue(Administrador admin) {
         mostrarEncabezado("CREAR NUEVO VENUE");
         
-        String id = "V" + System.currentTimeMillis();
+        String id = GeneradorIds.getInstancia().siguiente("V");
         String nombre = ValidadorEntradas.leerString("Nombre del venue: ", 3, 100);
         String ubicacion = ValidadorEntradas.leerString("Ubicación: ", 5, 200);
         int capacidad = ValidadorEntradas.leerEntero("Capacidad máxima: ", 1, 1000000);
@@ -94,7 +112,7 @@ public class MenuAdministrador extends MenuBase {
         
         boolean continuar = true;
         while (continuar) {
-            String idLocalidad = "L" + System.currentTimeMillis();
+            String idLocalidad = GeneradorIds.getInstancia().siguiente("L");
             String tipoLocalidad = ValidadorEntradas.leerString("Tipo de localidad (ej: VIP, General, Platea): ");
             boolean numerada = ValidadorEntradas.leerBooleano("¿Es localidad numerada?");
             int capacidad = ValidadorEntradas.leerEntero("Capacidad de la localidad: ", 1, venue.getCapacidad());
@@ -104,6 +122,13 @@ public class MenuAdministrador extends MenuBase {
             Localidad localidad = venue.crearLocalidad(idLocalidad, tipoLocalidad, numerada, capacidad, precioBase);
             if (localidad != null) {
                 System.out.println("Localidad '" + tipoLocalidad + "' agregada exitosamente.");
+                
+                // Las localidades numeradas pueden organizarse en filas
+                if (numerada && ValidadorEntradas.leerBooleano("¿Configurar filas de asientos?")) {
+                    int filas = ValidadorEntradas.leerEntero("Número de filas: ", 1, capacidad);
+                    int asientosPorFila = ValidadorEntradas.leerEntero("Asientos por fila: ", 1, capacidad / filas);
+                    localidad.configurarMapaAsientos(filas, asientosPorFila);
+                }
             }
             
             continuar = ValidadorEntradas.leerBooleano("¿Agregar otra localidad?");
@@ -207,8 +232,19 @@ public class MenuAdministrador extends MenuBase {
     private void verReportesGanancias(Administrador admin) {
         mostrarEncabezado("REPORTES DE GANANCIAS");
         
-        // Usar el método existente del administrador
-        admin.observarGanancias(aplicacion.getTodasLasCompras());
+        AgregadosIngresos agregados = aplicacion.getAgregadosIngresos();
+        admin.observarGanancias(agregados);
+        
+        System.out.println("\nDesglose:");
+        System.out.println("1. Por evento");
+        System.out.println("2. Por localidad");
+        System.out.println("3. Por organizador");
+        System.out.println("4. Por día");
+        System.out.println("0. Volver");
+        int opcion = ValidadorEntradas.leerEntero("Seleccione un desglose: ", 0, 4);
+        if (opcion > 0) {
+            admin.observarGananciasPor(agregados, AgregadosIngresos.Dimension.values()[opcion - 1]);
+        }
         
         ValidadorEntradas.pausar();
     }
@@ -272,4 +308,137 @@ public class MenuAdministrador extends MenuBase {
         
         ValidadorEntradas.pausar();
     }
-}
\ No newline at end of file
+    
+    private void configurarPreciosDinamicos(Administrador admin) {
+        mostrarEncabezado("CONFIGURAR PRECIOS DINÁMICOS");
+        
+        MotorPrecios motor = aplicacion.getMotorPrecios();
+        System.out.println("Reglas actuales:");
+        if (motor.getReglas().isEmpty()) {
+            System.out.println("  (sin reglas: se cobra el precio base)");
+        }
+        for (MotorPrecios.ReglaPrecio regla : motor.getReglas()) {
+            System.out.println("  " + regla);
+        }
+        System.out.println("Piso: " + (motor.getPiso() * 100) + "% | Techo: " + (motor.getTecho() * 100) + "% del precio base");
+        
+        if (!ValidadorEntradas.leerBooleano("Reemplazar las reglas")) {
+            ValidadorEntradas.pausar();
+            return;
+        }
+        
+        ArrayList<MotorPrecios.ReglaPrecio> reglas = new ArrayList<>();
+        System.out.println("1. Porcentaje vendido mínimo (0-100)");
+        System.out.println("2. Horas máximas antes del evento");
+        System.out.println("3. Prima mínima de reventa (1.5 = reventa a 150% del base)");
+        System.out.println("0. Terminar");
+        int opcion = ValidadorEntradas.leerEntero("Criterio de la regla: ", 0, 3);
+        while (opcion != 0) {
+            MotorPrecios.Criterio criterio = MotorPrecios.Criterio.values()[opcion - 1];
+            double umbral = ValidadorEntradas.leerDouble("Umbral: ", 0, 100000);
+            double factor = ValidadorEntradas.leerDouble("Factor sobre el precio (ej: 1.2): ", 0.01, 10);
+            reglas.add(new MotorPrecios.ReglaPrecio(criterio, umbral, factor));
+            opcion = ValidadorEntradas.leerEntero("Criterio de la regla (0 para terminar): ", 0, 3);
+        }
+        double piso = ValidadorEntradas.leerDouble("Piso (fracción del precio base, ej: 0.8): ", 0.01, 10);
+        double techo = ValidadorEntradas.leerDouble("Techo (fracción del precio base, ej: 2.0): ", piso, 10);
+        int periodo = ValidadorEntradas.leerEntero("Segundos entre recálculos: ", 1, 86400);
+        
+        if (aplicacion.configurarPreciosDinamicos(admin, reglas, piso, techo, periodo)) {
+            System.out.println("¡Precios dinámicos actualizados!");
+        }
+        
+        ValidadorEntradas.pausar();
+    }
+    
+    private void importarArchivo(Administrador admin) {
+        mostrarEncabezado("IMPORTAR VENUES Y EVENTOS");
+        
+        System.out.println("Formatos: CSV (VENUE, LOCALIDAD, EVENTO, TIQUETES) o JSON lines (.jsonl)");
+        String ruta = ValidadorEntradas.leerString("Ruta del archivo: ");
+        File archivo = new File(ruta);
+        if (!archivo.exists()) {
+            System.out.println("El archivo no existe.");
+            ValidadorEntradas.pausar();
+            return;
+        }
+        
+        ImportadorMasivo.Resultado resultado = aplicacion.importarMasivo(admin, archivo);
+        if (resultado != null && resultado.isAplicado()) {
+            System.out.println("¡Importación completada exitosamente!");
+        } else {
+            System.out.println("No se importó nada. Corrija las líneas con errores y vuelva a intentarlo.");
+        }
+        
+        ValidadorEntradas.pausar();
+    }
+    
+    private void moderarEnLote(Administrador admin) {
+        mostrarEncabezado("MODERAR PENDIENTES EN LOTE");
+        
+        System.out.println("1. Eventos");
+        System.out.println("2. Venues sugeridos");
+        System.out.println("3. Solicitudes");
+        int opcionTipo = ValidadorEntradas.leerEntero("Tipo de pendientes: ", 1, 3);
+        ColaAprobaciones.TipoPendiente tipo = ColaAprobaciones.TipoPendiente.values()[opcionTipo - 1];
+        
+        String organizador = ValidadorEntradas.leerString("Filtrar por organizador (- = todos): ");
+        String venueId = ValidadorEntradas.leerString("Filtrar por id de venue (- = todos): ");
+        organizador = organizador.equals("-") ? null : organizador;
+        venueId = venueId.equals("-") ? null : venueId;
+        
+        String cursor = null;
+        while (true) {
+            ColaAprobaciones.Pagina pagina = aplicacion.getPendientes(admin, tipo, organizador, venueId, cursor,
+                                                                      ColaAprobaciones.TAMANO_PAGINA_POR_DEFECTO);
+            if (pagina == null || pagina.getTotal() == 0) {
+                System.out.println("No hay pendientes con ese filtro.");
+                break;
+            }
+            
+            System.out.println("\nPendientes (" + pagina.getTotal() + " en total):");
+            for (ColaAprobaciones.Pendiente pendiente : pagina.getPendientes()) {
+                System.out.println("  " + pendiente);
+            }
+            
+            System.out.println("\nIds separados por comas, * para todos los de la página, ** para todos los del filtro,");
+            String seleccion = ValidadorEntradas.leerString((pagina.tieneSiguiente() ? "> para la página siguiente, " : "") + "0 para terminar: ");
+            if (seleccion.equals("0")) {
+                break;
+            }
+            if (seleccion.equals(">")) {
+                cursor = pagina.tieneSiguiente() ? pagina.getCursorSiguiente() : null;
+                continue;
+            }
+            
+            ArrayList<String> ids = new ArrayList<>();
+            if (seleccion.equals("**")) {
+                ColaAprobaciones.Pagina todos = aplicacion.getPendientes(admin, tipo, organizador, venueId, null, pagina.getTotal());
+                for (ColaAprobaciones.Pendiente pendiente : todos.getPendientes()) {
+                    ids.add(pendiente.getId());
+                }
+            } else if (seleccion.equals("*")) {
+                for (ColaAprobaciones.Pendiente pendiente : pagina.getPendientes()) {
+                    ids.add(pendiente.getId());
+                }
+            } else {
+                for (String id : seleccion.split(",")) {
+                    if (!id.trim().isEmpty()) {
+                        ids.add(id.trim());
+                    }
+                }
+            }
+            
+            boolean aprobar = ValidadorEntradas.leerBooleano("¿Aprobar los " + ids.size() + " seleccionados? (no = rechazar)");
+            String respuesta = tipo == ColaAprobaciones.TipoPendiente.SOLICITUD
+                ? ValidadorEntradas.leerString("Respuesta para los solicitantes: ") : null;
+            ColaAprobaciones.ResultadoLote resultado = aplicacion.resolverPendientes(admin, tipo, ids, aprobar, respuesta);
+            if (resultado != null && !resultado.getNoEncontrados().isEmpty()) {
+                System.out.println("No encontrados o ya resueltos: " + resultado.getNoEncontrados());
+            }
+            cursor = null; // los resueltos ya no están en la cola
+        }
+        
+        ValidadorEntradas.pausar();
+    }
+}
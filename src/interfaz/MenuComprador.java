@@ -5,12 +5,16 @@ import modelo.usuarios.Comprador;
 import modelo.usuarios.Usuario;
 import modelo.eventos.Evento;
 import modelo.eventos.Localidad;
+import modelo.eventos.ConsultaEventos;
+import modelo.eventos.PaginaEventos;
 import modelo.tiquetes.Tiquete;
 import modelo.tiquetes.TiqueteReventa;
 import modelo.tiquetes.Contraoferta;
+import modelo.pagos.Compra;
 import interfaz.util.ValidadorEntradas;
 
 import java.util.ArrayList;
+import java.util.Date;
 
 /**
  * Menú para usuarios compradores
@@ -39,9 +43,10 @@ public class MenuComprador extends MenuBase {
             System.out.println("8. Ver mis contraofertas");
             System.out.println("9. Ver saldo virtual");
             System.out.println("10. Recargar saldo");
+            System.out.println("11. Comprar reventas más baratas de un evento");
             System.out.println("0. Cerrar sesión");
             
-            int opcion = ValidadorEntradas.leerEntero("\nSeleccione una opción: ", 0, 10);
+            int opcion = ValidadorEntradas.leerEntero("\nSeleccione una opción: ", 0, 11);
             
             switch (opcion) {
                 case 1:
@@ -74,6 +79,9 @@ public class MenuComprador extends MenuBase {
                 case 10:
                     recargarSaldo(comprador);
                     break;
+                case 11:
+                    comprarReventasMasBaratas(comprador);
+                    break;
                 case 0:
                     salir = true;
                     break;
@@ -86,81 +94,157 @@ public class MenuComprador extends MenuBase {
     private void verEventosDisponibles() {
         mostrarEncabezado("EVENTOS DISPONIBLES");
         
-        ArrayList<Evento> eventos = aplicacion.getEventosDisponibles();
-        if (eventos.isEmpty()) {
-            System.out.println("No hay eventos disponibles en este momento.");
-        } else {
-            for (int i = 0; i < eventos.size(); i++) {
-                Evento evento = eventos.get(i);
-                System.out.println((i + 1) + ". " + evento.getNombre());
+        ConsultaEventos consulta = construirConsulta();
+        String cursor = null;
+        int numero = 1;
+        
+        do {
+            PaginaEventos pagina = aplicacion.consultarEventos(consulta, cursor);
+            if (pagina.estaVacia() && numero == 1) {
+                System.out.println("No hay eventos disponibles en este momento.");
+                break;
+            }
+            
+            for (Evento evento : pagina.getEventos()) {
+                System.out.println((numero++) + ". " + evento.getNombre());
                 System.out.println("   Fecha: " + evento.getFechaHora());
                 System.out.println("   Lugar: " + evento.getVenue().getNombre());
                 System.out.println("   Tiquetes disponibles: " + evento.getTiquetesDisponibles());
                 System.out.println("   Precios: ");
                 for (Localidad localidad : evento.getVenue().getLocalidades()) {
-                    if (localidad.hayDisponibilidad()) {
+                    if (localidad.hayDisponibilidad(evento)) {
                         System.out.println("     - " + localidad.getTipoLocalidad() + ": $" + 
-                                         localidad.getPrecioBase() + " (" + 
-                                         localidad.getTiquetesDisponibles() + " disponibles)");
+                                         localidad.getPrecioVigente(evento) + " (" + 
+                                         localidad.getTiquetesDisponibles(evento) + " disponibles)");
                     }
                 }
                 System.out.println();
             }
-        }
+            cursor = pagina.getCursorSiguiente();
+        } while (cursor != null && ValidadorEntradas.leerBooleano("¿Ver la siguiente página?"));
         
         ValidadorEntradas.pausar();
     }
     
+    /**
+     * Pide al usuario los filtros opcionales de búsqueda en el catálogo
+     */
+    private ConsultaEventos construirConsulta() {
+        ConsultaEventos consulta = new ConsultaEventos();
+        if (!ValidadorEntradas.leerBooleano("¿Desea filtrar la búsqueda?")) {
+            return consulta;
+        }
+        
+        int dias = ValidadorEntradas.leerEntero("Eventos en los próximos N días (0 = sin límite): ", 0, 3650);
+        if (dias > 0) {
+            consulta.setDesde(new Date());
+            consulta.setHasta(new Date(System.currentTimeMillis() + dias * 24L * 60 * 60 * 1000));
+        }
+        
+        double precioMaximo = ValidadorEntradas.leerDouble("Precio máximo (0 = sin límite): $", 0, 1000000.0);
+        if (precioMaximo > 0) {
+            consulta.setPrecioMaximo(precioMaximo);
+        }
+        
+        if (ValidadorEntradas.leerBooleano("¿Filtrar por tipo de localidad?")) {
+            consulta.setTipoLocalidad(ValidadorEntradas.leerString("Tipo de localidad (ej: VIP, General): "));
+        }
+        
+        consulta.setMinimoDisponibles(ValidadorEntradas.leerEntero("Mínimo de tiquetes disponibles: ", 1, 10));
+        consulta.setOrdenarPorPrecio(ValidadorEntradas.leerBooleano("¿Ordenar por precio (en vez de fecha)?"));
+        return consulta;
+    }
+    
+    /**
+     * Muestra el catálogo página por página y permite seleccionar un evento
+     * @return evento seleccionado o null si el usuario no eligió ninguno
+     */
+    private Evento seleccionarEventoPaginado() {
+        ConsultaEventos consulta = construirConsulta();
+        String cursor = null;
+        boolean primeraPagina = true;
+        
+        while (true) {
+            PaginaEventos pagina = aplicacion.consultarEventos(consulta, cursor);
+            ArrayList<Evento> eventos = pagina.getEventos();
+            if (eventos.isEmpty()) {
+                System.out.println(primeraPagina ? "No hay eventos disponibles para comprar." 
+                                                 : "No hay más eventos.");
+                return null;
+            }
+            primeraPagina = false;
+            
+            System.out.println("Seleccione un evento:");
+            for (int i = 0; i < eventos.size(); i++) {
+                System.out.println((i + 1) + ". " + eventos.get(i).getNombre() + 
+                                 " (" + eventos.get(i).getFechaHora() + ")");
+            }
+            String mensaje = pagina.tieneSiguiente() ? "Evento (0 = siguiente página): " : "Evento (0 = cancelar): ";
+            int opcion = ValidadorEntradas.leerEntero(mensaje, 0, eventos.size());
+            
+            if (opcion > 0) {
+                return eventos.get(opcion - 1);
+            }
+            if (!pagina.tieneSiguiente()) {
+                return null;
+            }
+            cursor = pagina.getCursorSiguiente();
+        }
+    }
+    
     private void comprarTiquetes(Comprador comprador) {
         mostrarEncabezado("COMPRAR TIQUETES");
         
-        ArrayList<Evento> eventos = aplicacion.getEventosDisponibles();
-        if (eventos.isEmpty()) {
-            System.out.println("No hay eventos disponibles para comprar.");
+        // Seleccionar evento (el catálogo se recorre una página a la vez)
+        Evento evento = seleccionarEventoPaginado();
+        if (evento == null) {
             ValidadorEntradas.pausar();
             return;
         }
         
-        // Seleccionar evento
-        System.out.println("Seleccione un evento:");
-        for (int i = 0; i < eventos.size(); i++) {
-            System.out.println((i + 1) + ". " + eventos.get(i).getNombre());
-        }
-        
-        int opcionEvento = ValidadorEntradas.leerEntero("Evento: ", 1, eventos.size()) - 1;
-        Evento evento = eventos.get(opcionEvento);
-        
         // Seleccionar localidad
         ArrayList<Localidad> localidades = evento.getVenue().getLocalidades();
         System.out.println("\nSeleccione una localidad:");
         for (int i = 0; i < localidades.size(); i++) {
             Localidad localidad = localidades.get(i);
-            if (localidad.hayDisponibilidad()) {
+            if (localidad.hayDisponibilidad(evento)) {
                 System.out.println((i + 1) + ". " + localidad.getTipoLocalidad() + 
-                                 " - $" + localidad.getPrecioBase() + 
-                                 " (" + localidad.getTiquetesDisponibles() + " disponibles)");
+                                 " - $" + localidad.getPrecioVigente(evento) + 
+                                 " (" + localidad.getTiquetesDisponibles(evento) + " disponibles)");
             }
         }
         
         int opcionLocalidad = ValidadorEntradas.leerEntero("Localidad: ", 1, localidades.size()) - 1;
         Localidad localidad = localidades.get(opcionLocalidad);
         
-        if (!localidad.hayDisponibilidad()) {
+        if (!localidad.hayDisponibilidad(evento)) {
             System.out.println("Error: No hay tiquetes disponibles en esta localidad.");
             ValidadorEntradas.pausar();
             return;
         }
         
         // Seleccionar cantidad
-        int maxTiquetes = Math.min(localidad.getTiquetesDisponibles(), 10); // Máximo 10 por transacción
+        int maxTiquetes = Math.min(localidad.getTiquetesDisponibles(evento), 10); // Máximo 10 por transacción
         int cantidad = ValidadorEntradas.leerEntero("Cantidad de tiquetes (1-" + maxTiquetes + "): ", 1, maxTiquetes);
         
         // Obtener porcentaje adicional y cobro fijo del administrador
         double porcentajeAdicional = 0.15; // Valor por defecto
         double cobroFijo = 5.0; // Valor por defecto
         
+        // En localidades numeradas con mapa se puede pedir asientos juntos
+        boolean asientosContiguos = false;
+        if (localidad.tieneMapaAsientos() && cantidad > 1) {
+            asientosContiguos = ValidadorEntradas.leerBooleano("¿Desea asientos contiguos en la misma fila?");
+        }
+        
         // Realizar compra
-        aplicacion.comprarTiquetes(comprador, evento, localidad, cantidad, porcentajeAdicional, cobroFijo);
+        Compra compra = aplicacion.comprarTiquetes(comprador, evento, localidad, cantidad, 
+                                                   porcentajeAdicional, cobroFijo, asientosContiguos);
+        if (compra != null && localidad.tieneMapaAsientos()) {
+            for (Tiquete tiquete : compra.getTiquetes()) {
+                System.out.println(" - " + tiquete.getId() + " | " + localidad.describirAsiento(tiquete));
+            }
+        }
         
         ValidadorEntradas.pausar();
     }
@@ -226,8 +310,20 @@ public class MenuComprador extends MenuBase {
         // Precio de reventa
         double precioReventa = ValidadorEntradas.leerDouble("Precio de reventa: $", 0.01, 10000.0);
         
+        // Reglas automáticas para las contraofertas (opcionales)
+        double precioMinimo = 0;
+        double precioAutoAceptar = 0;
+        if (ValidadorEntradas.leerBooleano("¿Configurar reglas automáticas de contraoferta?")) {
+            precioMinimo = ValidadorEntradas.leerDouble("Rechazar contraofertas por debajo de (0 = sin mínimo): $", 
+                                                       0, precioReventa - 0.01);
+            if (ValidadorEntradas.leerBooleano("¿Aceptar automáticamente desde un precio?")) {
+                precioAutoAceptar = ValidadorEntradas.leerDouble("Aceptar contraofertas desde: $", 
+                                                                Math.max(precioMinimo, 0.01), precioReventa - 0.01);
+            }
+        }
+        
         // Poner en reventa
-        aplicacion.ponerTiqueteEnReventa(comprador, tiquete, precioReventa);
+        aplicacion.ponerTiqueteEnReventa(comprador, tiquete, precioReventa, precioMinimo, precioAutoAceptar);
         
         ValidadorEntradas.pausar();
     }
@@ -321,6 +417,42 @@ public class MenuComprador extends MenuBase {
         ValidadorEntradas.pausar();
     }
     
+    private void comprarReventasMasBaratas(Comprador comprador) {
+        mostrarEncabezado("COMPRAR REVENTAS MÁS BARATAS");
+        
+        Evento evento = seleccionarEventoPaginado();
+        if (evento == null) {
+            ValidadorEntradas.pausar();
+            return;
+        }
+        
+        // Mostrar el mejor precio y la profundidad del libro por localidad
+        ArrayList<Localidad> localidades = evento.getVenue().getLocalidades();
+        System.out.println("\nSeleccione una localidad:");
+        for (int i = 0; i < localidades.size(); i++) {
+            Localidad localidad = localidades.get(i);
+            TiqueteReventa mejor = aplicacion.getMejorOfertaReventa(evento, localidad);
+            System.out.println((i + 1) + ". " + localidad.getTipoLocalidad() + 
+                             (mejor != null ? " - desde $" + mejor.getPrecioReventa() : " - sin reventas") +
+                             " (" + aplicacion.getProfundidadReventa(evento, localidad) + " en reventa)");
+        }
+        
+        int opcionLocalidad = ValidadorEntradas.leerEntero("Localidad: ", 1, localidades.size()) - 1;
+        Localidad localidad = localidades.get(opcionLocalidad);
+        
+        int disponibles = aplicacion.getProfundidadReventa(evento, localidad);
+        if (disponibles == 0) {
+            System.out.println("Error: No hay tiquetes en reventa para esta localidad.");
+            ValidadorEntradas.pausar();
+            return;
+        }
+        
+        int cantidad = ValidadorEntradas.leerEntero("Cantidad de tiquetes (1-" + disponibles + "): ", 1, disponibles);
+        aplicacion.comprarReventasMasBaratas(comprador, evento, localidad, cantidad);
+        
+        ValidadorEntradas.pausar();
+    }
+    
     private void verMisContraofertas(Comprador comprador) {
         mostrarEncabezado("MIS CONTRADOFERTAS");
         
@@ -1,12 +1,14 @@
 package interfaz;
 
 import modelo.Aplicacion;
+import modelo.GeneradorIds;
 import modelo.usuarios.Organizador;
 import modelo.usuarios.Usuario;
 import modelo.eventos.Evento;
 import modelo.eventos.Venue;
 import modelo.eventos.Localidad;
 import modelo.eventos.Oferta;
+import modelo.pagos.AgregadosIngresos;
 import interfaz.util.ValidadorEntradas;
 
 import java.util.ArrayList;
@@ -80,7 +82,7 @@ public class MenuOrganizador extends MenuBase {
         }
         
         // Datos del evento
-        String id = "E" + System.currentTimeMillis();
+        String id = GeneradorIds.getInstancia().siguiente("E");
         String nombre = ValidadorEntradas.leerString("Nombre del evento: ", 3, 100);
         
         // Seleccionar venue
@@ -217,7 +219,7 @@ public class MenuOrganizador extends MenuBase {
         Evento evento = eventos.get(opcionEvento);
         
         // Datos de la oferta
-        String id = "OF" + System.currentTimeMillis();
+        String id = GeneradorIds.getInstancia().siguiente("OF");
         String descripcion = ValidadorEntradas.leerString("Descripción de la oferta: ", 5, 200);
         double porcentajeDescuento = ValidadorEntradas.leerDouble("Porcentaje de descuento (0.01 - 0.50): ", 0.01, 0.50);
         
@@ -258,24 +260,26 @@ public class MenuOrganizador extends MenuBase {
         if (eventos.isEmpty()) {
             System.out.println("No tienes eventos creados.");
         } else {
+            // Una sola vista con las ventas de todos los eventos, sin recorrer tiquetes
+            AgregadosIngresos.VistaOrganizador vista = aplicacion.getAgregadosIngresos()
+                .getVistaOrganizador(organizador.getLogin());
             for (Evento evento : eventos) {
                 if (evento.isAprobado()) {
+                    AgregadosIngresos.Acumulado ventas = vista.getEvento(evento.getId());
+                    int totales = evento.getTotalTiquetes();
                     System.out.println("Evento: " + evento.getNombre());
-                    System.out.println("  Tiquetes totales: " + evento.getTiquetes().size());
-                    System.out.println("  Tiquetes vendidos: " + evento.getTiquetesVendidos());
-                    System.out.println("  Porcentaje vendido: " + String.format("%.1f", evento.getPorcentajeVendido()) + "%");
+                    System.out.println("  Tiquetes totales: " + totales);
+                    System.out.println("  Tiquetes vendidos: " + ventas.getTiquetes());
+                    System.out.println("  Porcentaje vendido: " + 
+                                     String.format("%.1f", totales > 0 ? ventas.getTiquetes() * 100.0 / totales : 0) + "%");
+                    System.out.println("  Ganancias: $" + String.format("%.2f", ventas.getVentasBrutas()));
                     
                     // Por localidad
                     for (Localidad localidad : evento.getVenue().getLocalidades()) {
-                        int vendidosLocalidad = 0;
-                        for (modelo.tiquetes.Tiquete tiquete : localidad.getTiquetesLocalidad()) {
-                            if (!tiquete.estaVigente()) {
-                                vendidosLocalidad++;
-                            }
-                        }
+                        AgregadosIngresos.Acumulado ventasLocalidad = vista.getLocalidad(evento.getId(), localidad.getId());
                         System.out.println("  " + localidad.getTipoLocalidad() + ": " + 
-                                         vendidosLocalidad + "/" + localidad.getTiquetesLocalidad().size() + 
-                                         " vendidos");
+                                         ventasLocalidad.getTiquetes() + "/" + evento.getTotalTiquetes(localidad) + 
+                                         " vendidos ($" + String.format("%.2f", ventasLocalidad.getVentasBrutas()) + ")");
                     }
                     System.out.println("----------------------------------------");
                 }
@@ -288,8 +292,7 @@ public class MenuOrganizador extends MenuBase {
     private void verGanancias(Organizador organizador) {
         mostrarEncabezado("GANANCIAS");
         
-        // Usar el método existente del organizador
-        organizador.revisarGanancias(aplicacion.getTodasLasCompras());
+        organizador.revisarGanancias(aplicacion.getAgregadosIngresos());
         
         ValidadorEntradas.pausar();
     }
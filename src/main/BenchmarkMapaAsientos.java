@@ -0,0 +1,125 @@
+package main;
+
+import modelo.eventos.Evento;
+import modelo.eventos.Localidad;
+import modelo.eventos.MapaAsientos;
+import modelo.eventos.Venue;
+import modelo.tiquetes.Tiquete;
+import modelo.usuarios.Organizador;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Random;
+
+/**
+ * Mide la latencia de asignar bloques de asientos contiguos en un estadio
+ * numerado de 50.000 sillas (200 filas de 250 asientos). Primero se ocupan al
+ * azar la mayoría de las sillas para que el mapa quede fragmentado y luego se
+ * compara el mapa de tramos libres contra un recorrido fila por fila.
+ */
+public class BenchmarkMapaAsientos {
+    private static final int FILAS = 200;
+    private static final int ASIENTOS_POR_FILA = 250;
+    private static final double OCUPACION_INICIAL = 0.85;
+    private static final int SOLICITUDES = 2000;
+
+    public static void main(String[] args) {
+        System.out.println("=== BENCHMARK MAPA DE ASIENTOS ===");
+        System.out.println("Estadio: " + FILAS + " filas x " + ASIENTOS_POR_FILA + " asientos = "
+                         + (FILAS * ASIENTOS_POR_FILA) + " sillas\n");
+
+        Venue venue = new Venue("VB", "Estadio de prueba", "Bogotá", FILAS * ASIENTOS_POR_FILA);
+        Localidad estadio = new Localidad("LB", "Numerada", true, venue, FILAS * ASIENTOS_POR_FILA, 100.0);
+        venue.agregarLocalidad(estadio);
+        estadio.configurarMapaAsientos(FILAS, ASIENTOS_POR_FILA);
+        Organizador organizador = new Organizador("benchmark", "benchmark");
+        Evento evento = new Evento("EB", "Evento de prueba", new Date(System.currentTimeMillis() + 86400000L), venue, organizador);
+
+        // Fragmentar el estadio ocupando sillas sueltas al azar
+        Random azar = new Random(42);
+        boolean[] ocupados = new boolean[FILAS * ASIENTOS_POR_FILA];
+        int aOcupar = (int) (ocupados.length * OCUPACION_INICIAL);
+        MapaAsientos mapa = estadio.getMapaAsientos(evento);
+        for (int ocupadosHastaAhora = 0; ocupadosHastaAhora < aOcupar; ) {
+            int asiento = azar.nextInt(ocupados.length);
+            if (!ocupados[asiento]) {
+                ocupados[asiento] = true;
+                estadio.getInventario(evento).venderAsiento(asiento);
+                mapa.ocupar(asiento);
+                ocupadosHastaAhora++;
+            }
+        }
+        System.out.println("Sillas libres: " + mapa.getLibres() + " en " + mapa.getCantidadTramos()
+                         + " tramos (mayor tramo: " + mapa.getMayorBloqueLibre() + ")\n");
+
+        // Calentamiento del JIT sobre una copia del arreglo
+        boolean[] copia = Arrays.copyOf(ocupados, ocupados.length);
+        for (int i = 0; i < 20000; i++) {
+            mapa.buscarBloque(1 + i % 4);
+            buscarLineal(copia, 1 + i % 4);
+        }
+
+        long[] latenciasMapa = new long[SOLICITUDES];
+        long[] latenciasLineal = new long[SOLICITUDES];
+        int asignadas = 0;
+        for (int i = 0; i < SOLICITUDES; i++) {
+            int cantidad = 1 + azar.nextInt(4);
+
+            long inicio = System.nanoTime();
+            int[] bloqueLineal = buscarLineal(ocupados, cantidad);
+            latenciasLineal[i] = System.nanoTime() - inicio;
+
+            inicio = System.nanoTime();
+            ArrayList<Tiquete> tiquetes = estadio.venderAsientosContiguos(evento, cantidad);
+            latenciasMapa[i] = System.nanoTime() - inicio;
+
+            // Mantener el arreglo del recorrido lineal con las mismas sillas ocupadas
+            for (Tiquete tiquete : tiquetes) {
+                ocupados[estadio.getInventario(evento).asientoDe(tiquete)] = true;
+            }
+            if (!tiquetes.isEmpty()) {
+                asignadas++;
+            } else if (bloqueLineal.length > 0) {
+                System.out.println("Advertencia: el recorrido lineal encontró un bloque que el mapa no");
+            }
+        }
+
+        System.out.println("Solicitudes: " + SOLICITUDES + " (asignadas: " + asignadas + ")");
+        imprimir("Mapa de tramos", latenciasMapa);
+        imprimir("Recorrido lineal", latenciasLineal);
+    }
+
+    /**
+     * Busca fila por fila el primer bloque libre de la cantidad pedida
+     */
+    private static int[] buscarLineal(boolean[] ocupados, int cantidad) {
+        for (int fila = 0; fila < FILAS; fila++) {
+            int seguidos = 0;
+            for (int columna = 0; columna < ASIENTOS_POR_FILA; columna++) {
+                seguidos = ocupados[fila * ASIENTOS_POR_FILA + columna] ? 0 : seguidos + 1;
+                if (seguidos == cantidad) {
+                    int[] bloque = new int[cantidad];
+                    for (int i = 0; i < cantidad; i++) {
+                        bloque[i] = fila * ASIENTOS_POR_FILA + columna - cantidad + 1 + i;
+                    }
+                    return bloque;
+                }
+            }
+        }
+        return new int[0];
+    }
+
+    private static void imprimir(String nombre, long[] latencias) {
+        long[] ordenadas = Arrays.copyOf(latencias, latencias.length);
+        Arrays.sort(ordenadas);
+        long total = 0;
+        for (long latencia : ordenadas) {
+            total += latencia;
+        }
+        System.out.printf("%-18s promedio: %8.2f us | p50: %8.2f us | p99: %8.2f us%n", nombre,
+                          total / 1000.0 / ordenadas.length,
+                          ordenadas[ordenadas.length / 2] / 1000.0,
+                          ordenadas[(int) (ordenadas.length * 0.99)] / 1000.0);
+    }
+}
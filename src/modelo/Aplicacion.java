@@ -2,36 +2,96 @@ package modelo;
 
 import modelo.tiquetes.TiqueteReventa;
 import modelo.tiquetes.Contraoferta;
+import modelo.tiquetes.MotorContraofertas;
+import modelo.tiquetes.RegistroPropiedad;
 import modelo.persistencia.ProcesoEntreUsuarios;
 import modelo.persistencia.GestorPersistencia;
+import modelo.persistencia.ImportadorMasivo;
+import modelo.persistencia.ColaAprobaciones;
 import modelo.usuarios.Usuario;
 import modelo.usuarios.Administrador;
 import modelo.usuarios.Comprador;
 import modelo.usuarios.Organizador;
+import modelo.usuarios.CuentaPlataforma;
+import modelo.usuarios.AlmacenSesiones;
 import modelo.eventos.Evento;
 import modelo.eventos.Venue;
 import modelo.eventos.Localidad;
+import modelo.eventos.ReservasLocalidad;
+import modelo.eventos.SalaEspera;
 import modelo.eventos.Oferta;
+import modelo.eventos.ConsultaEventos;
+import modelo.eventos.PaginaEventos;
+import modelo.eventos.MotorPrecios;
 import modelo.tiquetes.Tiquete;
 import modelo.pagos.Pagos;
 import modelo.pagos.Compra;
+import modelo.pagos.ReembolsoMasivo;
+import modelo.pagos.LibroMayor;
+import modelo.pagos.Transferencia;
+import modelo.pagos.CerrojosCuenta;
+import modelo.pagos.CuposCompra;
+import modelo.pagos.ClavesIdempotencia;
+import modelo.pagos.AgregadosIngresos;
+import modelo.pagos.RegistroCompras;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Clase controladora central del sistema que orquesta todas las funcionalidades.
  * Implementa el patrón Singleton para tener una única instancia.
  * Responsable de coordinar entre todos los componentes del sistema.
+ *
+ * Modelo de concurrencia: varias sesiones pueden llamar a la aplicación desde
+ * hilos distintos.
+ *   - La instancia se crea una sola vez al inicializar la clase Contenedor, y
+ *     todo lo que hizo el constructor (incluida la carga de datos) es visible
+ *     para cualquier hilo que obtenga la instancia.
+ *   - Las sesiones (AlmacenSesiones) y los trabajos de reembolso están en mapas
+ *     concurrentes: lo escrito con put es visible para el siguiente get de la
+ *     misma clave.
+ *   - Las colecciones del gestor de persistencia se protegen con su cerrojo de
+ *     lectura/escritura; soltar el de escritura ocurre antes de cualquier
+ *     adquisición posterior.
+ *   - El saldo de un usuario y el historial de un comprador se protegen con el
+ *     monitor de ese objeto, y los índices con el suyo propio.
+ *   - Guardar en disco se hace de a un hilo a la vez.
+ *   - En el modo secuenciado (iniciarModoSecuenciado) las operaciones que
+ *     modifican el sistema se envían como comandos a un solo hilo escritor, que
+ *     las aplica en orden; los lectores consultan la InstantaneaSistema que el
+ *     escritor publica tras cada lote. Las compras, reventas, transferencias,
+ *     reembolsos y cancelaciones llamadas directamente desde otro hilo se
+ *     rechazan mientras el modo está activo.
+ *   - El motor de precios dinámicos recalcula en su propio hilo y deja cada
+ *     precio en un mapa concurrente de la localidad; la compra solo lo lee.
  */
 public class Aplicacion {
-    private static Aplicacion instancia;
+    private static final String DIRECTORIO_REEMBOLSOS = "data/reembolsos";
     
     // Reemplazar colecciones individuales con gestor de persistencia
     private GestorPersistencia gestorPersistencia;
-    private ArrayList<Compra> compras; // Las compras se mantienen separadas por ahora
-    private HashMap<String, Usuario> sesionesActivas;
+    private RegistroCompras compras; // compras aprobadas por id, anotadas en su diario
+    private AlmacenSesiones sesiones; // sesiones por token, con vencimiento por inactividad
+    private ConcurrentHashMap<String, ReembolsoMasivo> reembolsosPorEvento; // eventoId -> último trabajo de reembolsos
+    private CuentaPlataforma cuentaPlataforma; // recibe las comisiones de reventa
+    private ConcurrentHashMap<String, SalaEspera> salasEspera; // eventoId -> sala de espera abierta
+    private CuposCompra cuposCompra; // tiquetes por comprador y evento
+    private ClavesIdempotencia clavesIdempotencia; // resultados de operaciones repetibles por el cliente
+    private volatile double comisionReventa; // fracción del precio de reventa (0 = sin comisión)
+    private volatile SecuenciadorComandos secuenciador; // null fuera del modo secuenciado
+    private File diarioComandos;
+    private volatile boolean guardadoDiferido; // en el modo secuenciado solo guarda el hilo escritor, tras cada lote
+    private MotorPrecios motorPrecios; // precios dinámicos por evento/localidad
+    private AgregadosIngresos agregadosIngresos; // totales de ventas e ingresos para los reportes
     
     // Servicios
     private Pagos servicioPagos;
@@ -39,12 +99,27 @@ public class Aplicacion {
     // Constructor privado para Singleton
     private Aplicacion() {
         this.gestorPersistencia = new GestorPersistencia();
-        this.compras = new ArrayList<>();
-        this.sesionesActivas = new HashMap<>();
+        this.compras = new RegistroCompras(new File(RegistroCompras.ARCHIVO_COMPRAS));
+        this.sesiones = new AlmacenSesiones();
+        this.reembolsosPorEvento = new ConcurrentHashMap<>();
+        this.cuentaPlataforma = new CuentaPlataforma();
+        this.salasEspera = new ConcurrentHashMap<>();
+        this.cuposCompra = new CuposCompra(new File(CuposCompra.ARCHIVO_CUPOS));
+        this.clavesIdempotencia = new ClavesIdempotencia(ClavesIdempotencia.TTL_POR_DEFECTO,
+                                                         ClavesIdempotencia.MAXIMO_POR_DEFECTO,
+                                                         new File(ClavesIdempotencia.ARCHIVO_CLAVES));
+        this.agregadosIngresos = new AgregadosIngresos(new File(AgregadosIngresos.ARCHIVO_AGREGADOS));
+        this.comisionReventa = 0.0;
         this.servicioPagos = Pagos.getInstancia();
         
         // Cargar datos existentes
         gestorPersistencia.cargarTodosLosDatos();
+        cargarCompras();
+        cuposCompra.cargar();
+        cuposCompra.reconstruir(compras.getCompras());
+        clavesIdempotencia.cargar();
+        agregadosIngresos.cargar();
+        iniciarMotorPrecios();
         
         // Si no hay datos, inicializar con datos de prueba
         if (gestorPersistencia.getUsuarios().isEmpty()) {
@@ -60,10 +135,13 @@ public class Aplicacion {
      * Método Singleton para obtener la instancia única
      */
     public static Aplicacion getInstancia() {
-        if (instancia == null) {
-            instancia = new Aplicacion();
-        }
-        return instancia;
+        return Contenedor.INSTANCIA;
+    }
+    
+    // La JVM inicializa el contenedor una sola vez, en el primer getInstancia(),
+    // y publica la instancia completa a todos los hilos que la pidan después
+    private static class Contenedor {
+        private static final Aplicacion INSTANCIA = new Aplicacion();
     }
     
     // ==================== MÉTODOS DE AUTENTICACIÓN ====================
@@ -72,33 +150,60 @@ public class Aplicacion {
      * Inicia sesión de un usuario
      */
     public Usuario iniciarSesion(String login, String password) {
-        // Buscar usuario a través del gestor de persistencia
-        for (Usuario usuario : gestorPersistencia.getUsuarios()) {
-            if (usuario.validarCredenciales(login, password)) {
-                sesionesActivas.put(login, usuario);
-                System.out.println("Sesión iniciada: " + usuario.getLogin() + " (" + usuario.getTipoUsuario() + ")");
-                return usuario;
-            }
+        AlmacenSesiones.Sesion sesion = abrirSesion(login, password, "consola");
+        return sesion != null ? sesion.getUsuario() : null;
+    }
+    
+    /**
+     * Inicia sesión en un dispositivo; el mismo usuario puede tener varias abiertas
+     * @return la sesión con su token, o null si las credenciales son incorrectas
+     */
+    public AlmacenSesiones.Sesion abrirSesion(String login, String password, String dispositivo) {
+        Usuario usuario = gestorPersistencia.buscarUsuarioPorLogin(login);
+        if (usuario == null || !usuario.validarCredenciales(login, password)) {
+            System.out.println("Error: Credenciales incorrectas");
+            return null;
         }
-        System.out.println("Error: Credenciales incorrectas");
-        return null;
+        
+        AlmacenSesiones.Sesion sesion = sesiones.abrir(usuario, dispositivo);
+        if (sesion == null) {
+            System.out.println("Error: El sistema alcanzó el máximo de sesiones abiertas, intente más tarde");
+            return null;
+        }
+        System.out.println("Sesión iniciada: " + usuario.getLogin() + " (" + usuario.getTipoUsuario() + ")");
+        return sesion;
     }
     
     /**
-     * Cierra sesión de un usuario
+     * Cierra todas las sesiones de un usuario
      */
     public void cerrarSesion(String login) {
-        if (sesionesActivas.containsKey(login)) {
-            sesionesActivas.remove(login);
+        if (sesiones.cerrarTodas(login) > 0) {
             System.out.println("Sesión cerrada: " + login);
         }
     }
     
+    /**
+     * Cierra solo la sesión de un token (un dispositivo)
+     */
+    public boolean cerrarSesionToken(String token) {
+        return sesiones.cerrar(token);
+    }
+    
     /**
      * Obtiene el usuario actualmente autenticado
      */
     public Usuario getUsuarioActual(String login) {
-        return sesionesActivas.get(login);
+        return sesiones.tieneSesion(login) ? gestorPersistencia.buscarUsuarioPorLogin(login) : null;
+    }
+    
+    /**
+     * Obtiene el usuario de una sesión y la mantiene activa
+     * @return el usuario, o null si el token no existe o la sesión venció
+     */
+    public Usuario getUsuarioPorToken(String token) {
+        AlmacenSesiones.Sesion sesion = sesiones.buscar(token);
+        return sesion != null ? sesion.getUsuario() : null;
     }
     
     // ==================== MÉTODOS DE REGISTRO ====================
@@ -107,14 +212,12 @@ public class Aplicacion {
      * Registra un nuevo comprador
      */
     public Comprador registrarComprador(String login, String password) {
-        // Verificar si el usuario ya existe
-        if (gestorPersistencia.buscarUsuarioPorLogin(login) != null) {
+        // Verificar si el usuario ya existe (en la misma operación que lo agrega)
+        Comprador nuevoComprador = new Comprador(login, password);
+        if (!gestorPersistencia.agregarUsuarioNuevo(nuevoComprador)) {
             System.out.println("Error: El usuario ya existe");
             return null;
         }
-        
-        Comprador nuevoComprador = new Comprador(login, password);
-        gestorPersistencia.agregarUsuario(nuevoComprador);
         guardarDatos();
         System.out.println("Comprador registrado: " + login);
         return nuevoComprador;
@@ -124,13 +227,11 @@ public class Aplicacion {
      * Registra un nuevo organizador
      */
     public Organizador registrarOrganizador(String login, String password) {
-        if (gestorPersistencia.buscarUsuarioPorLogin(login) != null) {
+        Organizador nuevoOrganizador = new Organizador(login, password);
+        if (!gestorPersistencia.agregarUsuarioNuevo(nuevoOrganizador)) {
             System.out.println("Error: El usuario ya existe");
             return null;
         }
-        
-        Organizador nuevoOrganizador = new Organizador(login, password);
-        gestorPersistencia.agregarUsuario(nuevoOrganizador);
         guardarDatos();
         System.out.println("Organizador registrado: " + login);
         return nuevoOrganizador;
@@ -179,17 +280,107 @@ public class Aplicacion {
      * Aprueba un evento (solo administradores)
      */
     public boolean aprobarEvento(Administrador admin, Evento evento) {
-        if (!gestorPersistencia.getEventos().contains(evento)) {
+        if (evento == null || gestorPersistencia.buscarEventoPorId(evento.getId()) != evento) {
             System.out.println("Error: Evento no encontrado");
             return false;
         }
         
         evento.aprobar();
+        motorPrecios.registrar(evento);
         guardarDatos();
         System.out.println("Evento aprobado: " + evento.getNombre());
         return true;
     }
     
+    /**
+     * Cancela un evento y reembolsa a quienes tienen hoy sus tiquetes.
+     * Los afectados se obtienen del índice por evento del registro de propiedad,
+     * sin recorrer el historial de todos los compradores.
+     */
+    public boolean cancelarEvento(Administrador admin, Evento evento) {
+        if (fueraDelEscritor()) {
+            return false;
+        }
+        if (!admin.getTipoUsuario().equals("administrador")) {
+            System.out.println("Error: Solo los administradores pueden cancelar eventos");
+            return false;
+        }
+        
+        if (evento == null || evento.isCancelado()) {
+            System.out.println("Error: El evento no existe o ya fue cancelado");
+            return false;
+        }
+        
+        ReembolsoMasivo trabajo = admin.cancelarEvento(evento, gestorPersistencia.getRegistroPropiedad(),
+                                                       archivoControlReembolsos(evento), this::guardarBilleteras);
+        reembolsosPorEvento.put(evento.getId(), trabajo);
+        agregadosIngresos.registrarReembolsosCancelacion(trabajo.getReembolsados(), admin.getCobroFijo());
+        cuposCompra.liberarEvento(evento.getId());
+        motorPrecios.retirar(evento);
+        
+        ProcesoEntreUsuarios proceso = new ProcesoEntreUsuarios(
+            GeneradorIds.getInstancia().siguiente("PROC-CANC"),
+            ProcesoEntreUsuarios.TipoProceso.CANCELACION_EVENTO,
+            new Date(),
+            admin
+        );
+        proceso.setEvento(evento);
+        proceso.setDescripcion("Cancelación del evento " + evento.getNombre());
+        proceso.setMonto(trabajo.getMontoReembolsado());
+        proceso.setEstado(trabajo.estaTerminado() ? "completado" : "pendiente");
+        gestorPersistencia.agregarProceso(proceso);
+        
+        guardarDatos();
+        return true;
+    }
+    
+    /**
+     * Reanuda los reembolsos de un evento cancelado desde su punto de control.
+     * Los tiquetes ya reembolsados no se vuelven a pagar.
+     */
+    public ReembolsoMasivo reanudarReembolsos(Administrador admin, Evento evento) {
+        if (fueraDelEscritor()) {
+            return null;
+        }
+        if (!admin.getTipoUsuario().equals("administrador")) {
+            System.out.println("Error: Solo los administradores pueden procesar reembolsos");
+            return null;
+        }
+        
+        if (evento == null || !evento.isCancelado()) {
+            System.out.println("Error: El evento no está cancelado");
+            return null;
+        }
+        
+        ReembolsoMasivo trabajo = admin.procesarReembolsosPorCancelacion(evento,
+            gestorPersistencia.getRegistroPropiedad().getTenedores(evento), archivoControlReembolsos(evento),
+            this::guardarBilleteras);
+        reembolsosPorEvento.put(evento.getId(), trabajo);
+        agregadosIngresos.registrarReembolsosCancelacion(trabajo.getReembolsados(), admin.getCobroFijo());
+        guardarDatos();
+        return trabajo;
+    }
+    
+    /**
+     * @return el último trabajo de reembolsos del evento (progreso y velocidad) o null
+     */
+    public ReembolsoMasivo getReembolsosDelEvento(Evento evento) {
+        return evento == null ? null : reembolsosPorEvento.get(evento.getId());
+    }
+    
+    /**
+     * Guarda billeteras y libro mayor tras cada lote de reembolsos, también en el
+     * modo secuenciado: el punto de control del trabajo no espera al guardado del lote
+     * de comandos, así que si el comando se reproduce encuentra los créditos en disco.
+     */
+    private void guardarBilleteras() {
+        gestorPersistencia.guardarBilleteras();
+    }
+    
+    private File archivoControlReembolsos(Evento evento) {
+        return new File(DIRECTORIO_REEMBOLSOS, evento.getId() + ".ckpt");
+    }
+    
     /**
      * Obtiene eventos disponibles para compra
      */
@@ -197,6 +388,16 @@ public class Aplicacion {
         return gestorPersistencia.getEventosDisponibles();
     }
     
+    /**
+     * Consulta el catálogo de eventos página por página
+     * @param consulta - filtros de fecha, venue, localidad, precio y disponibilidad
+     * @param cursor - cursor devuelto por la página anterior o null para la primera
+     * @return página de eventos con el cursor para la siguiente
+     */
+    public PaginaEventos consultarEventos(ConsultaEventos consulta, String cursor) {
+        return gestorPersistencia.consultarEventos(consulta, cursor);
+    }
+    
     // ==================== MÉTODOS DE COMPRA ====================
     
     /**
@@ -204,6 +405,49 @@ public class Aplicacion {
      */
     public Compra comprarTiquetes(Comprador comprador, Evento evento, Localidad localidad, 
                                  int cantidad, double porcentajeAdicional, double cobroFijo) {
+        return comprarTiquetes(comprador, evento, localidad, cantidad, porcentajeAdicional, cobroFijo, false);
+    }
+    
+    /**
+     * Procesa la compra de tiquetes con selección de asientos
+     * @param asientosContiguos - en localidades numeradas con mapa, asigna el mejor
+     *                            bloque de asientos juntos en una misma fila
+     */
+    public Compra comprarTiquetes(Comprador comprador, Evento evento, Localidad localidad, 
+                                 int cantidad, double porcentajeAdicional, double cobroFijo,
+                                 boolean asientosContiguos) {
+        return comprarTiquetes(comprador, evento, localidad, cantidad, porcentajeAdicional, cobroFijo,
+                               asientosContiguos, null);
+    }
+    
+    /**
+     * Procesa la compra de tiquetes de un evento que puede tener sala de espera
+     * @param tokenAdmision - token recibido al ser admitido desde la sala de espera
+     *                        (se ignora si el evento no tiene sala abierta)
+     */
+    public Compra comprarTiquetes(Comprador comprador, Evento evento, Localidad localidad, 
+                                 int cantidad, double porcentajeAdicional, double cobroFijo,
+                                 boolean asientosContiguos, String tokenAdmision) {
+        return comprarTiquetes(comprador, evento, localidad, cantidad, porcentajeAdicional, cobroFijo,
+                               asientosContiguos, tokenAdmision, null);
+    }
+    
+    /**
+     * Procesa la compra de tiquetes de forma repetible
+     * @param claveIdempotencia - si el cliente repite la compra con la misma clave recibe
+     *                            la compra original sin volver a pagar (null = sin clave)
+     */
+    public Compra comprarTiquetes(Comprador comprador, Evento evento, Localidad localidad, 
+                                 int cantidad, double porcentajeAdicional, double cobroFijo,
+                                 boolean asientosContiguos, String tokenAdmision, String claveIdempotencia) {
+        if (fueraDelEscritor()) {
+            return null;
+        }
+        if (claveIdempotencia != null) {
+            return conClaveCompra(comprador, claveIdempotencia, "COMPRAR_TIQUETES",
+                () -> comprarTiquetes(comprador, evento, localidad, cantidad, porcentajeAdicional, cobroFijo,
+                                      asientosContiguos, tokenAdmision, null));
+        }
         if (!comprador.getTipoUsuario().equals("comprador")) {
             System.out.println("Error: Solo los compradores pueden comprar tiquetes");
             return null;
@@ -214,34 +458,168 @@ public class Aplicacion {
             return null;
         }
         
-        if (!localidad.haySuficienteDisponibilidad(cantidad)) {
+        if (!verificarAdmision(comprador, evento, tokenAdmision)) {
+            return null;
+        }
+        
+        if (!localidad.haySuficienteDisponibilidad(evento, cantidad)) {
             System.out.println("Error: No hay suficientes tiquetes disponibles");
             return null;
         }
         
         // Validar restricciones de compra
-        if (!servicioPagos.validarRestriccionesCompra(localidad.obtenerTiquetesDisponibles(cantidad), 10)) {
+        if (!servicioPagos.validarRestriccionesCompra(localidad.obtenerTiquetesDisponibles(evento, cantidad), 10)) {
+            return null;
+        }
+        
+        if (asientosContiguos && !localidad.tieneMapaAsientos()) {
+            System.out.println("Error: La localidad no tiene mapa de asientos");
+            return null;
+        }
+        
+        // El cupo del comprador en el evento se aparta antes de cobrar, sumando todas sus sesiones
+        if (!cuposCompra.apartar(evento.getId(), comprador.getLogin(), cantidad)) {
+            System.out.println("Error: La compra supera el cupo de " + cuposCompra.getCupo(evento.getId()) + 
+                             " tiquetes por comprador para este evento");
             return null;
         }
         
         ArrayList<Tiquete> tiquetesComprados = comprador.comprarTiquete(
-            evento, localidad, cantidad, porcentajeAdicional, cobroFijo
+            evento, localidad, cantidad, porcentajeAdicional, cobroFijo, asientosContiguos
+        );
+        
+        if (tiquetesComprados.isEmpty()) {
+            cuposCompra.liberar(evento.getId(), comprador.getLogin(), cantidad);
+            System.out.println("Error: La compra falló");
+            return null;
+        }
+        
+        consumirAdmision(comprador, evento, tokenAdmision);
+        return registrarCompra(comprador, evento, tiquetesComprados, porcentajeAdicional, cobroFijo);
+    }
+    
+    /**
+     * Retiene asientos de una localidad con inventario compacto mientras el comprador paga.
+     * La reserva vence sola tras ReservasLocalidad.TTL_POR_DEFECTO si no se completa la compra.
+     * @return la reserva o null si no hay suficientes asientos libres
+     */
+    public ReservasLocalidad.Reserva reservarTiquetes(Comprador comprador, Evento evento, Localidad localidad, int cantidad) {
+        return reservarTiquetes(comprador, evento, localidad, cantidad, null);
+    }
+    
+    /**
+     * Retiene asientos con el token de admisión de la sala de espera del evento.
+     * El token se consume al crear la reserva: los asientos ya quedaron apartados.
+     */
+    public ReservasLocalidad.Reserva reservarTiquetes(Comprador comprador, Evento evento, Localidad localidad, int cantidad,
+                                                      String tokenAdmision) {
+        if (!comprador.getTipoUsuario().equals("comprador")) {
+            System.out.println("Error: Solo los compradores pueden reservar tiquetes");
+            return null;
+        }
+        
+        if (!evento.estaActivo()) {
+            System.out.println("Error: El evento no está activo");
+            return null;
+        }
+        
+        if (!verificarAdmision(comprador, evento, tokenAdmision)) {
+            return null;
+        }
+        
+        if (localidad.getReservas(evento) == null) {
+            System.out.println("Error: La localidad no admite reservas de asientos");
+            return null;
+        }
+        
+        if (cantidad <= 0 || cantidad > 10) {
+            System.out.println("Error: Se pueden reservar entre 1 y 10 tiquetes");
+            return null;
+        }
+        
+        ReservasLocalidad.Reserva reserva = localidad.getReservas(evento).reservar(
+            comprador.getLogin(), cantidad, ReservasLocalidad.TTL_POR_DEFECTO);
+        if (reserva == null) {
+            System.out.println("Error: No hay suficientes asientos libres para reservar");
+            return null;
+        }
+        consumirAdmision(comprador, evento, tokenAdmision);
+        System.out.println("Reserva creada: " + reserva.getId());
+        return reserva;
+    }
+    
+    /**
+     * Paga una reserva y emite sus tiquetes
+     */
+    public Compra comprarReserva(Comprador comprador, Evento evento, Localidad localidad,
+                                 ReservasLocalidad.Reserva reserva, double porcentajeAdicional, double cobroFijo) {
+        return comprarReserva(comprador, evento, localidad, reserva, porcentajeAdicional, cobroFijo, null);
+    }
+    
+    /**
+     * Paga una reserva de forma repetible
+     * @param claveIdempotencia - ver comprarTiquetes (null = sin clave)
+     */
+    public Compra comprarReserva(Comprador comprador, Evento evento, Localidad localidad,
+                                 ReservasLocalidad.Reserva reserva, double porcentajeAdicional, double cobroFijo,
+                                 String claveIdempotencia) {
+        if (fueraDelEscritor()) {
+            return null;
+        }
+        if (claveIdempotencia != null) {
+            return conClaveCompra(comprador, claveIdempotencia, "COMPRAR_RESERVA",
+                () -> comprarReserva(comprador, evento, localidad, reserva, porcentajeAdicional, cobroFijo, null));
+        }
+        // Solo el dueño de la reserva puede pagarla o hacer que se cancele
+        if (comprador == null || !comprador.esSuReserva(evento, localidad, reserva)) {
+            System.out.println("Error: La reserva no pertenece al comprador, a la localidad o al evento");
+            return null;
+        }
+        ReservasLocalidad reservas = localidad.getReservas(evento);
+        if (!evento.estaActivo()) {
+            System.out.println("Error: El evento no está activo");
+            reservas.cancelar(reserva);
+            return null;
+        }
+        
+        if (!cuposCompra.apartar(evento.getId(), comprador.getLogin(), reserva.getCantidad())) {
+            System.out.println("Error: La compra supera el cupo de " + cuposCompra.getCupo(evento.getId()) + 
+                             " tiquetes por comprador para este evento");
+            reservas.cancelar(reserva);
+            return null;
+        }
+        
+        ArrayList<Tiquete> tiquetesComprados = comprador.comprarReserva(
+            evento, localidad, reserva, porcentajeAdicional, cobroFijo
         );
         
         if (tiquetesComprados.isEmpty()) {
+            cuposCompra.liberar(evento.getId(), comprador.getLogin(), reserva.getCantidad());
             System.out.println("Error: La compra falló");
             return null;
         }
         
+        return registrarCompra(comprador, evento, tiquetesComprados, porcentajeAdicional, cobroFijo);
+    }
+    
+    /**
+     * Registra la propiedad, la compra y el proceso de tiquetes ya pagados
+     */
+    private Compra registrarCompra(Comprador comprador, Evento evento, ArrayList<Tiquete> tiquetesComprados,
+                                   double porcentajeAdicional, double cobroFijo) {
+        for (Tiquete tiquete : tiquetesComprados) {
+            gestorPersistencia.getRegistroPropiedad().registrar(tiquete, comprador, RegistroPropiedad.TipoTraspaso.COMPRA);
+            motorPrecios.marcarCambio(evento, tiquete.getLocalidad());
+        }
+        
         // Crear registro de compra
-        String compraId = "COMP-" + System.currentTimeMillis();
+        String compraId = GeneradorIds.getInstancia().siguiente("COMP");
         double montoTotal = servicioPagos.calcularPrecioTotal(tiquetesComprados, porcentajeAdicional, cobroFijo);
         Compra compra = new Compra(compraId, new Date(), montoTotal, tiquetesComprados, comprador);
-        compras.add(compra);
         
         // Registrar proceso de compra
         ProcesoEntreUsuarios procesoCompra = new ProcesoEntreUsuarios(
-            "PROC-" + System.currentTimeMillis(),
+            GeneradorIds.getInstancia().siguiente("PROC"),
             ProcesoEntreUsuarios.TipoProceso.COMPRA_TIQUETE,
             new Date(),
             comprador
@@ -251,20 +629,165 @@ public class Aplicacion {
         }
         procesoCompra.setMonto(montoTotal);
         procesoCompra.setEstado("completado");
-        procesoCompra.setDescripcion("Compra de " + cantidad + " tiquetes para " + evento.getNombre());
+        procesoCompra.setDescripcion("Compra de " + tiquetesComprados.size() + " tiquetes para " + evento.getNombre());
         
         gestorPersistencia.agregarProceso(procesoCompra);
         guardarDatos();
         
-        System.out.println("Compra registrada: " + compraId);
-
-        if (compra != null) {
-            compra.setEstado("aprobada");
-            System.out.println("Compra registrada y aprobada: " + compra.getId());
-        }
+        compra.setEstado("aprobada");
+        compras.registrar(compra);
+        agregadosIngresos.registrarCompra(compra, cobroFijo);
+        System.out.println("Compra registrada y aprobada: " + compraId);
         return compra;
     }
     
+    /**
+     * Autoriza el reembolso de un tiquete y devuelve su lugar al cupo del comprador
+     */
+    public boolean autorizarReembolso(Administrador admin, Comprador comprador, Tiquete tiquete, String motivo) {
+        return autorizarReembolso(admin, comprador, tiquete, motivo, null);
+    }
+    
+    /**
+     * Autoriza un reembolso de forma repetible: repetirlo con la misma clave no acredita dos veces
+     * @param claveIdempotencia - ver comprarTiquetes (null = sin clave)
+     */
+    public boolean autorizarReembolso(Administrador admin, Comprador comprador, Tiquete tiquete, String motivo,
+                                      String claveIdempotencia) {
+        if (fueraDelEscritor()) {
+            return false;
+        }
+        if (claveIdempotencia != null) {
+            return conClave(admin, claveIdempotencia, "AUTORIZAR_REEMBOLSO",
+                            () -> autorizarReembolso(admin, comprador, tiquete, motivo, null));
+        }
+        if (!admin.getTipoUsuario().equals("administrador")) {
+            System.out.println("Error: Solo los administradores pueden autorizar reembolsos");
+            return false;
+        }
+        
+        boolean estabaVigente = tiquete != null && tiquete.estaVigente();
+        admin.autorizarReembolso(comprador, tiquete, motivo);
+        if (!estabaVigente || tiquete.estaVigente()) {
+            return false;
+        }
+        
+        if (tiquete.getEvento() != null) {
+            cuposCompra.liberar(tiquete.getEvento().getId(), comprador.getLogin(), 1);
+        }
+        motorPrecios.marcarCambio(tiquete.getEvento(), tiquete.getLocalidad());
+        // Por calamidad se devuelve el precio pagado (ver Pagos.calcularMontoReembolso)
+        agregadosIngresos.registrarReembolso(tiquete, tiquete.getPrecioPagado());
+        guardarDatos();
+        return true;
+    }
+    
+    /**
+     * Fija cuántos tiquetes puede tener cada comprador en un evento
+     * (administradores o el organizador del evento)
+     */
+    public boolean fijarCupoPorComprador(Usuario responsable, Evento evento, int cupo) {
+        if (!responsable.getTipoUsuario().equals("administrador") && responsable != evento.getOrganizador()) {
+            System.out.println("Error: Solo un administrador o el organizador del evento puede fijar el cupo");
+            return false;
+        }
+        
+        if (cupo <= 0) {
+            System.out.println("Error: El cupo por comprador debe ser positivo");
+            return false;
+        }
+        
+        cuposCompra.setCupo(evento.getId(), cupo);
+        return true;
+    }
+    
+    /**
+     * @return tiquetes que el comprador aún puede comprar para el evento
+     */
+    public int getCupoDisponible(Comprador comprador, Evento evento) {
+        return cuposCompra.getDisponibles(evento.getId(), comprador.getLogin());
+    }
+    
+    // ==================== SALA DE ESPERA ====================
+    
+    /**
+     * Abre una sala de espera delante de la compra de un evento de alta demanda
+     * (administradores o el organizador del evento)
+     * @param limiteConcurrencia - compradores que pueden estar comprando a la vez
+     * @param admisionesPorSegundo - tasa máxima de admisión (0 para no limitarla)
+     */
+    public SalaEspera abrirSalaEspera(Usuario responsable, Evento evento, int limiteConcurrencia, double admisionesPorSegundo) {
+        if (!responsable.getTipoUsuario().equals("administrador") && responsable != evento.getOrganizador()) {
+            System.out.println("Error: Solo un administrador o el organizador del evento puede abrir la sala de espera");
+            return null;
+        }
+        
+        if (limiteConcurrencia <= 0 || admisionesPorSegundo < 0) {
+            System.out.println("Error: Parámetros inválidos para la sala de espera");
+            return null;
+        }
+        
+        SalaEspera sala = new SalaEspera(evento.getId(), limiteConcurrencia, admisionesPorSegundo);
+        salasEspera.put(evento.getId(), sala);
+        System.out.println("Sala de espera abierta para " + evento.getNombre() + ": " + limiteConcurrencia + " compradores a la vez");
+        return sala;
+    }
+    
+    /**
+     * Cierra la sala de espera; la compra vuelve a estar abierta para todos
+     */
+    public boolean cerrarSalaEspera(Usuario responsable, Evento evento) {
+        if (!responsable.getTipoUsuario().equals("administrador") && responsable != evento.getOrganizador()) {
+            System.out.println("Error: Solo un administrador o el organizador del evento puede cerrar la sala de espera");
+            return false;
+        }
+        return salasEspera.remove(evento.getId()) != null;
+    }
+    
+    /**
+     * Pone al comprador en la fila del evento
+     * @return su turno, o null si el evento no tiene sala de espera
+     */
+    public SalaEspera.Turno entrarSalaEspera(Comprador comprador, Evento evento) {
+        SalaEspera sala = salasEspera.get(evento.getId());
+        if (sala == null) {
+            System.out.println("Error: El evento no tiene sala de espera");
+            return null;
+        }
+        return sala.entrar(comprador.getLogin());
+    }
+    
+    /**
+     * @return turno actual del comprador (con su token si ya fue admitido), o null
+     */
+    public SalaEspera.Turno consultarTurno(Comprador comprador, Evento evento) {
+        SalaEspera sala = salasEspera.get(evento.getId());
+        return sala != null ? sala.consultar(comprador.getLogin()) : null;
+    }
+    
+    public SalaEspera getSalaEspera(Evento evento) {
+        return salasEspera.get(evento.getId());
+    }
+    
+    /**
+     * Si el evento tiene sala de espera, exige un token de admisión vigente del comprador
+     */
+    private boolean verificarAdmision(Comprador comprador, Evento evento, String tokenAdmision) {
+        SalaEspera sala = salasEspera.get(evento.getId());
+        if (sala != null && !sala.validarToken(comprador.getLogin(), tokenAdmision)) {
+            System.out.println("Error: Se requiere un turno admitido en la sala de espera para comprar");
+            return false;
+        }
+        return true;
+    }
+    
+    private void consumirAdmision(Comprador comprador, Evento evento, String tokenAdmision) {
+        SalaEspera sala = salasEspera.get(evento.getId());
+        if (sala != null) {
+            sala.consumirToken(comprador.getLogin(), tokenAdmision);
+        }
+    }
+    
     // ==================== MÉTODOS DE GESTIÓN DE VENUES ====================
     
     /**
@@ -293,6 +816,142 @@ public class Aplicacion {
         return true;
     }
     
+    /**
+     * Importa venues, localidades, eventos y tiquetes desde un archivo CSV o JSON lines
+     * (ver ImportadorMasivo). Si alguna línea tiene errores no se importa nada;
+     * si no, todo se agrega de una vez y los datos se guardan una sola vez.
+     * Las importaciones se hacen de a una para que no choquen sus ids.
+     */
+    public synchronized ImportadorMasivo.Resultado importarMasivo(Administrador admin, File archivo) {
+        if (!admin.getTipoUsuario().equals("administrador")) {
+            System.out.println("Error: Solo los administradores pueden importar datos");
+            return null;
+        }
+        
+        ImportadorMasivo.Resultado resultado = new ImportadorMasivo(gestorPersistencia).importar(archivo);
+        if (resultado.isAplicado()) {
+            guardarDatos();
+        } else {
+            for (String error : resultado.getErrores()) {
+                System.out.println("Error: " + error);
+            }
+        }
+        System.out.println(resultado);
+        return resultado;
+    }
+    
+    /**
+     * Registra un venue sugerido por un organizador; queda pendiente de aprobación
+     */
+    public Venue sugerirVenue(Organizador organizador, String id, String nombre, String ubicacion, int capacidad) {
+        if (gestorPersistencia.buscarVenuePorId(id) != null) {
+            System.out.println("Error: Ya existe un venue con id " + id);
+            return null;
+        }
+        Venue sugerido = organizador.sugerirVenue(id, nombre, ubicacion, capacidad);
+        gestorPersistencia.agregarVenue(sugerido);
+        guardarDatos();
+        return sugerido;
+    }
+    
+    // ==================== MODERACIÓN EN LOTE ====================
+    
+    /**
+     * Lista una página de eventos, venues o solicitudes pendientes
+     * @param organizador - filtra por login del organizador o solicitante (null = todos)
+     * @param venueId - filtra por venue (null = todos)
+     * @param cursor - cursor de la página anterior (null = primera página)
+     */
+    public ColaAprobaciones.Pagina getPendientes(Administrador admin, ColaAprobaciones.TipoPendiente tipo,
+                                                 String organizador, String venueId, String cursor, int tamano) {
+        if (!admin.getTipoUsuario().equals("administrador")) {
+            System.out.println("Error: Solo los administradores pueden moderar pendientes");
+            return null;
+        }
+        return new ColaAprobaciones(gestorPersistencia).listar(tipo, organizador, venueId, cursor, tamano);
+    }
+    
+    /**
+     * Aprueba o rechaza de una vez un conjunto de pendientes y guarda los datos una sola vez
+     * @param ids - ids de los eventos, venues o solicitudes
+     * @param respuesta - respuesta para las solicitudes (puede ser null)
+     */
+    public ColaAprobaciones.ResultadoLote resolverPendientes(Administrador admin, ColaAprobaciones.TipoPendiente tipo,
+                                                             List<String> ids, boolean aprobar, String respuesta) {
+        if (!admin.getTipoUsuario().equals("administrador")) {
+            System.out.println("Error: Solo los administradores pueden moderar pendientes");
+            return null;
+        }
+        ColaAprobaciones.ResultadoLote resultado =
+            new ColaAprobaciones(gestorPersistencia).resolver(admin, tipo, ids, aprobar, respuesta);
+        if (tipo == ColaAprobaciones.TipoPendiente.EVENTO && aprobar) {
+            for (String id : resultado.getResueltos()) {
+                motorPrecios.registrar(gestorPersistencia.buscarEventoPorId(id));
+            }
+        }
+        if (resultado.getCantidadResueltos() > 0) {
+            guardarDatos();
+        }
+        System.out.println((aprobar ? "Aprobación" : "Rechazo") + " en lote: " + resultado);
+        return resultado;
+    }
+    
+    // ==================== PRECIOS DINÁMICOS ====================
+    
+    /**
+     * Crea el motor de precios con los eventos activos y lo conecta al libro de reventas.
+     * Sin reglas configuradas no cambia ningún precio.
+     */
+    private void iniciarMotorPrecios() {
+        motorPrecios = new MotorPrecios(gestorPersistencia.getLibroReventas());
+        gestorPersistencia.getLibroReventas().setAlCambiar(motorPrecios::marcarCambio);
+        motorPrecios.setAlCambiarPrecio(gestorPersistencia::actualizarPrecioCatalogo);
+        for (Evento evento : gestorPersistencia.getEventos()) {
+            if (evento.estaActivo()) {
+                motorPrecios.registrar(evento);
+            }
+        }
+    }
+    
+    /**
+     * Configura las reglas de precio dinámico (solo administradores) y arranca la
+     * reevaluación periódica
+     * @param piso - precio mínimo como fracción del precio base (ej: 0.8)
+     * @param techo - precio máximo como fracción del precio base (ej: 2.0)
+     * @param periodoSegundos - segundos entre pasadas del motor
+     */
+    public boolean configurarPreciosDinamicos(Administrador admin, ArrayList<MotorPrecios.ReglaPrecio> reglas,
+                                              double piso, double techo, long periodoSegundos) {
+        if (!admin.getTipoUsuario().equals("administrador")) {
+            System.out.println("Error: Solo los administradores pueden configurar los precios");
+            return false;
+        }
+        if (periodoSegundos <= 0) {
+            System.out.println("Error: El periodo debe ser positivo");
+            return false;
+        }
+        try {
+            motorPrecios.configurarReglas(reglas, piso, techo);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+            return false;
+        }
+        motorPrecios.iniciar(periodoSegundos);
+        System.out.println("Precios dinámicos configurados: " + reglas.size() + " reglas");
+        return true;
+    }
+    
+    public MotorPrecios getMotorPrecios() {
+        return motorPrecios;
+    }
+    
+    /**
+     * @return totales de ventas e ingresos que se mantienen con cada compra y reembolso
+     */
+    public AgregadosIngresos getAgregadosIngresos() {
+        return agregadosIngresos;
+    }
+    
     // ==================== MÉTODOS DE OFERTAS ====================
     
     /**
@@ -308,6 +967,10 @@ public class Aplicacion {
         
         Oferta oferta = organizador.generarOferta(id, descripcion, porcentajeDescuento, 
                                                  fechaInicio, fechaExpiracion, evento, localidad);
+        if (oferta != null) {
+            // El precio efectivo de las localidades cambió: reindexar el catálogo
+            gestorPersistencia.actualizarPreciosCatalogo(evento.getVenue());
+        }
         System.out.println("Oferta creada: " + descripcion);
         return oferta;
     }
@@ -315,15 +978,25 @@ public class Aplicacion {
     // ==================== MÉTODOS DE REVENTA ====================
     
     /**
-     * Pone un tiquete en reventa
+     * Pone un tiquete en reventa sin reglas automáticas de contraoferta
      */
     public TiqueteReventa ponerTiqueteEnReventa(Comprador vendedor, Tiquete tiquete, double precioReventa) {
+        return ponerTiqueteEnReventa(vendedor, tiquete, precioReventa, 0, 0);
+    }
+    
+    /**
+     * Pone un tiquete en reventa con reglas automáticas de contraoferta
+     * @param precioMinimo - las contraofertas por debajo se rechazan automáticamente (0 = sin mínimo)
+     * @param precioAutoAceptar - las contraofertas desde este precio se aceptan automáticamente (0 = desactivado)
+     */
+    public TiqueteReventa ponerTiqueteEnReventa(Comprador vendedor, Tiquete tiquete, double precioReventa,
+                                                double precioMinimo, double precioAutoAceptar) {
         if (!vendedor.getTipoUsuario().equals("comprador")) {
             System.out.println("Error: Solo los compradores pueden revender tiquetes");
             return null;
         }
         
-        if (!vendedor.getHistorialTiquetes().contains(tiquete)) {
+        if (!gestorPersistencia.esPropietario(vendedor, tiquete)) {
             System.out.println("Error: El tiquete no pertenece al vendedor");
             return null;
         }
@@ -340,21 +1013,25 @@ public class Aplicacion {
         }
         
         // Verificar si ya está en reventa
-        for (TiqueteReventa reventa : gestorPersistencia.getReventas()) {
-            if (reventa.getTiquete().equals(tiquete) && reventa.isActivo()) {
-                System.out.println("Error: El tiquete ya está en reventa");
-                return null;
-            }
+        if (gestorPersistencia.getLibroReventas().buscarPorTiquete(tiquete) != null) {
+            System.out.println("Error: El tiquete ya está en reventa");
+            return null;
         }
         
         // Crear reventa
-        String reventaId = "REV-" + System.currentTimeMillis();
+        String reventaId = GeneradorIds.getInstancia().siguiente("REV");
         TiqueteReventa reventa = new TiqueteReventa(reventaId, tiquete, vendedor, precioReventa);
+        try {
+            reventa.setReglasContraoferta(precioMinimo, precioAutoAceptar);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+            return null;
+        }
         gestorPersistencia.agregarReventa(reventa);
         
         // Registrar proceso
         ProcesoEntreUsuarios proceso = new ProcesoEntreUsuarios(
-            "PROC-REV-" + System.currentTimeMillis(),
+            GeneradorIds.getInstancia().siguiente("PROC-REV"),
             ProcesoEntreUsuarios.TipoProceso.TRANSFERENCIA_TIQUETE,
             new Date(),
             vendedor
@@ -373,6 +1050,21 @@ public class Aplicacion {
      * Compra un tiquete en reventa
      */
     public boolean comprarTiqueteReventa(Comprador comprador, TiqueteReventa reventa) {
+        return comprarTiqueteReventa(comprador, reventa, null);
+    }
+    
+    /**
+     * Compra un tiquete en reventa de forma repetible
+     * @param claveIdempotencia - ver comprarTiquetes (null = sin clave)
+     */
+    public boolean comprarTiqueteReventa(Comprador comprador, TiqueteReventa reventa, String claveIdempotencia) {
+        if (fueraDelEscritor()) {
+            return false;
+        }
+        if (claveIdempotencia != null) {
+            return conClave(comprador, claveIdempotencia, "COMPRAR_REVENTA",
+                            () -> comprarTiqueteReventa(comprador, reventa, null));
+        }
         if (!comprador.getTipoUsuario().equals("comprador")) {
             System.out.println("Error: Solo los compradores pueden comprar tiquetes en reventa");
             return false;
@@ -388,55 +1080,273 @@ public class Aplicacion {
             return false;
         }
         
-        // Procesar pago
-        if (!servicioPagos.procesarPagoConSaldo(comprador, reventa.getPrecioReventa())) {
-            System.out.println("Error: Saldo insuficiente para comprar el tiquete en reventa");
-            return false;
-        }
-        
-        // Transferir el pago al vendedor
-        servicioPagos.procesarReembolsoSaldo(
-            reventa.getVendedor(), 
-            reventa.getPrecioReventa(), 
-            "Venta de tiquete en reventa: " + reventa.getTiquete().getId()
-        );
-        
-        // Transferir el tiquete
+        return liquidarReventa(comprador, reventa, reventa.getPrecioReventa());
+    }
+    
+    /**
+     * Cobra al comprador, paga al vendedor y transfiere el tiquete de una reventa.
+     * El cobro, el pago (menos la comisión de la plataforma) y el traspaso del
+     * tiquete ocurren en una sola Transferencia con los cerrojos de las cuentas
+     * tomados en orden global: dos compras de la misma reventa no pueden
+     * llevarse el tiquete las dos.
+     * Las contraofertas que seguían pendientes se rechazan en un solo lote.
+     * @param precio - precio acordado (de lista o de la contraoferta aceptada)
+     */
+    private boolean liquidarReventa(Comprador comprador, TiqueteReventa reventa, double precio) {
         Tiquete tiquete = reventa.getTiquete();
         Comprador vendedor = (Comprador) reventa.getVendedor();
+        long centavos = LibroMayor.aCentavos(precio);
+        long comision = LibroMayor.aCentavos(precio * comisionReventa);
+        
+        boolean liquidada = Transferencia.ejecutar(comprador, vendedor, centavos, cuentaPlataforma, comision,
+            "Reventa de tiquete: " + tiquete.getId(),
+            new Transferencia.Traspaso() {
+                @Override
+                public boolean validar() {
+                    return reventa.isActivo() && gestorPersistencia.esPropietario(vendedor, tiquete);
+                }
+                
+                @Override
+                public void aplicar() {
+                    // Remover del vendedor, agregar al comprador y anotar el traspaso
+                    vendedor.removerTiqueteDelHistorial(tiquete);
+                    comprador.agregarTiqueteAlHistorial(tiquete);
+                    gestorPersistencia.getRegistroPropiedad().traspasar(tiquete, vendedor, comprador, RegistroPropiedad.TipoTraspaso.REVENTA);
+                    // Desactivar reventa y retirarla del libro de órdenes
+                    gestorPersistencia.retirarReventa(reventa);
+                }
+            });
         
-        // Remover del vendedor y agregar al comprador
-        vendedor.getHistorialTiquetes().remove(tiquete);
-        comprador.agregarTiqueteAlHistorial(tiquete);
+        if (!liquidada) {
+            if (!reventa.isActivo()) {
+                System.out.println("Error: El tiquete ya no está disponible en reventa");
+            } else {
+                System.out.println("Error: Saldo insuficiente para comprar el tiquete en reventa");
+            }
+            return false;
+        }
         
-        // Desactivar reventa
-        reventa.setActivo(false);
+        // Cerrar las contraofertas pendientes
+        gestorPersistencia.getMotorContraofertas().cerrarReventa(reventa);
         
         // Registrar proceso
         ProcesoEntreUsuarios proceso = new ProcesoEntreUsuarios(
-            "PROC-COMP-REV-" + System.currentTimeMillis(),
+            GeneradorIds.getInstancia().siguiente("PROC-COMP-REV"),
             ProcesoEntreUsuarios.TipoProceso.TRANSFERENCIA_TIQUETE,
             new Date(),
             vendedor
         );
         proceso.agregarTiquete(tiquete);
         proceso.setUsuarioDestino(comprador);
-        proceso.setMonto(reventa.getPrecioReventa());
+        proceso.setMonto(precio);
         proceso.setDescripcion("Tiquete comprado en reventa por " + comprador.getLogin());
         proceso.setEstado("completado");
         gestorPersistencia.agregarProceso(proceso);
         
         guardarDatos();
-        System.out.println("Tiquete comprado en reventa: " + tiquete.getId() + " por $" + reventa.getPrecioReventa());
+        System.out.println("Tiquete comprado en reventa: " + tiquete.getId() + " por $" + precio);
+        return true;
+    }
+    
+    /**
+     * Transfiere un tiquete a otro comprador verificando la contraseña del dueño.
+     * Toma los cerrojos de ambas cuentas, igual que la liquidación de reventas,
+     * para que el tiquete no pueda venderse y regalarse a la vez.
+     * @param loginDestino - login del comprador que recibe el tiquete
+     */
+    public boolean transferirTiquete(Comprador origen, Tiquete tiquete, String loginDestino, String password) {
+        return transferirTiquete(origen, tiquete, loginDestino, password, null);
+    }
+    
+    /**
+     * Transfiere un tiquete de forma repetible
+     * @param claveIdempotencia - ver comprarTiquetes (null = sin clave)
+     */
+    public boolean transferirTiquete(Comprador origen, Tiquete tiquete, String loginDestino, String password,
+                                     String claveIdempotencia) {
+        if (fueraDelEscritor()) {
+            return false;
+        }
+        if (claveIdempotencia != null) {
+            return conClave(origen, claveIdempotencia, "TRANSFERIR_TIQUETE",
+                            () -> transferirTiquete(origen, tiquete, loginDestino, password, null));
+        }
+        Usuario destino = gestorPersistencia.buscarUsuarioPorLogin(loginDestino);
+        if (destino == null) {
+            System.out.println("Error: Usuario destino no encontrado");
+            return false;
+        }
+        
+        ArrayList<ReentrantLock> cerrojos = CerrojosCuenta.bloquear(origen, destino);
+        try {
+            if (!gestorPersistencia.esPropietario(origen, tiquete)) {
+                System.out.println("Error: El tiquete no pertenece al usuario");
+                return false;
+            }
+            
+            if (gestorPersistencia.getLibroReventas().buscarPorTiquete(tiquete) != null) {
+                System.out.println("Error: El tiquete está publicado en reventa");
+                return false;
+            }
+            
+            if (!origen.transferirTiquete(tiquete, destino, password)) {
+                return false;
+            }
+            gestorPersistencia.getRegistroPropiedad().traspasar(tiquete, origen, destino, RegistroPropiedad.TipoTraspaso.TRANSFERENCIA);
+        } finally {
+            CerrojosCuenta.liberar(cerrojos);
+        }
+        
+        ProcesoEntreUsuarios proceso = new ProcesoEntreUsuarios(
+            GeneradorIds.getInstancia().siguiente("PROC-TRANSF"),
+            ProcesoEntreUsuarios.TipoProceso.TRANSFERENCIA_TIQUETE,
+            new Date(),
+            origen
+        );
+        proceso.agregarTiquete(tiquete);
+        proceso.setUsuarioDestino(destino);
+        proceso.setDescripcion("Tiquete transferido a " + destino.getLogin());
+        proceso.setEstado("completado");
+        gestorPersistencia.agregarProceso(proceso);
+        
+        guardarDatos();
+        return true;
+    }
+    
+    /**
+     * Fija la comisión que la plataforma cobra sobre cada reventa (solo administradores)
+     * @param comision - fracción del precio, entre 0 y 1 (ej: 0.05 para 5%)
+     */
+    public boolean fijarComisionReventa(Administrador admin, double comision) {
+        if (!admin.getTipoUsuario().equals("administrador")) {
+            System.out.println("Error: Solo los administradores pueden fijar la comisión de reventa");
+            return false;
+        }
+        if (comision < 0 || comision > 1) {
+            System.out.println("Error: La comisión debe estar entre 0 y 1");
+            return false;
+        }
+        this.comisionReventa = comision;
         return true;
     }
     
+    public double getComisionReventa() {
+        return comisionReventa;
+    }
+    
+    /**
+     * @return cuenta que acumula las comisiones de reventa
+     */
+    public CuentaPlataforma getCuentaPlataforma() {
+        return cuentaPlataforma;
+    }
+    
+    /**
+     * @return propietario actual del tiquete según el registro de propiedad
+     */
+    public Usuario getPropietarioTiquete(Tiquete tiquete) {
+        return gestorPersistencia.getRegistroPropiedad().getPropietario(tiquete);
+    }
+    
+    /**
+     * @return logins de quienes han tenido el tiquete, del primero al actual
+     */
+    public ArrayList<String> getPropietariosHistoricos(Tiquete tiquete) {
+        return gestorPersistencia.getRegistroPropiedad().getPropietariosHistoricos(tiquete);
+    }
+    
+    /**
+     * Obtiene la reventa más barata de un evento y localidad
+     * @return la mejor oferta de reventa o null si no hay
+     */
+    public TiqueteReventa getMejorOfertaReventa(Evento evento, Localidad localidad) {
+        return gestorPersistencia.getLibroReventas().mejorOferta(evento, localidad);
+    }
+    
+    /**
+     * Obtiene la cantidad de reventas activas de un evento y localidad
+     */
+    public int getProfundidadReventa(Evento evento, Localidad localidad) {
+        return gestorPersistencia.getLibroReventas().profundidad(evento, localidad);
+    }
+    
+    /**
+     * Compra las N reventas más baratas de un evento y localidad
+     * @param comprador - comprador que adquiere los tiquetes
+     * @param cantidad - cantidad de tiquetes a comprar
+     * @return reventas compradas (puede ser menos que la cantidad pedida)
+     */
+    public ArrayList<TiqueteReventa> comprarReventasMasBaratas(Comprador comprador, Evento evento, 
+                                                              Localidad localidad, int cantidad) {
+        return comprarReventasMasBaratas(comprador, evento, localidad, cantidad, null);
+    }
+    
+    /**
+     * Compra las N reventas más baratas de forma repetible: una repetición con la
+     * misma clave recibe las mismas reventas sin volver a cobrar
+     * @param claveIdempotencia - ver comprarTiquetes (null = sin clave)
+     */
+    public ArrayList<TiqueteReventa> comprarReventasMasBaratas(Comprador comprador, Evento evento, Localidad localidad,
+                                                              int cantidad, String claveIdempotencia) {
+        if (fueraDelEscritor()) {
+            return null;
+        }
+        if (claveIdempotencia != null) {
+            ArrayList<TiqueteReventa> compradas = conClave(comprador, claveIdempotencia, "COMPRAR_REVENTAS",
+                () -> comprarReventasMasBaratas(comprador, evento, localidad, cantidad, null),
+                Aplicacion::codificarReventas, this::decodificarReventas);
+            return compradas != null ? compradas : new ArrayList<>();
+        }
+        ArrayList<TiqueteReventa> compradas = new ArrayList<>();
+        if (cantidad <= 0) {
+            System.out.println("Error: La cantidad debe ser positiva");
+            return compradas;
+        }
+        
+        ArrayList<TiqueteReventa> tomadas = gestorPersistencia.getLibroReventas()
+            .tomarMasBaratas(evento, localidad, cantidad);
+        
+        for (int i = 0; i < tomadas.size(); i++) {
+            TiqueteReventa reventa = tomadas.get(i);
+            if (comprarTiqueteReventa(comprador, reventa)) {
+                compradas.add(reventa);
+            } else {
+                // Devolver al libro las reventas que no se pudieron liquidar
+                for (int j = i; j < tomadas.size(); j++) {
+                    gestorPersistencia.getLibroReventas().publicar(tomadas.get(j));
+                }
+                break;
+            }
+        }
+        
+        System.out.println("Reventas compradas: " + compradas.size() + " de " + cantidad + " solicitadas");
+        return compradas;
+    }
+    
     // ==================== MÉTODOS DE CONTRADOFERTAS ====================
     
     /**
      * Crea una contraoferta para un tiquete en reventa
      */
     public Contraoferta crearContraoferta(Comprador comprador, TiqueteReventa reventa, double precioOfertado) {
+        return crearContraoferta(comprador, reventa, precioOfertado, null);
+    }
+    
+    /**
+     * Crea una contraoferta de forma repetible: una repetición con la misma clave
+     * recibe la misma contraoferta (que pudo liquidarse al crearse)
+     * @param claveIdempotencia - ver comprarTiquetes (null = sin clave)
+     */
+    public Contraoferta crearContraoferta(Comprador comprador, TiqueteReventa reventa, double precioOfertado,
+                                          String claveIdempotencia) {
+        if (fueraDelEscritor()) {
+            return null;
+        }
+        if (claveIdempotencia != null) {
+            return conClave(comprador, claveIdempotencia, "CREAR_CONTRAOFERTA",
+                            () -> crearContraoferta(comprador, reventa, precioOfertado, null),
+                            Contraoferta::getId, gestorPersistencia::buscarContraofertaPorId);
+        }
         if (!comprador.getTipoUsuario().equals("comprador")) {
             System.out.println("Error: Solo los compradores pueden hacer contraofertas");
             return null;
@@ -453,21 +1363,20 @@ public class Aplicacion {
         }
         
         // Verificar si ya existe una contraoferta pendiente del mismo comprador
-        for (Contraoferta contra : gestorPersistencia.getContraofertasPorReventa(reventa)) {
-            if (contra.getComprador().equals(comprador) && contra.estaPendiente()) {
-                System.out.println("Error: Ya tienes una contraoferta pendiente para este tiquete");
-                return null;
-            }
+        MotorContraofertas motor = gestorPersistencia.getMotorContraofertas();
+        if (motor.buscarPendiente(reventa, comprador) != null) {
+            System.out.println("Error: Ya tienes una contraoferta pendiente para este tiquete");
+            return null;
         }
         
         // Crear contraoferta
-        String contraId = "CONTRA-" + System.currentTimeMillis();
+        String contraId = GeneradorIds.getInstancia().siguiente("CONTRA");
         Contraoferta contraoferta = new Contraoferta(contraId, reventa, comprador, precioOfertado);
         gestorPersistencia.agregarContraoferta(contraoferta);
         
         // Registrar proceso
         ProcesoEntreUsuarios proceso = new ProcesoEntreUsuarios(
-            "PROC-CONTRA-" + System.currentTimeMillis(),
+            GeneradorIds.getInstancia().siguiente("PROC-CONTRA"),
             ProcesoEntreUsuarios.TipoProceso.TRANSFERENCIA_TIQUETE,
             new Date(),
             comprador
@@ -479,15 +1388,107 @@ public class Aplicacion {
         proceso.setEstado("pendiente");
         gestorPersistencia.agregarProceso(proceso);
         
-        guardarDatos();
         System.out.println("Contraoferta creada: $" + precioOfertado + " para tiquete " + reventa.getTiquete().getId());
+        
+        // Aplicar las reglas automáticas del vendedor
+        switch (motor.recibir(contraoferta)) {
+            case RECHAZAR:
+                contraoferta.rechazar();
+                System.out.println("Contraoferta rechazada automáticamente: está por debajo del precio mínimo del vendedor");
+                break;
+            case ACEPTAR:
+                if (!liquidarContraoferta(contraoferta)) {
+                    contraoferta.rechazar();
+                }
+                break;
+            case PENDIENTE:
+                break;
+        }
+        
+        guardarDatos();
         return contraoferta;
     }
     
+    /**
+     * Configura las reglas automáticas de contraoferta de una reventa y las aplica
+     * a las contraofertas que ya estaban pendientes, de la mejor a la peor.
+     */
+    public boolean configurarReglasContraoferta(Comprador vendedor, TiqueteReventa reventa, 
+                                                double precioMinimo, double precioAutoAceptar) {
+        if (!reventa.getVendedor().equals(vendedor)) {
+            System.out.println("Error: Solo el vendedor puede configurar las reglas de la reventa");
+            return false;
+        }
+        
+        if (!reventa.isActivo()) {
+            System.out.println("Error: La oferta de reventa ya no está activa");
+            return false;
+        }
+        
+        try {
+            reventa.setReglasContraoferta(precioMinimo, precioAutoAceptar);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+            return false;
+        }
+        
+        MotorContraofertas motor = gestorPersistencia.getMotorContraofertas();
+        int rechazadas = motor.rechazarBajoMinimo(reventa).size();
+        if (rechazadas > 0) {
+            System.out.println("Contraofertas rechazadas por el nuevo precio mínimo: " + rechazadas);
+        }
+        
+        // Las pujas en competencia se atienden en orden de precio; si la mejor no
+        // se puede liquidar (saldo insuficiente) se descarta y se intenta la siguiente
+        Contraoferta ganadora = motor.ganadoraAutomatica(reventa);
+        while (ganadora != null && !liquidarContraoferta(ganadora)) {
+            ganadora.rechazar();
+            ganadora = motor.ganadoraAutomatica(reventa);
+        }
+        
+        guardarDatos();
+        return true;
+    }
+    
+    /**
+     * Vende el tiquete al precio de la contraoferta y rechaza las demás pendientes
+     * @return true si la venta se completó
+     */
+    private boolean liquidarContraoferta(Contraoferta contraoferta) {
+        TiqueteReventa reventa = contraoferta.getTiqueteReventa();
+        Comprador comprador = (Comprador) contraoferta.getComprador();
+        
+        // Se retira antes para que no quede incluida en el lote de rechazadas
+        gestorPersistencia.getMotorContraofertas().retirar(contraoferta);
+        if (!liquidarReventa(comprador, reventa, contraoferta.getPrecioOfertado())) {
+            System.out.println("Error: No se pudo procesar la venta de la contraoferta");
+            return false;
+        }
+        
+        contraoferta.aceptar();
+        System.out.println("Contraoferta aceptada: tiquete vendido a " + comprador.getLogin());
+        return true;
+    }
+    
     /**
      * Acepta una contraoferta
      */
     public boolean aceptarContraoferta(Comprador vendedor, Contraoferta contraoferta) {
+        return aceptarContraoferta(vendedor, contraoferta, null);
+    }
+    
+    /**
+     * Acepta una contraoferta de forma repetible
+     * @param claveIdempotencia - ver comprarTiquetes (null = sin clave)
+     */
+    public boolean aceptarContraoferta(Comprador vendedor, Contraoferta contraoferta, String claveIdempotencia) {
+        if (fueraDelEscritor()) {
+            return false;
+        }
+        if (claveIdempotencia != null) {
+            return conClave(vendedor, claveIdempotencia, "ACEPTAR_CONTRAOFERTA",
+                            () -> aceptarContraoferta(vendedor, contraoferta, null));
+        }
         if (!vendedor.getTipoUsuario().equals("comprador")) {
             System.out.println("Error: Solo los compradores pueden aceptar contraofertas");
             return false;
@@ -504,26 +1505,18 @@ public class Aplicacion {
         }
         
         TiqueteReventa reventa = contraoferta.getTiqueteReventa();
-        Comprador comprador = (Comprador) contraoferta.getComprador();
-        
-        // Procesar la venta
-        if (!comprarTiqueteReventa(comprador, reventa)) {
-            System.out.println("Error: No se pudo procesar la venta de la contraoferta");
+        if (!reventa.isActivo() || !reventa.puedeSerRevendido()) {
+            System.out.println("Error: El tiquete ya no está disponible en reventa");
             return false;
         }
         
-        // Aceptar la contraoferta
-        contraoferta.aceptar();
-        
-        // Rechazar otras contraofertas pendientes para el mismo tiquete
-        for (Contraoferta otraContra : gestorPersistencia.getContraofertasPorReventa(reventa)) {
-            if (!otraContra.equals(contraoferta) && otraContra.estaPendiente()) {
-                otraContra.rechazar();
-            }
+        // Procesar la venta al precio ofertado; las demás pendientes se rechazan en lote
+        if (!liquidarContraoferta(contraoferta)) {
+            gestorPersistencia.getMotorContraofertas().registrar(contraoferta);
+            return false;
         }
         
         guardarDatos();
-        System.out.println("Contraoferta aceptada: tiquete vendido a " + comprador.getLogin());
         return true;
     }
     
@@ -547,10 +1540,11 @@ public class Aplicacion {
         }
         
         contraoferta.rechazar();
+        gestorPersistencia.getMotorContraofertas().retirar(contraoferta);
         
         // Registrar proceso
         ProcesoEntreUsuarios proceso = new ProcesoEntreUsuarios(
-            "PROC-RECHAZO-" + System.currentTimeMillis(),
+            GeneradorIds.getInstancia().siguiente("PROC-RECHAZO"),
             ProcesoEntreUsuarios.TipoProceso.TRANSFERENCIA_TIQUETE,
             new Date(),
             vendedor
@@ -583,19 +1577,15 @@ public class Aplicacion {
             return false;
         }
         
-        // Desactivar la reventa
-        reventa.setActivo(false);
+        // Desactivar la reventa y retirarla del libro de órdenes
+        gestorPersistencia.retirarReventa(reventa);
         
-        // Rechazar todas las contraofertas pendientes
-        for (Contraoferta contra : gestorPersistencia.getContraofertasPorReventa(reventa)) {
-            if (contra.estaPendiente()) {
-                contra.rechazar();
-            }
-        }
+        // Rechazar en lote todas las contraofertas pendientes
+        gestorPersistencia.getMotorContraofertas().cerrarReventa(reventa);
         
         // Registrar proceso
         ProcesoEntreUsuarios proceso = new ProcesoEntreUsuarios(
-            "PROC-BORRAR-" + System.currentTimeMillis(),
+            GeneradorIds.getInstancia().siguiente("PROC-BORRAR"),
             ProcesoEntreUsuarios.TipoProceso.TRANSFERENCIA_TIQUETE,
             new Date(),
             admin
@@ -611,6 +1601,170 @@ public class Aplicacion {
         return true;
     }
     
+    // ==================== IDEMPOTENCIA ====================
+    
+    /**
+     * Ejecuta una operación que devuelve una compra una sola vez por clave del usuario.
+     * Una repetición recibe la misma compra (buscada por id si la clave viene del diario).
+     */
+    private Compra conClaveCompra(Usuario usuario, String clave, String operacion, Supplier<Compra> accion) {
+        return conClave(usuario, clave, operacion, accion, Compra::getId, this::buscarCompraPorId);
+    }
+    
+    /**
+     * Ejecuta una operación exitosa o fallida una sola vez por clave del usuario.
+     * Solo se recuerda el éxito: una operación fallida puede reintentarse con la misma clave.
+     */
+    private boolean conClave(Usuario usuario, String clave, String operacion, Supplier<Boolean> accion) {
+        Boolean resultado = conClave(usuario, clave, operacion, accion,
+                                     exito -> exito ? "true" : null, referencia -> true);
+        return resultado != null && resultado;
+    }
+    
+    /**
+     * Ejecuta una operación una sola vez por clave del usuario
+     * @param codificar - referencia que se anota en el diario, o null si el resultado no debe recordarse
+     * @param decodificar - recupera el resultado de una referencia cargada del diario
+     */
+    private <T> T conClave(Usuario usuario, String clave, String operacion, Supplier<T> accion,
+                           Function<T, String> codificar, Function<String, T> decodificar) {
+        return clavesIdempotencia.ejecutar(usuario.getLogin() + "|" + clave, operacion, accion, codificar, decodificar);
+    }
+    
+    /**
+     * @return ids de las reventas separados por comas, o null si no se compró ninguna
+     */
+    private static String codificarReventas(ArrayList<TiqueteReventa> reventas) {
+        if (reventas.isEmpty()) {
+            return null;
+        }
+        StringBuilder ids = new StringBuilder();
+        for (TiqueteReventa reventa : reventas) {
+            if (ids.length() > 0) {
+                ids.append(',');
+            }
+            ids.append(reventa.getId());
+        }
+        return ids.toString();
+    }
+    
+    private ArrayList<TiqueteReventa> decodificarReventas(String ids) {
+        ArrayList<TiqueteReventa> reventas = new ArrayList<>();
+        for (String id : ids.split(",")) {
+            TiqueteReventa reventa = gestorPersistencia.buscarReventaPorId(id);
+            if (reventa != null) {
+                reventas.add(reventa);
+            }
+        }
+        return reventas;
+    }
+    
+    private Compra buscarCompraPorId(String id) {
+        return compras.buscar(id);
+    }
+    
+    /**
+     * Reconstruye las compras de su diario; los tiquetes se buscan en los historiales de los compradores
+     */
+    private void cargarCompras() {
+        HashMap<String, Tiquete> tiquetesPorId = new HashMap<>();
+        for (Comprador comprador : gestorPersistencia.getCompradores()) {
+            for (Tiquete tiquete : comprador.getHistorialTiquetes()) {
+                tiquetesPorId.put(tiquete.getId(), tiquete);
+            }
+        }
+        int cargadas = compras.cargar(gestorPersistencia::buscarUsuarioPorLogin, tiquetesPorId::get);
+        System.out.println("Compras cargadas: " + cargadas);
+    }
+    
+    // ==================== MODO SECUENCIADO ====================
+    
+    /**
+     * Activa el modo secuenciado. Primero reproduce los comandos que quedaron en el
+     * diario desde el último guardado (recuperación tras una caída) y luego arranca
+     * el hilo escritor, que anota cada lote de comandos en el mismo diario.
+     * Mientras el modo está activo los comandos no guardan por su cuenta: el
+     * escritor guarda una vez por lote y recién entonces vacía el diario, así que
+     * lo que queda en él es justo lo que falta aplicar sobre lo guardado.
+     * @return cantidad de comandos reproducidos del diario
+     */
+    public synchronized int iniciarModoSecuenciado(File diario) {
+        if (secuenciador != null) {
+            System.out.println("Error: El modo secuenciado ya está activo");
+            return 0;
+        }
+        ComandosAplicacion comandos = new ComandosAplicacion(this);
+        guardadoDiferido = true;
+        int reproducidos = SecuenciadorComandos.reproducir(diario, comandos::decodificar);
+        if (reproducidos > 0) {
+            guardarAhora();
+        }
+        SecuenciadorComandos.limpiarDiario(diario);
+        SecuenciadorComandos nuevo = new SecuenciadorComandos(SecuenciadorComandos.CAPACIDAD_POR_DEFECTO, diario,
+                                                              () -> InstantaneaSistema.de(this), this::guardarAhora);
+        nuevo.iniciar();
+        this.diarioComandos = diario;
+        this.secuenciador = nuevo;
+        return reproducidos;
+    }
+    
+    /**
+     * Aplica los comandos pendientes, guarda los datos y vacía el diario
+     */
+    public synchronized void detenerModoSecuenciado() {
+        if (secuenciador == null) {
+            return;
+        }
+        secuenciador.detener();
+        secuenciador = null;
+        guardadoDiferido = false;
+        guardarAhora();
+        SecuenciadorComandos.limpiarDiario(diarioComandos);
+    }
+    
+    /**
+     * En el modo secuenciado solo el hilo escritor modifica el sistema; una
+     * llamada directa desde otro hilo se rechaza, porque no quedaría en el diario
+     * ni se ordenaría con los comandos.
+     * @return true si la llamada debe rechazarse
+     */
+    private boolean fueraDelEscritor() {
+        SecuenciadorComandos actual = secuenciador;
+        if (actual != null && !actual.esHiloEscritor()) {
+            System.out.println("Error: En el modo secuenciado las modificaciones se envían como comandos");
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Envía un comando al hilo escritor
+     * @return resultado del comando, o null si el modo secuenciado no está activo
+     */
+    public CompletableFuture<Object> enviarComando(Comando comando) {
+        SecuenciadorComandos actual = secuenciador;
+        if (actual == null) {
+            System.out.println("Error: El modo secuenciado no está activo");
+            return null;
+        }
+        return actual.enviar(comando);
+    }
+    
+    /**
+     * @return fábrica de comandos de esta aplicación
+     */
+    public ComandosAplicacion getComandos() {
+        return new ComandosAplicacion(this);
+    }
+    
+    /**
+     * @return la última instantánea publicada, o null fuera del modo secuenciado
+     */
+    public InstantaneaSistema getInstantanea() {
+        SecuenciadorComandos actual = secuenciador;
+        return actual != null ? actual.getInstantanea() : null;
+    }
+    
     // ==================== MÉTODOS DE CONSULTA ====================
     
     /**
@@ -631,13 +1785,21 @@ public class Aplicacion {
      * Obtiene compras del sistema
      */
     public ArrayList<Compra> getTodasLasCompras() {
-        return new ArrayList<>(compras);
+        return compras.getCompras();
     }
     
     /**
-     * Guarda todos los datos del sistema
+     * Guarda todos los datos del sistema. En el modo secuenciado no hace nada:
+     * el hilo escritor guarda al terminar cada lote.
      */
     public void guardarDatos() {
+        if (guardadoDiferido) {
+            return;
+        }
+        guardarAhora();
+    }
+    
+    private void guardarAhora() {
         gestorPersistencia.guardarTodosLosDatos();
     }
     
@@ -645,6 +1807,8 @@ public class Aplicacion {
      * Cierra la aplicación y guarda los datos
      */
     public void cerrarAplicacion() {
+        motorPrecios.detener();
+        detenerModoSecuenciado();
         guardarDatos();
         System.out.println("Aplicación cerrada. Datos guardados correctamente.");
     }
@@ -788,7 +1952,7 @@ public class Aplicacion {
             // 4. Mostrar reporte de ganancias
             System.out.println("\n4. REPORTES DE GANANCIAS:");
             if (admin instanceof Administrador) {
-                ((Administrador) admin).observarGanancias(compras);
+                ((Administrador) admin).observarGanancias(agregadosIngresos);
             }
             
             // 5. Crear oferta de prueba
@@ -824,5 +1988,6 @@ public class Aplicacion {
     public ArrayList<Usuario> getUsuarios() { return gestorPersistencia.getUsuarios(); }
     public ArrayList<Evento> getEventos() { return gestorPersistencia.getEventos(); }
     public ArrayList<Venue> getVenues() { return gestorPersistencia.getVenues(); }
-    public ArrayList<Compra> getCompras() { return new ArrayList<>(compras); }
+    public ArrayList<Compra> getCompras() { return compras.getCompras(); }
+    GestorPersistencia getGestorPersistencia() { return gestorPersistencia; }
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package modelo;
+
+/**
+ * Operación que modifica el estado del sistema en el modo secuenciado.
+ * Los comandos se ejecutan uno por uno, en el orden de su secuencia, en el
+ * hilo escritor del SecuenciadorComandos.
+ */
+public interface Comando {
+
+    /**
+     * @return nombre del comando (primer campo de su línea en el diario)
+     */
+    String getTipo();
+
+    /**
+     * @return línea con la que el comando se anota en el diario y se reproduce
+     *         (ver ComandosAplicacion.decodificar)
+     */
+    String codificar();
+
+    /**
+     * Aplica el comando; solo lo llama el hilo escritor
+     * @return resultado de la operación (puede ser null)
+     */
+    Object ejecutar();
+}
@@ -0,0 +1,178 @@
+package modelo;
+
+import java.util.function.Supplier;
+
+import modelo.eventos.Evento;
+import modelo.eventos.Localidad;
+import modelo.persistencia.GestorPersistencia;
+import modelo.tiquetes.TiqueteReventa;
+import modelo.usuarios.Administrador;
+import modelo.usuarios.Comprador;
+import modelo.usuarios.Usuario;
+
+/**
+ * Comandos de la aplicación para el modo secuenciado.
+ * Cada comando guarda solo identificadores (login, id del evento, de la
+ * localidad, de la reventa), de modo que su línea en el diario basta para
+ * reproducirlo: los objetos se resuelven al ejecutarlo, en el hilo escritor.
+ *
+ * Formato de una línea: TIPO;campo1;campo2;...
+ */
+public class ComandosAplicacion {
+    public static final String COMPRAR_TIQUETES = "COMPRAR_TIQUETES";
+    public static final String RECARGAR_SALDO = "RECARGAR_SALDO";
+    public static final String COMPRAR_REVENTA = "COMPRAR_REVENTA";
+    public static final String CANCELAR_EVENTO = "CANCELAR_EVENTO";
+    private static final String SEPARADOR = ";";
+
+    /**
+     * Comando cuyo efecto es una llamada a la aplicación
+     */
+    private static class ComandoAplicacion implements Comando {
+        private final String tipo;
+        private final String[] campos;
+        private final Supplier<Object> accion;
+
+        ComandoAplicacion(String tipo, String[] campos, Supplier<Object> accion) {
+            this.tipo = tipo;
+            this.campos = campos;
+            this.accion = accion;
+        }
+
+        @Override
+        public String getTipo() { return tipo; }
+
+        @Override
+        public String codificar() {
+            return tipo + SEPARADOR + String.join(SEPARADOR, campos);
+        }
+
+        @Override
+        public Object ejecutar() {
+            return accion.get();
+        }
+    }
+
+    private final Aplicacion aplicacion;
+
+    public ComandosAplicacion(Aplicacion aplicacion) {
+        this.aplicacion = aplicacion;
+    }
+
+    // ==================== FÁBRICAS ====================
+
+    /**
+     * @return comando cuyo resultado es la Compra, o null si la compra falla
+     */
+    public Comando comprarTiquetes(String login, String eventoId, String localidadId, int cantidad,
+                                   double porcentajeAdicional, double cobroFijo) {
+        String[] campos = {login, eventoId, localidadId, String.valueOf(cantidad),
+                           String.valueOf(porcentajeAdicional), String.valueOf(cobroFijo)};
+        return new ComandoAplicacion(COMPRAR_TIQUETES, campos, () -> {
+            Usuario usuario = gestor().buscarUsuarioPorLogin(login);
+            Evento evento = gestor().buscarEventoPorId(eventoId);
+            Localidad localidad = buscarLocalidad(evento, localidadId);
+            if (!(usuario instanceof Comprador) || localidad == null) {
+                System.out.println("Error: Comprador, evento o localidad no encontrados");
+                return null;
+            }
+            return aplicacion.comprarTiquetes((Comprador) usuario, evento, localidad, cantidad,
+                                              porcentajeAdicional, cobroFijo);
+        });
+    }
+
+    /**
+     * @return comando cuyo resultado es true si el saldo se recargó
+     */
+    public Comando recargarSaldo(String login, long centavos) {
+        String[] campos = {login, String.valueOf(centavos)};
+        return new ComandoAplicacion(RECARGAR_SALDO, campos, () -> {
+            Usuario usuario = gestor().buscarUsuarioPorLogin(login);
+            if (!(usuario instanceof Comprador) || centavos <= 0) {
+                System.out.println("Error: No se puede recargar el saldo de " + login);
+                return false;
+            }
+            usuario.acreditar(centavos, "Recarga de saldo");
+            return true;
+        });
+    }
+
+    /**
+     * @return comando cuyo resultado es true si la reventa se compró
+     */
+    public Comando comprarReventa(String login, String reventaId) {
+        String[] campos = {login, reventaId};
+        return new ComandoAplicacion(COMPRAR_REVENTA, campos, () -> {
+            Usuario usuario = gestor().buscarUsuarioPorLogin(login);
+            TiqueteReventa reventa = gestor().buscarReventaPorId(reventaId);
+            if (!(usuario instanceof Comprador) || reventa == null) {
+                System.out.println("Error: Comprador o reventa no encontrados");
+                return false;
+            }
+            return aplicacion.comprarTiqueteReventa((Comprador) usuario, reventa);
+        });
+    }
+
+    /**
+     * @return comando cuyo resultado es true si el evento se canceló
+     */
+    public Comando cancelarEvento(String loginAdmin, String eventoId) {
+        String[] campos = {loginAdmin, eventoId};
+        return new ComandoAplicacion(CANCELAR_EVENTO, campos, () -> {
+            Usuario usuario = gestor().buscarUsuarioPorLogin(loginAdmin);
+            Evento evento = gestor().buscarEventoPorId(eventoId);
+            if (!(usuario instanceof Administrador)) {
+                System.out.println("Error: Solo los administradores pueden cancelar eventos");
+                return false;
+            }
+            return aplicacion.cancelarEvento((Administrador) usuario, evento);
+        });
+    }
+
+    // ==================== DIARIO ====================
+
+    /**
+     * Reconstruye un comando a partir de su línea en el diario
+     * @return el comando, o null si la línea no es válida
+     */
+    public Comando decodificar(String linea) {
+        String[] partes = linea.split(SEPARADOR, -1);
+        try {
+            switch (partes[0]) {
+                case COMPRAR_TIQUETES:
+                    return comprarTiquetes(partes[1], partes[2], partes[3], Integer.parseInt(partes[4]),
+                                           Double.parseDouble(partes[5]), Double.parseDouble(partes[6]));
+                case RECARGAR_SALDO:
+                    return recargarSaldo(partes[1], Long.parseLong(partes[2]));
+                case COMPRAR_REVENTA:
+                    return comprarReventa(partes[1], partes[2]);
+                case CANCELAR_EVENTO:
+                    return cancelarEvento(partes[1], partes[2]);
+                default:
+                    System.out.println("Error: Comando desconocido en el diario: " + partes[0]);
+                    return null;
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            System.out.println("Error: Línea inválida en el diario: " + linea);
+            return null;
+        }
+    }
+
+    // ==================== AUXILIARES ====================
+
+    private GestorPersistencia gestor() {
+        return aplicacion.getGestorPersistencia();
+    }
+
+    private static Localidad buscarLocalidad(Evento evento, String localidadId) {
+        if (evento == null || evento.getVenue() == null) {
+            return null;
+        }
+        for (Localidad localidad : evento.getVenue().getLocalidades()) {
+            if (localidad.getId().equals(localidadId)) {
+                return localidad;
+            }
+        }
+        return null;
+    }
+}
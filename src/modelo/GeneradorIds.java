@@ -0,0 +1,230 @@
+package modelo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servicio central de identificadores de entidades (compras, tiquetes,
+ * reventas, contraofertas, procesos).
+ * Cada id es un long de 63 bits con tres partes:
+ *   - 41 bits: milisegundos desde EPOCA (alcanza para unos 69 años)
+ *   - 10 bits: nodo (proceso) que lo generó, hasta 1024 nodos
+ *   - 12 bits: secuencia dentro del mismo milisegundo, hasta 4096 ids
+ * Los ids de un nodo son estrictamente crecientes, y los de nodos distintos no
+ * coinciden mientras cada proceso vivo tenga su propio nodo. Ese nodo se toma
+ * de la propiedad boletamaster.nodo (quien la configura debe darle un valor
+ * distinto a cada proceso) o, si no está, se arrienda con un cerrojo de archivo
+ * en data/nodos que el sistema operativo suelta al terminar el proceso.
+ * La marca de tiempo y la secuencia viven juntas en un solo
+ * AtomicLong que se avanza con compare-and-set: no hay cerrojos. Si el reloj
+ * retrocede o se agotan las secuencias de un milisegundo, se sigue con el
+ * milisegundo lógico siguiente en vez de esperar.
+ *
+ * La forma de texto es base 32 (alfabeto de Crockford, sin I, L, O ni U) con
+ * ancho fijo de 13 caracteres, así que el orden alfabético de los textos es el
+ * mismo orden de generación.
+ */
+public class GeneradorIds {
+    public static final long EPOCA = 1735689600000L; // 2025-01-01T00:00:00Z
+    public static final String PROPIEDAD_NODO = "boletamaster.nodo";
+    public static final String DIRECTORIO_NODOS = "data/nodos";
+    private static final int BITS_NODO = 10;
+    private static final int BITS_SECUENCIA = 12;
+    private static final long MAXIMO_NODO = (1L << BITS_NODO) - 1;
+    private static final long MAXIMO_SECUENCIA = (1L << BITS_SECUENCIA) - 1;
+    private static final char[] ALFABETO = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ANCHO_TEXTO = 13; // 13 * 5 = 65 bits
+
+    // Cerrojos de los nodos arrendados: se mantienen abiertos mientras viva el proceso
+    private static final ArrayList<FileLock> ARRIENDOS = new ArrayList<>();
+
+    private final long nodo;
+    private final AtomicLong ultimo; // (milisegundo lógico << BITS_SECUENCIA) | secuencia
+
+    /**
+     * @param nodo - identificador del proceso, de 0 a 1023
+     */
+    public GeneradorIds(long nodo) {
+        if (nodo < 0 || nodo > MAXIMO_NODO) {
+            throw new IllegalArgumentException("El nodo debe estar entre 0 y " + MAXIMO_NODO);
+        }
+        this.nodo = nodo;
+        this.ultimo = new AtomicLong(0);
+    }
+
+    public static GeneradorIds getInstancia() {
+        return Contenedor.INSTANCIA;
+    }
+
+    private static class Contenedor {
+        private static final GeneradorIds INSTANCIA = new GeneradorIds(nodoPorDefecto());
+    }
+
+    /**
+     * Nodo configurado con la propiedad boletamaster.nodo o, si no hay (o no es
+     * válido), uno arrendado en el directorio de nodos
+     */
+    private static long nodoPorDefecto() {
+        String configurado = System.getProperty(PROPIEDAD_NODO);
+        if (configurado != null) {
+            try {
+                long nodo = Long.parseLong(configurado.trim());
+                if (nodo >= 0 && nodo <= MAXIMO_NODO) {
+                    return nodo;
+                }
+            } catch (NumberFormatException e) {
+                // se informa abajo
+            }
+            System.err.println("Nodo inválido en " + PROPIEDAD_NODO + " (debe estar entre 0 y " + MAXIMO_NODO
+                               + "): " + configurado);
+        }
+        return arrendarNodo(new File(DIRECTORIO_NODOS));
+    }
+
+    /**
+     * Toma el primer nodo libre del directorio: cada nodo es un archivo y lo tiene
+     * quien tenga su cerrojo. El cerrojo dura lo que dure el proceso, así que un
+     * proceso caído no deja su nodo ocupado.
+     * @throws IllegalStateException si no queda ningún nodo libre
+     */
+    public static long arrendarNodo(File directorio) {
+        directorio.mkdirs();
+        for (long nodo = 0; nodo <= MAXIMO_NODO; nodo++) {
+            File archivo = new File(directorio, "nodo-" + nodo + ".lock");
+            FileChannel canal = null;
+            try {
+                canal = FileChannel.open(archivo.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                FileLock cerrojo = canal.tryLock();
+                if (cerrojo != null) {
+                    synchronized (ARRIENDOS) {
+                        ARRIENDOS.add(cerrojo);
+                    }
+                    return nodo;
+                }
+            } catch (OverlappingFileLockException e) {
+                // Ya lo tiene este mismo proceso
+            } catch (IOException e) {
+                System.err.println("Error al arrendar el nodo " + nodo + ": " + e.getMessage());
+            }
+            cerrar(canal);
+        }
+        throw new IllegalStateException("No hay nodos libres en " + directorio.getPath());
+    }
+
+    private static void cerrar(FileChannel canal) {
+        if (canal == null) {
+            return;
+        }
+        try {
+            canal.close();
+        } catch (IOException e) {
+            // El canal no tenía el cerrojo; no hay nada que liberar
+        }
+    }
+
+    // ==================== GENERACIÓN ====================
+
+    /**
+     * @return un id nuevo, mayor que todos los anteriores de este generador
+     */
+    public long siguiente() {
+        while (true) {
+            long anterior = ultimo.get();
+            long ahora = System.currentTimeMillis() - EPOCA;
+            long milisegundo = anterior >>> BITS_SECUENCIA;
+            long nuevo;
+            if (ahora > milisegundo) {
+                nuevo = ahora << BITS_SECUENCIA;
+            } else {
+                // Mismo milisegundo, o el reloj retrocedió: se sigue contando
+                // (al desbordar la secuencia pasa al milisegundo lógico siguiente)
+                nuevo = anterior + 1;
+            }
+            if (ultimo.compareAndSet(anterior, nuevo)) {
+                long secuencia = nuevo & MAXIMO_SECUENCIA;
+                return ((nuevo >>> BITS_SECUENCIA) << (BITS_NODO + BITS_SECUENCIA))
+                       | (nodo << BITS_SECUENCIA) | secuencia;
+            }
+        }
+    }
+
+    /**
+     * @return id nuevo en base 32
+     */
+    public String siguienteTexto() {
+        return aBase32(siguiente());
+    }
+
+    /**
+     * @return id nuevo con prefijo, por ejemplo "COMP-01HV3K9Q2M7ZA"
+     */
+    public String siguiente(String prefijo) {
+        return prefijo + "-" + aBase32(siguiente());
+    }
+
+    // ==================== TEXTO ====================
+
+    public static String aBase32(long id) {
+        char[] texto = new char[ANCHO_TEXTO];
+        for (int i = ANCHO_TEXTO - 1; i >= 0; i--) {
+            texto[i] = ALFABETO[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(texto);
+    }
+
+    /**
+     * @throws IllegalArgumentException si el texto no es un id en base 32
+     */
+    public static long deBase32(String texto) {
+        // 13 caracteres son 65 bits: el primero solo puede llevar los 3 bits altos del long
+        if (texto == null || texto.length() != ANCHO_TEXTO || valorDe(Character.toUpperCase(texto.charAt(0))) > 7) {
+            throw new IllegalArgumentException("Id en base 32 inválido: " + texto);
+        }
+        long id = 0;
+        for (int i = 0; i < ANCHO_TEXTO; i++) {
+            int valor = valorDe(Character.toUpperCase(texto.charAt(i)));
+            if (valor < 0) {
+                throw new IllegalArgumentException("Id en base 32 inválido: " + texto);
+            }
+            id = (id << 5) | valor;
+        }
+        return id;
+    }
+
+    private static int valorDe(char c) {
+        for (int i = 0; i < ALFABETO.length; i++) {
+            if (ALFABETO[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // ==================== PARTES DE UN ID ====================
+
+    /**
+     * @return milisegundo (desde 1970) en que se generó el id
+     */
+    public static long getMarcaTiempo(long id) {
+        return (id >>> (BITS_NODO + BITS_SECUENCIA)) + EPOCA;
+    }
+
+    public static long getNodo(long id) {
+        return (id >>> BITS_SECUENCIA) & MAXIMO_NODO;
+    }
+
+    public static long getSecuencia(long id) {
+        return id & MAXIMO_SECUENCIA;
+    }
+
+    public long getNodo() {
+        return nodo;
+    }
+}
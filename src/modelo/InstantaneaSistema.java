@@ -0,0 +1,66 @@
+package modelo;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import modelo.eventos.Evento;
+import modelo.eventos.Localidad;
+import modelo.pagos.AgregadosIngresos;
+
+/**
+ * Fotografía inmutable del estado que consultan los lectores mientras el
+ * SecuenciadorComandos aplica cambios. Se construye en el hilo escritor al
+ * terminar cada lote y se publica con una escritura volátil, así que un lector
+ * siempre ve un estado completo y consistente, sin tomar cerrojos.
+ */
+public final class InstantaneaSistema {
+    private final Date fecha;
+    private final Map<String, Integer> disponiblesPorLocalidad; // "eventoId/localidadId" -> disponibles
+    private final int cantidadCompras;
+    private final double totalRecaudado;
+
+    private InstantaneaSistema(Map<String, Integer> disponiblesPorLocalidad, int cantidadCompras, double totalRecaudado) {
+        this.fecha = new Date();
+        this.disponiblesPorLocalidad = Collections.unmodifiableMap(disponiblesPorLocalidad);
+        this.cantidadCompras = cantidadCompras;
+        this.totalRecaudado = totalRecaudado;
+    }
+
+    /**
+     * Toma la fotografía del estado actual de la aplicación
+     */
+    public static InstantaneaSistema de(Aplicacion aplicacion) {
+        HashMap<String, Integer> disponibles = new HashMap<>();
+        for (Evento evento : aplicacion.getEventos()) {
+            if (evento.getVenue() == null) {
+                continue;
+            }
+            for (Localidad localidad : evento.getVenue().getLocalidades()) {
+                disponibles.put(clave(evento.getId(), localidad.getId()), localidad.getTiquetesDisponibles(evento));
+            }
+        }
+        // Los totales salen de los agregados, que se mantienen al registrar cada compra
+        AgregadosIngresos.Acumulado total = aplicacion.getAgregadosIngresos().getTotal();
+        return new InstantaneaSistema(disponibles, total.getCompras(), total.getMontoCobrado());
+    }
+
+    private static String clave(String eventoId, String localidadId) {
+        return eventoId + "/" + localidadId;
+    }
+
+    // ==================== CONSULTAS ====================
+
+    public Date getFecha() { return new Date(fecha.getTime()); }
+    public int getCantidadCompras() { return cantidadCompras; }
+    public double getTotalRecaudado() { return totalRecaudado; }
+    public Map<String, Integer> getDisponiblesPorLocalidad() { return disponiblesPorLocalidad; }
+
+    /**
+     * @return tiquetes disponibles de la localidad en el evento (0 si no se conoce)
+     */
+    public int getDisponibles(String eventoId, String localidadId) {
+        return disponiblesPorLocalidad.getOrDefault(clave(eventoId, localidadId), 0);
+    }
+}
@@ -0,0 +1,378 @@
+package modelo;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Modo de ejecución con un solo escritor.
+ * Los hilos que quieren modificar el sistema no toman cerrojos: reservan un
+ * número de secuencia, dejan su Comando en la ranura correspondiente de un
+ * buffer circular y la publican. Un único hilo escritor recorre las ranuras en
+ * orden de secuencia, anota en el diario todo lo publicado como un solo lote,
+ * aplica los comandos y, al terminar el lote, publica una InstantaneaSistema
+ * inmutable. Los lectores (catálogo, reportes) solo leen la última instantánea.
+ *
+ * Tras cada lote se llama al guardado (si se configuró uno), se anota en un
+ * archivo de control la última secuencia guardada y se vacía el diario. Así el
+ * diario solo contiene lo que aún no llegó a disco, y al reproducirlo después
+ * de una caída se saltan las secuencias ya guardadas: ningún comando se aplica
+ * dos veces sobre el estado guardado.
+ *
+ * El orden de aplicación es el orden del diario, así que reproducirlo vuelve a
+ * aplicar los mismos comandos en el mismo orden. Los comandos solo guardan
+ * identificadores y resuelven al ejecutarse lo que depende del momento (precio
+ * vigente, fecha, ids generados), por lo que la reproducción recupera las
+ * operaciones pero no garantiza que esos valores salgan iguales.
+ */
+public class SecuenciadorComandos {
+    public static final int CAPACIDAD_POR_DEFECTO = 1024; // potencia de dos
+    private static final long ESPERA_NANOS = 50_000; // pausa del escritor sin trabajo
+    private static final long CERRADO = Long.MIN_VALUE; // reservada tras terminar el escritor
+
+    /**
+     * Ranura del buffer: el comando y el resultado que espera quien lo envió.
+     * Sin comando, la ranura es un hueco que el escritor salta.
+     */
+    private static class Entrada {
+        private final Comando comando; // null en un hueco
+        private final CompletableFuture<Object> resultado;
+
+        Entrada(Comando comando) {
+            this.comando = comando;
+            this.resultado = new CompletableFuture<>();
+        }
+    }
+
+    private final Entrada[] buffer;
+    private final int mascara;
+    private final AtomicLongArray publicadas; // secuencia publicada en cada ranura
+    private final AtomicLong reservada;       // última secuencia reservada por los productores (o CERRADO)
+    private final AtomicLong aplicada;        // última secuencia aplicada por el escritor
+    private final File diario;
+    private final Supplier<InstantaneaSistema> fotografo;
+    private final Runnable guardado;
+
+    private volatile InstantaneaSistema instantanea;
+    private volatile boolean corriendo;
+    private Thread escritor;
+    private long lotes;
+
+    /**
+     * @param capacidad - ranuras del buffer (se redondea a potencia de dos)
+     * @param diario - archivo donde se anotan los comandos (null para no anotarlos)
+     * @param fotografo - construye la instantánea tras cada lote, en el hilo escritor
+     */
+    public SecuenciadorComandos(int capacidad, File diario, Supplier<InstantaneaSistema> fotografo) {
+        this(capacidad, diario, fotografo, null);
+    }
+
+    /**
+     * @param guardado - lleva a disco el estado tras cada lote, en el hilo escritor (null si no hay);
+     *                   solo si termina bien se marca el lote como guardado y se vacía el diario
+     */
+    public SecuenciadorComandos(int capacidad, File diario, Supplier<InstantaneaSistema> fotografo, Runnable guardado) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser positiva");
+        }
+        int ranuras = Integer.highestOneBit(capacidad - 1) << 1;
+        if (ranuras <= 0) {
+            ranuras = 1;
+        }
+        this.buffer = new Entrada[ranuras];
+        this.mascara = ranuras - 1;
+        this.publicadas = new AtomicLongArray(ranuras);
+        for (int i = 0; i < ranuras; i++) {
+            publicadas.set(i, -1);
+        }
+        this.reservada = new AtomicLong(-1);
+        this.aplicada = new AtomicLong(-1);
+        this.diario = diario;
+        this.fotografo = fotografo;
+        this.guardado = guardado;
+        this.instantanea = fotografo != null ? fotografo.get() : null;
+    }
+
+    // ==================== CICLO DE VIDA ====================
+
+    public synchronized void iniciar() {
+        if (corriendo) {
+            return;
+        }
+        // El escritor anterior cerró las reservas al terminar con todo aplicado
+        reservada.set(aplicada.get());
+        corriendo = true;
+        escritor = new Thread(this::ejecutarEscritor, "secuenciador-comandos");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    /**
+     * Detiene el escritor después de aplicar todo lo ya publicado
+     */
+    public void detener() {
+        Thread hilo;
+        synchronized (this) {
+            corriendo = false;
+            hilo = escritor;
+        }
+        if (hilo != null) {
+            LockSupport.unpark(hilo);
+            try {
+                hilo.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public boolean estaCorriendo() {
+        return corriendo;
+    }
+
+    /**
+     * @return true si quien llama es el hilo escritor
+     */
+    public boolean esHiloEscritor() {
+        return escritor != null && Thread.currentThread() == escritor;
+    }
+
+    // ==================== PRODUCTORES ====================
+
+    /**
+     * Encola un comando para el escritor
+     * @return resultado que se completa cuando el comando se haya aplicado
+     */
+    public CompletableFuture<Object> enviar(Comando comando) {
+        long secuencia;
+        do {
+            secuencia = reservada.get();
+            if (secuencia == CERRADO || !corriendo) {
+                throw new IllegalStateException("El secuenciador no está corriendo");
+            }
+        } while (!reservada.compareAndSet(secuencia, secuencia + 1));
+        secuencia++;
+        // Si se detuvo mientras se reservaba, la secuencia ya es nuestra y el escritor
+        // la espera para terminar: se publica un hueco y el envío falla
+        boolean aceptado = corriendo;
+        Entrada entrada = new Entrada(aceptado ? comando : null);
+        if (!aceptado) {
+            entrada.resultado.completeExceptionally(new IllegalStateException("El secuenciador se detuvo"));
+        }
+        // Esperar a que el escritor libere la ranura de la vuelta anterior
+        while (secuencia - buffer.length > aplicada.get()) {
+            LockSupport.parkNanos(1_000);
+        }
+        int ranura = (int) (secuencia & mascara);
+        buffer[ranura] = entrada;
+        publicadas.set(ranura, secuencia); // publica la ranura (escritura volátil después de llenarla)
+        LockSupport.unpark(escritor);
+        return entrada.resultado;
+    }
+
+    // ==================== ESCRITOR ====================
+
+    private void ejecutarEscritor() {
+        long siguiente = aplicada.get() + 1;
+        while (true) {
+            // Tomar todas las ranuras publicadas contiguas como un lote
+            long hasta = siguiente - 1;
+            while (publicadas.get((int) ((hasta + 1) & mascara)) == hasta + 1) {
+                hasta++;
+            }
+            if (hasta < siguiente) {
+                // Cerrar las reservas solo si no queda ninguna sin publicar
+                if (!corriendo && reservada.compareAndSet(siguiente - 1, CERRADO)) {
+                    return;
+                }
+                LockSupport.parkNanos(ESPERA_NANOS);
+                continue;
+            }
+
+            ArrayList<Entrada> lote = new ArrayList<>((int) (hasta - siguiente + 1));
+            for (long s = siguiente; s <= hasta; s++) {
+                lote.add(buffer[(int) (s & mascara)]);
+            }
+            anotarLote(siguiente, lote);
+            for (Entrada entrada : lote) {
+                if (entrada.comando == null) {
+                    continue;
+                }
+                try {
+                    entrada.resultado.complete(entrada.comando.ejecutar());
+                } catch (RuntimeException e) {
+                    entrada.resultado.completeExceptionally(e);
+                }
+            }
+            for (long s = siguiente; s <= hasta; s++) {
+                buffer[(int) (s & mascara)] = null;
+            }
+            lotes++;
+            if (guardado != null) {
+                guardarLote(hasta);
+            }
+            if (fotografo != null) {
+                instantanea = fotografo.get();
+            }
+            aplicada.set(hasta);
+            siguiente = hasta + 1;
+        }
+    }
+
+    /**
+     * Anota el lote completo con una sola escritura al diario, antes de aplicarlo
+     */
+    private void anotarLote(long primera, ArrayList<Entrada> lote) {
+        if (diario == null) {
+            return;
+        }
+        try (PrintWriter writer = new PrintWriter(new FileWriter(diario, true))) {
+            long secuencia = primera;
+            for (Entrada entrada : lote) {
+                if (entrada.comando != null) {
+                    writer.println(secuencia + ";" + entrada.comando.codificar());
+                }
+                secuencia++;
+            }
+        } catch (IOException e) {
+            System.err.println("Error al anotar comandos en el diario: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Guarda el estado, anota la última secuencia guardada y vacía el diario.
+     * Si se cae entre la anotación y el vaciado, la reproducción salta lo ya guardado.
+     */
+    private void guardarLote(long hasta) {
+        try {
+            guardado.run();
+        } catch (RuntimeException e) {
+            // El lote queda en el diario y se reproduce si el sistema se cae antes del próximo guardado
+            System.out.println("Error: No se pudo guardar el lote: " + e.getMessage());
+            return;
+        }
+        if (diario == null) {
+            return;
+        }
+        File control = archivoControl(diario);
+        File temporal = new File(control.getPath() + ".tmp");
+        try (PrintWriter writer = new PrintWriter(new FileWriter(temporal, false))) {
+            writer.println(hasta);
+        } catch (IOException e) {
+            System.err.println("Error al anotar la secuencia guardada: " + e.getMessage());
+            return;
+        }
+        try {
+            Files.move(temporal.toPath(), control.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+            new FileWriter(diario, false).close();
+        } catch (IOException e) {
+            System.err.println("Error al vaciar el diario: " + e.getMessage());
+        }
+    }
+
+    // ==================== RECUPERACIÓN ====================
+
+    /**
+     * @return archivo de control con la última secuencia del diario que ya está guardada
+     */
+    public static File archivoControl(File diario) {
+        return new File(diario.getPath() + ".guardada");
+    }
+
+    /**
+     * Borra el diario y su archivo de control (tras reproducirlo y guardar, o al detener el modo)
+     */
+    public static void limpiarDiario(File diario) {
+        if (diario != null) {
+            diario.delete();
+            archivoControl(diario).delete();
+        }
+    }
+
+    private static long leerSecuenciaGuardada(File diario) {
+        File control = archivoControl(diario);
+        if (!control.exists()) {
+            return -1;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(control))) {
+            String linea = reader.readLine();
+            return linea != null ? Long.parseLong(linea.trim()) : -1;
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Error al leer la secuencia guardada: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Vuelve a aplicar, en orden, los comandos de un diario. Se usa al arrancar,
+     * antes de iniciar el escritor. Los valores que cada comando resuelve al
+     * ejecutarse (precio vigente, fecha, ids) pueden diferir de los originales.
+     * Las secuencias que el archivo de control marca como guardadas se saltan.
+     * @param decodificador - convierte una línea del diario (sin la secuencia) en un comando
+     * @return cantidad de comandos reproducidos
+     */
+    public static int reproducir(File diario, Function<String, Comando> decodificador) {
+        int reproducidos = 0;
+        if (diario == null || !diario.exists()) {
+            return 0;
+        }
+        long guardada = leerSecuenciaGuardada(diario);
+        try (BufferedReader reader = new BufferedReader(new FileReader(diario))) {
+            String linea;
+            while ((linea = reader.readLine()) != null) {
+                int separador = linea.indexOf(';');
+                if (separador < 0) {
+                    continue;
+                }
+                try {
+                    if (Long.parseLong(linea.substring(0, separador)) <= guardada) {
+                        continue;
+                    }
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                Comando comando = decodificador.apply(linea.substring(separador + 1));
+                if (comando != null) {
+                    comando.ejecutar();
+                    reproducidos++;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error al reproducir el diario: " + e.getMessage());
+        }
+        return reproducidos;
+    }
+
+    // ==================== LECTORES ====================
+
+    /**
+     * @return la última instantánea publicada (sin cerrojos)
+     */
+    public InstantaneaSistema getInstantanea() {
+        return instantanea;
+    }
+
+    /**
+     * @return secuencia del último comando aplicado (-1 si ninguno)
+     */
+    public long getAplicada() {
+        return aplicada.get();
+    }
+
+    public long getLotes() {
+        return lotes;
+    }
+}
@@ -0,0 +1,404 @@
+package modelo.eventos;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Clase que mantiene el catálogo de eventos indexado para consultas paginadas.
+ * Tiene dos índices ordenados: por fecha del evento y por el precio efectivo
+ * de su localidad más barata. Las páginas se recorren con cursores opacos que
+ * guardan la última posición devuelta, así la paginación es estable aunque se
+ * agreguen eventos entre una página y la siguiente.
+ *
+ * El precio con ofertas cambia solo cuando una oferta empieza o vence, así que
+ * cada evento agenda el siguiente de esos instantes y al consultar se reindexan
+ * los eventos cuyo instante ya pasó, antes de recorrer el índice de precios.
+ */
+public class CatalogoEventos {
+    private static final String PREFIJO_FECHA = "F";
+    private static final String PREFIJO_PRECIO = "P";
+    private static final String SEPARADOR_CURSOR = "|";
+
+    private TreeMap<ClaveIndice, Evento> indiceFecha;
+    private TreeMap<ClaveIndice, Evento> indicePrecio;
+    private HashMap<String, ClaveIndice> clavesPrecio; // id evento -> clave actual en indicePrecio
+    private HashMap<String, Evento> eventosPorId;
+    private TreeMap<Long, HashSet<String>> agendaOfertas; // instante en que abre o cierra una oferta -> ids
+    private HashMap<String, Long> proximoCambio;          // id evento -> instante agendado
+    private final LongSupplier reloj;                     // instante actual en milisegundos
+
+    public CatalogoEventos() {
+        this(System::currentTimeMillis);
+    }
+
+    /**
+     * @param reloj - da el instante actual (milisegundos); las pruebas lo avanzan a mano
+     */
+    public CatalogoEventos(LongSupplier reloj) {
+        this.reloj = reloj;
+        this.indiceFecha = new TreeMap<>();
+        this.indicePrecio = new TreeMap<>();
+        this.clavesPrecio = new HashMap<>();
+        this.eventosPorId = new HashMap<>();
+        this.agendaOfertas = new TreeMap<>();
+        this.proximoCambio = new HashMap<>();
+    }
+
+    // ==================== MÉTODOS DE INDEXACIÓN ====================
+
+    /**
+     * Reconstruye los índices a partir de la lista completa de eventos
+     * @param eventos - eventos del sistema
+     */
+    public synchronized void reconstruir(ArrayList<Evento> eventos) {
+        indiceFecha.clear();
+        indicePrecio.clear();
+        clavesPrecio.clear();
+        eventosPorId.clear();
+        agendaOfertas.clear();
+        proximoCambio.clear();
+        for (Evento evento : eventos) {
+            indexarEvento(evento);
+        }
+    }
+
+    /**
+     * Agrega un evento a los índices (o lo reindexa si ya estaba)
+     * @param evento - evento a indexar
+     */
+    public synchronized void indexarEvento(Evento evento) {
+        if (evento == null || evento.getId() == null || evento.getFechaHora() == null) {
+            return;
+        }
+        removerEvento(evento);
+        eventosPorId.put(evento.getId(), evento);
+        indiceFecha.put(new ClaveIndice(evento.getFechaHora().getTime(), evento.getId()), evento);
+        reindexarPrecio(evento, reloj.getAsLong());
+    }
+
+    /**
+     * Elimina un evento de los índices
+     * @param evento - evento a eliminar
+     */
+    public synchronized void removerEvento(Evento evento) {
+        if (evento == null || evento.getId() == null) {
+            return;
+        }
+        Evento anterior = eventosPorId.remove(evento.getId());
+        if (anterior == null) {
+            return;
+        }
+        indiceFecha.remove(new ClaveIndice(anterior.getFechaHora().getTime(), anterior.getId()));
+        ClaveIndice clavePrecio = clavesPrecio.remove(anterior.getId());
+        if (clavePrecio != null) {
+            indicePrecio.remove(clavePrecio);
+        }
+        desagendar(anterior.getId());
+    }
+
+    /**
+     * Recalcula la posición en el índice de precios de todos los eventos de un venue.
+     * Debe llamarse cuando cambian los precios u ofertas de sus localidades.
+     * @param venue - venue cuyas localidades cambiaron de precio
+     */
+    public synchronized void actualizarPreciosVenue(Venue venue) {
+        if (venue == null) {
+            return;
+        }
+        long ahora = reloj.getAsLong();
+        for (Evento evento : eventosPorId.values()) {
+            if (venue.equals(evento.getVenue())) {
+                reindexarPrecio(evento, ahora);
+            }
+        }
+    }
+
+    /**
+     * Recalcula la posición en el índice de precios de un evento (p. ej. cuando el
+     * motor de precios cambió el precio de alguna de sus localidades)
+     */
+    public synchronized void actualizarPrecioEvento(Evento evento) {
+        if (evento != null && eventosPorId.get(evento.getId()) == evento) {
+            reindexarPrecio(evento, reloj.getAsLong());
+        }
+    }
+
+    /**
+     * Reindexa los eventos en los que una oferta empezó o venció desde la última consulta
+     * @param ahora - instante de la consulta (milisegundos)
+     * @return cantidad de eventos reindexados
+     */
+    public synchronized int actualizarOfertasVencidas(long ahora) {
+        int reindexados = 0;
+        while (!agendaOfertas.isEmpty() && agendaOfertas.firstKey() <= ahora) {
+            for (String id : agendaOfertas.pollFirstEntry().getValue()) {
+                proximoCambio.remove(id);
+                Evento evento = eventosPorId.get(id);
+                if (evento != null) {
+                    reindexarPrecio(evento, ahora);
+                    reindexados++;
+                }
+            }
+        }
+        return reindexados;
+    }
+
+    /**
+     * Mueve el evento a la clave de su precio actual y agenda el próximo cambio de ofertas
+     */
+    private void reindexarPrecio(Evento evento, long ahora) {
+        ClaveIndice anterior = clavesPrecio.get(evento.getId());
+        if (anterior != null) {
+            indicePrecio.remove(anterior);
+        }
+        ClaveIndice nueva = new ClaveIndice(calcularPrecioMinimo(evento, ahora), evento.getId());
+        indicePrecio.put(nueva, evento);
+        clavesPrecio.put(evento.getId(), nueva);
+
+        desagendar(evento.getId());
+        long proximo = calcularProximoCambioOfertas(evento, ahora);
+        if (proximo != Long.MAX_VALUE) {
+            agendaOfertas.computeIfAbsent(proximo, k -> new HashSet<>()).add(evento.getId());
+            proximoCambio.put(evento.getId(), proximo);
+        }
+    }
+
+    private void desagendar(String id) {
+        Long instante = proximoCambio.remove(id);
+        if (instante != null) {
+            HashSet<String> ids = agendaOfertas.get(instante);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                agendaOfertas.remove(instante);
+            }
+        }
+    }
+
+    /**
+     * @return siguiente instante posterior a ahora en que alguna oferta del venue
+     *         empieza o deja de estar vigente, o Long.MAX_VALUE si no hay
+     */
+    private static long calcularProximoCambioOfertas(Evento evento, long ahora) {
+        long proximo = Long.MAX_VALUE;
+        if (evento.getVenue() == null) {
+            return proximo;
+        }
+        for (Localidad localidad : evento.getVenue().getLocalidades()) {
+            for (Oferta oferta : localidad.getOfertas()) {
+                long inicio = oferta.getFechaInicio().getTime();
+                long fin = oferta.getFechaExpiracion().getTime() + 1; // vigente hasta la expiración inclusive
+                if (inicio > ahora) {
+                    proximo = Math.min(proximo, inicio);
+                } else if (fin > ahora) {
+                    proximo = Math.min(proximo, fin);
+                }
+            }
+        }
+        return proximo;
+    }
+
+    /**
+     * Calcula el precio vigente (precio dinámico del evento, si hay, con ofertas) de
+     * la localidad más barata del evento: el mismo que se cobra al comprar
+     * @param evento - evento a evaluar
+     * @return precio mínimo o Double.MAX_VALUE si el venue no tiene localidades
+     */
+    public static double calcularPrecioMinimo(Evento evento) {
+        return calcularPrecioMinimo(evento, System.currentTimeMillis());
+    }
+
+    /**
+     * @param ahora - instante en que se evalúan las ofertas (milisegundos)
+     */
+    public static double calcularPrecioMinimo(Evento evento, long ahora) {
+        double minimo = Double.MAX_VALUE;
+        if (evento.getVenue() == null) {
+            return minimo;
+        }
+        for (Localidad localidad : evento.getVenue().getLocalidades()) {
+            minimo = Math.min(minimo, localidad.getPrecioVigente(evento, ahora));
+        }
+        return minimo;
+    }
+
+    // ==================== MÉTODOS DE CONSULTA ====================
+
+    /**
+     * Consulta una página del catálogo
+     * @param consulta - criterios de búsqueda
+     * @param cursor - cursor devuelto por la página anterior o null para la primera página
+     * @return página con a lo sumo consulta.getTamanoPagina() eventos
+     */
+    public synchronized PaginaEventos consultar(ConsultaEventos consulta, String cursor) {
+        if (consulta == null) {
+            throw new IllegalArgumentException("La consulta no puede ser nula");
+        }
+
+        long ahora = reloj.getAsLong();
+        actualizarOfertasVencidas(ahora);
+        String prefijo = consulta.isOrdenarPorPrecio() ? PREFIJO_PRECIO : PREFIJO_FECHA;
+        NavigableMap<ClaveIndice, Evento> rango = calcularRango(consulta);
+
+        if (cursor != null) {
+            ClaveIndice ultimaPosicion = decodificarCursor(cursor, prefijo);
+            rango = rango.tailMap(ultimaPosicion, false);
+        }
+
+        ArrayList<Evento> resultado = new ArrayList<>();
+        ClaveIndice ultimaClave = null;
+        for (Map.Entry<ClaveIndice, Evento> entrada : rango.entrySet()) {
+            if (cumpleFiltros(entrada.getValue(), consulta, ahora)) {
+                resultado.add(entrada.getValue());
+                ultimaClave = entrada.getKey();
+                if (resultado.size() == consulta.getTamanoPagina()) {
+                    break;
+                }
+            }
+        }
+
+        String siguiente = null;
+        if (resultado.size() == consulta.getTamanoPagina()
+                && rango.higherKey(ultimaClave) != null) {
+            siguiente = codificarCursor(prefijo, ultimaClave);
+        }
+        return new PaginaEventos(resultado, siguiente);
+    }
+
+    /**
+     * Limita el índice correspondiente a la ventana de fechas o de precios de la consulta
+     */
+    private NavigableMap<ClaveIndice, Evento> calcularRango(ConsultaEventos consulta) {
+        if (consulta.isOrdenarPorPrecio()) {
+            if (consulta.tienePrecioMaximo()) {
+                return indicePrecio.headMap(ClaveIndice.limiteSuperior(consulta.getPrecioMaximo()), true);
+            }
+            return indicePrecio;
+        }
+
+        NavigableMap<ClaveIndice, Evento> rango = indiceFecha;
+        if (consulta.getDesde() != null) {
+            rango = rango.tailMap(ClaveIndice.limiteInferior(consulta.getDesde().getTime()), true);
+        }
+        if (consulta.getHasta() != null) {
+            rango = rango.headMap(ClaveIndice.limiteSuperior(consulta.getHasta().getTime()), true);
+        }
+        return rango;
+    }
+
+    /**
+     * Verifica los filtros que no resuelven los índices ordenados
+     */
+    private boolean cumpleFiltros(Evento evento, ConsultaEventos consulta, long ahora) {
+        if (!evento.estaActivo() || evento.estaVencido()) {
+            return false;
+        }
+        // El índice de precios no filtra por fecha, así que se revisa aquí
+        if (consulta.isOrdenarPorPrecio()) {
+            if (consulta.getDesde() != null && evento.getFechaHora().before(consulta.getDesde())) return false;
+            if (consulta.getHasta() != null && evento.getFechaHora().after(consulta.getHasta())) return false;
+        }
+        if (consulta.getVenue() != null && !consulta.getVenue().equals(evento.getVenue())) {
+            return false;
+        }
+
+        for (Localidad localidad : evento.getVenue().getLocalidades()) {
+            if (consulta.getTipoLocalidad() != null
+                    && !consulta.getTipoLocalidad().equalsIgnoreCase(localidad.getTipoLocalidad())) {
+                continue;
+            }
+            if (localidad.getPrecioVigente(evento, ahora) > consulta.getPrecioMaximo()) {
+                continue;
+            }
+            if (evento.getCantidadDisponiblesPorLocalidad(localidad) >= consulta.getMinimoDisponibles()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ==================== MÉTODOS DE CURSORES ====================
+
+    private String codificarCursor(String prefijo, ClaveIndice clave) {
+        String contenido = prefijo + SEPARADOR_CURSOR + clave.valor + SEPARADOR_CURSOR + clave.id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(contenido.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private ClaveIndice decodificarCursor(String cursor, String prefijoEsperado) {
+        try {
+            String contenido = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = contenido.split("\\" + SEPARADOR_CURSOR, 3);
+            if (partes.length < 3 || !partes[0].equals(prefijoEsperado)) {
+                throw new IllegalArgumentException("El cursor no corresponde a esta consulta");
+            }
+            return new ClaveIndice(Double.parseDouble(partes[1]), partes[2]);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return cantidad de eventos indexados
+     */
+    public synchronized int getCantidadEventos() {
+        return eventosPorId.size();
+    }
+
+    /**
+     * @return el evento indexado con ese id, o null
+     */
+    public synchronized Evento buscar(String id) {
+        return eventosPorId.get(id);
+    }
+
+    // ==================== CLAVE DE LOS ÍNDICES ====================
+
+    /**
+     * Clave compuesta (valor, id) de los índices. El id desempata eventos con la
+     * misma fecha o el mismo precio; un id nulo se ordena después de cualquier id
+     * y sirve como límite superior de un rango.
+     */
+    private static class ClaveIndice implements Comparable<ClaveIndice> {
+        private final double valor;
+        private final String id;
+
+        ClaveIndice(double valor, String id) {
+            this.valor = valor;
+            this.id = id;
+        }
+
+        static ClaveIndice limiteInferior(double valor) {
+            return new ClaveIndice(valor, "");
+        }
+
+        static ClaveIndice limiteSuperior(double valor) {
+            return new ClaveIndice(valor, null);
+        }
+
+        @Override
+        public int compareTo(ClaveIndice otra) {
+            int comparacion = Double.compare(valor, otra.valor);
+            if (comparacion != 0) return comparacion;
+            if (id == null) return otra.id == null ? 0 : 1;
+            if (otra.id == null) return -1;
+            return id.compareTo(otra.id);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ClaveIndice)) return false;
+            return compareTo((ClaveIndice) obj) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Double.hashCode(valor) * 31 + (id != null ? id.hashCode() : 0);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package modelo.eventos;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cerrojos por franjas para serializar las ventas de cada localidad.
+ * Hay un número fijo de cerrojos y cada localidad usa siempre el mismo, elegido
+ * por el hash de su id. Dos compras de la misma localidad quedan en fila, y las
+ * compras de localidades distintas casi siempre caen en cerrojos distintos y
+ * avanzan en paralelo, sin un cerrojo global ni un mapa que crezca con las
+ * localidades.
+ */
+public final class CerrojosLocalidad {
+    private static final int FRANJAS = 1024; // potencia de dos
+    private static final ReentrantLock[] CERROJOS = new ReentrantLock[FRANJAS];
+
+    static {
+        for (int i = 0; i < FRANJAS; i++) {
+            CERROJOS[i] = new ReentrantLock();
+        }
+    }
+
+    private CerrojosLocalidad() {
+    }
+
+    /**
+     * @return el cerrojo que protege la venta de la localidad
+     */
+    public static ReentrantLock de(Localidad localidad) {
+        int hash = localidad.getId() != null ? localidad.getId().hashCode() : System.identityHashCode(localidad);
+        hash ^= (hash >>> 16); // mezclar los bits altos antes de quedarse con los bajos
+        return CERROJOS[hash & (FRANJAS - 1)];
+    }
+}
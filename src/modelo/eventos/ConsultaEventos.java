@@ -0,0 +1,86 @@
+package modelo.eventos;
+
+import java.util.Date;
+
+/**
+ * Clase que representa los criterios de búsqueda sobre el catálogo de eventos.
+ * Todos los filtros son opcionales; un filtro sin asignar no restringe el resultado.
+ */
+public class ConsultaEventos {
+    private Date desde; // Inicio de la ventana de fechas (inclusive)
+    private Date hasta; // Fin de la ventana de fechas (inclusive)
+    private Venue venue;
+    private String tipoLocalidad; // Ej: "VIP", "General"
+    private double precioMaximo; // Precio efectivo máximo (con ofertas)
+    private int minimoDisponibles; // Mínimo de tiquetes disponibles en la localidad
+    private boolean ordenarPorPrecio; // Si es false se ordena por fecha del evento
+    private int tamanoPagina;
+
+    public static final int TAMANO_PAGINA_POR_DEFECTO = 10;
+
+    //Constructor de ConsultaEventos sin filtros
+    public ConsultaEventos() {
+        this.precioMaximo = Double.MAX_VALUE;
+        this.minimoDisponibles = 1; // Por defecto solo eventos con disponibilidad
+        this.ordenarPorPrecio = false;
+        this.tamanoPagina = TAMANO_PAGINA_POR_DEFECTO;
+    }
+
+    // ==================== MÉTODOS SETTER ====================
+
+    public void setDesde(Date desde) { this.desde = desde; }
+    public void setHasta(Date hasta) { this.hasta = hasta; }
+    public void setVenue(Venue venue) { this.venue = venue; }
+    public void setTipoLocalidad(String tipoLocalidad) { this.tipoLocalidad = tipoLocalidad; }
+    public void setOrdenarPorPrecio(boolean ordenarPorPrecio) { this.ordenarPorPrecio = ordenarPorPrecio; }
+
+    public void setPrecioMaximo(double precioMaximo) {
+        if (precioMaximo < 0) {
+            throw new IllegalArgumentException("El precio máximo no puede ser negativo");
+        }
+        this.precioMaximo = precioMaximo;
+    }
+
+    public void setMinimoDisponibles(int minimoDisponibles) {
+        this.minimoDisponibles = Math.max(1, minimoDisponibles);
+    }
+
+    public void setTamanoPagina(int tamanoPagina) {
+        if (tamanoPagina <= 0) {
+            throw new IllegalArgumentException("El tamaño de página debe ser positivo");
+        }
+        this.tamanoPagina = tamanoPagina;
+    }
+
+    // ==================== MÉTODOS GETTER ====================
+
+    public Date getDesde() { return desde; }
+    public Date getHasta() { return hasta; }
+    public Venue getVenue() { return venue; }
+    public String getTipoLocalidad() { return tipoLocalidad; }
+    public double getPrecioMaximo() { return precioMaximo; }
+    public int getMinimoDisponibles() { return minimoDisponibles; }
+    public boolean isOrdenarPorPrecio() { return ordenarPorPrecio; }
+    public int getTamanoPagina() { return tamanoPagina; }
+
+    /**
+     * @return true si la consulta limita el precio máximo
+     */
+    public boolean tienePrecioMaximo() {
+        return precioMaximo < Double.MAX_VALUE;
+    }
+
+    @Override
+    public String toString() {
+        return "ConsultaEventos{" +
+                "desde=" + desde +
+                ", hasta=" + hasta +
+                ", venue=" + (venue != null ? venue.getNombre() : "N/A") +
+                ", tipoLocalidad='" + tipoLocalidad + '\'' +
+                ", precioMaximo=" + (tienePrecioMaximo() ? precioMaximo : "N/A") +
+                ", minimoDisponibles=" + minimoDisponibles +
+                ", ordenarPorPrecio=" + ordenarPorPrecio +
+                ", tamanoPagina=" + tamanoPagina +
+                '}';
+    }
+}
@@ -141,6 +141,15 @@ public class Evento {
         }
     }
     
+    /**
+     * Agrega tiquetes recién creados (con ids nuevos, p. ej. en una importación masiva)
+     * sin buscar duplicados uno por uno
+     * @param nuevos - tiquetes a agregar
+     */
+    public void agregarTiquetesNuevos(ArrayList<Tiquete> nuevos) {
+        tiquetes.addAll(nuevos);
+    }
+    
     /**
      * @return cantidad de tiquetes disponibles (no vendidos y vigentes)
      */
@@ -151,6 +160,9 @@ public class Evento {
                 disponibles++;
             }
         }
+        for (InventarioAsientos inventario : getInventarios()) {
+            disponibles += inventario.getDisponibles();
+        }
         return disponibles;
     }
     
@@ -164,14 +176,61 @@ public class Evento {
                 vendidos++;
             }
         }
+        for (InventarioAsientos inventario : getInventarios()) {
+            vendidos += inventario.getVendidos();
+        }
         return vendidos;
     }
     
+    /**
+     * @return inventarios por asiento de este evento en las localidades del venue (compactos o fuera del heap)
+     */
+    private ArrayList<InventarioAsientos> getInventarios() {
+        ArrayList<InventarioAsientos> inventarios = new ArrayList<>();
+        if (venue != null) {
+            for (Localidad localidad : venue.getLocalidades()) {
+                InventarioAsientos inventario = localidad.getInventario(this);
+                if (inventario != null) {
+                    inventarios.add(inventario);
+                }
+            }
+        }
+        return inventarios;
+    }
+    
+    /**
+     * @return tiquetes emitidos más asientos asignados en los inventarios del evento
+     */
+    public int getTotalTiquetes() {
+        int total = tiquetes.size();
+        for (InventarioAsientos inventario : getInventarios()) {
+            total += inventario.getAsignados();
+        }
+        return total;
+    }
+    
+    /**
+     * @return tiquetes emitidos más asientos asignados del evento en una localidad
+     */
+    public int getTotalTiquetes(modelo.eventos.Localidad localidad) {
+        int total = 0;
+        for (Tiquete tiquete : tiquetes) {
+            if (localidad.equals(tiquete.getLocalidad())) {
+                total++;
+            }
+        }
+        InventarioAsientos inventario = localidad.getInventario(this);
+        if (inventario != null) {
+            total += inventario.getAsignados();
+        }
+        return total;
+    }
+    
     /**
      * @return porcentaje de tiquetes vendidos (0-100)
      */
     public double getPorcentajeVendido() {
-        int total = tiquetes.size();
+        int total = getTotalTiquetes();
         if (total == 0) return 0;
         return (getTiquetesVendidos() * 100.0) / total;
     }
@@ -198,11 +257,26 @@ public class Evento {
         return getTiquetesDisponibles() > 0;
     }
     
+    /**
+     * Cuenta los tiquetes disponibles de una localidad sin crear objetos
+     * para los asientos del inventario compacto
+     * @param localidad - localidad a consultar
+     * @return cantidad de tiquetes disponibles
+     */
+    public int getCantidadDisponiblesPorLocalidad(modelo.eventos.Localidad localidad) {
+        int disponibles = getTiquetesDisponiblesPorLocalidad(localidad).size();
+        InventarioAsientos inventario = localidad.getInventario(this);
+        if (inventario != null) {
+            disponibles += inventario.getDisponibles();
+        }
+        return disponibles;
+    }
+    
     /**
      * Verifica si hay tiquetes disponibles en una localidad específica
      */
     public boolean hayTiquetesDisponiblesEnLocalidad(modelo.eventos.Localidad localidad) {
-        return getTiquetesDisponiblesPorLocalidad(localidad).size() > 0;
+        return getCantidadDisponiblesPorLocalidad(localidad) > 0;
     }
 
     public void agregarOferta(Oferta oferta) {
@@ -0,0 +1,224 @@
+package modelo.eventos;
+
+import modelo.tiquetes.Tiquete;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Inventario por asiento de los tiquetes estándar de una localidad grande para un evento.
+ * Las subclases deciden dónde vive el estado de cada asiento (BitSets en el
+ * heap o un buffer fuera del heap); esta clase se encarga de la venta, la
+ * liberación y de crear los objetos Tiquete solo cuando se venden o consultan.
+ * Los ids de los tiquetes son deterministas ("TQ-<evento>-<localidad>-A<asiento>")
+ * para poder volver del tiquete a su asiento.
+ */
+public abstract class InventarioAsientos {
+    private static final String MARCA_ASIENTO = "-A";
+
+    protected String prefijoId;
+    protected int capacidad;
+    private HashMap<Integer, Tiquete> materializados; // asiento vendido -> tiquete
+
+    protected InventarioAsientos(String eventoId, String localidadId, int capacidad) {
+        this.prefijoId = "TQ-" + eventoId + "-" + localidadId + MARCA_ASIENTO;
+        this.capacidad = capacidad;
+        this.materializados = new HashMap<>();
+    }
+
+    // ==================== ESTADO POR ASIENTO (SUBCLASES) ====================
+
+    public abstract int getAsignados();
+    protected abstract void setAsignados(int asignados);
+    public abstract int getVendidos();
+    public abstract boolean estaVendido(int asiento);
+    protected abstract void setVendido(int asiento, boolean vendido);
+    protected abstract boolean estaUtilizado(int asiento);
+    protected abstract void setUtilizado(int asiento, boolean utilizado);
+    protected abstract boolean esNoTransferible(int asiento);
+    protected abstract void setNoTransferible(int asiento, boolean noTransferible);
+
+    /**
+     * @return primer asiento libre desde la posición dada, o getAsignados() si no hay
+     */
+    protected abstract int siguienteLibre(int desde);
+
+    /**
+     * Registra el dueño de un asiento vendido (solo lo guardan los inventarios que lo soportan)
+     */
+    public void asignarPropietario(int asiento, String login) {
+    }
+
+    /**
+     * @return login del dueño de un asiento o null si no se registra
+     */
+    public String getPropietario(int asiento) {
+        return null;
+    }
+
+    /**
+     * Escribe a disco el estado si el inventario tiene respaldo en archivo
+     */
+    public void sincronizar() {
+    }
+
+    // ==================== MÉTODOS DE ASIGNACIÓN ====================
+
+    /**
+     * Pone a la venta más asientos, sin crear objetos
+     * @param cantidad - asientos a agregar
+     * @return asientos efectivamente agregados (limitado por la capacidad)
+     */
+    public int asignar(int cantidad) {
+        int agregados = Math.max(0, Math.min(cantidad, capacidad - getAsignados()));
+        setAsignados(getAsignados() + agregados);
+        return agregados;
+    }
+
+    // ==================== MÉTODOS DE VENTA ====================
+
+    /**
+     * Vende los primeros asientos libres
+     * @param cantidad - asientos a vender
+     * @return asientos vendidos, o un arreglo vacío si no alcanzan (todo o nada)
+     */
+    public int[] vender(int cantidad) {
+        if (cantidad <= 0 || getDisponibles() < cantidad) {
+            return new int[0];
+        }
+        int[] asientos = new int[cantidad];
+        int asiento = siguienteLibre(0);
+        for (int i = 0; i < cantidad; i++) {
+            asientos[i] = asiento;
+            setVendido(asiento, true);
+            asiento = siguienteLibre(asiento + 1);
+        }
+        return asientos;
+    }
+
+    /**
+     * Vende un asiento específico
+     * @return true si el asiento existía y estaba libre
+     */
+    public boolean venderAsiento(int asiento) {
+        if (asiento < 0 || asiento >= getAsignados() || estaVendido(asiento)) {
+            return false;
+        }
+        setVendido(asiento, true);
+        return true;
+    }
+
+    /**
+     * Devuelve un asiento al inventario (pago fallido, reembolso o cancelación)
+     */
+    public void liberar(int asiento) {
+        if (asiento < 0 || asiento >= getAsignados()) {
+            return;
+        }
+        setVendido(asiento, false);
+        setUtilizado(asiento, false);
+        setNoTransferible(asiento, false);
+        asignarPropietario(asiento, null);
+        materializados.remove(asiento);
+    }
+
+    /**
+     * Marca como utilizado el tiquete de un asiento vendido
+     */
+    public void marcarUtilizado(int asiento) {
+        if (!estaVendido(asiento)) {
+            return;
+        }
+        setUtilizado(asiento, true);
+        Tiquete tiquete = materializados.get(asiento);
+        if (tiquete != null && !tiquete.isUtilizado()) {
+            tiquete.marcarComoUtilizado();
+        }
+    }
+
+    /**
+     * Marca el tiquete de un asiento como no transferible
+     */
+    public void marcarNoTransferible(int asiento) {
+        setNoTransferible(asiento, true);
+        Tiquete tiquete = materializados.get(asiento);
+        if (tiquete != null) {
+            tiquete.setTransferible(false);
+        }
+    }
+
+    // ==================== MÉTODOS DE MATERIALIZACIÓN ====================
+
+    /**
+     * Obtiene el objeto Tiquete de un asiento. Los asientos vendidos se crean una
+     * sola vez y se conservan; los libres se crean para consulta y no se guardan.
+     * @param precio - precio a usar si hay que crear el tiquete
+     */
+    public Tiquete materializar(int asiento, Evento evento, Localidad localidad, double precio) {
+        if (asiento < 0 || asiento >= getAsignados()) {
+            return null;
+        }
+        Tiquete tiquete = materializados.get(asiento);
+        if (tiquete != null) {
+            return tiquete;
+        }
+        tiquete = new Tiquete(prefijoId + asiento, precio,
+                              evento != null ? evento.getFechaHora() : null, localidad, evento);
+        tiquete.setUtilizado(estaUtilizado(asiento));
+        tiquete.setTransferible(!esNoTransferible(asiento));
+        if (estaVendido(asiento)) {
+            materializados.put(asiento, tiquete);
+        }
+        return tiquete;
+    }
+
+    /**
+     * Crea tiquetes de consulta para los primeros asientos libres, sin venderlos
+     */
+    public ArrayList<Tiquete> consultarLibres(int cantidad, Evento evento, Localidad localidad, double precio) {
+        ArrayList<Tiquete> libres = new ArrayList<>();
+        int asiento = siguienteLibre(0);
+        while (asiento < getAsignados() && libres.size() < cantidad) {
+            libres.add(materializar(asiento, evento, localidad, precio));
+            asiento = siguienteLibre(asiento + 1);
+        }
+        return libres;
+    }
+
+    /**
+     * @return true si el id del tiquete es de este inventario, aunque su asiento ya no esté asignado
+     */
+    public boolean esDeEsteInventario(Tiquete tiquete) {
+        return tiquete != null && tiquete.getId() != null && tiquete.getId().startsWith(prefijoId);
+    }
+
+    /**
+     * @return número de asiento de un tiquete de este inventario, o -1 si no pertenece
+     */
+    public int asientoDe(Tiquete tiquete) {
+        if (tiquete == null || tiquete.getId() == null || !tiquete.getId().startsWith(prefijoId)) {
+            return -1;
+        }
+        try {
+            int asiento = Integer.parseInt(tiquete.getId().substring(prefijoId.length()));
+            return asiento < getAsignados() ? asiento : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // ==================== MÉTODOS DE CONSULTA ====================
+
+    public int getDisponibles() {
+        return getAsignados() - getVendidos();
+    }
+
+    public int getCapacidad() { return capacidad; }
+
+    /**
+     * @return tiquetes de los asientos vendidos
+     */
+    public ArrayList<Tiquete> getMaterializados() {
+        return new ArrayList<>(materializados.values());
+    }
+}
@@ -0,0 +1,65 @@
+package modelo.eventos;
+
+import java.util.BitSet;
+
+/**
+ * Inventario compacto de los tiquetes estándar de una localidad grande.
+ * En lugar de un objeto Tiquete por silla, el estado de cada asiento se guarda
+ * en BitSets indexados por número de asiento (vendido, utilizado, no transferible),
+ * así que buscar asientos libres recorre el BitSet palabra por palabra.
+ */
+public class InventarioCompacto extends InventarioAsientos {
+    private int asignados; // Asientos puestos a la venta (0..capacidad)
+    private BitSet vendidos;
+    private BitSet utilizados;
+    private BitSet noTransferibles;
+
+    /**
+     * @param eventoId - id del evento cuyos asientos se venden
+     * @param localidadId - id de la localidad dueña del inventario
+     * @param capacidad - número máximo de asientos
+     */
+    public InventarioCompacto(String eventoId, String localidadId, int capacidad) {
+        super(eventoId, localidadId, capacidad);
+        this.asignados = 0;
+        this.vendidos = new BitSet(capacidad);
+        this.utilizados = new BitSet();
+        this.noTransferibles = new BitSet();
+    }
+
+    @Override
+    public int getAsignados() { return asignados; }
+
+    @Override
+    protected void setAsignados(int asignados) { this.asignados = asignados; }
+
+    @Override
+    public int getVendidos() {
+        return vendidos.cardinality();
+    }
+
+    @Override
+    public boolean estaVendido(int asiento) {
+        return asiento >= 0 && asiento < asignados && vendidos.get(asiento);
+    }
+
+    @Override
+    protected void setVendido(int asiento, boolean vendido) { vendidos.set(asiento, vendido); }
+
+    @Override
+    protected boolean estaUtilizado(int asiento) { return utilizados.get(asiento); }
+
+    @Override
+    protected void setUtilizado(int asiento, boolean utilizado) { utilizados.set(asiento, utilizado); }
+
+    @Override
+    protected boolean esNoTransferible(int asiento) { return noTransferibles.get(asiento); }
+
+    @Override
+    protected void setNoTransferible(int asiento, boolean noTransferible) { noTransferibles.set(asiento, noTransferible); }
+
+    @Override
+    protected int siguienteLibre(int desde) {
+        return Math.min(vendidos.nextClearBit(desde), asignados);
+    }
+}
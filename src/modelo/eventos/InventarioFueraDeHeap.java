@@ -0,0 +1,263 @@
+package modelo.eventos;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Inventario de asientos guardado fuera del heap, para las localidades más grandes.
+ * Cada asiento ocupa un registro fijo de 12 bytes en un ByteBuffer directo:
+ *
+ *   [0]     estado (bits: vendido, utilizado, no transferible)
+ *   [1]     reservado
+ *   [2..3]  nivel de precio
+ *   [4..7]  índice del propietario (-1 si no tiene)
+ *   [8..11] versión (aumenta con cada cambio del asiento)
+ *
+ * Como el recolector de basura no recorre este buffer, las pausas no crecen con
+ * el inventario. Si se da un archivo, el buffer es un mapeo de ese archivo bajo
+ * data/ y el inventario sobrevive a un reinicio sin tener que parsearlo. Los
+ * logins de los propietarios se guardan aparte, una vez cada uno.
+ */
+public class InventarioFueraDeHeap extends InventarioAsientos {
+    private static final int MAGICO = 0x494E5631; // "INV1"
+    private static final int TAMANO_ENCABEZADO = 16; // magico, capacidad, asignados, vendidos
+    private static final int TAMANO_REGISTRO = 12;
+
+    private static final int POS_ASIGNADOS = 8;
+    private static final int POS_VENDIDOS = 12;
+
+    private static final int DESP_ESTADO = 0;
+    private static final int DESP_NIVEL_PRECIO = 2;
+    private static final int DESP_PROPIETARIO = 4;
+    private static final int DESP_VERSION = 8;
+
+    private static final byte BIT_VENDIDO = 1;
+    private static final byte BIT_UTILIZADO = 2;
+    private static final byte BIT_NO_TRANSFERIBLE = 4;
+
+    private ByteBuffer buffer;
+    private File archivo; // null si el inventario solo vive en memoria
+    private ArrayList<String> propietarios; // índice -> login
+    private HashMap<String, Integer> indicePropietarios; // login -> índice
+
+    /**
+     * Crea un inventario en un buffer directo sin respaldo en archivo
+     */
+    public InventarioFueraDeHeap(String eventoId, String localidadId, int capacidad) {
+        super(eventoId, localidadId, capacidad);
+        this.propietarios = new ArrayList<>();
+        this.indicePropietarios = new HashMap<>();
+        this.buffer = ByteBuffer.allocateDirect(TAMANO_ENCABEZADO + capacidad * TAMANO_REGISTRO);
+        inicializarEncabezado();
+    }
+
+    /**
+     * Crea o reabre un inventario respaldado por un archivo mapeado en memoria.
+     * Si el archivo ya existe con la misma capacidad se reutiliza su contenido.
+     * @param archivo - archivo del inventario (por ejemplo data/inventario/L001-E001.inv)
+     */
+    public InventarioFueraDeHeap(String eventoId, String localidadId, int capacidad, File archivo) throws IOException {
+        super(eventoId, localidadId, capacidad);
+        this.archivo = archivo;
+        this.propietarios = new ArrayList<>();
+        this.indicePropietarios = new HashMap<>();
+
+        File directorio = archivo.getParentFile();
+        if (directorio != null && !directorio.exists()) {
+            directorio.mkdirs();
+        }
+        boolean existia = archivo.exists() && archivo.length() == TAMANO_ENCABEZADO + (long) capacidad * TAMANO_REGISTRO;
+
+        try (FileChannel canal = FileChannel.open(archivo.toPath(), StandardOpenOption.CREATE,
+                                                  StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer mapeo = canal.map(FileChannel.MapMode.READ_WRITE, 0,
+                                               TAMANO_ENCABEZADO + (long) capacidad * TAMANO_REGISTRO);
+            this.buffer = mapeo;
+        }
+
+        if (existia && buffer.getInt(0) == MAGICO && buffer.getInt(4) == capacidad) {
+            cargarPropietarios();
+        } else {
+            inicializarEncabezado();
+        }
+    }
+
+    private void inicializarEncabezado() {
+        buffer.putInt(0, MAGICO);
+        buffer.putInt(4, capacidad);
+        buffer.putInt(POS_ASIGNADOS, 0);
+        buffer.putInt(POS_VENDIDOS, 0);
+        for (int asiento = 0; asiento < capacidad; asiento++) {
+            buffer.putInt(posicion(asiento) + DESP_PROPIETARIO, -1);
+        }
+    }
+
+    // ==================== ACCESO A REGISTROS ====================
+
+    private int posicion(int asiento) {
+        return TAMANO_ENCABEZADO + asiento * TAMANO_REGISTRO;
+    }
+
+    private byte leerEstado(int asiento) {
+        return buffer.get(posicion(asiento) + DESP_ESTADO);
+    }
+
+    private void escribirBit(int asiento, byte bit, boolean valor) {
+        int pos = posicion(asiento);
+        byte estado = buffer.get(pos + DESP_ESTADO);
+        byte nuevo = (byte) (valor ? (estado | bit) : (estado & ~bit));
+        if (nuevo != estado) {
+            buffer.put(pos + DESP_ESTADO, nuevo);
+            incrementarVersion(asiento);
+        }
+    }
+
+    private void incrementarVersion(int asiento) {
+        int pos = posicion(asiento) + DESP_VERSION;
+        buffer.putInt(pos, buffer.getInt(pos) + 1);
+    }
+
+    // ==================== ESTADO POR ASIENTO ====================
+
+    @Override
+    public int getAsignados() { return buffer.getInt(POS_ASIGNADOS); }
+
+    @Override
+    protected void setAsignados(int asignados) { buffer.putInt(POS_ASIGNADOS, asignados); }
+
+    @Override
+    public int getVendidos() { return buffer.getInt(POS_VENDIDOS); }
+
+    @Override
+    public boolean estaVendido(int asiento) {
+        return asiento >= 0 && asiento < getAsignados() && (leerEstado(asiento) & BIT_VENDIDO) != 0;
+    }
+
+    @Override
+    protected void setVendido(int asiento, boolean vendido) {
+        boolean antes = (leerEstado(asiento) & BIT_VENDIDO) != 0;
+        if (antes != vendido) {
+            escribirBit(asiento, BIT_VENDIDO, vendido);
+            buffer.putInt(POS_VENDIDOS, getVendidos() + (vendido ? 1 : -1));
+        }
+    }
+
+    @Override
+    protected boolean estaUtilizado(int asiento) { return (leerEstado(asiento) & BIT_UTILIZADO) != 0; }
+
+    @Override
+    protected void setUtilizado(int asiento, boolean utilizado) { escribirBit(asiento, BIT_UTILIZADO, utilizado); }
+
+    @Override
+    protected boolean esNoTransferible(int asiento) { return (leerEstado(asiento) & BIT_NO_TRANSFERIBLE) != 0; }
+
+    @Override
+    protected void setNoTransferible(int asiento, boolean noTransferible) {
+        escribirBit(asiento, BIT_NO_TRANSFERIBLE, noTransferible);
+    }
+
+    @Override
+    protected int siguienteLibre(int desde) {
+        int asignados = getAsignados();
+        for (int asiento = desde; asiento < asignados; asiento++) {
+            if ((leerEstado(asiento) & BIT_VENDIDO) == 0) {
+                return asiento;
+            }
+        }
+        return asignados;
+    }
+
+    // ==================== PROPIETARIOS, PRECIOS Y VERSIONES ====================
+
+    @Override
+    public void asignarPropietario(int asiento, String login) {
+        int indice = -1;
+        if (login != null) {
+            Integer existente = indicePropietarios.get(login);
+            if (existente == null) {
+                existente = propietarios.size();
+                propietarios.add(login);
+                indicePropietarios.put(login, existente);
+            }
+            indice = existente;
+        }
+        buffer.putInt(posicion(asiento) + DESP_PROPIETARIO, indice);
+        incrementarVersion(asiento);
+    }
+
+    @Override
+    public String getPropietario(int asiento) {
+        int indice = buffer.getInt(posicion(asiento) + DESP_PROPIETARIO);
+        return indice >= 0 && indice < propietarios.size() ? propietarios.get(indice) : null;
+    }
+
+    public void setNivelPrecio(int asiento, int nivel) {
+        buffer.putShort(posicion(asiento) + DESP_NIVEL_PRECIO, (short) nivel);
+        incrementarVersion(asiento);
+    }
+
+    public int getNivelPrecio(int asiento) {
+        return buffer.getShort(posicion(asiento) + DESP_NIVEL_PRECIO);
+    }
+
+    /**
+     * @return versión del asiento; cambia cada vez que cambia su registro
+     */
+    public int getVersion(int asiento) {
+        return buffer.getInt(posicion(asiento) + DESP_VERSION);
+    }
+
+    public boolean tieneRespaldoEnArchivo() {
+        return archivo != null;
+    }
+
+    // ==================== PERSISTENCIA ====================
+
+    /**
+     * Fuerza los cambios del mapeo a disco y guarda la tabla de propietarios
+     */
+    @Override
+    public void sincronizar() {
+        if (archivo == null) {
+            return;
+        }
+        ((MappedByteBuffer) buffer).force();
+        try (PrintWriter writer = new PrintWriter(new FileWriter(archivoPropietarios()))) {
+            for (String login : propietarios) {
+                writer.println(login);
+            }
+        } catch (IOException e) {
+            System.err.println("Error al guardar propietarios del inventario: " + e.getMessage());
+        }
+    }
+
+    private void cargarPropietarios() {
+        File origen = archivoPropietarios();
+        if (!origen.exists()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(origen))) {
+            String login;
+            while ((login = reader.readLine()) != null) {
+                indicePropietarios.put(login, propietarios.size());
+                propietarios.add(login);
+            }
+        } catch (IOException e) {
+            System.err.println("Error al cargar propietarios del inventario: " + e.getMessage());
+        }
+    }
+
+    private File archivoPropietarios() {
+        return new File(archivo.getPath() + ".propietarios");
+    }
+}
@@ -1,7 +1,12 @@
 package modelo.eventos;
 
 import modelo.tiquetes.Tiquete;
+import modelo.GeneradorIds;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Clase que representa una localidad dentro de un venue.
@@ -16,6 +21,17 @@ public class Localidad {
     private int capacidad;
     private double precioBase; // Precio base para esta localidad
     private ArrayList<Oferta> ofertas;
+    private volatile boolean inventarioCompacto; // false si los tiquetes se guardan en la lista
+    private volatile File directorioInventarios; // null si los inventarios viven solo en memoria
+    private volatile int filasMapa; // 0 si la localidad no tiene mapa de asientos
+    private volatile int asientosPorFilaMapa;
+    private final ConcurrentHashMap<String, AsientosEvento> asientosPorEvento = new ConcurrentHashMap<>(); // id evento -> asientos
+    private final ConcurrentHashMap<String, Double> preciosDinamicos = new ConcurrentHashMap<>(); // id evento -> precio del motor
+    
+    // Desde esta capacidad los tiquetes estándar se guardan en un inventario compacto
+    public static final int UMBRAL_INVENTARIO_COMPACTO = 5000;
+    // Desde esta capacidad el inventario se guarda fuera del heap
+    public static final int UMBRAL_INVENTARIO_FUERA_DE_HEAP = 20000;
     
     /**
      * Constructor de Localidad
@@ -35,6 +51,9 @@ public class Localidad {
         this.precioBase = precioBase;
         this.tiquetes = new ArrayList<>();
         this.ofertas = new ArrayList<>(); // INICIALIZADO EN CONSTRUCTOR
+        if (capacidad >= UMBRAL_INVENTARIO_COMPACTO) {
+            activarInventarioCompacto();
+        }
     }
 
     //constructor vacío para persistencia
@@ -48,7 +67,12 @@ public class Localidad {
     public void setTipoLocalidad(String tipoLocalidad) { this.tipoLocalidad = tipoLocalidad; }
     public void setNumerada(boolean numerada) { this.numerada = numerada; }
     public void setVenue(Venue venue) { this.venue = venue; }
-    public void setCapacidad(int capacidad) { this.capacidad = capacidad; }
+    public void setCapacidad(int capacidad) {
+        this.capacidad = capacidad;
+        if (capacidad >= UMBRAL_INVENTARIO_COMPACTO && id != null) {
+            activarInventarioCompacto();
+        }
+    }
     public void setPrecioBase(double precioBase) { this.precioBase = precioBase; }
     public void setTiquetes(ArrayList<Tiquete> tiquetes) { this.tiquetes = tiquetes; }
     public void setOfertas(ArrayList<Oferta> ofertas) { this.ofertas = ofertas; }
@@ -61,12 +85,364 @@ public class Localidad {
     public Venue getVenue() { return venue; }
     public int getCapacidad() { return capacidad; }
     public double getPrecioBase() { return precioBase; }
+    public int getFilasMapa() { return filasMapa; }
+    public int getAsientosPorFilaMapa() { return asientosPorFilaMapa; }
     
     /**
-     * @return lista de tiquetes de esta localidad
+     * @return lista de tiquetes de esta localidad (en modo compacto, solo los vendidos)
      */
     public ArrayList<Tiquete> getTiquetesLocalidad() {
-        return new ArrayList<>(tiquetes);
+        ArrayList<Tiquete> todos = new ArrayList<>(tiquetes);
+        for (AsientosEvento asientos : asientosPorEvento.values()) {
+            todos.addAll(asientos.inventario.getMaterializados());
+        }
+        return todos;
+    }
+    
+    // ==================== MÉTODOS DE INVENTARIO COMPACTO ====================
+    
+    /**
+     * Inventario, reservas y mapa de asientos de la localidad para un evento.
+     * Cada evento del venue vende sus propios asientos.
+     */
+    private static class AsientosEvento {
+        private final Evento evento;
+        private final InventarioAsientos inventario;
+        private final ReservasLocalidad reservas;
+        private volatile MapaAsientos mapa; // null si la localidad no tiene filas configuradas
+        
+        AsientosEvento(Evento evento, InventarioAsientos inventario, ReservasLocalidad reservas) {
+            this.evento = evento;
+            this.inventario = inventario;
+            this.reservas = reservas;
+        }
+    }
+    
+    /**
+     * Activa el inventario compacto: los tiquetes estándar nuevos se guardan
+     * como bits por asiento en vez de objetos, con un inventario por evento.
+     * Los tiquetes que ya estaban en la lista se conservan allí.
+     */
+    public void activarInventarioCompacto() {
+        inventarioCompacto = true;
+    }
+    
+    /**
+     * @param crear - si es true y el evento aún no tiene inventario, se crea vacío
+     * @return asientos del evento en esta localidad, o null si no usa inventario compacto
+     */
+    private AsientosEvento asientosDe(Evento evento, boolean crear) {
+        if (!inventarioCompacto || evento == null || evento.getId() == null) {
+            return null;
+        }
+        AsientosEvento asientos = asientosPorEvento.get(evento.getId());
+        if (asientos == null && crear) {
+            asientos = asientosPorEvento.computeIfAbsent(evento.getId(), eventoId -> crearAsientos(evento));
+        }
+        return asientos;
+    }
+    
+    /**
+     * @return asientos de un evento, o los de todos los eventos si el evento es null
+     */
+    private Iterable<AsientosEvento> asientosConsultados(Evento evento) {
+        if (evento == null) {
+            return asientosPorEvento.values();
+        }
+        AsientosEvento asientos = asientosDe(evento, false);
+        ArrayList<AsientosEvento> consultados = new ArrayList<>();
+        if (asientos != null) {
+            consultados.add(asientos);
+        }
+        return consultados;
+    }
+    
+    private File archivoInventario(Evento evento) {
+        return new File(directorioInventarios, id + "-" + evento.getId() + ".inv");
+    }
+    
+    private AsientosEvento crearAsientos(Evento evento) {
+        InventarioAsientos inventario = null;
+        if (directorioInventarios != null) {
+            File archivo = archivoInventario(evento);
+            try {
+                inventario = new InventarioFueraDeHeap(evento.getId(), id, capacidad, archivo);
+            } catch (IOException e) {
+                System.err.println("Error al mapear el inventario de " + tipoLocalidad + ": " + e.getMessage());
+            }
+        }
+        if (inventario == null) {
+            inventario = capacidad >= UMBRAL_INVENTARIO_FUERA_DE_HEAP
+                ? new InventarioFueraDeHeap(evento.getId(), id, capacidad)
+                : new InventarioCompacto(evento.getId(), id, capacidad);
+        }
+        AsientosEvento asientos = new AsientosEvento(evento, inventario,
+                                                     new ReservasLocalidad(evento.getId(), id, inventario.getDisponibles()));
+        if (filasMapa > 0) {
+            reconstruirMapaAsientos(asientos);
+        }
+        return asientos;
+    }
+    
+    /**
+     * @return inventario de asientos de un evento, o null si el evento aún no tiene asientos en esta localidad
+     */
+    public InventarioAsientos getInventario(Evento evento) {
+        AsientosEvento asientos = asientosDe(evento, false);
+        return asientos != null ? asientos.inventario : null;
+    }
+    
+    /**
+     * @return reservas temporales de asientos de un evento, o null si la localidad no usa inventario compacto
+     */
+    public ReservasLocalidad getReservas(Evento evento) {
+        AsientosEvento asientos = asientosDe(evento, true);
+        return asientos != null ? asientos.reservas : null;
+    }
+    
+    /**
+     * Guarda los inventarios de asientos fuera del heap, mapeados en archivos de un
+     * directorio (uno por evento: <localidad>-<evento>.inv). Si el archivo de un evento
+     * ya tenía un inventario con la misma capacidad, se reutiliza.
+     * Solo se permite mientras no se haya vendido ningún asiento en memoria.
+     * @param directorio - directorio de los inventarios (por ejemplo data/inventario)
+     * @return true si la localidad quedó con respaldo en archivo
+     */
+    public boolean respaldarInventariosEnArchivo(File directorio) {
+        for (AsientosEvento asientos : asientosPorEvento.values()) {
+            if (asientos.inventario.getVendidos() > 0) {
+                System.out.println("Error: El inventario de " + tipoLocalidad + " ya tiene ventas en memoria");
+                return false;
+            }
+        }
+        directorioInventarios = directorio;
+        inventarioCompacto = true;
+        asientosPorEvento.clear();
+        return true;
+    }
+    
+    /**
+     * Reabre los inventarios en archivo de los eventos de este venue que ya tienen
+     * uno guardado. Se llama al cargar, después de los eventos, para que las
+     * consultas de disponibilidad vean las ventas anteriores al reinicio.
+     * @return cantidad de inventarios reabiertos
+     */
+    public int reabrirInventarios(Collection<Evento> eventos) {
+        if (directorioInventarios == null) {
+            return 0;
+        }
+        int reabiertos = 0;
+        for (Evento evento : eventos) {
+            if (evento.getId() != null && evento.getVenue() == venue && archivoInventario(evento).exists()
+                    && asientosDe(evento, true) != null) {
+                reabiertos++;
+            }
+        }
+        return reabiertos;
+    }
+    
+    /**
+     * Escribe a disco los inventarios que tienen respaldo en archivo
+     */
+    public void sincronizarInventario() {
+        for (AsientosEvento asientos : asientosPorEvento.values()) {
+            asientos.inventario.sincronizar();
+        }
+    }
+    
+    /**
+     * @return número de asiento de un tiquete del inventario compacto de su evento, o -1
+     */
+    private int asientoDe(AsientosEvento asientos, Tiquete tiquete) {
+        return asientos != null ? asientos.inventario.asientoDe(tiquete) : -1;
+    }
+    
+    /**
+     * Registra el comprador de unos tiquetes en el inventario de asientos de su evento
+     */
+    public void registrarPropietario(ArrayList<Tiquete> tiquetesVendidos, String login) {
+        for (Tiquete tiquete : tiquetesVendidos) {
+            AsientosEvento asientos = asientosDe(tiquete.getEvento(), false);
+            int asiento = asientoDe(asientos, tiquete);
+            if (asiento >= 0) {
+                asientos.inventario.asignarPropietario(asiento, login);
+            }
+        }
+    }
+    
+    public boolean usaInventarioCompacto() {
+        return inventarioCompacto;
+    }
+    
+    /**
+     * Pone a la venta asientos del inventario compacto de un evento sin crear tiquetes
+     * @param evento - evento al que se asignan los asientos
+     * @param cantidad - asientos a agregar
+     * @return asientos agregados (0 si la localidad no usa inventario compacto)
+     */
+    public int asignarTiquetesCompactos(Evento evento, int cantidad) {
+        AsientosEvento asientos = asientosDe(evento, true);
+        if (asientos == null) {
+            return 0;
+        }
+        int asignados = asientos.inventario.asignar(cantidad);
+        asientos.reservas.devolver(asignados);
+        System.out.println(asignados + " asientos asignados a localidad " + tipoLocalidad);
+        return asignados;
+    }
+    
+    /**
+     * Vende asientos del inventario compacto y crea sus tiquetes
+     * @param evento - evento de los tiquetes
+     * @param cantidad - cantidad a vender
+     * @return tiquetes vendidos o lista vacía si no hay suficientes
+     */
+    public ArrayList<Tiquete> venderTiquetesCompactos(Evento evento, int cantidad) {
+        ArrayList<Tiquete> vendidos = new ArrayList<>();
+        AsientosEvento asientos = asientosDe(evento, false);
+        if (asientos == null || !asientos.reservas.tomar(cantidad)) {
+            return vendidos;
+        }
+        venderDelInventario(asientos, cantidad, vendidos);
+        if (vendidos.isEmpty()) {
+            asientos.reservas.devolver(cantidad);
+        }
+        return vendidos;
+    }
+    
+    /**
+     * Emite los tiquetes de una reserva ya pagada y confirmada.
+     * Sus asientos se descontaron de los libres al reservar.
+     * @return tiquetes emitidos o lista vacía si la reserva no está confirmada
+     */
+    public ArrayList<Tiquete> venderReservados(Evento evento, ReservasLocalidad.Reserva reserva) {
+        ArrayList<Tiquete> vendidos = new ArrayList<>();
+        AsientosEvento asientos = asientosDe(evento, false);
+        if (asientos == null || reserva == null || !id.equals(reserva.getLocalidadId())
+                || !evento.getId().equals(reserva.getEventoId()) || !asientos.reservas.utilizar(reserva)) {
+            return vendidos;
+        }
+        venderDelInventario(asientos, reserva.getCantidad(), vendidos);
+        return vendidos;
+    }
+    
+    private void venderDelInventario(AsientosEvento asientos, int cantidad, ArrayList<Tiquete> vendidos) {
+        for (int asiento : asientos.inventario.vender(cantidad)) {
+            if (asientos.mapa != null) {
+                asientos.mapa.ocupar(asiento);
+            }
+            vendidos.add(asientos.inventario.materializar(asiento, asientos.evento, this, precioBase));
+        }
+    }
+    
+    /**
+     * Devuelve al inventario compacto de su evento los asientos de unos tiquetes
+     * @param tiquetesLiberados - tiquetes a liberar (los que no son del inventario se ignoran)
+     */
+    public void liberarTiquetesCompactos(ArrayList<Tiquete> tiquetesLiberados) {
+        for (Tiquete tiquete : tiquetesLiberados) {
+            AsientosEvento asientos = asientosDe(tiquete.getEvento(), false);
+            int asiento = asientoDe(asientos, tiquete);
+            if (asiento >= 0 && asientos.inventario.estaVendido(asiento)) {
+                asientos.inventario.liberar(asiento);
+                if (asientos.mapa != null) {
+                    asientos.mapa.liberar(asiento);
+                }
+                asientos.reservas.devolver(1);
+            }
+        }
+    }
+    
+    // ==================== MÉTODOS DE MAPA DE ASIENTOS ====================
+    
+    /**
+     * Organiza los asientos de una localidad numerada en filas y, para cada evento,
+     * pone todos a la venta. El estado de cada asiento vive en el inventario del
+     * evento; el mapa solo indexa los tramos libres de cada fila.
+     * @param filas - número de filas
+     * @param asientosPorFila - asientos en cada fila
+     * @return true si se configuró el mapa
+     */
+    public boolean configurarMapaAsientos(int filas, int asientosPorFila) {
+        if (!numerada) {
+            System.out.println("Error: Solo las localidades numeradas tienen mapa de asientos");
+            return false;
+        }
+        if (filas <= 0 || asientosPorFila <= 0 || (long) filas * asientosPorFila > capacidad) {
+            System.out.println("Error: Las filas no caben en la capacidad de la localidad");
+            return false;
+        }
+        filasMapa = filas;
+        asientosPorFilaMapa = asientosPorFila;
+        inventarioCompacto = true;
+        for (AsientosEvento asientos : asientosPorEvento.values()) {
+            reconstruirMapaAsientos(asientos);
+        }
+        return true;
+    }
+    
+    /**
+     * Crea el mapa de un evento a partir del estado actual de su inventario
+     */
+    private void reconstruirMapaAsientos(AsientosEvento asientos) {
+        InventarioAsientos inventario = asientos.inventario;
+        int total = filasMapa * asientosPorFilaMapa;
+        if (inventario.getAsignados() < total) {
+            asientos.reservas.devolver(inventario.asignar(total - inventario.getAsignados()));
+        }
+        MapaAsientos mapa = new MapaAsientos(filasMapa, asientosPorFilaMapa);
+        for (int asiento = 0; asiento < total; asiento++) {
+            if (inventario.estaVendido(asiento)) {
+                mapa.ocupar(asiento);
+            }
+        }
+        asientos.mapa = mapa;
+    }
+    
+    public boolean tieneMapaAsientos() {
+        return filasMapa > 0;
+    }
+    
+    /**
+     * @return mapa de asientos de un evento, o null si la localidad no tiene filas configuradas
+     */
+    public MapaAsientos getMapaAsientos(Evento evento) {
+        AsientosEvento asientos = tieneMapaAsientos() ? asientosDe(evento, true) : null;
+        return asientos != null ? asientos.mapa : null;
+    }
+    
+    /**
+     * Vende el mejor bloque de asientos contiguos en una misma fila
+     * @param evento - evento de los tiquetes
+     * @param cantidad - asientos requeridos
+     * @return tiquetes de los asientos o lista vacía si no hay un bloque de ese tamaño
+     */
+    public ArrayList<Tiquete> venderAsientosContiguos(Evento evento, int cantidad) {
+        ArrayList<Tiquete> vendidos = new ArrayList<>();
+        AsientosEvento asientos = tieneMapaAsientos() ? asientosDe(evento, true) : null;
+        if (asientos == null || !asientos.reservas.tomar(cantidad)) {
+            return vendidos;
+        }
+        for (int asiento : asientos.mapa.reservarBloque(cantidad)) {
+            asientos.inventario.venderAsiento(asiento);
+            vendidos.add(asientos.inventario.materializar(asiento, evento, this, precioBase));
+        }
+        if (vendidos.isEmpty()) {
+            asientos.reservas.devolver(cantidad);
+        }
+        return vendidos;
+    }
+    
+    /**
+     * @return fila y asiento de un tiquete, o null si la localidad no tiene mapa
+     */
+    public String describirAsiento(Tiquete tiquete) {
+        AsientosEvento asientos = asientosDe(tiquete.getEvento(), false);
+        if (asientos == null || asientos.mapa == null) {
+            return null;
+        }
+        int asiento = asientoDe(asientos, tiquete);
+        return asiento >= 0 ? asientos.mapa.describirAsiento(asiento) : null;
     }
     
     // ==================== MÉTODOS DE GESTIÓN DE OFERTAS ====================
@@ -94,15 +470,71 @@ public class Localidad {
      * @return precio final con descuentos aplicados
      */
     public double getPrecioConOfertas() {
-        double precioFinal = precioBase;
+        return aplicarOfertas(precioBase, System.currentTimeMillis());
+    }
+    
+    private double aplicarOfertas(double precio, long ahora) {
+        double precioFinal = precio;
         for (Oferta oferta : ofertas) {
-            if (oferta.estaVigente()) {
-                precioFinal = oferta.aplicarDescuento(precioFinal);
+            if (oferta.estaVigente(ahora)) {
+                precioFinal = oferta.aplicarDescuento(precioFinal, ahora);
             }
         }
         return precioFinal;
     }
     
+    // ==================== MÉTODOS DE PRECIO DINÁMICO ====================
+    
+    /**
+     * Guarda el precio calculado por el motor de precios para un evento
+     * @param eventoId - id del evento
+     * @param precio - precio antes de ofertas
+     * @return true si el precio cambió
+     */
+    public boolean fijarPrecioDinamico(String eventoId, double precio) {
+        Double anterior = preciosDinamicos.put(eventoId, precio);
+        return anterior == null || anterior != precio;
+    }
+    
+    /**
+     * @return true si el evento tenía un precio dinámico
+     */
+    public boolean quitarPrecioDinamico(String eventoId) {
+        return preciosDinamicos.remove(eventoId) != null;
+    }
+    
+    public boolean tienePrecioDinamico(Evento evento) {
+        return evento != null && preciosDinamicos.containsKey(evento.getId());
+    }
+    
+    /**
+     * @return precio del motor para el evento, o el precio base si no tiene
+     */
+    public double getPrecioDinamico(Evento evento) {
+        if (evento == null) {
+            return precioBase;
+        }
+        return preciosDinamicos.getOrDefault(evento.getId(), precioBase);
+    }
+    
+    /**
+     * Precio que paga un comprador: el precio dinámico del evento (o el base)
+     * con las ofertas vigentes aplicadas. No evalúa reglas, solo consulta.
+     * @param evento - evento de la compra
+     * @return precio final por tiquete
+     */
+    public double getPrecioVigente(Evento evento) {
+        return getPrecioVigente(evento, System.currentTimeMillis());
+    }
+    
+    /**
+     * Precio que paga un comprador con las ofertas vigentes en un instante dado
+     * @param ahora - instante de la consulta (milisegundos)
+     */
+    public double getPrecioVigente(Evento evento, long ahora) {
+        return aplicarOfertas(getPrecioDinamico(evento), ahora);
+    }
+    
     /**
      * Verifica si la localidad tiene ofertas vigentes
      * @return true si hay ofertas activas
@@ -133,12 +565,24 @@ public class Localidad {
     // ==================== MÉTODOS DE GESTIÓN DE TIQUETES ====================
     
     /**
-     * @return cantidad de tiquetes disponibles en esta localidad
+     * @return cantidad de tiquetes disponibles en esta localidad, sumando todos los eventos
      */
     public int getTiquetesDisponibles() {
+        return getTiquetesDisponibles(null);
+    }
+    
+    /**
+     * @param evento - evento a consultar (null para todos)
+     * @return cantidad de tiquetes disponibles del evento en esta localidad
+     */
+    public int getTiquetesDisponibles(Evento evento) {
+        // En modo compacto los asientos retenidos por reservas no están disponibles
         int disponibles = 0;
+        for (AsientosEvento asientos : asientosConsultados(evento)) {
+            disponibles += asientos.reservas.getLibres();
+        }
         for (Tiquete tiquete : tiquetes) {
-            if (tiquete.estaVigente()) {
+            if (tiquete.estaVigente() && esDelEvento(tiquete, evento)) {
                 disponibles++;
             }
         }
@@ -146,12 +590,23 @@ public class Localidad {
     }
     
     /**
-     * @return cantidad de tiquetes vendidos en esta localidad
+     * @return cantidad de tiquetes vendidos en esta localidad, sumando todos los eventos
      */
     public int getTiquetesVendidos() {
+        return getTiquetesVendidos(null);
+    }
+    
+    /**
+     * @param evento - evento a consultar (null para todos)
+     * @return cantidad de tiquetes vendidos del evento en esta localidad
+     */
+    public int getTiquetesVendidos(Evento evento) {
         int vendidos = 0;
+        for (AsientosEvento asientos : asientosConsultados(evento)) {
+            vendidos += asientos.inventario.getVendidos();
+        }
         for (Tiquete tiquete : tiquetes) {
-            if (!tiquete.estaVigente()) {
+            if (!tiquete.estaVigente() && esDelEvento(tiquete, evento)) {
                 vendidos++;
             }
         }
@@ -162,8 +617,23 @@ public class Localidad {
      * @return porcentaje de tiquetes vendidos (0-100)
      */
     public double getPorcentajeVendido() {
+        return getPorcentajeVendido(null);
+    }
+    
+    /**
+     * @param evento - evento a consultar (null para todos)
+     * @return porcentaje de la capacidad vendido para el evento (0-100)
+     */
+    public double getPorcentajeVendido(Evento evento) {
         if (capacidad == 0) return 0;
-        return (getTiquetesVendidos() * 100.0) / capacidad;
+        return (getTiquetesVendidos(evento) * 100.0) / capacidad;
+    }
+    
+    /**
+     * Los tiquetes sin evento se cuentan para cualquier evento
+     */
+    private static boolean esDelEvento(Tiquete tiquete, Evento evento) {
+        return evento == null || tiquete.getEvento() == null || tiquete.getEvento().equals(evento);
     }
     
     /**
@@ -171,6 +641,12 @@ public class Localidad {
      * @param tiquete - tiquete a agregar
      */
     public void agregarTiquete(Tiquete tiquete) {
+        // Los tiquetes del inventario compacto ya están registrados como bits, aunque
+        // su inventario aún no se haya abierto en esta ejecución
+        AsientosEvento asientos = tiquete != null ? asientosDe(tiquete.getEvento(), true) : null;
+        if (asientos != null && asientos.inventario.esDeEsteInventario(tiquete)) {
+            return;
+        }
         if (tiquete != null && !tiquetes.contains(tiquete)) {
             if (getTiquetesDisponibles() < capacidad) {
                 tiquetes.add(tiquete);
@@ -181,6 +657,19 @@ public class Localidad {
         }
     }
     
+    /**
+     * Agrega tiquetes recién creados (con ids nuevos, p. ej. en una importación masiva)
+     * revisando la capacidad una sola vez para todo el lote
+     * @param nuevos - tiquetes a agregar
+     * @return cantidad de tiquetes agregados (los que caben)
+     */
+    public int agregarTiquetesNuevos(ArrayList<Tiquete> nuevos) {
+        int caben = Math.max(0, capacidad - getTiquetesDisponibles());
+        int agregados = Math.min(caben, nuevos.size());
+        tiquetes.addAll(nuevos.subList(0, agregados));
+        return agregados;
+    }
+    
     /**
      * Crea y agrega un nuevo tiquete a esta localidad
      * @param evento - evento al que pertenece el tiquete
@@ -191,7 +680,7 @@ public class Localidad {
             return null;
         }
         
-        String tiqueteId = "TQ-" + evento.getId() + "-" + this.id + "-" + System.currentTimeMillis();
+        String tiqueteId = GeneradorIds.getInstancia().siguiente("TQ-" + evento.getId() + "-" + this.id);
         
         // Usar precio con ofertas si hay ofertas vigentes
         double precioFinal = tieneOfertasVigentes() ? getPrecioConOfertas() : precioBase;
@@ -207,12 +696,16 @@ public class Localidad {
      * @return tiquete disponible o null si no hay
      */
     public Tiquete obtenerTiqueteDisponible() {
-        for (Tiquete tiquete : tiquetes) {
-            if (tiquete.estaVigente()) {
-                return tiquete;
-            }
-        }
-        return null;
+        return obtenerTiqueteDisponible(null);
+    }
+    
+    /**
+     * @param evento - evento del tiquete (null para cualquiera)
+     * @return tiquete disponible del evento o null si no hay
+     */
+    public Tiquete obtenerTiqueteDisponible(Evento evento) {
+        ArrayList<Tiquete> disponibles = obtenerTiquetesDisponibles(evento, 1);
+        return disponibles.isEmpty() ? null : disponibles.get(0);
     }
     
     /**
@@ -221,16 +714,35 @@ public class Localidad {
      * @return lista de tiquetes disponibles
      */
     public ArrayList<Tiquete> obtenerTiquetesDisponibles(int cantidad) {
+        return obtenerTiquetesDisponibles(null, cantidad);
+    }
+    
+    /**
+     * @param evento - evento de los tiquetes (null para cualquiera)
+     * @param cantidad - cantidad de tiquetes necesarios
+     * @return lista de tiquetes disponibles del evento
+     */
+    public ArrayList<Tiquete> obtenerTiquetesDisponibles(Evento evento, int cantidad) {
         ArrayList<Tiquete> disponibles = new ArrayList<>();
         int contador = 0;
         
         for (Tiquete tiquete : tiquetes) {
-            if (tiquete.estaVigente() && contador < cantidad) {
+            if (tiquete.estaVigente() && esDelEvento(tiquete, evento) && contador < cantidad) {
                 disponibles.add(tiquete);
                 contador++;
             }
         }
         
+        // Los asientos libres del inventario compacto se crean solo para consulta
+        for (AsientosEvento asientos : asientosConsultados(evento)) {
+            if (contador >= cantidad) {
+                break;
+            }
+            ArrayList<Tiquete> libres = asientos.inventario.consultarLibres(cantidad - contador, asientos.evento, this, precioBase);
+            disponibles.addAll(libres);
+            contador += libres.size();
+        }
+        
         return disponibles;
     }
     
@@ -242,6 +754,13 @@ public class Localidad {
         return getTiquetesDisponibles() > 0;
     }
     
+    /**
+     * @return true si hay tiquetes disponibles para el evento
+     */
+    public boolean hayDisponibilidad(Evento evento) {
+        return getTiquetesDisponibles(evento) > 0;
+    }
+    
     /**
      * Verifica si hay suficiente disponibilidad para una cantidad específica
      * @param cantidad - cantidad requerida
@@ -251,6 +770,13 @@ public class Localidad {
         return getTiquetesDisponibles() >= cantidad;
     }
     
+    /**
+     * @return true si hay al menos esa cantidad de tiquetes disponibles para el evento
+     */
+    public boolean haySuficienteDisponibilidad(Evento evento, int cantidad) {
+        return getTiquetesDisponibles(evento) >= cantidad;
+    }
+    
     // ==================== MÉTODOS DE INFORMACIÓN ====================
     
     /**
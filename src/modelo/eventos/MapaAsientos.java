@@ -0,0 +1,226 @@
+package modelo.eventos;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Mapa de asientos de una localidad numerada.
+ * Los asientos se organizan en filas de igual tamaño y se numeran
+ * fila * asientosPorFila + columna, igual que en el inventario de asientos.
+ * Para cada fila se guardan los tramos libres (inicio -> longitud) y, además,
+ * un índice global de todos los tramos ordenado por longitud, fila e inicio.
+ * Así, encontrar el mejor bloque de k asientos contiguos (el tramo más corto
+ * que los contiene, lo más adelante posible) es una búsqueda logarítmica, y
+ * ocupar o liberar un asiento solo parte o une tramos vecinos.
+ */
+public class MapaAsientos {
+    private int filas;
+    private int asientosPorFila;
+    private ArrayList<TreeMap<Integer, Integer>> tramosPorFila; // por fila: inicio -> longitud
+    private TreeSet<Tramo> tramos; // todos los tramos libres, del más corto al más largo
+    private int libres;
+
+    /**
+     * Crea un mapa con todos los asientos libres
+     * @param filas - número de filas
+     * @param asientosPorFila - asientos en cada fila
+     */
+    public MapaAsientos(int filas, int asientosPorFila) {
+        if (filas <= 0 || asientosPorFila <= 0) {
+            throw new IllegalArgumentException("Las filas y los asientos por fila deben ser positivos");
+        }
+        this.filas = filas;
+        this.asientosPorFila = asientosPorFila;
+        this.tramosPorFila = new ArrayList<>(filas);
+        this.tramos = new TreeSet<>();
+        for (int fila = 0; fila < filas; fila++) {
+            TreeMap<Integer, Integer> tramosFila = new TreeMap<>();
+            tramosFila.put(0, asientosPorFila);
+            tramosPorFila.add(tramosFila);
+            tramos.add(new Tramo(fila, 0, asientosPorFila));
+        }
+        this.libres = filas * asientosPorFila;
+    }
+
+    // ==================== MÉTODOS DE ASIGNACIÓN ====================
+
+    /**
+     * Busca el mejor bloque de asientos contiguos en una misma fila sin ocuparlo
+     * @param cantidad - asientos requeridos
+     * @return números de asiento del bloque o un arreglo vacío si no hay
+     */
+    public int[] buscarBloque(int cantidad) {
+        if (cantidad <= 0 || cantidad > asientosPorFila) {
+            return new int[0];
+        }
+        Tramo tramo = tramos.ceiling(new Tramo(-1, -1, cantidad));
+        if (tramo == null) {
+            return new int[0];
+        }
+        int[] asientos = new int[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            asientos[i] = numeroAsiento(tramo.fila, tramo.inicio + i);
+        }
+        return asientos;
+    }
+
+    /**
+     * Busca y ocupa el mejor bloque de asientos contiguos
+     * @return números de asiento ocupados o un arreglo vacío si no hay
+     */
+    public int[] reservarBloque(int cantidad) {
+        int[] asientos = buscarBloque(cantidad);
+        for (int asiento : asientos) {
+            ocupar(asiento);
+        }
+        return asientos;
+    }
+
+    /**
+     * Marca un asiento como ocupado partiendo su tramo libre
+     * @return true si el asiento estaba libre
+     */
+    public boolean ocupar(int asiento) {
+        if (!esValido(asiento)) {
+            return false;
+        }
+        int fila = asiento / asientosPorFila;
+        int columna = asiento % asientosPorFila;
+        TreeMap<Integer, Integer> tramosFila = tramosPorFila.get(fila);
+
+        Map.Entry<Integer, Integer> entrada = tramosFila.floorEntry(columna);
+        if (entrada == null || entrada.getKey() + entrada.getValue() <= columna) {
+            return false; // Ya estaba ocupado
+        }
+        int inicio = entrada.getKey();
+        int longitud = entrada.getValue();
+        quitarTramo(fila, inicio, longitud);
+
+        if (columna > inicio) {
+            agregarTramo(fila, inicio, columna - inicio);
+        }
+        int fin = inicio + longitud;
+        if (columna + 1 < fin) {
+            agregarTramo(fila, columna + 1, fin - columna - 1);
+        }
+        libres--;
+        return true;
+    }
+
+    /**
+     * Marca un asiento como libre uniéndolo con los tramos vecinos
+     * @return true si el asiento estaba ocupado
+     */
+    public boolean liberar(int asiento) {
+        if (!esValido(asiento) || estaLibre(asiento)) {
+            return false;
+        }
+        int fila = asiento / asientosPorFila;
+        int columna = asiento % asientosPorFila;
+        TreeMap<Integer, Integer> tramosFila = tramosPorFila.get(fila);
+
+        int inicio = columna;
+        int fin = columna + 1;
+
+        Map.Entry<Integer, Integer> anterior = tramosFila.lowerEntry(columna);
+        if (anterior != null && anterior.getKey() + anterior.getValue() == columna) {
+            inicio = anterior.getKey();
+            quitarTramo(fila, anterior.getKey(), anterior.getValue());
+        }
+        Integer longitudSiguiente = tramosFila.get(columna + 1);
+        if (longitudSiguiente != null) {
+            fin = columna + 1 + longitudSiguiente;
+            quitarTramo(fila, columna + 1, longitudSiguiente);
+        }
+        agregarTramo(fila, inicio, fin - inicio);
+        libres++;
+        return true;
+    }
+
+    // ==================== MÉTODOS DE CONSULTA ====================
+
+    public boolean estaLibre(int asiento) {
+        if (!esValido(asiento)) {
+            return false;
+        }
+        int columna = asiento % asientosPorFila;
+        Map.Entry<Integer, Integer> entrada = tramosPorFila.get(asiento / asientosPorFila).floorEntry(columna);
+        return entrada != null && entrada.getKey() + entrada.getValue() > columna;
+    }
+
+    /**
+     * @return longitud del tramo libre más largo del mapa
+     */
+    public int getMayorBloqueLibre() {
+        return tramos.isEmpty() ? 0 : tramos.last().longitud;
+    }
+
+    public int numeroAsiento(int fila, int columna) {
+        return fila * asientosPorFila + columna;
+    }
+
+    /**
+     * @return descripción legible de un asiento, por ejemplo "Fila 3, asiento 12"
+     */
+    public String describirAsiento(int asiento) {
+        return "Fila " + (asiento / asientosPorFila + 1) + ", asiento " + (asiento % asientosPorFila + 1);
+    }
+
+    public int getFilas() { return filas; }
+    public int getAsientosPorFila() { return asientosPorFila; }
+    public int getTotalAsientos() { return filas * asientosPorFila; }
+    public int getLibres() { return libres; }
+    public int getCantidadTramos() { return tramos.size(); }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private boolean esValido(int asiento) {
+        return asiento >= 0 && asiento < filas * asientosPorFila;
+    }
+
+    private void agregarTramo(int fila, int inicio, int longitud) {
+        tramosPorFila.get(fila).put(inicio, longitud);
+        tramos.add(new Tramo(fila, inicio, longitud));
+    }
+
+    private void quitarTramo(int fila, int inicio, int longitud) {
+        tramosPorFila.get(fila).remove(inicio);
+        tramos.remove(new Tramo(fila, inicio, longitud));
+    }
+
+    /**
+     * Tramo de asientos libres contiguos de una fila. Se ordena por longitud
+     * (el más corto que sirve deja menos huecos), luego por fila y por inicio.
+     */
+    private static class Tramo implements Comparable<Tramo> {
+        private final int fila;
+        private final int inicio;
+        private final int longitud;
+
+        Tramo(int fila, int inicio, int longitud) {
+            this.fila = fila;
+            this.inicio = inicio;
+            this.longitud = longitud;
+        }
+
+        @Override
+        public int compareTo(Tramo otro) {
+            if (longitud != otro.longitud) return Integer.compare(longitud, otro.longitud);
+            if (fila != otro.fila) return Integer.compare(fila, otro.fila);
+            return Integer.compare(inicio, otro.inicio);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Tramo)) return false;
+            return compareTo((Tramo) obj) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return (longitud * 31 + fila) * 31 + inicio;
+        }
+    }
+}
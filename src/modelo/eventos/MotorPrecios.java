@@ -0,0 +1,367 @@
+package modelo.eventos;
+
+import modelo.tiquetes.LibroReventas;
+import modelo.tiquetes.TiqueteReventa;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Precios dinámicos por par evento/localidad.
+ * El precio de una localidad parte de su precio base y se multiplica por el
+ * factor de la regla que aplique en cada criterio: porcentaje vendido, horas
+ * que faltan para el evento y prima del mercado de reventa (mejor precio de
+ * reventa frente al precio base). El resultado queda entre un piso y un techo
+ * relativos al precio base.
+ *
+ * La reevaluación es incremental: solo se recalculan los pares marcados como
+ * cambiados (una venta, un reembolso o un movimiento en la reventa) y los que
+ * cruzaron un umbral de tiempo, que se agendan por fecha al evaluarlos (la
+ * fecha del evento también se agenda, y entonces el par sale del motor). El
+ * precio calculado se deja en la localidad, así que la compra lo consulta en
+ * O(1) sin evaluar reglas. Cada evento cuyo precio cambió se avisa una vez por
+ * pasada (p. ej. para reindexarlo en el catálogo).
+ */
+public class MotorPrecios {
+    public static final double PISO_POR_DEFECTO = 0.8;  // 80% del precio base
+    public static final double TECHO_POR_DEFECTO = 2.0; // el doble del precio base
+    private static final long MILIS_POR_HORA = 60 * 60 * 1000L;
+
+    public enum Criterio {
+        VENTA,   // umbral: porcentaje vendido mínimo (0-100)
+        TIEMPO,  // umbral: horas máximas que faltan para el evento
+        REVENTA  // umbral: prima mínima de la reventa (1.5 = reventa a 150% del base)
+    }
+
+    /**
+     * Regla de precio: si el criterio alcanza el umbral, el precio se multiplica por el factor.
+     * Por criterio se aplica solo la regla más exigente que se cumpla.
+     */
+    public static class ReglaPrecio {
+        private final Criterio criterio;
+        private final double umbral;
+        private final double factor;
+
+        public ReglaPrecio(Criterio criterio, double umbral, double factor) {
+            if (criterio == null) {
+                throw new IllegalArgumentException("La regla debe tener un criterio");
+            }
+            if (umbral < 0 || factor <= 0) {
+                throw new IllegalArgumentException("El umbral no puede ser negativo y el factor debe ser positivo");
+            }
+            this.criterio = criterio;
+            this.umbral = umbral;
+            this.factor = factor;
+        }
+
+        public Criterio getCriterio() { return criterio; }
+        public double getUmbral() { return umbral; }
+        public double getFactor() { return factor; }
+
+        boolean seCumple(double valor) {
+            return criterio == Criterio.TIEMPO ? valor <= umbral : valor >= umbral;
+        }
+
+        @Override
+        public String toString() {
+            return criterio + (criterio == Criterio.TIEMPO ? " <= " : " >= ") + umbral + " -> x" + factor;
+        }
+    }
+
+    /**
+     * Par evento/localidad con precio dinámico
+     */
+    private static class Par {
+        private final Evento evento;
+        private final Localidad localidad;
+
+        Par(Evento evento, Localidad localidad) {
+            this.evento = evento;
+            this.localidad = localidad;
+        }
+    }
+
+    private final LibroReventas libroReventas;
+    private volatile ArrayList<ReglaPrecio> reglas;
+    private volatile double piso;
+    private volatile double techo;
+
+    private final ConcurrentHashMap<String, Par> pares;        // clave evento|localidad -> par
+    private final Set<String> cambiados;                        // pares por reevaluar
+    private final TreeMap<Long, HashSet<String>> agenda;        // instante de un umbral de tiempo -> claves
+    private ScheduledExecutorService programador;
+    private long evaluaciones;
+    private volatile Consumer<Evento> alCambiarPrecio; // aviso de un evento con precio nuevo (puede ser null)
+
+    /**
+     * @param libroReventas - libro de reventas para medir la demanda (puede ser null)
+     */
+    public MotorPrecios(LibroReventas libroReventas) {
+        this.libroReventas = libroReventas;
+        this.reglas = new ArrayList<>();
+        this.piso = PISO_POR_DEFECTO;
+        this.techo = TECHO_POR_DEFECTO;
+        this.pares = new ConcurrentHashMap<>();
+        this.cambiados = ConcurrentHashMap.newKeySet();
+        this.agenda = new TreeMap<>();
+    }
+
+    // ==================== CONFIGURACIÓN ====================
+
+    /**
+     * Reemplaza las reglas y marca todos los pares para reevaluarlos
+     */
+    public void configurarReglas(ArrayList<ReglaPrecio> nuevas, double piso, double techo) {
+        if (piso <= 0 || techo < piso) {
+            throw new IllegalArgumentException("El piso debe ser positivo y no mayor que el techo");
+        }
+        ArrayList<ReglaPrecio> ordenadas = new ArrayList<>(nuevas);
+        // La primera que se cumpla por criterio es la más exigente
+        ordenadas.sort(Comparator.comparingDouble((ReglaPrecio regla) ->
+            regla.criterio == Criterio.TIEMPO ? regla.umbral : -regla.umbral));
+        this.reglas = ordenadas;
+        this.piso = piso;
+        this.techo = techo;
+        cambiados.addAll(pares.keySet());
+    }
+
+    public ArrayList<ReglaPrecio> getReglas() {
+        return new ArrayList<>(reglas);
+    }
+
+    public double getPiso() { return piso; }
+    public double getTecho() { return techo; }
+
+    /**
+     * @param alCambiarPrecio - recibe cada evento en el que cambió el precio de alguna localidad
+     */
+    public void setAlCambiarPrecio(Consumer<Evento> alCambiarPrecio) {
+        this.alCambiarPrecio = alCambiarPrecio;
+    }
+
+    // ==================== REGISTRO Y CAMBIOS ====================
+
+    /**
+     * Agrega al motor las localidades del venue de un evento
+     */
+    public void registrar(Evento evento) {
+        if (evento == null || evento.getVenue() == null) {
+            return;
+        }
+        for (Localidad localidad : evento.getVenue().getLocalidades()) {
+            String clave = calcularClave(evento, localidad);
+            pares.put(clave, new Par(evento, localidad));
+            cambiados.add(clave);
+        }
+    }
+
+    /**
+     * Quita un evento del motor (cancelado o ya realizado) y vuelve sus localidades al precio base
+     */
+    public void retirar(Evento evento) {
+        if (evento == null || evento.getVenue() == null) {
+            return;
+        }
+        boolean cambio = false;
+        for (Localidad localidad : evento.getVenue().getLocalidades()) {
+            String clave = calcularClave(evento, localidad);
+            pares.remove(clave);
+            cambiados.remove(clave);
+            cambio |= localidad.quitarPrecioDinamico(evento.getId());
+        }
+        if (cambio) {
+            avisarCambioPrecio(evento);
+        }
+    }
+
+    private void avisarCambioPrecio(Evento evento) {
+        Consumer<Evento> aviso = alCambiarPrecio;
+        if (aviso != null) {
+            aviso.accept(evento);
+        }
+    }
+
+    /**
+     * Indica que cambió la venta o la reventa de un par; se reevalúa en la siguiente pasada
+     */
+    public void marcarCambio(Evento evento, Localidad localidad) {
+        if (evento == null || localidad == null) {
+            return;
+        }
+        String clave = calcularClave(evento, localidad);
+        if (pares.containsKey(clave)) {
+            cambiados.add(clave);
+        }
+    }
+
+    // ==================== REEVALUACIÓN ====================
+
+    /**
+     * Reevalúa los pares cambiados y los que cruzaron un umbral de tiempo
+     * @return cantidad de pares reevaluados
+     */
+    public int ejecutar() {
+        return ejecutar(System.currentTimeMillis());
+    }
+
+    /**
+     * @param ahora - instante de la pasada (milisegundos)
+     */
+    public synchronized int ejecutar(long ahora) {
+        HashSet<String> porEvaluar = new HashSet<>();
+        for (String clave : cambiados) {
+            // Retirar antes de evaluar: un cambio que llegue durante la pasada queda para la siguiente
+            if (cambiados.remove(clave)) {
+                porEvaluar.add(clave);
+            }
+        }
+        while (!agenda.isEmpty() && agenda.firstKey() <= ahora) {
+            porEvaluar.addAll(agenda.pollFirstEntry().getValue());
+        }
+
+        int evaluados = 0;
+        HashSet<Evento> conPrecioNuevo = new HashSet<>();
+        for (String clave : porEvaluar) {
+            Par par = pares.get(clave);
+            if (par == null) {
+                continue;
+            }
+            if (par.evento.isCancelado() || par.evento.getFechaHora() == null
+                    || par.evento.getFechaHora().getTime() <= ahora) {
+                retirar(par.evento);
+                continue;
+            }
+            if (evaluar(clave, par, ahora)) {
+                conPrecioNuevo.add(par.evento);
+            }
+            evaluados++;
+        }
+        for (Evento evento : conPrecioNuevo) {
+            avisarCambioPrecio(evento);
+        }
+        evaluaciones += evaluados;
+        return evaluados;
+    }
+
+    /**
+     * @return true si cambió el precio del par
+     */
+    private boolean evaluar(String clave, Par par, long ahora) {
+        Localidad localidad = par.localidad;
+        double base = localidad.getPrecioBase();
+        long fecha = par.evento.getFechaHora().getTime();
+        double horas = (fecha - ahora) / (double) MILIS_POR_HORA;
+        double vendido = localidad.getPorcentajeVendido(par.evento);
+        double prima = 0;
+        if (libroReventas != null && base > 0) {
+            TiqueteReventa mejor = libroReventas.mejorOferta(par.evento, localidad);
+            if (mejor != null) {
+                prima = mejor.getPrecioReventa() / base;
+            }
+        }
+
+        double factor = 1.0;
+        HashSet<Criterio> aplicados = new HashSet<>();
+        long proximoUmbral = fecha; // al pasar el evento el par sale del motor
+        for (ReglaPrecio regla : reglas) {
+            if (regla.criterio == Criterio.TIEMPO) {
+                // Instante en que esta regla empieza a cumplirse
+                long cruce = fecha - (long) (regla.umbral * MILIS_POR_HORA);
+                if (cruce > ahora) {
+                    proximoUmbral = Math.min(proximoUmbral, cruce);
+                }
+            }
+            if (aplicados.contains(regla.criterio)) {
+                continue;
+            }
+            double valor = regla.criterio == Criterio.VENTA ? vendido
+                         : regla.criterio == Criterio.TIEMPO ? horas : prima;
+            if (regla.seCumple(valor)) {
+                factor *= regla.factor;
+                aplicados.add(regla.criterio);
+            }
+        }
+        factor = Math.max(piso, Math.min(techo, factor));
+        boolean cambio = localidad.fijarPrecioDinamico(par.evento.getId(), Math.round(base * factor * 100) / 100.0);
+
+        agenda.computeIfAbsent(proximoUmbral, k -> new HashSet<>()).add(clave);
+        return cambio;
+    }
+
+    // ==================== EJECUCIÓN PROGRAMADA ====================
+
+    /**
+     * Ejecuta una pasada cada cierto tiempo en un hilo de fondo
+     * @param periodoSegundos - segundos entre pasadas
+     */
+    public synchronized void iniciar(long periodoSegundos) {
+        if (programador != null) {
+            return;
+        }
+        programador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "motor-precios");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        programador.scheduleWithFixedDelay(() -> {
+            try {
+                ejecutar();
+            } catch (RuntimeException e) {
+                // Una pasada fallida no detiene las siguientes
+                System.out.println("Error: No se pudieron recalcular los precios: " + e.getMessage());
+            }
+        }, 0, periodoSegundos, TimeUnit.SECONDS);
+    }
+
+    public synchronized void detener() {
+        if (programador != null) {
+            programador.shutdown();
+            programador = null;
+        }
+    }
+
+    // ==================== CONSULTA ====================
+
+    public int getCantidadPares() {
+        return pares.size();
+    }
+
+    public int getCantidadPendientes() {
+        return cambiados.size();
+    }
+
+    /**
+     * @return total de evaluaciones hechas desde que se creó el motor
+     */
+    public synchronized long getEvaluaciones() {
+        return evaluaciones;
+    }
+
+    /**
+     * @return precios dinámicos vigentes por clave evento|localidad
+     */
+    public Map<String, Double> getPrecios() {
+        HashMap<String, Double> precios = new HashMap<>();
+        for (Map.Entry<String, Par> entrada : pares.entrySet()) {
+            Par par = entrada.getValue();
+            if (par.localidad.tienePrecioDinamico(par.evento)) {
+                precios.put(entrada.getKey(), par.localidad.getPrecioDinamico(par.evento));
+            }
+        }
+        return precios;
+    }
+
+    private static String calcularClave(Evento evento, Localidad localidad) {
+        return evento.getId() + "|" + localidad.getId();
+    }
+}
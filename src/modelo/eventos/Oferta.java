@@ -97,10 +97,17 @@ public class Oferta {
      * Verifica si la oferta está vigente (activa y en fecha)
      */
     public boolean estaVigente() {
-        Date ahora = new Date();
+        return estaVigente(System.currentTimeMillis());
+    }
+    
+    /**
+     * Verifica si la oferta está vigente en un instante dado
+     * @param ahora - instante de la consulta (milisegundos)
+     */
+    public boolean estaVigente(long ahora) {
         return activa && 
-               !ahora.before(fechaInicio) && 
-               !ahora.after(fechaExpiracion);
+               ahora >= fechaInicio.getTime() && 
+               ahora <= fechaExpiracion.getTime();
     }
     
     /**
@@ -123,7 +130,15 @@ public class Oferta {
      * Aplica el descuento a un precio base
      */
     public double aplicarDescuento(double precioBase) {
-        if (estaVigente()) {
+        return aplicarDescuento(precioBase, System.currentTimeMillis());
+    }
+    
+    /**
+     * Aplica el descuento a un precio base si la oferta está vigente en el instante dado
+     * @param ahora - instante de la consulta (milisegundos)
+     */
+    public double aplicarDescuento(double precioBase, long ahora) {
+        if (estaVigente(ahora)) {
             double precioConDescuento = precioBase * (1 - porcentajeDescuento);
             System.out.println("Descuento aplicado: $" + precioBase + " → $" + precioConDescuento + 
                              " (" + (porcentajeDescuento * 100) + "%)");
@@ -0,0 +1,44 @@
+package modelo.eventos;
+
+import java.util.ArrayList;
+
+/**
+ * Clase que representa una página de resultados del catálogo de eventos.
+ * El cursor es opaco: solo debe devolverse al catálogo para pedir la página siguiente.
+ */
+public class PaginaEventos {
+    private ArrayList<Evento> eventos;
+    private String cursorSiguiente; // null si no hay más páginas
+
+    public PaginaEventos(ArrayList<Evento> eventos, String cursorSiguiente) {
+        this.eventos = new ArrayList<>(eventos);
+        this.cursorSiguiente = cursorSiguiente;
+    }
+
+    // Getters
+    public ArrayList<Evento> getEventos() { return new ArrayList<>(eventos); }
+    public String getCursorSiguiente() { return cursorSiguiente; }
+
+    /**
+     * @return true si existe una página siguiente
+     */
+    public boolean tieneSiguiente() {
+        return cursorSiguiente != null;
+    }
+
+    public boolean estaVacia() {
+        return eventos.isEmpty();
+    }
+
+    public int getTamano() {
+        return eventos.size();
+    }
+
+    @Override
+    public String toString() {
+        return "PaginaEventos{" +
+                "eventos=" + eventos.size() +
+                ", tieneSiguiente=" + tieneSiguiente() +
+                '}';
+    }
+}
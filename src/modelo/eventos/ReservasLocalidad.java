@@ -0,0 +1,252 @@
+package modelo.eventos;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reservas temporales de asientos de una localidad con inventario compacto para un evento.
+ * Un contador atómico guarda los asientos libres, es decir, los que no están
+ * vendidos ni retenidos. Reservar k asientos es un ciclo de compare-and-set
+ * sobre ese contador, sin cerrojos: o se restan los k o no se reserva nada.
+ *
+ * Cada reserva vence tras su TTL si no la confirma un pago completado. Las
+ * reservas se ordenan por vencimiento en un mapa concurrente, y cualquier hilo
+ * que reserve o consulte devuelve al contador las que ya vencieron; el estado
+ * de cada reserva cambia con compare-and-set, así que una reserva vencida o
+ * confirmada se resuelve una sola vez aunque varios hilos la vean a la vez.
+ */
+public class ReservasLocalidad {
+    public static final long TTL_POR_DEFECTO = 10 * 60 * 1000L; // 10 minutos
+
+    public enum Estado {
+        ACTIVA,      // Asientos retenidos esperando el pago
+        CONFIRMADA,  // Pago completado; falta emitir los tiquetes
+        UTILIZADA,   // Tiquetes emitidos
+        VENCIDA,     // Venció el TTL y los asientos volvieron a estar libres
+        CANCELADA    // Liberada antes de vencer
+    }
+
+    /**
+     * Asientos retenidos para un comprador
+     */
+    public static class Reserva {
+        private final String id;
+        private final String eventoId;
+        private final String localidadId;
+        private final String login;
+        private final int cantidad;
+        private final long vencimiento;
+        private final long secuencia;
+        private final AtomicReference<Estado> estado;
+
+        Reserva(String id, String eventoId, String localidadId, String login, int cantidad, long vencimiento, long secuencia) {
+            this.id = id;
+            this.eventoId = eventoId;
+            this.localidadId = localidadId;
+            this.login = login;
+            this.cantidad = cantidad;
+            this.vencimiento = vencimiento;
+            this.secuencia = secuencia;
+            this.estado = new AtomicReference<>(Estado.ACTIVA);
+        }
+
+        public String getId() { return id; }
+        public String getEventoId() { return eventoId; }
+        public String getLocalidadId() { return localidadId; }
+        public String getLogin() { return login; }
+        public int getCantidad() { return cantidad; }
+        public long getVencimiento() { return vencimiento; }
+        public Estado getEstado() { return estado.get(); }
+
+        boolean cambiarEstado(Estado esperado, Estado nuevo) {
+            return estado.compareAndSet(esperado, nuevo);
+        }
+
+        @Override
+        public String toString() {
+            return "Reserva{" + id + ", " + cantidad + " asientos, " + estado.get() + "}";
+        }
+    }
+
+    private final String eventoId;
+    private final String localidadId;
+    private final AtomicInteger libres;
+    private final AtomicInteger retenidos;
+    private final AtomicLong secuencia;
+    private final ConcurrentHashMap<String, Reserva> activas;
+    private final ConcurrentSkipListMap<Long, Reserva> porVencimiento; // clave: vencimiento y secuencia
+
+    /**
+     * @param eventoId - id del evento cuyos asientos se reservan
+     * @param localidadId - id de la localidad
+     * @param libres - asientos a la venta que aún no se han vendido
+     */
+    public ReservasLocalidad(String eventoId, String localidadId, int libres) {
+        this.eventoId = eventoId;
+        this.localidadId = localidadId;
+        this.libres = new AtomicInteger(Math.max(0, libres));
+        this.retenidos = new AtomicInteger();
+        this.secuencia = new AtomicLong();
+        this.activas = new ConcurrentHashMap<>();
+        this.porVencimiento = new ConcurrentSkipListMap<>();
+    }
+
+    // ==================== CONTADOR DE LIBRES ====================
+
+    /**
+     * Resta asientos del contador de libres si alcanzan
+     * @return true si se tomaron los asientos
+     */
+    public boolean tomar(int cantidad) {
+        if (cantidad <= 0) {
+            return false;
+        }
+        while (true) {
+            int actuales = libres.get();
+            if (actuales < cantidad) {
+                return false;
+            }
+            if (libres.compareAndSet(actuales, actuales - cantidad)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Devuelve asientos al contador (asignados, liberados o de reservas vencidas)
+     */
+    public void devolver(int cantidad) {
+        if (cantidad > 0) {
+            libres.addAndGet(cantidad);
+        }
+    }
+
+    // ==================== RESERVAS ====================
+
+    /**
+     * Retiene asientos para un comprador durante el TTL
+     * @return la reserva o null si no hay suficientes asientos libres
+     */
+    public Reserva reservar(String login, int cantidad, long ttlMilis) {
+        if (ttlMilis <= 0) {
+            throw new IllegalArgumentException("El TTL de la reserva debe ser positivo");
+        }
+        long ahora = System.currentTimeMillis();
+        liberarVencidas(ahora);
+        if (!tomar(cantidad)) {
+            return null;
+        }
+        long numero = secuencia.incrementAndGet();
+        Reserva reserva = new Reserva("RES-" + eventoId + "-" + localidadId + "-" + numero, eventoId, localidadId, login, cantidad,
+                                      ahora + ttlMilis, numero);
+        retenidos.addAndGet(cantidad);
+        activas.put(reserva.getId(), reserva);
+        porVencimiento.put(clave(reserva), reserva);
+        return reserva;
+    }
+
+    /**
+     * Confirma una reserva tras completar el pago
+     * @return false si la reserva ya venció, se canceló o ya se había confirmado
+     */
+    public boolean confirmar(Reserva reserva) {
+        if (reserva == null) {
+            return false;
+        }
+        if (reserva.getVencimiento() <= System.currentTimeMillis()) {
+            vencer(reserva);
+            return false;
+        }
+        if (!reserva.cambiarEstado(Estado.ACTIVA, Estado.CONFIRMADA)) {
+            return false;
+        }
+        quitar(reserva);
+        return true;
+    }
+
+    /**
+     * Marca una reserva confirmada como usada al emitir sus tiquetes
+     * @return false si la reserva no estaba confirmada o ya se usó
+     */
+    public boolean utilizar(Reserva reserva) {
+        return reserva != null && reserva.cambiarEstado(Estado.CONFIRMADA, Estado.UTILIZADA);
+    }
+
+    /**
+     * Libera una reserva activa antes de que venza (por ejemplo, si falló el pago)
+     */
+    public boolean cancelar(Reserva reserva) {
+        if (reserva == null || !reserva.cambiarEstado(Estado.ACTIVA, Estado.CANCELADA)) {
+            return false;
+        }
+        quitar(reserva);
+        devolver(reserva.getCantidad());
+        return true;
+    }
+
+    /**
+     * Devuelve al contador las reservas vencidas hasta el momento dado
+     * @return cantidad de reservas que vencieron
+     */
+    public int liberarVencidas(long ahora) {
+        int vencidas = 0;
+        Map.Entry<Long, Reserva> primera;
+        while ((primera = porVencimiento.firstEntry()) != null && primera.getValue().getVencimiento() <= ahora) {
+            if (vencer(primera.getValue())) {
+                vencidas++;
+            } else {
+                porVencimiento.remove(primera.getKey(), primera.getValue());
+            }
+        }
+        return vencidas;
+    }
+
+    private boolean vencer(Reserva reserva) {
+        if (!reserva.cambiarEstado(Estado.ACTIVA, Estado.VENCIDA)) {
+            return false;
+        }
+        quitar(reserva);
+        devolver(reserva.getCantidad());
+        return true;
+    }
+
+    private void quitar(Reserva reserva) {
+        activas.remove(reserva.getId());
+        porVencimiento.remove(clave(reserva));
+        retenidos.addAndGet(-reserva.getCantidad());
+    }
+
+    /**
+     * Ordena por vencimiento y desempata por secuencia, sin colisiones
+     * mientras haya menos de un millón de reservas por milisegundo
+     */
+    private static long clave(Reserva reserva) {
+        return reserva.vencimiento * 1_000_000L + reserva.secuencia % 1_000_000L;
+    }
+
+    // ==================== CONSULTAS ====================
+
+    public int getLibres() {
+        liberarVencidas(System.currentTimeMillis());
+        return libres.get();
+    }
+
+    public int getRetenidos() {
+        liberarVencidas(System.currentTimeMillis());
+        return retenidos.get();
+    }
+
+    public Reserva buscarReserva(String id) {
+        return activas.get(id);
+    }
+
+    public ArrayList<Reserva> getReservasActivas() {
+        liberarVencidas(System.currentTimeMillis());
+        return new ArrayList<>(activas.values());
+    }
+}
@@ -0,0 +1,297 @@
+package modelo.eventos;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Sala de espera virtual delante de la compra de un evento de alta demanda.
+ * Cada sesión que llega recibe un turno en orden de llegada. Los turnos se
+ * admiten sin superar un límite de compradores comprando a la vez y, si se
+ * configura, una tasa máxima de admisiones por segundo; así la compra trabaja
+ * siempre con una carga que puede atender en vez de con todos a la vez.
+ *
+ * Un turno admitido recibe un token de admisión de vida corta que la compra
+ * verifica. Al comprar, el token se consume y libera su cupo; si vence sin
+ * usarse, el cupo también se libera. No hay hilo de fondo: cualquier llamada
+ * (entrar, consultar o validar) avanza la fila.
+ */
+public class SalaEspera {
+    public static final long VIGENCIA_TOKEN_POR_DEFECTO = 2 * 60 * 1000L; // 2 minutos
+
+    public enum EstadoTurno {
+        EN_ESPERA,
+        ADMITIDO,
+        USADO,
+        VENCIDO
+    }
+
+    /**
+     * Lugar de una sesión en la fila
+     */
+    public static class Turno {
+        private final long numero;
+        private final String login;
+        private volatile EstadoTurno estado;
+        private volatile String token;
+        private volatile long admitidoEn;
+        private volatile long venceEn;
+
+        Turno(long numero, String login) {
+            this.numero = numero;
+            this.login = login;
+            this.estado = EstadoTurno.EN_ESPERA;
+        }
+
+        public long getNumero() { return numero; }
+        public String getLogin() { return login; }
+        public EstadoTurno getEstado() { return estado; }
+        public String getToken() { return token; }
+        public long getVenceEn() { return venceEn; }
+
+        @Override
+        public String toString() {
+            return "Turno{" + numero + ", " + login + ", " + estado + "}";
+        }
+    }
+
+    private static final SecureRandom ALEATORIO = new SecureRandom();
+
+    private final String eventoId;
+    private final int limiteConcurrencia;
+    private final double admisionesPorSegundo; // 0 = sin límite de tasa
+    private final long vigenciaToken;
+
+    private final AtomicLong siguienteNumero;
+    private final AtomicLong ultimoAdmitido; // número del último turno admitido
+    private final ConcurrentLinkedQueue<Turno> fila;
+    private final ConcurrentHashMap<String, Turno> turnosPorLogin;
+    private final ConcurrentHashMap<String, Turno> admitidosPorToken;
+    private final AtomicInteger comprando;
+    private final LongSupplier reloj; // instante actual en milisegundos
+
+    // Cubeta de fichas para la tasa de admisión (protegida por el monitor de la sala)
+    private double fichas;
+    private long ultimaRecarga;
+    // Duración promedio de una compra admitida, para estimar la espera sin límite de tasa
+    private double duracionPromedioMs;
+
+    /**
+     * @param limiteConcurrencia - máximo de compradores admitidos a la vez
+     * @param admisionesPorSegundo - tasa máxima de admisión (0 para no limitarla)
+     * @param vigenciaToken - milisegundos que dura un token de admisión
+     */
+    public SalaEspera(String eventoId, int limiteConcurrencia, double admisionesPorSegundo, long vigenciaToken) {
+        this(eventoId, limiteConcurrencia, admisionesPorSegundo, vigenciaToken, System::currentTimeMillis);
+    }
+
+    /**
+     * @param reloj - da el instante actual (milisegundos); las pruebas lo avanzan a mano
+     */
+    public SalaEspera(String eventoId, int limiteConcurrencia, double admisionesPorSegundo, long vigenciaToken,
+                      LongSupplier reloj) {
+        if (limiteConcurrencia <= 0) {
+            throw new IllegalArgumentException("El límite de concurrencia debe ser positivo");
+        }
+        if (admisionesPorSegundo < 0 || vigenciaToken <= 0) {
+            throw new IllegalArgumentException("La tasa de admisión y la vigencia del token no pueden ser negativas");
+        }
+        this.eventoId = eventoId;
+        this.limiteConcurrencia = limiteConcurrencia;
+        this.admisionesPorSegundo = admisionesPorSegundo;
+        this.vigenciaToken = vigenciaToken;
+        this.siguienteNumero = new AtomicLong();
+        this.ultimoAdmitido = new AtomicLong();
+        this.fila = new ConcurrentLinkedQueue<>();
+        this.turnosPorLogin = new ConcurrentHashMap<>();
+        this.admitidosPorToken = new ConcurrentHashMap<>();
+        this.comprando = new AtomicInteger();
+        this.reloj = reloj;
+        this.fichas = Math.min(1, admisionesPorSegundo);
+        this.ultimaRecarga = reloj.getAsLong();
+        this.duracionPromedioMs = 30_000; // estimación inicial: 30 segundos por compra
+    }
+
+    public SalaEspera(String eventoId, int limiteConcurrencia, double admisionesPorSegundo) {
+        this(eventoId, limiteConcurrencia, admisionesPorSegundo, VIGENCIA_TOKEN_POR_DEFECTO);
+    }
+
+    // ==================== FILA ====================
+
+    /**
+     * Pone la sesión en la fila. Una sesión que ya tiene un turno vigente lo conserva.
+     * @return el turno de la sesión (puede quedar admitido de inmediato)
+     */
+    public Turno entrar(String login) {
+        Turno turno = turnosPorLogin.compute(login, (clave, actual) -> {
+            if (actual != null && (actual.estado == EstadoTurno.EN_ESPERA || actual.estado == EstadoTurno.ADMITIDO)) {
+                return actual;
+            }
+            Turno nuevo = new Turno(siguienteNumero.incrementAndGet(), login);
+            fila.add(nuevo);
+            return nuevo;
+        });
+        avanzar();
+        return turno;
+    }
+
+    /**
+     * Avanza la fila y devuelve el turno actual de la sesión
+     */
+    public Turno consultar(String login) {
+        avanzar();
+        return turnosPorLogin.get(login);
+    }
+
+    /**
+     * @return turnos que faltan por admitir antes de este (0 si ya fue admitido)
+     */
+    public long getPosicion(Turno turno) {
+        if (turno == null || turno.estado != EstadoTurno.EN_ESPERA) {
+            return 0;
+        }
+        return Math.max(0, turno.numero - ultimoAdmitido.get());
+    }
+
+    /**
+     * Estima cuánto falta para que se admita el turno
+     * @return milisegundos estimados (0 si ya fue admitido)
+     */
+    public synchronized long estimarEsperaMs(Turno turno) {
+        long delante = getPosicion(turno);
+        if (delante == 0) {
+            return 0;
+        }
+        double porTasa = admisionesPorSegundo > 0 ? delante * 1000.0 / admisionesPorSegundo : 0;
+        double porCupos = delante * duracionPromedioMs / limiteConcurrencia;
+        return (long) Math.max(porTasa, porCupos);
+    }
+
+    /**
+     * Libera cupos de tokens vencidos y admite turnos mientras haya cupo y fichas
+     */
+    public synchronized void avanzar() {
+        long ahora = reloj.getAsLong();
+        liberarVencidos(ahora);
+        recargarFichas(ahora);
+        Turno siguiente;
+        while (comprando.get() < limiteConcurrencia && (admisionesPorSegundo == 0 || fichas >= 1)
+                && (siguiente = fila.poll()) != null) {
+            if (siguiente.estado != EstadoTurno.EN_ESPERA) {
+                continue;
+            }
+            admitir(siguiente, ahora);
+            if (admisionesPorSegundo > 0) {
+                fichas -= 1;
+            }
+        }
+    }
+
+    private void admitir(Turno turno, long ahora) {
+        byte[] bytes = new byte[16];
+        ALEATORIO.nextBytes(bytes);
+        StringBuilder token = new StringBuilder("ADM-");
+        for (byte b : bytes) {
+            token.append(String.format("%02x", b));
+        }
+        turno.token = token.toString();
+        turno.admitidoEn = ahora;
+        turno.venceEn = ahora + vigenciaToken;
+        turno.estado = EstadoTurno.ADMITIDO;
+        ultimoAdmitido.accumulateAndGet(turno.numero, Math::max);
+        comprando.incrementAndGet();
+        admitidosPorToken.put(turno.token, turno);
+    }
+
+    private void recargarFichas(long ahora) {
+        if (admisionesPorSegundo == 0) {
+            return;
+        }
+        // La cubeta guarda a lo sumo un segundo de admisiones para no soltar ráfagas grandes
+        fichas = Math.min(Math.max(1, admisionesPorSegundo), fichas + (ahora - ultimaRecarga) * admisionesPorSegundo / 1000.0);
+        ultimaRecarga = ahora;
+    }
+
+    private void liberarVencidos(long ahora) {
+        for (Turno turno : admitidosPorToken.values()) {
+            if (turno.venceEn <= ahora && admitidosPorToken.remove(turno.token, turno)) {
+                turno.estado = EstadoTurno.VENCIDO;
+                turnosPorLogin.remove(turno.login, turno);
+                comprando.decrementAndGet();
+            }
+        }
+    }
+
+    // ==================== TOKENS DE ADMISIÓN ====================
+
+    /**
+     * Verifica que el token sea vigente y pertenezca a la sesión
+     */
+    public boolean validarToken(String login, String token) {
+        if (token == null) {
+            return false;
+        }
+        avanzar();
+        Turno turno = admitidosPorToken.get(token);
+        return turno != null && turno.login.equals(login);
+    }
+
+    /**
+     * Marca el token como usado tras una compra y libera su cupo para el siguiente turno
+     */
+    public synchronized boolean consumirToken(String login, String token) {
+        Turno turno = token != null ? admitidosPorToken.get(token) : null;
+        if (turno == null || !turno.login.equals(login) || !admitidosPorToken.remove(token, turno)) {
+            return false;
+        }
+        turno.estado = EstadoTurno.USADO;
+        turnosPorLogin.remove(login, turno);
+        comprando.decrementAndGet();
+        long duracion = reloj.getAsLong() - turno.admitidoEn;
+        duracionPromedioMs = duracionPromedioMs * 0.9 + duracion * 0.1;
+        avanzar();
+        return true;
+    }
+
+    // ==================== CONSULTAS ====================
+
+    public String getEventoId() {
+        return eventoId;
+    }
+
+    public int getLimiteConcurrencia() {
+        return limiteConcurrencia;
+    }
+
+    public double getAdmisionesPorSegundo() {
+        return admisionesPorSegundo;
+    }
+
+    public int getComprando() {
+        return comprando.get();
+    }
+
+    public int getEnEspera() {
+        int enEspera = 0;
+        for (Turno turno : fila) {
+            if (turno.estado == EstadoTurno.EN_ESPERA) {
+                enEspera++;
+            }
+        }
+        return enEspera;
+    }
+
+    public ArrayList<Turno> getAdmitidos() {
+        return new ArrayList<>(admitidosPorToken.values());
+    }
+
+    @Override
+    public String toString() {
+        return "SalaEspera{evento=" + eventoId + ", comprando=" + comprando.get() + "/" + limiteConcurrencia
+                + ", enEspera=" + getEnEspera() + "}";
+    }
+}
@@ -232,6 +232,14 @@ public class Venue {
         return true;
     }
     
+    /**
+     * Programa un evento cuya fecha ya verificó el llamador (importación masiva),
+     * sin volver a recorrer las fechas programadas
+     */
+    public void programarEventoVerificado(Evento evento, Date fechaHora) {
+        eventosProgramados.put(fechaHora, evento);
+    }
+    
     /**
      * Cancela un evento programado en el venue
      * @param fechaHora - fecha y hora del evento a cancelar
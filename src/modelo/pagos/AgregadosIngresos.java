@@ -0,0 +1,441 @@
+package modelo.pagos;
+
+import modelo.eventos.Evento;
+import modelo.tiquetes.Tiquete;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * Totales de ventas e ingresos de la plataforma que se mantienen al día con
+ * cada compra y cada reembolso, en vez de recorrer todas las compras en cada
+ * reporte. Además del total se acumula por evento, por localidad (de cada
+ * evento), por organizador y por día de la compra.
+ *
+ * Los montos son los cobrados: el precio que guarda cada tiquete, el cargo fijo
+ * y el cargo por servicio que queda del total de la compra, así que los
+ * reportes cuadran con los débitos de las billeteras. Un reembolso descuenta el tiquete y su venta bruta y suma el monto devuelto,
+ * pero no descuenta los cargos: no se devuelven al comprador.
+ *
+ * Para los reportes de cada organizador se mantiene además qué eventos suyos
+ * tienen ventas y qué localidades de cada evento, así que su vista
+ * (getVistaOrganizador) se arma en O(eventos + localidades) sin tocar compras.
+ *
+ * Cada venta y cada reembolso se anota en un diario; al cargarlo se rehacen
+ * los totales, así que sobreviven a un reinicio aunque las compras no se
+ * guarden.
+ */
+public class AgregadosIngresos {
+    public static final String ARCHIVO_AGREGADOS = "data/agregados_ingresos.csv";
+    private static final String SEPARADOR = ";";
+    private static final String SIN_ORGANIZADOR = "-";
+
+    public enum Dimension {
+        EVENTO,      // clave: id del evento
+        LOCALIDAD,   // clave: id del evento|id de la localidad
+        ORGANIZADOR, // clave: login del organizador
+        DIA          // clave: yyyy-MM-dd
+    }
+
+    /**
+     * Totales de una clave. Los montos se guardan en centavos para que sumar y
+     * restar muchas veces no acumule errores de redondeo.
+     */
+    public static class Acumulado {
+        private int compras;
+        private int tiquetes;
+        private long ventasBrutas;
+        private long cobroFijo;
+        private long porcentaje;
+        private int reembolsados;
+        private long montoReembolsado;
+
+        Acumulado copiar() {
+            Acumulado copia = new Acumulado();
+            copia.compras = compras;
+            copia.tiquetes = tiquetes;
+            copia.ventasBrutas = ventasBrutas;
+            copia.cobroFijo = cobroFijo;
+            copia.porcentaje = porcentaje;
+            copia.reembolsados = reembolsados;
+            copia.montoReembolsado = montoReembolsado;
+            return copia;
+        }
+
+        public int getCompras() { return compras; }
+        public int getTiquetes() { return tiquetes; }
+        public double getVentasBrutas() { return LibroMayor.aPesos(ventasBrutas); }
+        public double getIngresosCobroFijo() { return LibroMayor.aPesos(cobroFijo); }
+        public double getIngresosPorcentaje() { return LibroMayor.aPesos(porcentaje); }
+        public double getIngresosTotales() { return LibroMayor.aPesos(cobroFijo + porcentaje); }
+        public double getMontoCobrado() { return LibroMayor.aPesos(ventasBrutas + cobroFijo + porcentaje); }
+        public int getReembolsados() { return reembolsados; }
+        public double getMontoReembolsado() { return LibroMayor.aPesos(montoReembolsado); }
+
+        @Override
+        public String toString() {
+            return "Compras: " + compras + " | Tiquetes: " + tiquetes +
+                   " | Ventas: $" + String.format("%.2f", getVentasBrutas()) +
+                   " | Ingresos: $" + String.format("%.2f", getIngresosTotales());
+        }
+    }
+
+    /**
+     * Ganancias y tiquetes vendidos de un organizador por evento y por localidad.
+     * Es una copia: no cambia con las ventas posteriores.
+     */
+    public static class VistaOrganizador {
+        private final Acumulado total;
+        private final HashMap<String, Acumulado> porEvento;                      // id evento -> totales
+        private final HashMap<String, HashMap<String, Acumulado>> porLocalidad;  // id evento -> id localidad -> totales
+
+        VistaOrganizador(Acumulado total) {
+            this.total = total;
+            this.porEvento = new HashMap<>();
+            this.porLocalidad = new HashMap<>();
+        }
+
+        public Acumulado getTotal() { return total; }
+
+        /**
+         * @return totales del evento (vacíos si no tiene ventas)
+         */
+        public Acumulado getEvento(String eventoId) {
+            Acumulado acumulado = porEvento.get(eventoId);
+            return acumulado != null ? acumulado : new Acumulado();
+        }
+
+        /**
+         * @return totales de la localidad en el evento (vacíos si no tiene ventas)
+         */
+        public Acumulado getLocalidad(String eventoId, String localidadId) {
+            HashMap<String, Acumulado> localidades = porLocalidad.get(eventoId);
+            Acumulado acumulado = localidades != null ? localidades.get(localidadId) : null;
+            return acumulado != null ? acumulado : new Acumulado();
+        }
+
+        /**
+         * @return ids de los eventos del organizador que han tenido ventas
+         */
+        public ArrayList<String> getEventos() {
+            return new ArrayList<>(porEvento.keySet());
+        }
+    }
+
+    /**
+     * Lo que sumó un tiquete vendido, para poder descontarlo si se reembolsa
+     */
+    private static class Aporte {
+        private final String tiqueteId;
+        private final String[] claves; // una clave por dimensión, en el orden de Dimension
+        private final long bruto;
+        private final long base;       // precio pagado por el tiquete (referencia para reembolsos)
+
+        Aporte(String tiqueteId, String[] claves, long bruto, long base) {
+            this.tiqueteId = tiqueteId;
+            this.claves = claves;
+            this.bruto = bruto;
+            this.base = base;
+        }
+    }
+
+    private final File diario;
+    private final Acumulado total;
+    private final EnumMap<Dimension, HashMap<String, Acumulado>> porDimension;
+    private final HashMap<String, Aporte> aportes;                 // id tiquete -> aporte vigente
+    private final HashMap<String, HashSet<String>> tiquetesPorEvento; // id evento -> tiquetes con aporte vigente
+    private final HashMap<String, HashSet<String>> eventosPorOrganizador; // login -> eventos con ventas
+    private final HashMap<String, HashSet<String>> localidadesPorEvento;  // id evento -> localidades con ventas
+    private final SimpleDateFormat formatoDia;
+
+    /**
+     * @param diario - archivo donde se anotan ventas y reembolsos (null para no anotarlos)
+     */
+    public AgregadosIngresos(File diario) {
+        this.diario = diario;
+        this.total = new Acumulado();
+        this.porDimension = new EnumMap<>(Dimension.class);
+        for (Dimension dimension : Dimension.values()) {
+            porDimension.put(dimension, new HashMap<>());
+        }
+        this.aportes = new HashMap<>();
+        this.tiquetesPorEvento = new HashMap<>();
+        this.eventosPorOrganizador = new HashMap<>();
+        this.localidadesPorEvento = new HashMap<>();
+        this.formatoDia = new SimpleDateFormat("yyyy-MM-dd");
+    }
+
+    // ==================== ACTUALIZACIÓN ====================
+
+    /**
+     * Suma una compra aprobada. El costo es proporcional a sus tiquetes, no al historial.
+     * El cargo por servicio es lo que el total cobrado tiene además de los precios
+     * y los cargos fijos; se reparte entre los tiquetes según su precio.
+     * @param cobroFijo - cargo fijo por tiquete cobrado en la compra
+     */
+    public synchronized void registrarCompra(Compra compra, double cobroFijo) {
+        if (compra == null || compra.getTiquetes().isEmpty()) {
+            return;
+        }
+        ArrayList<Tiquete> tiquetes = compra.getTiquetes();
+        String dia = formatoDia.format(compra.getFecha());
+        long fijo = LibroMayor.aCentavos(cobroFijo);
+        long[] brutos = new long[tiquetes.size()];
+        long sumaBrutos = 0;
+        for (int i = 0; i < tiquetes.size(); i++) {
+            brutos[i] = LibroMayor.aCentavos(tiquetes.get(i).getPrecioPagado());
+            sumaBrutos += brutos[i];
+        }
+        long servicio = Math.max(0, LibroMayor.aCentavos(compra.getMontoTotal()) - sumaBrutos - fijo * tiquetes.size());
+
+        // Cada tiquete lleva su parte del cargo según su precio. El último que se aplica
+        // lleva además el resto del redondeo, así la suma es exactamente el cargo
+        // cobrado; los que ya tenían su venta registrada conservan su parte
+        long[] porcentajes = new long[tiquetes.size()];
+        int ultimo = -1;
+        long repartido = 0;
+        for (int i = 0; i < tiquetes.size(); i++) {
+            porcentajes[i] = sumaBrutos > 0 ? servicio * brutos[i] / sumaBrutos : 0;
+            repartido += porcentajes[i];
+            if (!aportes.containsKey(tiquetes.get(i).getId())) {
+                ultimo = i;
+            }
+        }
+        if (ultimo >= 0) {
+            porcentajes[ultimo] += servicio - repartido;
+        }
+
+        StringBuilder lineas = new StringBuilder();
+        boolean primero = true;
+        for (int i = 0; i < tiquetes.size(); i++) {
+            Tiquete tiquete = tiquetes.get(i);
+            long porcentaje = porcentajes[i];
+            if (aportes.containsKey(tiquete.getId())) {
+                continue;
+            }
+            Evento evento = tiquete.getEvento();
+            String eventoId = evento != null ? evento.getId() : "?";
+            String localidadId = tiquete.getLocalidad() != null ? tiquete.getLocalidad().getId() : "?";
+            String organizador = evento != null && evento.getOrganizador() != null
+                ? evento.getOrganizador().getLogin() : SIN_ORGANIZADOR;
+            long bruto = brutos[i]; // también es la base de un reembolso por cancelación
+
+            String[] claves = {eventoId, eventoId + "|" + localidadId, organizador, dia};
+            aplicarVenta(new Aporte(tiquete.getId(), claves, bruto, bruto), fijo, porcentaje, primero);
+            lineas.append(String.join(SEPARADOR, "V", compra.getId(), tiquete.getId(), eventoId, localidadId,
+                                      organizador, dia, Long.toString(bruto), Long.toString(fijo),
+                                      Long.toString(porcentaje), Long.toString(bruto)))
+                  .append(System.lineSeparator());
+            primero = false;
+        }
+        anotar(lineas.toString());
+    }
+
+    /**
+     * Descuenta un tiquete reembolsado
+     * @param monto - monto devuelto al comprador
+     * @return false si el tiquete no tenía una venta registrada (o ya se había descontado)
+     */
+    public synchronized boolean registrarReembolso(Tiquete tiquete, double monto) {
+        if (tiquete == null || !aplicarReembolso(tiquete.getId(), LibroMayor.aCentavos(monto))) {
+            return false;
+        }
+        anotar(String.join(SEPARADOR, "R", tiquete.getId(), Long.toString(LibroMayor.aCentavos(monto)))
+               + System.lineSeparator());
+        return true;
+    }
+
+    /**
+     * Descuenta los tiquetes reembolsados por la cancelación de un evento.
+     * Repetirlo con los mismos ids no descuenta dos veces.
+     * @param tiqueteIds - ids de los tiquetes reembolsados
+     * @param cobroFijo - costo de emisión que no se devolvió
+     * @return cantidad de tiquetes descontados
+     */
+    public synchronized int registrarReembolsosCancelacion(Collection<String> tiqueteIds, double cobroFijo) {
+        StringBuilder lineas = new StringBuilder();
+        long fijo = LibroMayor.aCentavos(cobroFijo);
+        int descontados = 0;
+        for (String tiqueteId : tiqueteIds) {
+            Aporte aporte = aportes.get(tiqueteId);
+            if (aporte == null) {
+                continue;
+            }
+            long monto = Math.max(0, aporte.base - fijo);
+            aplicarReembolso(tiqueteId, monto);
+            lineas.append(String.join(SEPARADOR, "R", tiqueteId, Long.toString(monto))).append(System.lineSeparator());
+            descontados++;
+        }
+        anotar(lineas.toString());
+        return descontados;
+    }
+
+    private void aplicarVenta(Aporte aporte, long fijo, long porcentaje, boolean nuevaCompra) {
+        aportes.put(aporte.tiqueteId, aporte);
+        tiquetesPorEvento.computeIfAbsent(aporte.claves[0], k -> new HashSet<>()).add(aporte.tiqueteId);
+        eventosPorOrganizador.computeIfAbsent(aporte.claves[2], k -> new HashSet<>()).add(aporte.claves[0]);
+        localidadesPorEvento.computeIfAbsent(aporte.claves[0], k -> new HashSet<>()).add(aporte.claves[1]);
+        sumarVenta(total, aporte, fijo, porcentaje, nuevaCompra);
+        for (Dimension dimension : Dimension.values()) {
+            Acumulado acumulado = porDimension.get(dimension)
+                .computeIfAbsent(aporte.claves[dimension.ordinal()], k -> new Acumulado());
+            sumarVenta(acumulado, aporte, fijo, porcentaje, nuevaCompra);
+        }
+    }
+
+    private static void sumarVenta(Acumulado acumulado, Aporte aporte, long fijo, long porcentaje, boolean nuevaCompra) {
+        if (nuevaCompra) {
+            acumulado.compras++;
+        }
+        acumulado.tiquetes++;
+        acumulado.ventasBrutas += aporte.bruto;
+        acumulado.cobroFijo += fijo;
+        acumulado.porcentaje += porcentaje;
+    }
+
+    private boolean aplicarReembolso(String tiqueteId, long monto) {
+        Aporte aporte = aportes.remove(tiqueteId);
+        if (aporte == null) {
+            return false;
+        }
+        HashSet<String> delEvento = tiquetesPorEvento.get(aporte.claves[0]);
+        if (delEvento != null) {
+            delEvento.remove(tiqueteId);
+        }
+        restarVenta(total, aporte, monto);
+        for (Dimension dimension : Dimension.values()) {
+            restarVenta(porDimension.get(dimension).get(aporte.claves[dimension.ordinal()]), aporte, monto);
+        }
+        return true;
+    }
+
+    private static void restarVenta(Acumulado acumulado, Aporte aporte, long monto) {
+        acumulado.tiquetes--;
+        acumulado.ventasBrutas -= aporte.bruto;
+        acumulado.reembolsados++;
+        acumulado.montoReembolsado += monto;
+    }
+
+    // ==================== CONSULTA ====================
+
+    /**
+     * @return totales de toda la plataforma
+     */
+    public synchronized Acumulado getTotal() {
+        return total.copiar();
+    }
+
+    /**
+     * @return totales de una clave (vacíos si no tiene ventas)
+     */
+    public synchronized Acumulado getAcumulado(Dimension dimension, String clave) {
+        Acumulado acumulado = porDimension.get(dimension).get(clave);
+        return acumulado != null ? acumulado.copiar() : new Acumulado();
+    }
+
+    /**
+     * @return copia de los totales de todas las claves de una dimensión
+     */
+    public synchronized HashMap<String, Acumulado> getAcumulados(Dimension dimension) {
+        HashMap<String, Acumulado> copia = new HashMap<>();
+        for (Map.Entry<String, Acumulado> entrada : porDimension.get(dimension).entrySet()) {
+            copia.put(entrada.getKey(), entrada.getValue().copiar());
+        }
+        return copia;
+    }
+
+    /**
+     * Arma la vista de un organizador con los totales de sus eventos y de sus localidades
+     * @param login - login del organizador
+     */
+    public synchronized VistaOrganizador getVistaOrganizador(String login) {
+        VistaOrganizador vista = new VistaOrganizador(getAcumulado(Dimension.ORGANIZADOR, login));
+        HashSet<String> eventos = eventosPorOrganizador.get(login);
+        if (eventos == null) {
+            return vista;
+        }
+        HashMap<String, Acumulado> porLocalidad = porDimension.get(Dimension.LOCALIDAD);
+        for (String eventoId : eventos) {
+            vista.porEvento.put(eventoId, getAcumulado(Dimension.EVENTO, eventoId));
+            HashMap<String, Acumulado> localidades = new HashMap<>();
+            for (String clave : localidadesPorEvento.get(eventoId)) {
+                // clave: id del evento|id de la localidad
+                localidades.put(clave.substring(eventoId.length() + 1), porLocalidad.get(clave).copiar());
+            }
+            vista.porLocalidad.put(eventoId, localidades);
+        }
+        return vista;
+    }
+
+    /**
+     * @return ids de los tiquetes del evento con una venta vigente (no reembolsada)
+     */
+    public synchronized ArrayList<String> getTiquetesVendidos(String eventoId) {
+        HashSet<String> tiquetes = tiquetesPorEvento.get(eventoId);
+        return tiquetes != null ? new ArrayList<>(tiquetes) : new ArrayList<>();
+    }
+
+    // ==================== DIARIO ====================
+
+    private void anotar(String lineas) {
+        if (diario == null || lineas.isEmpty()) {
+            return;
+        }
+        File directorio = diario.getParentFile();
+        if (directorio != null && !directorio.exists()) {
+            directorio.mkdirs();
+        }
+        try (PrintWriter writer = new PrintWriter(new FileWriter(diario, true))) {
+            writer.print(lineas);
+        } catch (IOException e) {
+            System.err.println("Error al anotar los agregados de ingresos: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rehace los totales a partir del diario
+     * @return cantidad de líneas aplicadas
+     */
+    public synchronized int cargar() {
+        if (diario == null || !diario.exists()) {
+            return 0;
+        }
+        int aplicadas = 0;
+        String compraAnterior = null;
+        try (BufferedReader reader = new BufferedReader(new FileReader(diario))) {
+            String linea;
+            while ((linea = reader.readLine()) != null) {
+                String[] partes = linea.split(SEPARADOR, -1);
+                try {
+                    if (partes.length == 11 && "V".equals(partes[0]) && !aportes.containsKey(partes[2])) {
+                        String[] claves = {partes[3], partes[3] + "|" + partes[4], partes[5], partes[6]};
+                        Aporte aporte = new Aporte(partes[2], claves, Long.parseLong(partes[7]), Long.parseLong(partes[10]));
+                        aplicarVenta(aporte, Long.parseLong(partes[8]), Long.parseLong(partes[9]),
+                                     !partes[1].equals(compraAnterior));
+                        compraAnterior = partes[1];
+                        aplicadas++;
+                    } else if (partes.length == 3 && "R".equals(partes[0])
+                               && aplicarReembolso(partes[1], Long.parseLong(partes[2]))) {
+                        aplicadas++;
+                    }
+                } catch (NumberFormatException e) {
+                    // Línea incompleta (p. ej. un corte a mitad de escritura): se ignora
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error al cargar los agregados de ingresos: " + e.getMessage());
+        }
+        return aplicadas;
+    }
+}
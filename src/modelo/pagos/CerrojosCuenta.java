@@ -0,0 +1,63 @@
+package modelo.pagos;
+
+import java.util.ArrayList;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+import modelo.usuarios.Usuario;
+
+/**
+ * Cerrojos por franjas para las operaciones que tocan varias cuentas a la vez.
+ * Cada cuenta usa siempre la franja que le corresponde por el hash de su login,
+ * y una operación toma todas sus franjas en orden creciente de índice. Como
+ * todos los hilos toman los cerrojos en el mismo orden global, dos
+ * transferencias que se cruzan (A paga a B mientras B paga a A) no pueden
+ * quedar esperándose, y las que tocan cuentas distintas avanzan en paralelo.
+ */
+public final class CerrojosCuenta {
+    private static final int FRANJAS = 1024; // potencia de dos
+    private static final ReentrantLock[] CERROJOS = new ReentrantLock[FRANJAS];
+
+    static {
+        for (int i = 0; i < FRANJAS; i++) {
+            CERROJOS[i] = new ReentrantLock();
+        }
+    }
+
+    private CerrojosCuenta() {
+    }
+
+    private static int franja(Usuario usuario) {
+        int hash = usuario.getLogin() != null ? usuario.getLogin().hashCode() : System.identityHashCode(usuario);
+        hash ^= (hash >>> 16); // mezclar los bits altos antes de quedarse con los bajos
+        return hash & (FRANJAS - 1);
+    }
+
+    /**
+     * Toma los cerrojos de las cuentas en el orden global (las nulas se ignoran)
+     * @return cerrojos tomados, para pasarlos a liberar
+     */
+    public static ArrayList<ReentrantLock> bloquear(Usuario... cuentas) {
+        TreeSet<Integer> franjas = new TreeSet<>();
+        for (Usuario cuenta : cuentas) {
+            if (cuenta != null) {
+                franjas.add(franja(cuenta));
+            }
+        }
+        ArrayList<ReentrantLock> tomados = new ArrayList<>(franjas.size());
+        for (int franja : franjas) {
+            CERROJOS[franja].lock();
+            tomados.add(CERROJOS[franja]);
+        }
+        return tomados;
+    }
+
+    /**
+     * Libera en orden inverso los cerrojos tomados con bloquear
+     */
+    public static void liberar(ArrayList<ReentrantLock> tomados) {
+        for (int i = tomados.size() - 1; i >= 0; i--) {
+            tomados.get(i).unlock();
+        }
+    }
+}
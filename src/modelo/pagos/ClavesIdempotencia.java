@@ -0,0 +1,250 @@
+package modelo.pagos;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Resultados de operaciones ya ejecutadas, por clave de idempotencia.
+ * Si un cliente repite una compra con la misma clave (por ejemplo, después de
+ * un tiempo de espera agotado), recibe el resultado de la primera ejecución y
+ * no se le cobra de nuevo. Si la repetición llega mientras la primera sigue en
+ * curso, espera a que termine.
+ *
+ * Solo se recuerdan las ejecuciones exitosas: una compra que falló no cobró
+ * nada y puede reintentarse. Las claves vencen tras un tiempo y el caché tiene
+ * un tamaño máximo (se descartan primero las más antiguas). Cada resultado se
+ * anota en un diario, así que las claves sobreviven a un reinicio.
+ */
+public class ClavesIdempotencia {
+    public static final String ARCHIVO_CLAVES = "data/idempotencia.csv";
+    public static final long TTL_POR_DEFECTO = 24 * 60 * 60 * 1000L; // 24 horas
+    public static final int MAXIMO_POR_DEFECTO = 10_000;
+
+    /**
+     * Ejecución registrada con una clave
+     */
+    private static class Registro {
+        private final String clave;
+        private final String operacion;
+        private final long expira;
+        private final CountDownLatch listo;
+        private volatile Object resultado;   // solo en memoria
+        private volatile String referencia;  // forma anotada en el diario (id de la compra, "true"...)
+
+        Registro(String clave, String operacion, long expira) {
+            this.clave = clave;
+            this.operacion = operacion;
+            this.expira = expira;
+            this.listo = new CountDownLatch(1);
+        }
+    }
+
+    private final long ttl;
+    private final int maximo;
+    private final File diario;
+    private final ConcurrentHashMap<String, Registro> registros;
+    private final ConcurrentLinkedQueue<Registro> orden; // en orden de creación (y de vencimiento)
+    private final AtomicInteger recordadas; // tamaño de orden, sin recorrer la cola
+    private final LongSupplier reloj;       // instante actual en milisegundos
+
+    /**
+     * @param ttl - milisegundos que se recuerda cada clave
+     * @param maximo - claves recordadas como máximo
+     * @param diario - archivo donde se anotan los resultados (null para no anotarlos)
+     */
+    public ClavesIdempotencia(long ttl, int maximo, File diario) {
+        this(ttl, maximo, diario, System::currentTimeMillis);
+    }
+
+    /**
+     * @param reloj - da el instante actual (milisegundos); las pruebas lo avanzan a mano
+     */
+    public ClavesIdempotencia(long ttl, int maximo, File diario, LongSupplier reloj) {
+        if (ttl <= 0 || maximo <= 0) {
+            throw new IllegalArgumentException("El tiempo de vida y el máximo de claves deben ser positivos");
+        }
+        this.ttl = ttl;
+        this.maximo = maximo;
+        this.diario = diario;
+        this.registros = new ConcurrentHashMap<>();
+        this.orden = new ConcurrentLinkedQueue<>();
+        this.recordadas = new AtomicInteger();
+        this.reloj = reloj;
+    }
+
+    // ==================== EJECUCIÓN ====================
+
+    /**
+     * Ejecuta la acción una sola vez por clave
+     * @param clave - clave de idempotencia (ya combinada con el usuario que la envía)
+     * @param operacion - nombre de la operación; la misma clave no sirve para otra
+     * @param accion - la operación
+     * @param codificar - forma del resultado que se anota en el diario, o null si
+     *                    el resultado es un fallo y no debe recordarse
+     * @param decodificar - recupera el resultado de una clave cargada del diario
+     * @return el resultado de la primera ejecución exitosa
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T ejecutar(String clave, String operacion, Supplier<T> accion,
+                          Function<T, String> codificar, Function<String, T> decodificar) {
+        if (clave.contains(";") || clave.contains("\n")) {
+            System.out.println("Error: La clave de idempotencia no puede contener ';' ni saltos de línea");
+            return null;
+        }
+        long ahora = reloj.getAsLong();
+        purgar(ahora);
+
+        while (true) {
+            Registro nuevo = new Registro(clave, operacion, ahora + ttl);
+            Registro existente = registros.putIfAbsent(clave, nuevo);
+            if (existente == null) {
+                return ejecutarPrimera(nuevo, accion, codificar);
+            }
+            if (existente.expira <= ahora) {
+                registros.remove(clave, existente);
+                continue;
+            }
+            if (!existente.operacion.equals(operacion)) {
+                System.out.println("Error: La clave de idempotencia ya se usó para otra operación");
+                return null;
+            }
+            try {
+                existente.listo.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            if (existente.referencia == null) {
+                // La primera ejecución falló y se olvidó: esta la reintenta
+                continue;
+            }
+            Object resultado = existente.resultado;
+            return resultado != null ? (T) resultado : decodificar.apply(existente.referencia);
+        }
+    }
+
+    private <T> T ejecutarPrimera(Registro registro, Supplier<T> accion, Function<T, String> codificar) {
+        T resultado = null;
+        try {
+            resultado = accion.get();
+            String referencia = resultado != null ? codificar.apply(resultado) : null;
+            if (referencia != null) {
+                registro.resultado = resultado;
+                registro.referencia = referencia;
+                orden.add(registro);
+                recordadas.incrementAndGet();
+                anotar(registro);
+                purgar(reloj.getAsLong());
+            } else {
+                registros.remove(registro.clave, registro);
+            }
+        } catch (RuntimeException e) {
+            registros.remove(registro.clave, registro);
+            throw e;
+        } finally {
+            registro.listo.countDown();
+        }
+        return resultado;
+    }
+
+    /**
+     * Olvida las claves vencidas y, si hay demasiadas, las más antiguas
+     */
+    private void purgar(long ahora) {
+        Registro primero;
+        while ((primero = orden.peek()) != null
+                && (primero.expira <= ahora || recordadas.get() > maximo)) {
+            if (orden.remove(primero)) {
+                recordadas.decrementAndGet();
+                registros.remove(primero.clave, primero);
+            }
+        }
+    }
+
+    // ==================== DIARIO ====================
+
+    private synchronized void anotar(Registro registro) {
+        if (diario == null) {
+            return;
+        }
+        try (PrintWriter writer = new PrintWriter(new FileWriter(diario, true))) {
+            writer.println(registro.clave + ";" + registro.operacion + ";" + registro.referencia + ";" + registro.expira);
+        } catch (IOException e) {
+            System.err.println("Error al anotar la clave de idempotencia: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Carga las claves vigentes del diario y lo reescribe solo con ellas
+     * @return cantidad de claves cargadas
+     */
+    public synchronized int cargar() {
+        if (diario == null || !diario.exists()) {
+            return 0;
+        }
+        long ahora = reloj.getAsLong();
+        ArrayList<Registro> vigentes = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(diario))) {
+            String linea;
+            while ((linea = reader.readLine()) != null) {
+                String[] partes = linea.split(";");
+                if (partes.length != 4) {
+                    continue;
+                }
+                long expira;
+                try {
+                    expira = Long.parseLong(partes[3]);
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                if (expira > ahora) {
+                    Registro registro = new Registro(partes[0], partes[1], expira);
+                    registro.referencia = partes[2];
+                    registro.listo.countDown();
+                    vigentes.add(registro);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error al cargar las claves de idempotencia: " + e.getMessage());
+            return 0;
+        }
+
+        vigentes.sort((a, b) -> Long.compare(a.expira, b.expira));
+        try (PrintWriter writer = new PrintWriter(new FileWriter(diario, false))) {
+            for (Registro registro : vigentes) {
+                if (registros.putIfAbsent(registro.clave, registro) == null) {
+                    orden.add(registro);
+                    recordadas.incrementAndGet();
+                }
+                writer.println(registro.clave + ";" + registro.operacion + ";" + registro.referencia + ";" + registro.expira);
+            }
+        } catch (IOException e) {
+            System.err.println("Error al compactar las claves de idempotencia: " + e.getMessage());
+        }
+        purgar(ahora);
+        return vigentes.size();
+    }
+
+    // ==================== CONSULTAS ====================
+
+    public boolean contiene(String clave) {
+        Registro registro = registros.get(clave);
+        return registro != null && registro.referencia != null && registro.expira > reloj.getAsLong();
+    }
+
+    public int getCantidad() {
+        return recordadas.get();
+    }
+}
@@ -0,0 +1,184 @@
+package modelo.pagos;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import modelo.tiquetes.Tiquete;
+
+/**
+ * Cupo de tiquetes que cada comprador puede tener por evento, sumando todas
+ * sus compras y sesiones. Cada par evento-comprador tiene un contador atómico:
+ * una compra aparta su cantidad con compare-and-set antes de cobrar y la
+ * devuelve si la compra falla o si el tiquete se reembolsa. Dos sesiones del
+ * mismo comprador no pueden pasarse del cupo aunque compren a la vez, y
+ * compradores distintos nunca compiten por el mismo contador.
+ *
+ * Los contadores no se guardan: al iniciar se reconstruyen con los tiquetes
+ * vigentes de las compras aprobadas. Los cupos fijados por evento sí se anotan
+ * en un diario (eventoId;cupo) y al cargarlo vale el último de cada evento.
+ */
+public class CuposCompra {
+    public static final int CUPO_POR_DEFECTO = 10;
+    public static final String ARCHIVO_CUPOS = "data/cupos.csv";
+    private static final String SEPARADOR = ";";
+
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, AtomicInteger>> apartadosPorEvento;
+    private final ConcurrentHashMap<String, Integer> cupoPorEvento;
+    private final File diario; // null si los cupos fijados no se anotan
+
+    public CuposCompra() {
+        this(null);
+    }
+
+    /**
+     * @param diario - archivo donde se anotan los cupos fijados por evento (null para no anotarlos)
+     */
+    public CuposCompra(File diario) {
+        this.apartadosPorEvento = new ConcurrentHashMap<>();
+        this.cupoPorEvento = new ConcurrentHashMap<>();
+        this.diario = diario;
+    }
+
+    private AtomicInteger contador(String eventoId, String login) {
+        return apartadosPorEvento.computeIfAbsent(eventoId, id -> new ConcurrentHashMap<>())
+                                 .computeIfAbsent(login, l -> new AtomicInteger());
+    }
+
+    /**
+     * Aparta tiquetes del cupo del comprador en el evento
+     * @return false si la compra haría pasar al comprador de su cupo
+     */
+    public boolean apartar(String eventoId, String login, int cantidad) {
+        if (cantidad <= 0) {
+            return false;
+        }
+        int cupo = getCupo(eventoId);
+        AtomicInteger apartados = contador(eventoId, login);
+        while (true) {
+            int actuales = apartados.get();
+            if (actuales + cantidad > cupo) {
+                return false;
+            }
+            if (apartados.compareAndSet(actuales, actuales + cantidad)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Devuelve tiquetes al cupo (compra fallida o reembolso)
+     */
+    public void liberar(String eventoId, String login, int cantidad) {
+        ConcurrentHashMap<String, AtomicInteger> delEvento = apartadosPorEvento.get(eventoId);
+        AtomicInteger apartados = delEvento != null ? delEvento.get(login) : null;
+        if (apartados == null || cantidad <= 0) {
+            return;
+        }
+        apartados.getAndUpdate(actuales -> Math.max(0, actuales - cantidad));
+    }
+
+    /**
+     * Olvida los contadores de un evento (por ejemplo, al cancelarlo)
+     */
+    public void liberarEvento(String eventoId) {
+        apartadosPorEvento.remove(eventoId);
+    }
+
+    // ==================== CONFIGURACIÓN Y CONSULTAS ====================
+
+    public void setCupo(String eventoId, int cupo) {
+        if (cupo <= 0) {
+            throw new IllegalArgumentException("El cupo por comprador debe ser positivo");
+        }
+        cupoPorEvento.put(eventoId, cupo);
+        anotar(eventoId, cupo);
+    }
+
+    public int getCupo(String eventoId) {
+        return cupoPorEvento.getOrDefault(eventoId, CUPO_POR_DEFECTO);
+    }
+
+    public int getApartados(String eventoId, String login) {
+        ConcurrentHashMap<String, AtomicInteger> delEvento = apartadosPorEvento.get(eventoId);
+        AtomicInteger apartados = delEvento != null ? delEvento.get(login) : null;
+        return apartados != null ? apartados.get() : 0;
+    }
+
+    public int getDisponibles(String eventoId, String login) {
+        return Math.max(0, getCupo(eventoId) - getApartados(eventoId, login));
+    }
+
+    // ==================== PERSISTENCIA ====================
+
+    private synchronized void anotar(String eventoId, int cupo) {
+        if (diario == null) {
+            return;
+        }
+        File directorio = diario.getParentFile();
+        if (directorio != null) {
+            directorio.mkdirs();
+        }
+        try (PrintWriter writer = new PrintWriter(new FileWriter(diario, true))) {
+            writer.println(eventoId + SEPARADOR + cupo);
+        } catch (IOException e) {
+            System.err.println("Error al anotar el cupo: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Carga los cupos fijados por evento
+     * @return cantidad de líneas aplicadas
+     */
+    public synchronized int cargar() {
+        if (diario == null || !diario.exists()) {
+            return 0;
+        }
+        int cargados = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(diario))) {
+            String linea;
+            while ((linea = reader.readLine()) != null) {
+                String[] partes = linea.split(SEPARADOR);
+                if (partes.length != 2) {
+                    continue;
+                }
+                try {
+                    int cupo = Integer.parseInt(partes[1]);
+                    if (cupo > 0) {
+                        cupoPorEvento.put(partes[0], cupo);
+                        cargados++;
+                    }
+                } catch (NumberFormatException e) {
+                    // Línea incompleta: se ignora
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error al cargar los cupos: " + e.getMessage());
+        }
+        return cargados;
+    }
+
+    /**
+     * Reconstruye los contadores con los tiquetes vigentes de las compras aprobadas.
+     * Un tiquete reembolsado deja de estar vigente, así que ya no cuenta.
+     * Se llama al iniciar, después de cargar las compras.
+     */
+    public void reconstruir(Iterable<Compra> compras) {
+        apartadosPorEvento.clear();
+        for (Compra compra : compras) {
+            if (!compra.estaAprobada() || compra.getComprador() == null) {
+                continue;
+            }
+            for (Tiquete tiquete : compra.getTiquetes()) {
+                if (tiquete.getEvento() != null && tiquete.estaVigente()) {
+                    contador(tiquete.getEvento().getId(), compra.getComprador().getLogin()).incrementAndGet();
+                }
+            }
+        }
+    }
+}
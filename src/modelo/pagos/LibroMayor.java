@@ -0,0 +1,284 @@
+package modelo.pagos;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Libro mayor de las billeteras: registro de solo agregar con cada crédito y
+ * débito de saldo virtual, en centavos. Las billeteras cambian su saldo con
+ * compare-and-set y después anotan el movimiento aquí, sin cerrojos; como cada
+ * movimiento guarda su monto con signo, sumar los de un usuario reconstruye su
+ * saldo sin importar el orden en que llegaron.
+ *
+ * Al iniciar se cargan los movimientos del archivo y la secuencia continúa
+ * desde la mayor guardada, así que la reconstrucción y la auditoría cubren
+ * toda la historia y no solo la ejecución actual. Los movimientos nuevos
+ * quedan además en una cola de pendientes que el guardado vacía, sin recorrer
+ * los ya escritos.
+ */
+public class LibroMayor {
+    public static final String ARCHIVO_LIBRO = "data/libro_mayor.csv";
+    private static final String SEPARADOR = ",";
+
+    public enum TipoMovimiento {
+        APERTURA,  // Saldo cargado desde persistencia o fijado directamente
+        CREDITO,   // Recarga, reembolso o ingreso
+        DEBITO     // Pago con saldo
+    }
+
+    /**
+     * Movimiento inmutable de una billetera
+     */
+    public static class Movimiento {
+        private final long secuencia;
+        private final String login;
+        private final TipoMovimiento tipo;
+        private final long centavos; // con signo: negativo en los débitos
+        private final long saldoResultante;
+        private final Date fecha;
+        private final String concepto;
+
+        Movimiento(long secuencia, String login, TipoMovimiento tipo, long centavos, long saldoResultante, String concepto) {
+            this(secuencia, login, tipo, centavos, saldoResultante, new Date(), concepto);
+        }
+
+        Movimiento(long secuencia, String login, TipoMovimiento tipo, long centavos, long saldoResultante, Date fecha, String concepto) {
+            this.secuencia = secuencia;
+            this.login = login;
+            this.tipo = tipo;
+            this.centavos = centavos;
+            this.saldoResultante = saldoResultante;
+            this.fecha = fecha;
+            this.concepto = concepto;
+        }
+
+        public long getSecuencia() { return secuencia; }
+        public String getLogin() { return login; }
+        public TipoMovimiento getTipo() { return tipo; }
+        public long getCentavos() { return centavos; }
+        public long getSaldoResultante() { return saldoResultante; }
+        public Date getFecha() { return fecha; }
+        public String getConcepto() { return concepto; }
+
+        @Override
+        public String toString() {
+            return "#" + secuencia + " " + login + " " + tipo + " " + aPesos(centavos) + " → " + aPesos(saldoResultante)
+                    + (concepto != null ? " (" + concepto + ")" : "");
+        }
+    }
+
+    private final ConcurrentLinkedQueue<Movimiento> movimientos; // historia completa: cargados y nuevos
+    private final ConcurrentLinkedQueue<Movimiento> pendientes;  // nuevos aún sin escribir en disco
+    private final ConcurrentHashMap<String, Set<String>> conceptosPorLogin; // login -> conceptos de sus movimientos
+    private final AtomicLong secuencia;
+
+    private LibroMayor() {
+        this.movimientos = new ConcurrentLinkedQueue<>();
+        this.pendientes = new ConcurrentLinkedQueue<>();
+        this.conceptosPorLogin = new ConcurrentHashMap<>();
+        this.secuencia = new AtomicLong();
+    }
+
+    // La JVM inicializa esta clase una sola vez y de forma segura entre hilos
+    private static class Contenedor {
+        private static final LibroMayor INSTANCIA = new LibroMayor();
+    }
+
+    public static LibroMayor getInstancia() {
+        return Contenedor.INSTANCIA;
+    }
+
+    // ==================== CONVERSIÓN DE MONTOS ====================
+
+    /**
+     * Convierte un monto en pesos a centavos, redondeando al centavo más cercano
+     */
+    public static long aCentavos(double pesos) {
+        return Math.round(pesos * 100);
+    }
+
+    public static double aPesos(long centavos) {
+        return centavos / 100.0;
+    }
+
+    // ==================== REGISTRO ====================
+
+    /**
+     * Anota un movimiento ya aplicado a la billetera
+     * @param centavos - monto con signo (negativo para débitos)
+     */
+    public Movimiento registrar(String login, TipoMovimiento tipo, long centavos, long saldoResultante, String concepto) {
+        Movimiento movimiento = new Movimiento(secuencia.incrementAndGet(), login, tipo, centavos, saldoResultante, concepto);
+        agregar(movimiento);
+        pendientes.add(movimiento);
+        return movimiento;
+    }
+
+    private void agregar(Movimiento movimiento) {
+        movimientos.add(movimiento);
+        Set<String> conceptos = conceptosPorLogin.computeIfAbsent(movimiento.login, k -> ConcurrentHashMap.newKeySet());
+        if (movimiento.concepto != null) {
+            conceptos.add(movimiento.concepto);
+        }
+    }
+
+    // ==================== CONSULTAS Y AUDITORÍA ====================
+
+    public ArrayList<Movimiento> getMovimientos(String login) {
+        ArrayList<Movimiento> delUsuario = new ArrayList<>();
+        for (Movimiento movimiento : movimientos) {
+            if (movimiento.login.equals(login)) {
+                delUsuario.add(movimiento);
+            }
+        }
+        return delUsuario;
+    }
+
+    /**
+     * @return true si el usuario ya tiene un movimiento con ese concepto
+     */
+    public boolean tieneMovimiento(String login, String concepto) {
+        Set<String> conceptos = conceptosPorLogin.get(login);
+        return conceptos != null && conceptos.contains(concepto);
+    }
+
+    /**
+     * @return true si el usuario tiene algún movimiento, cargado o nuevo
+     */
+    public boolean tieneHistoria(String login) {
+        return conceptosPorLogin.containsKey(login);
+    }
+
+    public int getCantidadMovimientos() {
+        return movimientos.size();
+    }
+
+    public int getCantidadPendientes() {
+        return pendientes.size();
+    }
+
+    public long getUltimaSecuencia() {
+        return secuencia.get();
+    }
+
+    /**
+     * Reconstruye el saldo de cada billetera sumando sus movimientos.
+     * Una apertura reemplaza el saldo anterior; los créditos y débitos se suman.
+     * @return centavos por login
+     */
+    public HashMap<String, Long> reconstruirSaldos() {
+        HashMap<String, Long> saldos = new HashMap<>();
+        HashMap<String, Long> ultimaApertura = new HashMap<>();
+        for (Movimiento movimiento : movimientos) {
+            if (movimiento.tipo == TipoMovimiento.APERTURA) {
+                // Aperturas concurrentes con otros movimientos del mismo usuario no ocurren
+                // (solo se abren billeteras al cargar); la última por secuencia manda
+                Long anterior = ultimaApertura.get(movimiento.login);
+                if (anterior == null || anterior < movimiento.secuencia) {
+                    ultimaApertura.put(movimiento.login, movimiento.secuencia);
+                }
+            }
+        }
+        for (Movimiento movimiento : movimientos) {
+            Long apertura = ultimaApertura.get(movimiento.login);
+            if (apertura != null && movimiento.secuencia < apertura) {
+                continue;
+            }
+            saldos.merge(movimiento.login, movimiento.centavos, Long::sum);
+        }
+        return saldos;
+    }
+
+    /**
+     * Compara los saldos reconstruidos con los saldos vigentes
+     * @param saldosActuales - centavos por login de las billeteras
+     * @return logins cuyo saldo no coincide con el libro
+     */
+    public ArrayList<String> auditar(Map<String, Long> saldosActuales) {
+        HashMap<String, Long> reconstruidos = reconstruirSaldos();
+        ArrayList<String> descuadres = new ArrayList<>();
+        for (Map.Entry<String, Long> saldo : saldosActuales.entrySet()) {
+            long esperado = reconstruidos.getOrDefault(saldo.getKey(), 0L);
+            if (esperado != saldo.getValue()) {
+                descuadres.add(saldo.getKey());
+            }
+        }
+        return descuadres;
+    }
+
+    // ==================== PERSISTENCIA ====================
+
+    /**
+     * Carga los movimientos guardados y continúa la secuencia desde la mayor del archivo.
+     * Se llama al iniciar, antes de abrir las billeteras, para que sus aperturas queden
+     * después de la historia cargada. Los movimientos cargados no vuelven a escribirse.
+     * @return cantidad de movimientos cargados
+     */
+    public synchronized int cargar(File archivo) {
+        if (!archivo.exists()) {
+            return 0;
+        }
+        int cargados = 0;
+        long mayor = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(archivo))) {
+            String linea = reader.readLine(); // encabezado
+            while ((linea = reader.readLine()) != null) {
+                String[] campos = linea.split(SEPARADOR, 7);
+                if (campos.length < 7) {
+                    continue;
+                }
+                try {
+                    Movimiento movimiento = new Movimiento(Long.parseLong(campos[0]), campos[1],
+                            TipoMovimiento.valueOf(campos[2]), Long.parseLong(campos[3]), Long.parseLong(campos[4]),
+                            new Date(Long.parseLong(campos[5])), campos[6].isEmpty() ? null : campos[6]);
+                    agregar(movimiento);
+                    mayor = Math.max(mayor, movimiento.secuencia);
+                    cargados++;
+                } catch (IllegalArgumentException e) {
+                    System.out.println("Error: Movimiento inválido en el libro mayor: " + linea);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error al cargar el libro mayor: " + e.getMessage());
+        }
+        secuencia.accumulateAndGet(mayor, Math::max);
+        return cargados;
+    }
+
+    /**
+     * Agrega al archivo los movimientos pendientes, vaciando su cola.
+     * El archivo solo crece: nunca se reescriben movimientos anteriores.
+     */
+    public synchronized void guardarNuevos(File archivo) {
+        if (archivo.getParentFile() != null) {
+            archivo.getParentFile().mkdirs();
+        }
+        boolean nuevo = !archivo.exists();
+        try (PrintWriter writer = new PrintWriter(new FileWriter(archivo, true))) {
+            if (nuevo) {
+                writer.println("secuencia,login,tipo,centavos,saldoResultante,fecha,concepto");
+            }
+            Movimiento movimiento;
+            while ((movimiento = pendientes.poll()) != null) {
+                writer.println(movimiento.secuencia + SEPARADOR + movimiento.login + SEPARADOR + movimiento.tipo
+                        + SEPARADOR + movimiento.centavos + SEPARADOR + movimiento.saldoResultante
+                        + SEPARADOR + movimiento.fecha.getTime() + SEPARADOR
+                        + (movimiento.concepto != null ? movimiento.concepto.replace(SEPARADOR, " ") : ""));
+            }
+        } catch (IOException e) {
+            System.err.println("Error al guardar el libro mayor: " + e.getMessage());
+        }
+    }
+}
@@ -9,20 +9,20 @@ import java.util.ArrayList;
  * Clase Service Provider que se encarga de todos los cálculos y procesos de pago.
  */
 public class Pagos {
-    private static Pagos instancia;
-    
     private Pagos() {
         // Constructor privado para evitar instanciación directa
     }
     
+    // La JVM inicializa esta clase una sola vez y de forma segura entre hilos
+    private static class Contenedor {
+        private static final Pagos INSTANCIA = new Pagos();
+    }
+    
     /**
      * Método Singleton para obtener la instancia única
      */
     public static Pagos getInstancia() {
-        if (instancia == null) {
-            instancia = new Pagos();
-        }
-        return instancia;
+        return Contenedor.INSTANCIA;
     }
     
     // ==================== CÁLCULOS DE PRECIO ====================
@@ -67,27 +67,49 @@ public class Pagos {
     private double calcularSubtotal(ArrayList<Tiquete> tiquetes) {
         double subtotal = 0.0;
         for (Tiquete tiquete : tiquetes) {
-            // Considerar ofertas en el precio
-            double precioTiquete = tiquete.getPrecioBase();
-            
-            // Verificar si la localidad tiene ofertas vigentes
-            modelo.eventos.Localidad localidad = tiquete.getLocalidad();
-            if (localidad != null && localidad.tieneOfertasVigentes()) {
-                precioTiquete = localidad.getPrecioConOfertas();
-            }
-            
-            if (tiquete instanceof EntradaMultiple) {
-                // Para entrada múltiple, usamos el precio con descuento
-                EntradaMultiple entradaMultiple = (EntradaMultiple) tiquete;
-                subtotal += entradaMultiple.getPrecioConDescuento();
-            } else {
-                // Para tiquetes normales y Deluxe, usamos el precio (que puede incluir ofertas)
-                subtotal += precioTiquete;
-            }
+            subtotal += calcularPrecioTiquete(tiquete);
         }
         return subtotal;
     }
     
+    /**
+     * Calcula lo que se cobra por un tiquete antes de cargos adicionales.
+     * Un tiquete ya cobrado conserva su precio aunque después cambie el de la localidad.
+     * @param tiquete - tiquete a cobrar
+     * @return precio del tiquete (con precio dinámico, ofertas o descuento de entrada múltiple)
+     */
+    public double calcularPrecioTiquete(Tiquete tiquete) {
+        if (tiquete.tienePrecioPagado()) {
+            return tiquete.getPrecioPagado();
+        }
+        if (tiquete instanceof EntradaMultiple) {
+            // Para entrada múltiple, usamos el precio con descuento
+            return ((EntradaMultiple) tiquete).getPrecioConDescuento();
+        }
+        
+        // Para tiquetes normales y Deluxe, usamos el precio (que puede incluir ofertas)
+        double precioTiquete = tiquete.getPrecioBase();
+        
+        // Verificar si la localidad tiene precio dinámico u ofertas vigentes
+        modelo.eventos.Localidad localidad = tiquete.getLocalidad();
+        if (localidad != null && (localidad.tienePrecioDinamico(tiquete.getEvento()) || localidad.tieneOfertasVigentes())) {
+            precioTiquete = localidad.getPrecioVigente(tiquete.getEvento());
+        }
+        return precioTiquete;
+    }
+    
+    /**
+     * Fija en cada tiquete el precio que se le cobra en este momento, antes de
+     * calcular el total: el total y los reembolsos salen de ese precio
+     */
+    public void fijarPreciosPagados(ArrayList<Tiquete> tiquetes) {
+        for (Tiquete tiquete : tiquetes) {
+            if (!tiquete.tienePrecioPagado()) {
+                tiquete.setPrecioPagado(calcularPrecioTiquete(tiquete));
+            }
+        }
+    }
+    
     /**
      * Aplica descuentos por ofertas a un precio base
      */
@@ -111,20 +133,28 @@ public class Pagos {
         double montoReembolso;
         
         if (esCancelacionEvento) {
-            // CORRECCIÓN: Por cancelación: precio base MENOS costo de emisión
-            montoReembolso = Math.max(0, tiquete.getPrecioBase() - cobroFijo);
+            // CORRECCIÓN: Por cancelación: precio pagado MENOS costo de emisión
+            montoReembolso = calcularReembolsoCancelacion(tiquete, cobroFijo);
             System.out.println("Reembolso por cancelación: $" + montoReembolso + 
-                             " (precio base: $" + tiquete.getPrecioBase() + 
+                             " (precio pagado: $" + tiquete.getPrecioPagado() + 
                              " - costo emisión: $" + cobroFijo + ")");
         } else {
-            // Por calamidad: solo se reembolsa precio base (según requerimientos)
-            montoReembolso = tiquete.getPrecioBase();
-            System.out.println("Reembolso por calamidad: $" + montoReembolso + " (precio base)");
+            // Por calamidad: solo se reembolsa el precio pagado, sin cargos (según requerimientos)
+            montoReembolso = tiquete.getPrecioPagado();
+            System.out.println("Reembolso por calamidad: $" + montoReembolso + " (precio pagado)");
         }
         
         return montoReembolso;
     }
     
+    /**
+     * Monto a reembolsar por cancelación del evento (sin mensajes por consola,
+     * para los reembolsos masivos)
+     */
+    public double calcularReembolsoCancelacion(Tiquete tiquete, double cobroFijo) {
+        return Math.max(0, tiquete.getPrecioPagado() - cobroFijo);
+    }
+    
     // ==================== PROCESOS DE PAGO ====================
     
     /**
@@ -134,10 +164,8 @@ public class Pagos {
      * @return true si el pago fue exitoso
      */
     public boolean procesarPagoConSaldo(Usuario usuario, double montoTotal) {
-        if (usuario.getSaldoVirtual() >= montoTotal) {
-            double nuevoSaldo = usuario.getSaldoVirtual() - montoTotal;
-            usuario.setSaldoVirtual(nuevoSaldo);
-            System.out.println("Pago exitoso. Saldo restante: $" + nuevoSaldo);
+        if (usuario.debitar(LibroMayor.aCentavos(montoTotal), "Pago con saldo")) {
+            System.out.println("Pago exitoso. Saldo restante: $" + usuario.getSaldoVirtual());
             return true;
         } else {
             System.out.println("Error: Saldo insuficiente. Saldo actual: $" + usuario.getSaldoVirtual() + ", Required: $" + montoTotal);
@@ -226,7 +254,7 @@ public class Pagos {
      */
     public void procesarReembolsoSaldo(Usuario usuario, double monto, String motivo) {
         if (monto > 0) {
-            usuario.agregarSaldo(monto);
+            usuario.acreditar(LibroMayor.aCentavos(monto), "Reembolso: " + motivo);
             System.out.println("Reembolso procesado: $" + monto + " agregado al saldo de " + usuario.getLogin());
             System.out.println("Motivo: " + motivo);
             System.out.println("Nuevo saldo: $" + usuario.getSaldoVirtual());
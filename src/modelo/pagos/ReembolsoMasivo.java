@@ -0,0 +1,343 @@
+package modelo.pagos;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.DoubleAdder;
+
+import modelo.eventos.Evento;
+import modelo.tiquetes.Tiquete;
+import modelo.usuarios.Usuario;
+
+/**
+ * Trabajo de reembolsos masivos por cancelación de un evento.
+ * Los tiquetes afectados se reparten entre varios hilos según su propietario,
+ * de modo que cada billetera la acredita un solo hilo. Cada hilo avanza por
+ * lotes: anota en el archivo de punto de control la intención de reembolsar
+ * los tiquetes del lote, acredita cada tiquete con un concepto que lleva su id,
+ * los marca como utilizados, lleva billeteras y libro mayor a disco y recién
+ * entonces anota el lote como acreditado: una confirmación nunca se adelanta
+ * a los saldos guardados.
+ *
+ * Un tiquete solo se reembolsa si sigue vigente y no aparece acreditado en el
+ * punto de control, así que volver a ejecutar el trabajo tras una interrupción
+ * continúa donde quedó. Si la interrupción cayó entre la intención y la
+ * confirmación, el libro mayor dice si el crédito del tiquete ya se aplicó,
+ * así que tampoco en ese caso se paga dos veces.
+ */
+public class ReembolsoMasivo {
+    public static final int TAMANO_LOTE_POR_DEFECTO = 256;
+    public static final int HILOS_POR_DEFECTO = Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors()));
+
+    private static final String SEPARADOR = ";";
+    private static final String INTENCION = "INTENCION"; // cuarto campo de las líneas escritas antes de acreditar
+
+    private final Evento evento;
+    private final double cobroFijo;
+    private final File archivoControl; // null si no se guarda punto de control
+    private final Runnable guardado;    // guarda billeteras y libro mayor antes de confirmar un lote (o null)
+
+    private final Set<String> reembolsados; // ids de tiquetes ya reembolsados
+    private final Set<String> intenciones;  // ids con intención anotada pero sin confirmar
+    private final AtomicInteger procesados;
+    private final DoubleAdder montoReembolsado;
+    private volatile int total;
+    private volatile boolean detenido;
+    private volatile boolean terminado;
+    private volatile long inicioNanos;
+    private volatile long finNanos;
+    private PrintWriter escritor;
+
+    /**
+     * @param evento - evento cancelado
+     * @param cobroFijo - costo de emisión que no se reembolsa
+     * @param archivoControl - archivo del punto de control (null para no guardarlo)
+     */
+    public ReembolsoMasivo(Evento evento, double cobroFijo, File archivoControl) {
+        this(evento, cobroFijo, archivoControl, null);
+    }
+
+    /**
+     * @param guardado - lleva a disco billeteras y libro mayor; se llama después de acreditar
+     *                   cada lote y antes de anotarlo como acreditado (null para no guardar)
+     */
+    public ReembolsoMasivo(Evento evento, double cobroFijo, File archivoControl, Runnable guardado) {
+        this.evento = evento;
+        this.cobroFijo = cobroFijo;
+        this.archivoControl = archivoControl;
+        this.guardado = guardado;
+        this.reembolsados = ConcurrentHashMap.newKeySet();
+        this.intenciones = ConcurrentHashMap.newKeySet();
+        this.procesados = new AtomicInteger();
+        this.montoReembolsado = new DoubleAdder();
+        cargarPuntoDeControl();
+    }
+
+    // ==================== EJECUCIÓN ====================
+
+    /**
+     * Ejecuta los reembolsos pendientes y espera a que terminen
+     * @param tenedores - propietario actual -> tiquetes del evento
+     * @param hilos - cantidad de hilos de trabajo
+     * @param tamanoLote - tiquetes por lote
+     * @return true si se reembolsaron todos los tiquetes pendientes
+     */
+    public boolean ejecutar(LinkedHashMap<Usuario, ArrayList<Tiquete>> tenedores, int hilos, int tamanoLote) {
+        if (hilos <= 0 || tamanoLote <= 0) {
+            throw new IllegalArgumentException("Los hilos y el tamaño de lote deben ser positivos");
+        }
+
+        // Repartir por propietario: cada billetera queda en una sola partición
+        ArrayList<ArrayList<Pendiente>> particiones = new ArrayList<>(hilos);
+        for (int i = 0; i < hilos; i++) {
+            particiones.add(new ArrayList<>());
+        }
+        int pendientes = 0;
+        for (Map.Entry<Usuario, ArrayList<Tiquete>> entrada : tenedores.entrySet()) {
+            int particion = Math.floorMod(entrada.getKey().getLogin().hashCode(), hilos);
+            for (Tiquete tiquete : entrada.getValue()) {
+                if (!reembolsados.contains(tiquete.getId()) && esPendiente(tiquete)) {
+                    particiones.get(particion).add(new Pendiente(entrada.getKey(), tiquete));
+                    pendientes++;
+                }
+            }
+        }
+
+        total = procesados.get() + pendientes;
+        detenido = false;
+        terminado = false;
+        inicioNanos = System.nanoTime();
+        abrirPuntoDeControl();
+
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        for (ArrayList<Pendiente> particion : particiones) {
+            if (!particion.isEmpty()) {
+                ejecutor.submit(() -> procesarParticion(particion, tamanoLote));
+            }
+        }
+        ejecutor.shutdown();
+        try {
+            ejecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            detenido = true;
+        }
+
+        cerrarPuntoDeControl();
+        finNanos = System.nanoTime();
+        terminado = procesados.get() == total;
+        return terminado;
+    }
+
+    /**
+     * Pide a los hilos que paren al terminar el lote en curso.
+     * El trabajo se puede reanudar ejecutándolo de nuevo con el mismo punto de control.
+     */
+    public void detener() {
+        detenido = true;
+    }
+
+    private void procesarParticion(ArrayList<Pendiente> particion, int tamanoLote) {
+        for (int desde = 0; desde < particion.size() && !detenido; desde += tamanoLote) {
+            procesarLote(particion.subList(desde, Math.min(desde + tamanoLote, particion.size())));
+        }
+    }
+
+    private void procesarLote(List<Pendiente> lote) {
+        Pagos servicioPagos = Pagos.getInstancia();
+        ArrayList<Pendiente> aplicados = new ArrayList<>(lote.size());
+
+        for (Pendiente pendiente : lote) {
+            // Otro hilo o una ejecución anterior ya pudo reembolsarlo
+            if (!esPendiente(pendiente.tiquete) || !reembolsados.add(pendiente.tiquete.getId())) {
+                continue;
+            }
+            pendiente.monto = servicioPagos.calcularReembolsoCancelacion(pendiente.tiquete, cobroFijo);
+            aplicados.add(pendiente);
+        }
+
+        // La intención queda en disco antes de mover dinero
+        anotarLote(aplicados, true);
+
+        // Un crédito por tiquete, con su id en el concepto; si la intención venía de
+        // una ejecución interrumpida, el libro mayor dice si ya se había aplicado
+        long centavosLote = 0;
+        for (Pendiente pendiente : aplicados) {
+            long centavos = LibroMayor.aCentavos(pendiente.monto);
+            String concepto = conceptoReembolso(pendiente.tiquete);
+            boolean yaAcreditado = intenciones.remove(pendiente.tiquete.getId())
+                    && LibroMayor.getInstancia().tieneMovimiento(pendiente.usuario.getLogin(), concepto);
+            if (centavos > 0 && !yaAcreditado) {
+                pendiente.usuario.acreditar(centavos, concepto);
+            }
+            centavosLote += centavos;
+        }
+        double montoLote = LibroMayor.aPesos(centavosLote);
+        for (Pendiente pendiente : aplicados) {
+            pendiente.tiquete.marcarComoUtilizado();
+        }
+        if (guardado != null && !aplicados.isEmpty()) {
+            try {
+                guardado.run();
+            } catch (RuntimeException e) {
+                // Sin confirmación: al reanudar, el libro mayor guardado dice qué se acreditó
+                System.out.println("Error: No se pudieron guardar los reembolsos del lote: " + e.getMessage());
+                detenido = true;
+                return;
+            }
+        }
+        anotarLote(aplicados, false);
+
+        montoReembolsado.add(montoLote);
+        procesados.addAndGet(aplicados.size());
+    }
+
+    /**
+     * Un tiquete con intención anotada sigue pendiente aunque ya no esté vigente:
+     * pudo marcarse como utilizado en el lote interrumpido, y falta confirmarlo
+     */
+    private boolean esPendiente(Tiquete tiquete) {
+        return tiquete.estaVigente() || intenciones.contains(tiquete.getId());
+    }
+
+    private String conceptoReembolso(Tiquete tiquete) {
+        return "Reembolso por cancelación de " + evento.getId() + ": " + tiquete.getId();
+    }
+
+    // ==================== PUNTO DE CONTROL ====================
+
+    private void cargarPuntoDeControl() {
+        if (archivoControl == null || !archivoControl.exists()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(archivoControl))) {
+            String linea;
+            while ((linea = reader.readLine()) != null) {
+                String[] partes = linea.split(SEPARADOR);
+                if (partes.length == 4 && INTENCION.equals(partes[3])) {
+                    intenciones.add(partes[0]);
+                } else if (partes.length == 3 && reembolsados.add(partes[0])) {
+                    procesados.incrementAndGet();
+                    montoReembolsado.add(Double.parseDouble(partes[2]));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Error al cargar el punto de control de reembolsos: " + e.getMessage());
+        }
+    }
+
+    private void abrirPuntoDeControl() {
+        if (archivoControl == null) {
+            return;
+        }
+        File directorio = archivoControl.getParentFile();
+        if (directorio != null && !directorio.exists()) {
+            directorio.mkdirs();
+        }
+        try {
+            escritor = new PrintWriter(new FileWriter(archivoControl, true));
+        } catch (IOException e) {
+            System.err.println("Error al abrir el punto de control de reembolsos: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Anota los tiquetes de un lote: tiquete;login;monto;INTENCION antes de acreditar
+     * y tiquete;login;monto una vez acreditados
+     */
+    private void anotarLote(ArrayList<Pendiente> aplicados, boolean intencion) {
+        if (escritor == null || aplicados.isEmpty()) {
+            return;
+        }
+        StringBuilder lineas = new StringBuilder();
+        for (Pendiente pendiente : aplicados) {
+            lineas.append(pendiente.tiquete.getId()).append(SEPARADOR)
+                  .append(pendiente.usuario.getLogin()).append(SEPARADOR)
+                  .append(pendiente.monto);
+            if (intencion) {
+                lineas.append(SEPARADOR).append(INTENCION);
+            }
+            lineas.append(System.lineSeparator());
+        }
+        synchronized (escritor) {
+            escritor.print(lineas);
+            escritor.flush();
+        }
+    }
+
+    private void cerrarPuntoDeControl() {
+        if (escritor != null) {
+            escritor.close();
+            escritor = null;
+        }
+    }
+
+    // ==================== PROGRESO ====================
+
+    public Evento getEvento() { return evento; }
+    public int getTotal() { return total; }
+    public int getProcesados() { return procesados.get(); }
+    public double getMontoReembolsado() { return montoReembolsado.sum(); }
+    public boolean estaTerminado() { return terminado; }
+
+    public boolean fueReembolsado(Tiquete tiquete) {
+        return tiquete != null && reembolsados.contains(tiquete.getId());
+    }
+
+    /**
+     * @return ids de los tiquetes ya reembolsados (incluye los de ejecuciones anteriores)
+     */
+    public ArrayList<String> getReembolsados() {
+        return new ArrayList<>(reembolsados);
+    }
+
+    /**
+     * @return porcentaje de tiquetes reembolsados (0 a 100)
+     */
+    public double getPorcentajeAvance() {
+        return total == 0 ? 100.0 : procesados.get() * 100.0 / total;
+    }
+
+    /**
+     * @return tiquetes reembolsados por segundo en la última ejecución
+     */
+    public double getTiquetesPorSegundo() {
+        if (inicioNanos == 0) {
+            return 0;
+        }
+        long fin = finNanos > inicioNanos ? finNanos : System.nanoTime();
+        double segundos = (fin - inicioNanos) / 1e9;
+        return segundos > 0 ? procesados.get() / segundos : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Reembolsos %s: %d/%d (%.1f%%), $%.2f, %.0f tiquetes/s",
+                             evento != null ? evento.getNombre() : "-", getProcesados(), getTotal(),
+                             getPorcentajeAvance(), getMontoReembolsado(), getTiquetesPorSegundo());
+    }
+
+    private static class Pendiente {
+        private final Usuario usuario;
+        private final Tiquete tiquete;
+        private double monto;
+
+        Pendiente(Usuario usuario, Tiquete tiquete) {
+            this.usuario = usuario;
+            this.tiquete = tiquete;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package modelo.pagos;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+
+import modelo.tiquetes.Tiquete;
+import modelo.usuarios.Usuario;
+
+/**
+ * Compras aprobadas del sistema, por id.
+ * Cada compra se anota en un diario al aprobarse y al cargarlo se reconstruye,
+ * así que una repetición con clave de idempotencia encuentra su compra aunque
+ * el sistema se haya reiniciado. La búsqueda por id es O(1).
+ *
+ * Formato de una línea: id;login;fecha;monto;estado;tiquete1,tiquete2,...
+ */
+public class RegistroCompras {
+    public static final String ARCHIVO_COMPRAS = "data/compras.csv";
+    private static final String SEPARADOR = ";";
+    private static final String SEPARADOR_TIQUETES = ",";
+
+    private final File diario;
+    private final ConcurrentHashMap<String, Compra> porId;
+    private final ConcurrentLinkedQueue<Compra> enOrden; // en orden de registro
+
+    /**
+     * @param diario - archivo donde se anotan las compras (null para no anotarlas)
+     */
+    public RegistroCompras(File diario) {
+        this.diario = diario;
+        this.porId = new ConcurrentHashMap<>();
+        this.enOrden = new ConcurrentLinkedQueue<>();
+    }
+
+    // ==================== REGISTRO ====================
+
+    /**
+     * Agrega una compra y la anota en el diario
+     * @return false si ya había una compra con ese id
+     */
+    public boolean registrar(Compra compra) {
+        if (compra == null || porId.putIfAbsent(compra.getId(), compra) != null) {
+            return false;
+        }
+        enOrden.add(compra);
+        anotar(compra);
+        return true;
+    }
+
+    // ==================== CONSULTAS ====================
+
+    public Compra buscar(String id) {
+        return id != null ? porId.get(id) : null;
+    }
+
+    public ArrayList<Compra> getCompras() {
+        return new ArrayList<>(enOrden);
+    }
+
+    public int getCantidad() {
+        return porId.size();
+    }
+
+    // ==================== DIARIO ====================
+
+    private synchronized void anotar(Compra compra) {
+        if (diario == null) {
+            return;
+        }
+        File directorio = diario.getParentFile();
+        if (directorio != null) {
+            directorio.mkdirs();
+        }
+        StringBuilder tiquetes = new StringBuilder();
+        for (Tiquete tiquete : compra.getTiquetes()) {
+            if (tiquetes.length() > 0) {
+                tiquetes.append(SEPARADOR_TIQUETES);
+            }
+            tiquetes.append(tiquete.getId());
+        }
+        try (PrintWriter writer = new PrintWriter(new FileWriter(diario, true))) {
+            writer.println(compra.getId() + SEPARADOR + compra.getComprador().getLogin() + SEPARADOR
+                    + compra.getFecha().getTime() + SEPARADOR + compra.getMontoTotal() + SEPARADOR
+                    + compra.getEstado() + SEPARADOR + tiquetes);
+        } catch (IOException e) {
+            System.err.println("Error al anotar la compra: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reconstruye las compras del diario. Se llama al iniciar, después de cargar
+     * usuarios y tiquetes; los tiquetes que ya no se encuentran se omiten.
+     * @param usuarios - busca un usuario por login
+     * @param tiquetes - busca un tiquete por id
+     * @return cantidad de compras cargadas
+     */
+    public synchronized int cargar(Function<String, Usuario> usuarios, Function<String, Tiquete> tiquetes) {
+        if (diario == null || !diario.exists()) {
+            return 0;
+        }
+        int cargadas = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(diario))) {
+            String linea;
+            while ((linea = reader.readLine()) != null) {
+                String[] partes = linea.split(SEPARADOR, -1);
+                if (partes.length != 6 || porId.containsKey(partes[0])) {
+                    continue;
+                }
+                Usuario comprador = usuarios.apply(partes[1]);
+                if (comprador == null) {
+                    System.out.println("Error: Comprador no encontrado para la compra " + partes[0]);
+                    continue;
+                }
+                try {
+                    ArrayList<Tiquete> comprados = new ArrayList<>();
+                    for (String tiqueteId : partes[5].split(SEPARADOR_TIQUETES)) {
+                        Tiquete tiquete = tiqueteId.isEmpty() ? null : tiquetes.apply(tiqueteId);
+                        if (tiquete != null) {
+                            comprados.add(tiquete);
+                        }
+                    }
+                    Compra compra = new Compra(partes[0], new Date(Long.parseLong(partes[2])),
+                                               Double.parseDouble(partes[3]), comprados, comprador);
+                    compra.setEstado(partes[4]);
+                    porId.put(compra.getId(), compra);
+                    enOrden.add(compra);
+                    cargadas++;
+                } catch (NumberFormatException e) {
+                    // Línea incompleta (p. ej. un corte a mitad de escritura): se ignora
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error al cargar las compras: " + e.getMessage());
+        }
+        return cargadas;
+    }
+}
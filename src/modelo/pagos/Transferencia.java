@@ -0,0 +1,70 @@
+package modelo.pagos;
+
+import java.util.ArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+
+import modelo.usuarios.Usuario;
+
+/**
+ * Transferencia atómica entre billeteras: debita al pagador, acredita al
+ * receptor y, si hay comisión, a la cuenta de la plataforma, y aplica a la vez
+ * un traspaso asociado (por ejemplo, el tiquete de una reventa).
+ *
+ * Los cerrojos de todas las cuentas se toman en el orden global de
+ * CerrojosCuenta, así que las transferencias concurrentes no se bloquean entre
+ * sí. El traspaso se valida con los cerrojos ya tomados y el débito es el único
+ * paso que puede fallar; si falla no se ha cambiado nada.
+ */
+public final class Transferencia {
+
+    /**
+     * Cambio que acompaña al movimiento de dinero y debe ocurrir con él
+     */
+    public interface Traspaso {
+        /**
+         * @return false si el traspaso ya no es posible (se cancela la transferencia)
+         */
+        boolean validar();
+
+        void aplicar();
+    }
+
+    private Transferencia() {
+    }
+
+    /**
+     * Ejecuta la transferencia completa o no hace nada
+     * @param centavos - monto que paga el pagador
+     * @param plataforma - cuenta que recibe la comisión (puede ser null si la comisión es 0)
+     * @param comisionCentavos - parte del monto que va a la plataforma en vez del receptor
+     * @param traspaso - cambio asociado (puede ser null)
+     * @return true si se movió el dinero y se aplicó el traspaso
+     */
+    public static boolean ejecutar(Usuario pagador, Usuario receptor, long centavos, Usuario plataforma,
+                                   long comisionCentavos, String concepto, Traspaso traspaso) {
+        if (pagador == null || receptor == null || centavos < 0 || comisionCentavos < 0 || comisionCentavos > centavos
+                || (comisionCentavos > 0 && plataforma == null)) {
+            throw new IllegalArgumentException("Transferencia inválida");
+        }
+
+        ArrayList<ReentrantLock> cerrojos = CerrojosCuenta.bloquear(pagador, receptor, plataforma);
+        try {
+            if (traspaso != null && !traspaso.validar()) {
+                return false;
+            }
+            if (!pagador.debitar(centavos, concepto)) {
+                return false;
+            }
+            receptor.acreditar(centavos - comisionCentavos, concepto);
+            if (comisionCentavos > 0) {
+                plataforma.acreditar(comisionCentavos, "Comisión: " + concepto);
+            }
+            if (traspaso != null) {
+                traspaso.aplicar();
+            }
+            return true;
+        } finally {
+            CerrojosCuenta.liberar(cerrojos);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package modelo.persistencia;
+
+import modelo.eventos.Evento;
+import modelo.eventos.Venue;
+import modelo.usuarios.Administrador;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * Moderación en lote de lo que espera una decisión del administrador: eventos
+ * sin aprobar, venues sugeridos y solicitudes pendientes.
+ * Los pendientes se listan por páginas, ordenados por id y filtrados por
+ * organizador o venue. Una decisión (aprobar o rechazar) se aplica a todo un
+ * conjunto de ids a la vez, resolviéndolos con un mapa por id en vez de buscar
+ * cada uno en las listas del gestor; el llamador guarda los datos una sola vez.
+ */
+public class ColaAprobaciones {
+    public static final int TAMANO_PAGINA_POR_DEFECTO = 20;
+
+    public enum TipoPendiente {
+        EVENTO,
+        VENUE,
+        SOLICITUD
+    }
+
+    /**
+     * Elemento pendiente de moderación
+     */
+    public static class Pendiente {
+        private final TipoPendiente tipo;
+        private final String id;
+        private final String descripcion;
+        private final String organizador; // login de quien lo creó o solicitó (puede ser null)
+        private final String venueId;     // puede ser null
+        private final Date fecha;
+        private final Object elemento;    // Evento, Venue o Solicitud
+
+        Pendiente(TipoPendiente tipo, String id, String descripcion, String organizador, String venueId,
+                  Date fecha, Object elemento) {
+            this.tipo = tipo;
+            this.id = id;
+            this.descripcion = descripcion;
+            this.organizador = organizador;
+            this.venueId = venueId;
+            this.fecha = fecha;
+            this.elemento = elemento;
+        }
+
+        public TipoPendiente getTipo() { return tipo; }
+        public String getId() { return id; }
+        public String getDescripcion() { return descripcion; }
+        public String getOrganizador() { return organizador; }
+        public String getVenueId() { return venueId; }
+        public Date getFecha() { return fecha; }
+        public Object getElemento() { return elemento; }
+
+        @Override
+        public String toString() {
+            return tipo + " " + id + " - " + descripcion +
+                   (organizador != null ? " | Organizador: " + organizador : "") +
+                   (venueId != null ? " | Venue: " + venueId : "");
+        }
+    }
+
+    /**
+     * Página de pendientes; el cursor es opaco y sirve para pedir la siguiente
+     */
+    public static class Pagina {
+        private final ArrayList<Pendiente> pendientes;
+        private final int total;
+        private final String cursorSiguiente; // null si no hay más páginas
+
+        Pagina(ArrayList<Pendiente> pendientes, int total, String cursorSiguiente) {
+            this.pendientes = pendientes;
+            this.total = total;
+            this.cursorSiguiente = cursorSiguiente;
+        }
+
+        public ArrayList<Pendiente> getPendientes() { return new ArrayList<>(pendientes); }
+        public int getTotal() { return total; }
+        public String getCursorSiguiente() { return cursorSiguiente; }
+        public boolean tieneSiguiente() { return cursorSiguiente != null; }
+    }
+
+    /**
+     * Resultado de moderar un lote
+     */
+    public static class ResultadoLote {
+        private final ArrayList<String> resueltos = new ArrayList<>();
+        private final ArrayList<String> noEncontrados = new ArrayList<>();
+
+        public ArrayList<String> getResueltos() { return new ArrayList<>(resueltos); }
+        public ArrayList<String> getNoEncontrados() { return new ArrayList<>(noEncontrados); }
+        public int getCantidadResueltos() { return resueltos.size(); }
+
+        @Override
+        public String toString() {
+            return resueltos.size() + " resueltos, " + noEncontrados.size() + " no encontrados o ya resueltos";
+        }
+    }
+
+    private final GestorPersistencia gestor;
+
+    public ColaAprobaciones(GestorPersistencia gestor) {
+        this.gestor = gestor;
+    }
+
+    // ==================== CONSULTA ====================
+
+    /**
+     * Lista una página de pendientes
+     * @param organizador - login del organizador o solicitante (null = todos)
+     * @param venueId - id del venue (null = todos)
+     * @param cursor - cursor de la página anterior (null = primera página)
+     * @param tamano - máximo de elementos por página
+     */
+    public Pagina listar(TipoPendiente tipo, String organizador, String venueId, String cursor, int tamano) {
+        if (tamano <= 0) {
+            throw new IllegalArgumentException("El tamaño de página debe ser positivo");
+        }
+        ArrayList<Pendiente> filtrados = new ArrayList<>();
+        for (Pendiente pendiente : pendientes(tipo)) {
+            if (organizador != null && !organizador.equals(pendiente.organizador)) {
+                continue;
+            }
+            if (venueId != null && !venueId.equals(pendiente.venueId)) {
+                continue;
+            }
+            filtrados.add(pendiente);
+        }
+        filtrados.sort(Comparator.comparing(Pendiente::getId));
+
+        int inicio = 0;
+        if (cursor != null) {
+            // Primer id mayor que el último de la página anterior
+            int bajo = 0;
+            int alto = filtrados.size();
+            while (bajo < alto) {
+                int medio = (bajo + alto) >>> 1;
+                if (filtrados.get(medio).id.compareTo(cursor) <= 0) {
+                    bajo = medio + 1;
+                } else {
+                    alto = medio;
+                }
+            }
+            inicio = bajo;
+        }
+        int fin = Math.min(filtrados.size(), inicio + tamano);
+        ArrayList<Pendiente> pagina = new ArrayList<>(filtrados.subList(inicio, fin));
+        String siguiente = fin < filtrados.size() ? filtrados.get(fin - 1).id : null;
+        return new Pagina(pagina, filtrados.size(), siguiente);
+    }
+
+    /**
+     * @return todos los pendientes de un tipo, sin orden
+     */
+    private ArrayList<Pendiente> pendientes(TipoPendiente tipo) {
+        ArrayList<Pendiente> pendientes = new ArrayList<>();
+        switch (tipo) {
+            case EVENTO:
+                for (Evento evento : gestor.getEventos()) {
+                    if (estaPendiente(evento)) {
+                        pendientes.add(new Pendiente(tipo, evento.getId(), evento.getNombre(),
+                            evento.getOrganizador() != null ? evento.getOrganizador().getLogin() : null,
+                            evento.getVenue() != null ? evento.getVenue().getId() : null,
+                            evento.getFechaHora(), evento));
+                    }
+                }
+                break;
+            case VENUE:
+                for (Venue venue : gestor.getVenues()) {
+                    if (!venue.isAprobado()) {
+                        pendientes.add(new Pendiente(tipo, venue.getId(), venue.getNombre() + " (" + venue.getUbicacion() + ")",
+                                                     null, venue.getId(), null, venue));
+                    }
+                }
+                break;
+            case SOLICITUD:
+                for (Solicitud solicitud : gestor.getSolicitudesPendientes()) {
+                    pendientes.add(new Pendiente(tipo, solicitud.getId(), solicitud.getTipo() + ": " + solicitud.getDescripcion(),
+                        solicitud.getSolicitante() != null ? solicitud.getSolicitante().getLogin() : null,
+                        venueDe(solicitud), solicitud.getFechaSolicitud(), solicitud));
+                }
+                break;
+        }
+        return pendientes;
+    }
+
+    private static String venueDe(Solicitud solicitud) {
+        if (solicitud.getVenue() != null) {
+            return solicitud.getVenue().getId();
+        }
+        if (solicitud.getEvento() != null && solicitud.getEvento().getVenue() != null) {
+            return solicitud.getEvento().getVenue().getId();
+        }
+        return null;
+    }
+
+    // ==================== DECISIONES EN LOTE ====================
+
+    /**
+     * Aprueba o rechaza un conjunto de pendientes del mismo tipo.
+     *   - Evento aprobado: queda activo. Rechazado: queda cancelado y libera su
+     *     fecha en el venue (aún no vendía tiquetes).
+     *   - Venue aprobado: se puede usar. Rechazado: se retira del sistema.
+     *   - Solicitud: se resuelve con la respuesta; si es de aprobación de evento o
+     *     de venue, la decisión se aplica también a ese evento o venue si aún está
+     *     pendiente; si ya se decidió (p. ej. un evento aprobado que ya vende
+     *     tiquetes), la solicitud se resuelve sin tocarlo. Las demás
+     *     (cancelaciones, reembolsos, transferencias) solo quedan resueltas: su
+     *     efecto se ejecuta con la operación correspondiente.
+     * @param ids - ids de los pendientes
+     */
+    public ResultadoLote resolver(Administrador admin, TipoPendiente tipo, Collection<String> ids,
+                                  boolean aprobar, String respuesta) {
+        HashMap<String, Pendiente> porId = new HashMap<>();
+        for (Pendiente pendiente : pendientes(tipo)) {
+            porId.put(pendiente.id, pendiente);
+        }
+
+        ResultadoLote resultado = new ResultadoLote();
+        HashSet<Venue> venuesRechazados = new HashSet<>();
+        for (String id : new HashSet<>(ids)) {
+            Pendiente pendiente = porId.get(id);
+            if (pendiente == null) {
+                resultado.noEncontrados.add(id);
+                continue;
+            }
+            switch (tipo) {
+                case EVENTO:
+                    decidirEvento((Evento) pendiente.elemento, aprobar);
+                    break;
+                case VENUE:
+                    decidirVenue((Venue) pendiente.elemento, aprobar, venuesRechazados);
+                    break;
+                case SOLICITUD:
+                    Solicitud solicitud = (Solicitud) pendiente.elemento;
+                    solicitud.resolver(admin, respuesta, aprobar);
+                    if (solicitud.getTipo() == Solicitud.TipoSolicitud.APROBACION_EVENTO && solicitud.getEvento() != null) {
+                        if (estaPendiente(solicitud.getEvento())) {
+                            decidirEvento(solicitud.getEvento(), aprobar);
+                        }
+                    } else if (solicitud.getTipo() == Solicitud.TipoSolicitud.APROBACION_VENUE && solicitud.getVenue() != null
+                               && !solicitud.getVenue().isAprobado()) {
+                        decidirVenue(solicitud.getVenue(), aprobar, venuesRechazados);
+                    }
+                    break;
+            }
+            resultado.resueltos.add(id);
+        }
+        if (!venuesRechazados.isEmpty()) {
+            gestor.retirarVenues(venuesRechazados);
+        }
+        return resultado;
+    }
+
+    private static boolean estaPendiente(Evento evento) {
+        return !evento.isAprobado() && !evento.isCancelado();
+    }
+
+    private static void decidirEvento(Evento evento, boolean aprobar) {
+        if (aprobar) {
+            evento.aprobar();
+            return;
+        }
+        evento.rechazar();
+        evento.cancelar();
+        if (evento.getVenue() != null) {
+            evento.getVenue().cancelarEventoProgramado(evento.getFechaHora());
+        }
+    }
+
+    private static void decidirVenue(Venue venue, boolean aprobar, HashSet<Venue> rechazados) {
+        if (aprobar) {
+            venue.aprobar();
+        } else {
+            venue.rechazar();
+            rechazados.add(venue);
+        }
+    }
+}
@@ -3,20 +3,45 @@ package modelo.persistencia;
 import modelo.tiquetes.Tiquete;
 import modelo.tiquetes.TiqueteReventa;
 import modelo.tiquetes.Contraoferta;
+import modelo.tiquetes.LibroReventas;
+import modelo.tiquetes.MotorContraofertas;
+import modelo.tiquetes.RegistroPropiedad;
 
+import modelo.pagos.LibroMayor;
 import modelo.usuarios.Usuario;
 import modelo.usuarios.Administrador;
 import modelo.usuarios.Comprador;
 import modelo.usuarios.Organizador;
 import modelo.eventos.Evento;
 import modelo.eventos.Venue;
+import modelo.eventos.Localidad;
+import modelo.eventos.CatalogoEventos;
+import modelo.eventos.ConsultaEventos;
+import modelo.eventos.PaginaEventos;
 
+import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Clase coordinadora que maneja todas las operaciones de persistencia del sistema
+ *
+ * Concurrencia: las listas de este gestor solo se leen con el cerrojo de lectura
+ * y solo se modifican con el de escritura, por lo que varias sesiones pueden
+ * consultar a la vez y todo lo agregado antes de soltar el cerrojo de escritura
+ * es visible para quien tome después cualquiera de los dos. Los getters devuelven
+ * copias tomadas bajo el cerrojo. Los índices (catálogo, libro de reventas,
+ * contraofertas y registro de propiedad) se protegen a sí mismos.
  */
 public class GestorPersistencia {
+    private static final String DIRECTORIO_INVENTARIOS = "data/inventario";
+    
+    private final ReentrantReadWriteLock cerrojo = new ReentrantReadWriteLock();
+    private final ReentrantLock cerrojoArchivos = new ReentrantLock(); // un guardado a la vez
+    
     // Instancias de todas las persistencias
     private PersistenciaUsuarios persistenciaUsuarios;
     private PersistenciaEventos persistenciaEventos;
@@ -35,6 +60,18 @@ public class GestorPersistencia {
     private ArrayList<TiqueteReventa> reventas;
     private ArrayList<Contraoferta> contraofertas;
     
+    // Índices del catálogo de eventos para consultas paginadas
+    private CatalogoEventos catalogo;
+    
+    // Libro de órdenes de las reventas activas (precio, luego fecha de publicación)
+    private LibroReventas libroReventas;
+    
+    // Contraofertas pendientes ordenadas por precio para cada reventa
+    private MotorContraofertas motorContraofertas;
+    
+    // Propietario actual y cadena de traspasos de cada tiquete
+    private RegistroPropiedad registroPropiedad;
+    
     public GestorPersistencia() {
         // Inicializar persistencias
         this.persistenciaUsuarios = new PersistenciaUsuarios();
@@ -53,66 +90,149 @@ public class GestorPersistencia {
         this.solicitudes = new ArrayList<>();
         this.reventas = new ArrayList<>();
         this.contraofertas = new ArrayList<>();
+        this.catalogo = new CatalogoEventos();
+        this.libroReventas = new LibroReventas();
+        this.motorContraofertas = new MotorContraofertas();
+        this.registroPropiedad = new RegistroPropiedad();
     }
     
     /**
      * Carga todos los datos del sistema desde los archivos CSV
      */
     public void cargarTodosLosDatos() {
-        System.out.println("=== CARGANDO DATOS DEL SISTEMA ===");
-        
-        // Cargar en el orden correcto para mantener referencias
-        this.venues = persistenciaVenues.cargarVenues();
-        System.out.println("Venues cargados: " + venues.size());
-        
-        // Cargar usuarios
-        this.usuarios = persistenciaUsuarios.cargarUsuarios();
-        System.out.println("Usuarios cargados: " + usuarios.size());
-        
-        // Obtener solo los organizadores para cargar eventos
-        ArrayList<Organizador> organizadores = obtenerOrganizadores();
-        
-        // Cargar eventos (necesita venues y organizadores)
-        this.eventos = persistenciaEventos.cargarEventos(venues, organizadores);
-        System.out.println("Eventos cargados: " + eventos.size());
-        
-        // Cargar procesos (necesita usuarios y eventos)
-        this.procesos = persistenciaProcesos.cargarProcesos(usuarios, eventos);
-        System.out.println("Procesos cargados: " + procesos.size());
-        
-        // Cargar solicitudes (necesita usuarios, eventos y venues)
-        this.solicitudes = persistenciaSolicitudes.cargarSolicitudes(usuarios, eventos, venues);
-        System.out.println("Solicitudes cargadas: " + solicitudes.size());
+        cerrojo.writeLock().lock();
+        try {
+            System.out.println("=== CARGANDO DATOS DEL SISTEMA ===");
+            
+            // Cargar en el orden correcto para mantener referencias
+            this.venues = persistenciaVenues.cargarVenues();
+            System.out.println("Venues cargados: " + venues.size());
+            
+            // Las localidades más grandes reabren su inventario mapeado sin parsearlo
+            for (Venue venue : venues) {
+                for (Localidad localidad : venue.getLocalidades()) {
+                    if (localidad.getCapacidad() >= Localidad.UMBRAL_INVENTARIO_FUERA_DE_HEAP) {
+                        localidad.respaldarInventariosEnArchivo(new File(DIRECTORIO_INVENTARIOS));
+                    }
+                }
+            }
+            
+            // El libro mayor va antes que los usuarios: sus aperturas continúan la secuencia guardada
+            int movimientos = LibroMayor.getInstancia().cargar(new File(LibroMayor.ARCHIVO_LIBRO));
+            System.out.println("Movimientos del libro mayor cargados: " + movimientos);
+            
+            // Cargar usuarios
+            this.usuarios = persistenciaUsuarios.cargarUsuarios();
+            System.out.println("Usuarios cargados: " + usuarios.size());
+            // La cadena de traspasos sale de su diario; solo lo que no aparece en él se registra como CARGA
+            HashMap<String, Tiquete> tiquetesPorId = new HashMap<>();
+            for (Comprador comprador : getCompradores()) {
+                for (Tiquete tiquete : comprador.getHistorialTiquetes()) {
+                    tiquetesPorId.put(tiquete.getId(), tiquete);
+                }
+            }
+            int traspasos = registroPropiedad.cargar(new File(RegistroPropiedad.ARCHIVO_PROPIEDAD),
+                                                     this::buscarUsuarioPorLogin, tiquetesPorId::get);
+            System.out.println("Traspasos de propiedad cargados: " + traspasos);
+            for (Comprador comprador : getCompradores()) {
+                for (Tiquete tiquete : comprador.getHistorialTiquetes()) {
+                    registroPropiedad.registrar(tiquete, comprador, RegistroPropiedad.TipoTraspaso.CARGA);
+                }
+            }
+            
+            // Obtener solo los organizadores para cargar eventos
+            ArrayList<Organizador> organizadores = obtenerOrganizadores();
+            
+            // Cargar eventos (necesita venues y organizadores)
+            this.eventos = persistenciaEventos.cargarEventos(venues, organizadores);
+            System.out.println("Eventos cargados: " + eventos.size());
+            for (Venue venue : venues) {
+                for (Localidad localidad : venue.getLocalidades()) {
+                    localidad.reabrirInventarios(eventos);
+                }
+            }
+            catalogo.reconstruir(eventos);
+            
+            // Cargar procesos (necesita usuarios y eventos)
+            this.procesos = persistenciaProcesos.cargarProcesos(usuarios, eventos);
+            System.out.println("Procesos cargados: " + procesos.size());
+            
+            // Cargar solicitudes (necesita usuarios, eventos y venues)
+            this.solicitudes = persistenciaSolicitudes.cargarSolicitudes(usuarios, eventos, venues);
+            System.out.println("Solicitudes cargadas: " + solicitudes.size());
 
-        // Obtener todos los tiquetes del sistema (de usuarios)
-        ArrayList<Tiquete> todosLosTiquetes = obtenerTodosLosTiquetes();
-        
-        // Cargar reventas (necesita tiquetes y usuarios)
-        this.reventas = persistenciaReventas.cargarReventas(todosLosTiquetes, usuarios);
-        System.out.println("Reventas cargadas: " + reventas.size());
-        
-        // Cargar contraofertas (necesita reventas y usuarios)
-        this.contraofertas = persistenciaContraofertas.cargarContraofertas(reventas, usuarios);
-        System.out.println("Contraofertas cargadas: " + contraofertas.size());
-        
-        System.out.println("=== CARGA DE DATOS COMPLETADA ===");
+            // Obtener todos los tiquetes del sistema (de usuarios)
+            ArrayList<Tiquete> todosLosTiquetes = obtenerTodosLosTiquetes();
+            
+            // Cargar reventas (necesita tiquetes y usuarios)
+            this.reventas = persistenciaReventas.cargarReventas(todosLosTiquetes, usuarios);
+            System.out.println("Reventas cargadas: " + reventas.size());
+            for (TiqueteReventa reventa : reventas) {
+                libroReventas.publicar(reventa);
+            }
+            
+            // Cargar contraofertas (necesita reventas y usuarios)
+            this.contraofertas = persistenciaContraofertas.cargarContraofertas(reventas, usuarios);
+            System.out.println("Contraofertas cargadas: " + contraofertas.size());
+            for (Contraoferta contra : contraofertas) {
+                if (contra.getTiqueteReventa().isActivo()) {
+                    motorContraofertas.registrar(contra);
+                }
+            }
+            
+            System.out.println("=== CARGA DE DATOS COMPLETADA ===");
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
     }
     
     /**
      * Guarda todos los datos del sistema en los archivos CSV
      */
     public void guardarTodosLosDatos() {
-        System.out.println("=== GUARDANDO DATOS DEL SISTEMA ===");
-        
-        persistenciaUsuarios.guardarUsuarios(usuarios);
-        persistenciaVenues.guardarVenues(venues);
-        persistenciaEventos.guardarEventos(eventos);
-        persistenciaProcesos.guardarProcesos(procesos);
-        persistenciaSolicitudes.guardarSolicitudes(solicitudes);
-        persistenciaReventas.guardarReventas(reventas);
-        persistenciaContraofertas.guardarContraofertas(contraofertas);
-        
-        System.out.println("=== GUARDADO DE DATOS COMPLETADO ===");
+        cerrojoArchivos.lock();
+        cerrojo.readLock().lock();
+        try {
+            System.out.println("=== GUARDANDO DATOS DEL SISTEMA ===");
+            
+            persistenciaUsuarios.guardarUsuarios(usuarios);
+            persistenciaVenues.guardarVenues(venues);
+            persistenciaEventos.guardarEventos(eventos);
+            persistenciaProcesos.guardarProcesos(procesos);
+            persistenciaSolicitudes.guardarSolicitudes(solicitudes);
+            persistenciaReventas.guardarReventas(reventas);
+            persistenciaContraofertas.guardarContraofertas(contraofertas);
+            LibroMayor.getInstancia().guardarNuevos(new File(LibroMayor.ARCHIVO_LIBRO));
+            
+            // Los inventarios mapeados en archivo solo necesitan forzarse a disco
+            for (Venue venue : venues) {
+                for (Localidad localidad : venue.getLocalidades()) {
+                    localidad.sincronizarInventario();
+                }
+            }
+            
+            System.out.println("=== GUARDADO DE DATOS COMPLETADO ===");
+        } finally {
+            cerrojo.readLock().unlock();
+            cerrojoArchivos.unlock();
+        }
+    }
+    
+    /**
+     * Guarda solo billeteras y libro mayor (p. ej. tras cada lote de reembolsos).
+     * El libro va primero: si se corta en medio, la auditoría de billeteras
+     * muestra el saldo que falta en lugar de un crédito pagado dos veces.
+     */
+    public void guardarBilleteras() {
+        cerrojoArchivos.lock();
+        cerrojo.readLock().lock();
+        try {
+            LibroMayor.getInstancia().guardarNuevos(new File(LibroMayor.ARCHIVO_LIBRO));
+            persistenciaUsuarios.guardarUsuarios(usuarios);
+        } finally {
+            cerrojo.readLock().unlock();
+            cerrojoArchivos.unlock();
+        }
     }
     
     /**
@@ -147,232 +267,508 @@ public class GestorPersistencia {
     // ==================== MÉTODOS DE ACCESO A COLECCIONES ====================
     
     public ArrayList<Usuario> getUsuarios() {
-        return new ArrayList<>(usuarios);
+        cerrojo.readLock().lock();
+        try {
+            return new ArrayList<>(usuarios);
+        } finally {
+            cerrojo.readLock().unlock();
+        }
     }
     
     public ArrayList<Evento> getEventos() {
-        return new ArrayList<>(eventos);
+        cerrojo.readLock().lock();
+        try {
+            return new ArrayList<>(eventos);
+        } finally {
+            cerrojo.readLock().unlock();
+        }
     }
     
     public ArrayList<Venue> getVenues() {
-        return new ArrayList<>(venues);
+        cerrojo.readLock().lock();
+        try {
+            return new ArrayList<>(venues);
+        } finally {
+            cerrojo.readLock().unlock();
+        }
     }
     
     public ArrayList<ProcesoEntreUsuarios> getProcesos() {
-        return new ArrayList<>(procesos);
+        cerrojo.readLock().lock();
+        try {
+            return new ArrayList<>(procesos);
+        } finally {
+            cerrojo.readLock().unlock();
+        }
     }
     
     public ArrayList<Solicitud> getSolicitudes() {
-        return new ArrayList<>(solicitudes);
+        cerrojo.readLock().lock();
+        try {
+            return new ArrayList<>(solicitudes);
+        } finally {
+            cerrojo.readLock().unlock();
+        }
     }
     
     public ArrayList<Solicitud> getSolicitudesPendientes() {
-        return persistenciaSolicitudes.getSolicitudesPendientes(solicitudes);
+        cerrojo.readLock().lock();
+        try {
+            return persistenciaSolicitudes.getSolicitudesPendientes(solicitudes);
+        } finally {
+            cerrojo.readLock().unlock();
+        }
     }
 
     public ArrayList<TiqueteReventa> getReventas() {
-        return new ArrayList<>(reventas);
+        cerrojo.readLock().lock();
+        try {
+            return new ArrayList<>(reventas);
+        } finally {
+            cerrojo.readLock().unlock();
+        }
     }
     
     public ArrayList<Contraoferta> getContraofertas() {
-        return new ArrayList<>(contraofertas);
+        cerrojo.readLock().lock();
+        try {
+            return new ArrayList<>(contraofertas);
+        } finally {
+            cerrojo.readLock().unlock();
+        }
     }
 
     public ArrayList<TiqueteReventa> getReventasActivas() {
-        ArrayList<TiqueteReventa> activas = new ArrayList<>();
-        for (TiqueteReventa reventa : reventas) {
-            if (reventa.isActivo() && reventa.puedeSerRevendido()) {
-                activas.add(reventa);
+        return libroReventas.getReventasActivas();
+    }
+    
+    public LibroReventas getLibroReventas() {
+        return libroReventas;
+    }
+    
+    public RegistroPropiedad getRegistroPropiedad() {
+        return registroPropiedad;
+    }
+    
+    /**
+     * Compara el saldo de cada billetera con el que resulta de sumar sus
+     * movimientos en el libro mayor
+     * @return logins con saldo descuadrado (vacía si todo cuadra)
+     */
+    public ArrayList<String> auditarBilleteras() {
+        HashMap<String, Long> saldos = new HashMap<>();
+        cerrojo.readLock().lock();
+        try {
+            for (Usuario usuario : usuarios) {
+                if (!(usuario instanceof Administrador)) {
+                    saldos.put(usuario.getLogin(), usuario.getSaldoCentavos());
+                }
             }
+        } finally {
+            cerrojo.readLock().unlock();
         }
-        return activas;
+        return LibroMayor.getInstancia().auditar(saldos);
+    }
+    
+    /**
+     * Verifica en el registro de propiedad que el tiquete sea del comprador.
+     * Un tiquete que aún no está en el registro pero sí en el historial del
+     * comprador (por ejemplo, agregado directamente) se registra en ese momento.
+     */
+    public boolean esPropietario(Comprador comprador, Tiquete tiquete) {
+        if (registroPropiedad.getPropietario(tiquete) == null && comprador != null && comprador.tieneTiquete(tiquete)) {
+            registroPropiedad.registrar(tiquete, comprador, RegistroPropiedad.TipoTraspaso.CARGA);
+        }
+        return registroPropiedad.esPropietario(comprador, tiquete);
+    }
+    
+    public MotorContraofertas getMotorContraofertas() {
+        return motorContraofertas;
     }
     
     public ArrayList<Contraoferta> getContraofertasPendientes() {
-        ArrayList<Contraoferta> pendientes = new ArrayList<>();
-        for (Contraoferta contra : contraofertas) {
-            if (contra.estaPendiente()) {
-                pendientes.add(contra);
+        cerrojo.readLock().lock();
+        try {
+            ArrayList<Contraoferta> pendientes = new ArrayList<>();
+            for (Contraoferta contra : contraofertas) {
+                if (contra.estaPendiente()) {
+                    pendientes.add(contra);
+                }
             }
+            return pendientes;
+        } finally {
+            cerrojo.readLock().unlock();
         }
-        return pendientes;
     }
     
     // ==================== MÉTODOS DE AGREGACIÓN ====================
     
     public void agregarUsuario(Usuario usuario) {
-        if (usuario != null && !usuarios.contains(usuario)) {
+        cerrojo.writeLock().lock();
+        try {
+            if (usuario != null && !usuarios.contains(usuario)) {
+                usuarios.add(usuario);
+            }
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Agrega un usuario solo si no hay otro con el mismo login.
+     * La verificación y el agregado ocurren bajo el mismo cerrojo.
+     * @return false si el login ya estaba registrado
+     */
+    public boolean agregarUsuarioNuevo(Usuario usuario) {
+        cerrojo.writeLock().lock();
+        try {
+            if (usuario == null || buscarUsuarioPorLogin(usuario.getLogin()) != null) {
+                return false;
+            }
             usuarios.add(usuario);
+            return true;
+        } finally {
+            cerrojo.writeLock().unlock();
         }
     }
     
     public void agregarEvento(Evento evento) {
-        if (evento != null && !eventos.contains(evento)) {
-            eventos.add(evento);
+        cerrojo.writeLock().lock();
+        try {
+            if (evento != null && !eventos.contains(evento)) {
+                eventos.add(evento);
+                catalogo.indexarEvento(evento);
+            }
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Agrega en una sola sección crítica los venues y eventos de una importación.
+     * El importador ya verificó que sus ids no existen, así que no se buscan duplicados.
+     */
+    public void agregarLote(ArrayList<Venue> nuevosVenues, ArrayList<Evento> nuevosEventos) {
+        cerrojo.writeLock().lock();
+        try {
+            venues.addAll(nuevosVenues);
+            eventos.addAll(nuevosEventos);
+            for (Evento evento : nuevosEventos) {
+                catalogo.indexarEvento(evento);
+            }
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Retira venues rechazados (por ejemplo, sugerencias de organizadores)
+     */
+    public void retirarVenues(Set<Venue> rechazados) {
+        cerrojo.writeLock().lock();
+        try {
+            venues.removeIf(rechazados::contains);
+        } finally {
+            cerrojo.writeLock().unlock();
         }
     }
     
     public void agregarVenue(Venue venue) {
-        if (venue != null && !venues.contains(venue)) {
-            venues.add(venue);
+        cerrojo.writeLock().lock();
+        try {
+            if (venue != null && !venues.contains(venue)) {
+                venues.add(venue);
+            }
+        } finally {
+            cerrojo.writeLock().unlock();
         }
     }
     
     public void agregarProceso(ProcesoEntreUsuarios proceso) {
-        if (proceso != null && !procesos.contains(proceso)) {
-            procesos.add(proceso);
+        cerrojo.writeLock().lock();
+        try {
+            if (proceso != null && !procesos.contains(proceso)) {
+                procesos.add(proceso);
+            }
+        } finally {
+            cerrojo.writeLock().unlock();
         }
     }
     
     public void agregarSolicitud(Solicitud solicitud) {
-        if (solicitud != null && !solicitudes.contains(solicitud)) {
-            solicitudes.add(solicitud);
+        cerrojo.writeLock().lock();
+        try {
+            if (solicitud != null && !solicitudes.contains(solicitud)) {
+                solicitudes.add(solicitud);
+            }
+        } finally {
+            cerrojo.writeLock().unlock();
         }
     }
 
     public void agregarReventa(TiqueteReventa reventa) {
-        if (reventa != null && !reventas.contains(reventa)) {
-            reventas.add(reventa);
+        cerrojo.writeLock().lock();
+        try {
+            if (reventa != null && !reventas.contains(reventa)) {
+                reventas.add(reventa);
+                libroReventas.publicar(reventa);
+            }
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Desactiva una reventa y la retira del libro de órdenes
+     * @param reventa - reventa vendida o eliminada
+     */
+    public void retirarReventa(TiqueteReventa reventa) {
+        cerrojo.writeLock().lock();
+        try {
+            if (reventa != null) {
+                reventa.setActivo(false);
+                libroReventas.retirar(reventa);
+            }
+        } finally {
+            cerrojo.writeLock().unlock();
         }
     }
     
     public void agregarContraoferta(Contraoferta contraoferta) {
-        if (contraoferta != null && !contraofertas.contains(contraoferta)) {
-            contraofertas.add(contraoferta);
+        cerrojo.writeLock().lock();
+        try {
+            if (contraoferta != null && !contraofertas.contains(contraoferta)) {
+                contraofertas.add(contraoferta);
+            }
+        } finally {
+            cerrojo.writeLock().unlock();
         }
     }
     
     // ==================== MÉTODOS DE BÚSQUEDA ====================
     
     public Usuario buscarUsuarioPorLogin(String login) {
-        for (Usuario usuario : usuarios) {
-            if (usuario.getLogin().equals(login)) {
-                return usuario;
+        cerrojo.readLock().lock();
+        try {
+            for (Usuario usuario : usuarios) {
+                if (usuario.getLogin().equals(login)) {
+                    return usuario;
+                }
             }
+            return null;
+        } finally {
+            cerrojo.readLock().unlock();
         }
-        return null;
     }
     
     public Evento buscarEventoPorId(String id) {
-        for (Evento evento : eventos) {
-            if (evento.getId().equals(id)) {
-                return evento;
+        cerrojo.readLock().lock();
+        try {
+            // El catálogo ya tiene un mapa por id; la lista solo se recorre para los no indexados
+            Evento indexado = catalogo.buscar(id);
+            if (indexado != null) {
+                return indexado;
+            }
+            for (Evento evento : eventos) {
+                if (evento.getId().equals(id)) {
+                    return evento;
+                }
             }
+            return null;
+        } finally {
+            cerrojo.readLock().unlock();
         }
-        return null;
     }
     
     public Venue buscarVenuePorId(String id) {
-        for (Venue venue : venues) {
-            if (venue.getId().equals(id)) {
-                return venue;
+        cerrojo.readLock().lock();
+        try {
+            for (Venue venue : venues) {
+                if (venue.getId().equals(id)) {
+                    return venue;
+                }
             }
+            return null;
+        } finally {
+            cerrojo.readLock().unlock();
         }
-        return null;
     }
 
     public TiqueteReventa buscarReventaPorId(String id) {
-        for (TiqueteReventa reventa : reventas) {
-            if (reventa.getId().equals(id)) {
-                return reventa;
+        cerrojo.readLock().lock();
+        try {
+            for (TiqueteReventa reventa : reventas) {
+                if (reventa.getId().equals(id)) {
+                    return reventa;
+                }
             }
+            return null;
+        } finally {
+            cerrojo.readLock().unlock();
         }
-        return null;
     }
     
     public Contraoferta buscarContraofertaPorId(String id) {
-        for (Contraoferta contra : contraofertas) {
-            if (contra.getId().equals(id)) {
-                return contra;
+        cerrojo.readLock().lock();
+        try {
+            for (Contraoferta contra : contraofertas) {
+                if (contra.getId().equals(id)) {
+                    return contra;
+                }
             }
+            return null;
+        } finally {
+            cerrojo.readLock().unlock();
         }
-        return null;
     }
     
     public ArrayList<TiqueteReventa> getReventasPorVendedor(Usuario vendedor) {
-        ArrayList<TiqueteReventa> reventasVendedor = new ArrayList<>();
-        for (TiqueteReventa reventa : reventas) {
-            if (reventa.getVendedor().equals(vendedor) && reventa.isActivo()) {
-                reventasVendedor.add(reventa);
+        cerrojo.readLock().lock();
+        try {
+            ArrayList<TiqueteReventa> reventasVendedor = new ArrayList<>();
+            for (TiqueteReventa reventa : reventas) {
+                if (reventa.getVendedor().equals(vendedor) && reventa.isActivo()) {
+                    reventasVendedor.add(reventa);
+                }
             }
+            return reventasVendedor;
+        } finally {
+            cerrojo.readLock().unlock();
         }
-        return reventasVendedor;
     }
     
     public ArrayList<Contraoferta> getContraofertasPorComprador(Usuario comprador) {
-        ArrayList<Contraoferta> contraofertasComprador = new ArrayList<>();
-        for (Contraoferta contra : contraofertas) {
-            if (contra.getComprador().equals(comprador)) {
-                contraofertasComprador.add(contra);
+        cerrojo.readLock().lock();
+        try {
+            ArrayList<Contraoferta> contraofertasComprador = new ArrayList<>();
+            for (Contraoferta contra : contraofertas) {
+                if (contra.getComprador().equals(comprador)) {
+                    contraofertasComprador.add(contra);
+                }
             }
+            return contraofertasComprador;
+        } finally {
+            cerrojo.readLock().unlock();
         }
-        return contraofertasComprador;
     }
     
     public ArrayList<Contraoferta> getContraofertasPorReventa(TiqueteReventa reventa) {
-        ArrayList<Contraoferta> contraofertasReventa = new ArrayList<>();
-        for (Contraoferta contra : contraofertas) {
-            if (contra.getTiqueteReventa().equals(reventa) && contra.estaPendiente()) {
-                contraofertasReventa.add(contra);
+        cerrojo.readLock().lock();
+        try {
+            ArrayList<Contraoferta> contraofertasReventa = new ArrayList<>();
+            for (Contraoferta contra : contraofertas) {
+                if (contra.getTiqueteReventa().equals(reventa) && contra.estaPendiente()) {
+                    contraofertasReventa.add(contra);
+                }
             }
+            return contraofertasReventa;
+        } finally {
+            cerrojo.readLock().unlock();
         }
-        return contraofertasReventa;
     }
     
     public ArrayList<Comprador> getCompradores() {
-        ArrayList<Comprador> compradores = new ArrayList<>();
-        for (Usuario usuario : usuarios) {
-            if (usuario instanceof Comprador) {
-                compradores.add((Comprador) usuario);
+        cerrojo.readLock().lock();
+        try {
+            ArrayList<Comprador> compradores = new ArrayList<>();
+            for (Usuario usuario : usuarios) {
+                if (usuario instanceof Comprador) {
+                    compradores.add((Comprador) usuario);
+                }
             }
+            return compradores;
+        } finally {
+            cerrojo.readLock().unlock();
         }
-        return compradores;
     }
     
     public ArrayList<Organizador> getOrganizadores() {
-        ArrayList<Organizador> organizadores = new ArrayList<>();
-        for (Usuario usuario : usuarios) {
-            if (usuario instanceof Organizador) {
-                organizadores.add((Organizador) usuario);
+        cerrojo.readLock().lock();
+        try {
+            ArrayList<Organizador> organizadores = new ArrayList<>();
+            for (Usuario usuario : usuarios) {
+                if (usuario instanceof Organizador) {
+                    organizadores.add((Organizador) usuario);
+                }
             }
+            return organizadores;
+        } finally {
+            cerrojo.readLock().unlock();
         }
-        return organizadores;
     }
     
     public ArrayList<Administrador> getAdministradores() {
-        ArrayList<Administrador> administradores = new ArrayList<>();
-        for (Usuario usuario : usuarios) {
-            if (usuario instanceof Administrador) {
-                administradores.add((Administrador) usuario);
+        cerrojo.readLock().lock();
+        try {
+            ArrayList<Administrador> administradores = new ArrayList<>();
+            for (Usuario usuario : usuarios) {
+                if (usuario instanceof Administrador) {
+                    administradores.add((Administrador) usuario);
+                }
             }
+            return administradores;
+        } finally {
+            cerrojo.readLock().unlock();
         }
-        return administradores;
     }
     
     /**
      * Obtiene eventos aprobados y activos
      */
     public ArrayList<Evento> getEventosDisponibles() {
-        ArrayList<Evento> disponibles = new ArrayList<>();
-        for (Evento evento : eventos) {
-            if (evento.estaActivo() && evento.hayTiquetesDisponibles()) {
-                disponibles.add(evento);
+        cerrojo.readLock().lock();
+        try {
+            ArrayList<Evento> disponibles = new ArrayList<>();
+            for (Evento evento : eventos) {
+                if (evento.estaActivo() && evento.hayTiquetesDisponibles()) {
+                    disponibles.add(evento);
+                }
             }
+            return disponibles;
+        } finally {
+            cerrojo.readLock().unlock();
         }
-        return disponibles;
+    }
+    
+    /**
+     * Consulta una página del catálogo de eventos usando los índices ordenados
+     * @param consulta - criterios de búsqueda
+     * @param cursor - cursor de la página anterior o null para la primera
+     */
+    public PaginaEventos consultarEventos(ConsultaEventos consulta, String cursor) {
+        return catalogo.consultar(consulta, cursor);
+    }
+    
+    /**
+     * Reindexa los precios de los eventos de un venue (tras crear ofertas o cambiar precios)
+     */
+    public void actualizarPreciosCatalogo(Venue venue) {
+        catalogo.actualizarPreciosVenue(venue);
+    }
+    
+    /**
+     * Reindexa el precio de un evento (tras un cambio del motor de precios)
+     */
+    public void actualizarPrecioCatalogo(Evento evento) {
+        catalogo.actualizarPrecioEvento(evento);
     }
     
     /**
      * Obtiene venues aprobados
      */
     public ArrayList<Venue> getVenuesAprobados() {
-        ArrayList<Venue> aprobados = new ArrayList<>();
-        for (Venue venue : venues) {
-            if (venue.isAprobado()) {
-                aprobados.add(venue);
+        cerrojo.readLock().lock();
+        try {
+            ArrayList<Venue> aprobados = new ArrayList<>();
+            for (Venue venue : venues) {
+                if (venue.isAprobado()) {
+                    aprobados.add(venue);
+                }
             }
+            return aprobados;
+        } finally {
+            cerrojo.readLock().unlock();
         }
-        return aprobados;
     }
     
     /**
@@ -0,0 +1,546 @@
+package modelo.persistencia;
+
+import modelo.GeneradorIds;
+import modelo.eventos.Evento;
+import modelo.eventos.InventarioAsientos;
+import modelo.eventos.Localidad;
+import modelo.eventos.Venue;
+import modelo.pagos.LibroMayor;
+import modelo.tiquetes.Tiquete;
+import modelo.usuarios.Organizador;
+import modelo.usuarios.Usuario;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * Importación masiva de venues, localidades, eventos y tiquetes desde un
+ * archivo CSV o JSON lines.
+ * El archivo se lee línea por línea. Cada registro se valida y sus referencias
+ * (venue, localidad, organizador, evento) se resuelven con mapas por id, tanto
+ * contra lo que ya existe como contra lo importado en líneas anteriores. Si hay
+ * errores se informan todos con su número de línea y no se aplica nada; si no,
+ * todo se aplica de una vez y el llamador guarda los datos una sola vez.
+ *
+ * Registros CSV (el primer campo es el tipo; se ignoran las líneas vacías y las
+ * que empiezan con #):
+ *   VENUE,id,nombre,ubicacion,capacidad
+ *   LOCALIDAD,id,venueId,tipoLocalidad,numerada,capacidad,precioBase
+ *   EVENTO,id,nombre,yyyy-MM-dd HH:mm:ss,venueId,organizadorLogin
+ *   TIQUETES,eventoId,localidadId,cantidad,precio
+ *     (en una localidad con inventario compacto el precio debe ser su precio base)
+ * En JSON lines cada línea es un objeto plano con el campo "tipo" y los mismos
+ * campos por nombre, por ejemplo {"tipo":"VENUE","id":"V9","nombre":"Arena",...}.
+ */
+public class ImportadorMasivo {
+    public static final String VENUE = "VENUE";
+    public static final String LOCALIDAD = "LOCALIDAD";
+    public static final String EVENTO = "EVENTO";
+    public static final String TIQUETES = "TIQUETES";
+    private static final String[] CAMPOS_VENUE = {"id", "nombre", "ubicacion", "capacidad"};
+    private static final String[] CAMPOS_LOCALIDAD = {"id", "venueId", "tipoLocalidad", "numerada", "capacidad", "precioBase"};
+    private static final String[] CAMPOS_EVENTO = {"id", "nombre", "fechaHora", "venueId", "organizadorLogin"};
+    private static final String[] CAMPOS_TIQUETES = {"eventoId", "localidadId", "cantidad", "precio"};
+
+    /**
+     * Resultado de una importación
+     */
+    public static class Resultado {
+        private final ArrayList<String> errores = new ArrayList<>();
+        private int lineas;
+        private int venues;
+        private int localidades;
+        private int eventos;
+        private int tiquetes;
+        private boolean aplicado;
+
+        public ArrayList<String> getErrores() { return new ArrayList<>(errores); }
+        public boolean isAplicado() { return aplicado; }
+        public int getLineas() { return lineas; }
+        public int getVenues() { return venues; }
+        public int getLocalidades() { return localidades; }
+        public int getEventos() { return eventos; }
+        public int getTiquetes() { return tiquetes; }
+
+        @Override
+        public String toString() {
+            return "Importación " + (aplicado ? "aplicada" : "no aplicada") + ": " + lineas + " líneas, " +
+                   venues + " venues, " + localidades + " localidades, " + eventos + " eventos, " +
+                   tiquetes + " tiquetes, " + errores.size() + " errores";
+        }
+    }
+
+    /**
+     * Tiquetes pedidos para una localidad de un evento
+     */
+    private static class Asignacion {
+        private final Evento evento;
+        private final Localidad localidad;
+        private final int cantidad;
+        private final double precio;
+
+        Asignacion(Evento evento, Localidad localidad, int cantidad, double precio) {
+            this.evento = evento;
+            this.localidad = localidad;
+            this.cantidad = cantidad;
+            this.precio = precio;
+        }
+    }
+
+    private final GestorPersistencia gestor;
+    private final SimpleDateFormat formatoFecha = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+
+    // Índices de lo existente más lo importado en líneas anteriores
+    private final HashMap<String, Venue> venuesPorId = new HashMap<>();
+    private final HashMap<String, Localidad> localidadesPorId = new HashMap<>();
+    private final HashMap<String, Evento> eventosPorId = new HashMap<>();
+    private final HashMap<String, Organizador> organizadoresPorLogin = new HashMap<>();
+    private final HashMap<Venue, HashSet<Integer>> diasOcupados = new HashMap<>();
+    private final HashMap<String, Integer> cupoLibre = new HashMap<>();
+
+    // Lo importado, pendiente de aplicar
+    private final ArrayList<Venue> nuevosVenues = new ArrayList<>();
+    private final ArrayList<Localidad> nuevasLocalidades = new ArrayList<>();
+    private final ArrayList<Evento> nuevosEventos = new ArrayList<>();
+    private final ArrayList<Asignacion> asignaciones = new ArrayList<>();
+
+    /**
+     * Cada importador se usa para una sola importación
+     */
+    public ImportadorMasivo(GestorPersistencia gestor) {
+        this.gestor = gestor;
+        formatoFecha.setLenient(false);
+    }
+
+    // ==================== IMPORTACIÓN ====================
+
+    /**
+     * Importa un archivo; los que terminan en .jsonl o .json se leen como JSON lines
+     */
+    public Resultado importar(File archivo) {
+        boolean json = archivo.getName().endsWith(".jsonl") || archivo.getName().endsWith(".json");
+        try (FileReader reader = new FileReader(archivo)) {
+            return importar(reader, json);
+        } catch (IOException e) {
+            Resultado resultado = new Resultado();
+            resultado.errores.add("No se pudo leer " + archivo.getPath() + ": " + e.getMessage());
+            return resultado;
+        }
+    }
+
+    /**
+     * Importa registros de un lector
+     * @param json - true para JSON lines, false para CSV
+     */
+    public Resultado importar(Reader fuente, boolean json) throws IOException {
+        Resultado resultado = new Resultado();
+        indexarExistentes();
+
+        BufferedReader reader = new BufferedReader(fuente);
+        String linea;
+        int numero = 0;
+        while ((linea = reader.readLine()) != null) {
+            numero++;
+            String texto = linea.trim();
+            if (texto.isEmpty() || texto.startsWith("#")) {
+                continue;
+            }
+            resultado.lineas++;
+            try {
+                HashMap<String, String> campos = json ? leerJson(texto) : leerCsv(texto);
+                procesar(campos, resultado);
+            } catch (IllegalArgumentException e) {
+                resultado.errores.add("Línea " + numero + ": " + e.getMessage());
+            }
+        }
+
+        if (resultado.errores.isEmpty()) {
+            aplicar(resultado);
+        }
+        return resultado;
+    }
+
+    private void indexarExistentes() {
+        for (Venue venue : gestor.getVenues()) {
+            venuesPorId.put(venue.getId(), venue);
+            for (Localidad localidad : venue.getLocalidades()) {
+                localidadesPorId.put(localidad.getId(), localidad);
+            }
+        }
+        for (Evento evento : gestor.getEventos()) {
+            eventosPorId.put(evento.getId(), evento);
+        }
+        for (Usuario usuario : gestor.getUsuarios()) {
+            if (usuario instanceof Organizador) {
+                organizadoresPorLogin.put(usuario.getLogin(), (Organizador) usuario);
+            }
+        }
+    }
+
+    // ==================== VALIDACIÓN POR REGISTRO ====================
+
+    private void procesar(HashMap<String, String> campos, Resultado resultado) {
+        String tipo = campos.getOrDefault("tipo", "").toUpperCase();
+        switch (tipo) {
+            case VENUE:
+                procesarVenue(campos);
+                resultado.venues++;
+                break;
+            case LOCALIDAD:
+                procesarLocalidad(campos);
+                resultado.localidades++;
+                break;
+            case EVENTO:
+                procesarEvento(campos);
+                resultado.eventos++;
+                break;
+            case TIQUETES:
+                resultado.tiquetes += procesarTiquetes(campos);
+                break;
+            default:
+                throw new IllegalArgumentException("Tipo de registro desconocido: '" + tipo + "'");
+        }
+    }
+
+    private void procesarVenue(HashMap<String, String> campos) {
+        String id = requerido(campos, "id");
+        if (venuesPorId.containsKey(id)) {
+            throw new IllegalArgumentException("El venue " + id + " ya existe");
+        }
+        Venue venue = new Venue(id, requerido(campos, "nombre"), requerido(campos, "ubicacion"),
+                                entero(campos, "capacidad"));
+        venue.setAprobado(true); // los venues importados por un administrador quedan aprobados
+        venuesPorId.put(id, venue);
+        nuevosVenues.add(venue);
+    }
+
+    private void procesarLocalidad(HashMap<String, String> campos) {
+        String id = requerido(campos, "id");
+        if (localidadesPorId.containsKey(id)) {
+            throw new IllegalArgumentException("La localidad " + id + " ya existe");
+        }
+        Venue venue = venue(requerido(campos, "venueId"));
+        double precio = decimal(campos, "precioBase");
+        if (precio < 0) {
+            throw new IllegalArgumentException("El precio base no puede ser negativo");
+        }
+        Localidad localidad = new Localidad(id, requerido(campos, "tipoLocalidad"),
+                                            Boolean.parseBoolean(requerido(campos, "numerada")),
+                                            venue, entero(campos, "capacidad"), precio);
+        localidadesPorId.put(id, localidad);
+        nuevasLocalidades.add(localidad);
+    }
+
+    private void procesarEvento(HashMap<String, String> campos) {
+        String id = requerido(campos, "id");
+        if (eventosPorId.containsKey(id)) {
+            throw new IllegalArgumentException("El evento " + id + " ya existe");
+        }
+        Date fecha;
+        try {
+            fecha = formatoFecha.parse(requerido(campos, "fechaHora"));
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Fecha inválida (se espera yyyy-MM-dd HH:mm:ss): " + campos.get("fechaHora"));
+        }
+        Venue venue = venue(requerido(campos, "venueId"));
+        if (!venue.isAprobado()) {
+            throw new IllegalArgumentException("El venue " + venue.getId() + " no está aprobado");
+        }
+        String login = requerido(campos, "organizadorLogin");
+        Organizador organizador = organizadoresPorLogin.get(login);
+        if (organizador == null) {
+            throw new IllegalArgumentException("No existe el organizador " + login);
+        }
+        if (!diasOcupados(venue).add(dia(fecha))) {
+            throw new IllegalArgumentException("El venue " + venue.getId() + " ya tiene un evento ese día");
+        }
+        Evento evento = new Evento(id, requerido(campos, "nombre"), fecha, venue, organizador);
+        eventosPorId.put(id, evento);
+        nuevosEventos.add(evento);
+    }
+
+    private int procesarTiquetes(HashMap<String, String> campos) {
+        String eventoId = requerido(campos, "eventoId");
+        Evento evento = eventosPorId.get(eventoId);
+        if (evento == null) {
+            throw new IllegalArgumentException("No existe el evento " + eventoId);
+        }
+        String localidadId = requerido(campos, "localidadId");
+        Localidad localidad = localidadesPorId.get(localidadId);
+        if (localidad == null) {
+            throw new IllegalArgumentException("No existe la localidad " + localidadId);
+        }
+        if (localidad.getVenue() != evento.getVenue()) {
+            throw new IllegalArgumentException("La localidad " + localidadId + " no es del venue del evento " + eventoId);
+        }
+        int cantidad = entero(campos, "cantidad");
+        double precio = decimal(campos, "precio");
+        if (precio < 0) {
+            throw new IllegalArgumentException("El precio no puede ser negativo");
+        }
+        // El inventario compacto guarda asientos, no precios: todos valen el precio base
+        if (localidad.usaInventarioCompacto()
+                && LibroMayor.aCentavos(precio) != LibroMayor.aCentavos(localidad.getPrecioBase())) {
+            throw new IllegalArgumentException("La localidad " + localidadId + " usa inventario compacto: el precio debe ser "
+                                               + localidad.getPrecioBase() + " (su precio base)");
+        }
+        // El inventario compacto tiene cupo por evento; la lista de tiquetes, por localidad
+        String claveCupo = localidad.usaInventarioCompacto() ? evento.getId() + "|" + localidadId : localidadId;
+        int libres = cupoLibre.computeIfAbsent(claveCupo, clave -> libresDe(evento, localidad));
+        if (cantidad > libres) {
+            throw new IllegalArgumentException("La localidad " + localidadId + " solo tiene cupo para " + libres + " tiquetes");
+        }
+        cupoLibre.put(claveCupo, libres - cantidad);
+        asignaciones.add(new Asignacion(evento, localidad, cantidad, precio));
+        return cantidad;
+    }
+
+    // ==================== APLICACIÓN ====================
+
+    /**
+     * Aplica todo lo validado. Los tiquetes se asignan antes de publicar los
+     * eventos, así el catálogo los indexa ya completos.
+     */
+    private void aplicar(Resultado resultado) {
+        for (Localidad localidad : nuevasLocalidades) {
+            localidad.getVenue().agregarLocalidad(localidad);
+        }
+        for (Evento evento : nuevosEventos) {
+            evento.getOrganizador().agregarEvento(evento);
+            evento.getVenue().programarEventoVerificado(evento, evento.getFechaHora());
+        }
+        for (Asignacion asignacion : asignaciones) {
+            asignar(asignacion);
+        }
+        gestor.agregarLote(nuevosVenues, nuevosEventos);
+        resultado.aplicado = true;
+    }
+
+    private void asignar(Asignacion asignacion) {
+        Localidad localidad = asignacion.localidad;
+        if (localidad.usaInventarioCompacto()) {
+            localidad.asignarTiquetesCompactos(asignacion.evento, asignacion.cantidad);
+            return;
+        }
+        String prefijo = "TQ-" + asignacion.evento.getId() + "-" + localidad.getId();
+        ArrayList<Tiquete> nuevos = new ArrayList<>(asignacion.cantidad);
+        for (int i = 0; i < asignacion.cantidad; i++) {
+            nuevos.add(new Tiquete(GeneradorIds.getInstancia().siguiente(prefijo), asignacion.precio,
+                                   asignacion.evento.getFechaHora(), localidad, asignacion.evento));
+        }
+        localidad.agregarTiquetesNuevos(nuevos);
+        asignacion.evento.agregarTiquetesNuevos(nuevos);
+    }
+
+    // ==================== AUXILIARES ====================
+
+    private Venue venue(String id) {
+        Venue venue = venuesPorId.get(id);
+        if (venue == null) {
+            throw new IllegalArgumentException("No existe el venue " + id);
+        }
+        return venue;
+    }
+
+    private HashSet<Integer> diasOcupados(Venue venue) {
+        return diasOcupados.computeIfAbsent(venue, v -> {
+            HashSet<Integer> dias = new HashSet<>();
+            for (Evento programado : v.getEventosProgramados()) {
+                dias.add(dia(programado.getFechaHora()));
+            }
+            return dias;
+        });
+    }
+
+    /**
+     * @return el día de la fecha como yyyymmdd (misma regla que Venue.estaDisponible)
+     */
+    private static int dia(Date fecha) {
+        Calendar calendario = Calendar.getInstance();
+        calendario.setTime(fecha);
+        return calendario.get(Calendar.YEAR) * 10000 + (calendario.get(Calendar.MONTH) + 1) * 100
+               + calendario.get(Calendar.DAY_OF_MONTH);
+    }
+
+    private static int libresDe(Evento evento, Localidad localidad) {
+        if (localidad.usaInventarioCompacto()) {
+            InventarioAsientos inventario = localidad.getInventario(evento);
+            return inventario != null ? inventario.getCapacidad() - inventario.getAsignados() : localidad.getCapacidad();
+        }
+        return Math.max(0, localidad.getCapacidad() - localidad.getTiquetesDisponibles());
+    }
+
+    private static String requerido(HashMap<String, String> campos, String nombre) {
+        String valor = campos.get(nombre);
+        if (valor == null || valor.isEmpty()) {
+            throw new IllegalArgumentException("Falta el campo " + nombre);
+        }
+        return valor;
+    }
+
+    private static int entero(HashMap<String, String> campos, String nombre) {
+        try {
+            int valor = Integer.parseInt(requerido(campos, nombre));
+            if (valor <= 0) {
+                throw new IllegalArgumentException("El campo " + nombre + " debe ser positivo");
+            }
+            return valor;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("El campo " + nombre + " no es un entero: " + campos.get(nombre));
+        }
+    }
+
+    private static double decimal(HashMap<String, String> campos, String nombre) {
+        try {
+            return Double.parseDouble(requerido(campos, nombre));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("El campo " + nombre + " no es un número: " + campos.get(nombre));
+        }
+    }
+
+    // ==================== FORMATOS ====================
+
+    /**
+     * Lee una línea CSV; los valores entre comillas pueden tener comas
+     */
+    private static HashMap<String, String> leerCsv(String linea) {
+        ArrayList<String> valores = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (c == '"') {
+                if (entreComillas && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    actual.append('"');
+                    i++;
+                } else {
+                    entreComillas = !entreComillas;
+                }
+            } else if (c == ',' && !entreComillas) {
+                valores.add(actual.toString().trim());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        valores.add(actual.toString().trim());
+
+        String tipo = valores.get(0).toUpperCase();
+        String[] nombres;
+        switch (tipo) {
+            case VENUE: nombres = CAMPOS_VENUE; break;
+            case LOCALIDAD: nombres = CAMPOS_LOCALIDAD; break;
+            case EVENTO: nombres = CAMPOS_EVENTO; break;
+            case TIQUETES: nombres = CAMPOS_TIQUETES; break;
+            default: throw new IllegalArgumentException("Tipo de registro desconocido: '" + valores.get(0) + "'");
+        }
+        if (valores.size() != nombres.length + 1) {
+            throw new IllegalArgumentException(tipo + " espera " + nombres.length + " campos y tiene " + (valores.size() - 1));
+        }
+        HashMap<String, String> campos = new HashMap<>();
+        campos.put("tipo", tipo);
+        for (int i = 0; i < nombres.length; i++) {
+            campos.put(nombres[i], valores.get(i + 1));
+        }
+        return campos;
+    }
+
+    /**
+     * Lee un objeto JSON plano: valores de texto, número o booleano, sin anidar
+     */
+    private static HashMap<String, String> leerJson(String linea) {
+        HashMap<String, String> campos = new HashMap<>();
+        int[] pos = {0};
+        saltarEspacios(linea, pos);
+        esperar(linea, pos, '{');
+        saltarEspacios(linea, pos);
+        if (pos[0] < linea.length() && linea.charAt(pos[0]) == '}') {
+            return campos;
+        }
+        while (true) {
+            saltarEspacios(linea, pos);
+            String clave = leerTextoJson(linea, pos);
+            saltarEspacios(linea, pos);
+            esperar(linea, pos, ':');
+            saltarEspacios(linea, pos);
+            String valor;
+            if (pos[0] < linea.length() && linea.charAt(pos[0]) == '"') {
+                valor = leerTextoJson(linea, pos);
+            } else {
+                int inicio = pos[0];
+                while (pos[0] < linea.length() && ",} \t".indexOf(linea.charAt(pos[0])) < 0) {
+                    pos[0]++;
+                }
+                valor = linea.substring(inicio, pos[0]);
+                if (valor.isEmpty() || valor.startsWith("{") || valor.startsWith("[")) {
+                    throw new IllegalArgumentException("Valor JSON no soportado para " + clave);
+                }
+                if (valor.equals("null")) {
+                    valor = null;
+                }
+            }
+            if (valor != null) {
+                campos.put(clave, valor);
+            }
+            saltarEspacios(linea, pos);
+            if (pos[0] < linea.length() && linea.charAt(pos[0]) == ',') {
+                pos[0]++;
+                continue;
+            }
+            esperar(linea, pos, '}');
+            return campos;
+        }
+    }
+
+    private static String leerTextoJson(String linea, int[] pos) {
+        esperar(linea, pos, '"');
+        StringBuilder texto = new StringBuilder();
+        while (pos[0] < linea.length()) {
+            char c = linea.charAt(pos[0]++);
+            if (c == '"') {
+                return texto.toString();
+            }
+            if (c == '\\' && pos[0] < linea.length()) {
+                char escapado = linea.charAt(pos[0]++);
+                switch (escapado) {
+                    case 'n': texto.append('\n'); break;
+                    case 't': texto.append('\t'); break;
+                    case 'u':
+                        if (pos[0] + 4 > linea.length()) {
+                            throw new IllegalArgumentException("Escape \\u incompleto");
+                        }
+                        texto.append((char) Integer.parseInt(linea.substring(pos[0], pos[0] + 4), 16));
+                        pos[0] += 4;
+                        break;
+                    default: texto.append(escapado);
+                }
+            } else {
+                texto.append(c);
+            }
+        }
+        throw new IllegalArgumentException("Texto JSON sin cerrar");
+    }
+
+    private static void saltarEspacios(String linea, int[] pos) {
+        while (pos[0] < linea.length() && Character.isWhitespace(linea.charAt(pos[0]))) {
+            pos[0]++;
+        }
+    }
+
+    private static void esperar(String linea, int[] pos, char esperado) {
+        if (pos[0] >= linea.length() || linea.charAt(pos[0]) != esperado) {
+            throw new IllegalArgumentException("JSON inválido: se esperaba '" + esperado + "' en la posición " + (pos[0] + 1));
+        }
+        pos[0]++;
+    }
+}
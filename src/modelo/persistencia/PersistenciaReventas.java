@@ -20,7 +20,7 @@ public class PersistenciaReventas {
         crearDirectorioSiNoExiste();
         
         try (PrintWriter writer = new PrintWriter(new FileWriter(ARCHIVO_REVENTAS))) {
-            writer.println("id,tiqueteId,vendedorLogin,precioReventa,fechaPublicacion,activo");
+            writer.println("id,tiqueteId,vendedorLogin,precioReventa,fechaPublicacion,activo,precioMinimo,precioAutoAceptar");
             
             for (TiqueteReventa reventa : reventas) {
                 writer.println(convertirReventaACSV(reventa));
@@ -72,7 +72,9 @@ public class PersistenciaReventas {
         csv.append(reventa.getVendedor().getLogin()).append(SEPARADOR);
         csv.append(reventa.getPrecioReventa()).append(SEPARADOR);
         csv.append(formatoFecha.format(reventa.getFechaPublicacion())).append(SEPARADOR);
-        csv.append(reventa.isActivo());
+        csv.append(reventa.isActivo()).append(SEPARADOR);
+        csv.append(reventa.getPrecioMinimo()).append(SEPARADOR);
+        csv.append(reventa.getPrecioAutoAceptar());
         
         return csv.toString();
     }
@@ -106,6 +108,12 @@ public class PersistenciaReventas {
             TiqueteReventa reventa = new TiqueteReventa(id, tiquete, vendedor, precioReventa);
             reventa.setActivo(activo);
             
+            // Reglas de contraoferta (los archivos antiguos no las tienen)
+            if (partes.length >= 8) {
+                reventa.setReglasContraoferta(Double.parseDouble(partes[6].trim()), 
+                                              Double.parseDouble(partes[7].trim()));
+            }
+            
             return reventa;
             
         } catch (Exception e) {
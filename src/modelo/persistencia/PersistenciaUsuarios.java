@@ -138,6 +138,10 @@ public class PersistenciaUsuarios {
         } else {
             csv.append("NORMAL");
         }
+        csv.append(SEPARADOR_ATRIBUTOS);
+        if (tiquete.tienePrecioPagado()) {
+            csv.append(tiquete.getPrecioPagado());
+        }
         
         return csv.toString();
     }
@@ -244,6 +248,10 @@ public class PersistenciaUsuarios {
             tiquete.setId(id);
             tiquete.setPrecioBase(precioBase);
             tiquete.setTransferible(transferible);
+            // El precio pagado es opcional: los archivos anteriores no lo traen
+            if (partes.length > 5 && !partes[5].trim().isEmpty()) {
+                tiquete.setPrecioPagado(Double.parseDouble(partes[5].trim()));
+            }
             if (utilizado) {
                 tiquete.marcarComoUtilizado();
             }
@@ -117,6 +117,10 @@ public class PersistenciaVenues {
         csv.append(localidad.isNumerada()).append(SEPARADOR_ATRIBUTOS);
         csv.append(localidad.getCapacidad()).append(SEPARADOR_ATRIBUTOS);
         csv.append(localidad.getPrecioBase());
+        if (localidad.tieneMapaAsientos()) {
+            csv.append(SEPARADOR_ATRIBUTOS).append(localidad.getFilasMapa());
+            csv.append(SEPARADOR_ATRIBUTOS).append(localidad.getAsientosPorFilaMapa());
+        }
         
         return csv.toString();
     }
@@ -205,6 +209,12 @@ public class PersistenciaVenues {
             localidad.setCapacidad(capacidad);
             localidad.setPrecioBase(precioBase);
             
+            // Filas del mapa de asientos (solo localidades numeradas que lo tienen)
+            if (partes.length >= 7) {
+                localidad.configurarMapaAsientos(Integer.parseInt(partes[5].trim()), 
+                                                 Integer.parseInt(partes[6].trim()));
+            }
+            
             return localidad;
             
         } catch (Exception e) {
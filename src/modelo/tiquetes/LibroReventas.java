@@ -0,0 +1,264 @@
+package modelo.tiquetes;
+
+import modelo.eventos.Evento;
+import modelo.eventos.Localidad;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+
+/**
+ * Libro de órdenes del mercado de reventa.
+ * Mantiene, por cada par evento/localidad, las reventas activas ordenadas por
+ * precio y luego por fecha de publicación (prioridad precio-tiempo).
+ * Las reventas salen del libro cuando se venden, cuando un administrador las
+ * elimina o cuando el evento ya pasó; en este último caso se descarta el libro
+ * completo, porque todos sus tiquetes vencen a la misma hora.
+ */
+public class LibroReventas {
+    private static final Comparator<TiqueteReventa> PRIORIDAD_PRECIO_TIEMPO =
+        Comparator.comparingDouble(TiqueteReventa::getPrecioReventa)
+                  .thenComparing(TiqueteReventa::getFechaPublicacion)
+                  .thenComparing(TiqueteReventa::getId);
+
+    private HashMap<String, TreeSet<TiqueteReventa>> libros; // clave evento/localidad -> reventas ordenadas
+    private HashMap<String, TiqueteReventa> reventaPorTiquete; // id tiquete -> reventa activa
+    private TreeMap<Long, HashSet<String>> librosPorVencimiento; // fecha del evento -> claves de libros
+    private volatile BiConsumer<Evento, Localidad> alCambiar; // aviso de cambio en un libro (puede ser null)
+
+    public LibroReventas() {
+        this.libros = new HashMap<>();
+        this.reventaPorTiquete = new HashMap<>();
+        this.librosPorVencimiento = new TreeMap<>();
+    }
+
+    /**
+     * Registra a quién avisar cuando se publica o retira una reventa de un evento/localidad
+     * (por ejemplo, al motor de precios dinámicos)
+     */
+    public void setAlCambiar(BiConsumer<Evento, Localidad> alCambiar) {
+        this.alCambiar = alCambiar;
+    }
+
+    // ==================== MÉTODOS DE PUBLICACIÓN ====================
+
+    /**
+     * Publica una reventa activa en el libro de su evento y localidad
+     * @param reventa - reventa a publicar
+     * @return true si se publicó
+     */
+    public synchronized boolean publicar(TiqueteReventa reventa) {
+        if (reventa == null || !reventa.isActivo() || reventaPorTiquete.containsKey(reventa.getTiquete().getId())) {
+            return false;
+        }
+        purgarVencidos();
+        if (!reventa.puedeSerRevendido()) {
+            return false;
+        }
+
+        String clave = calcularClave(reventa.getTiquete());
+        TreeSet<TiqueteReventa> libro = libros.get(clave);
+        if (libro == null) {
+            libro = new TreeSet<>(PRIORIDAD_PRECIO_TIEMPO);
+            libros.put(clave, libro);
+            librosPorVencimiento.computeIfAbsent(calcularVencimiento(reventa.getTiquete()), k -> new HashSet<>()).add(clave);
+        }
+        libro.add(reventa);
+        reventaPorTiquete.put(reventa.getTiquete().getId(), reventa);
+        avisarCambio(reventa);
+        return true;
+    }
+
+    /**
+     * Retira una reventa del libro (vendida o eliminada por un administrador)
+     * @param reventa - reventa a retirar
+     * @return true si estaba en el libro
+     */
+    public synchronized boolean retirar(TiqueteReventa reventa) {
+        if (reventa == null || reventaPorTiquete.get(reventa.getTiquete().getId()) != reventa) {
+            return false;
+        }
+        reventaPorTiquete.remove(reventa.getTiquete().getId());
+        String clave = calcularClave(reventa.getTiquete());
+        TreeSet<TiqueteReventa> libro = libros.get(clave);
+        if (libro != null) {
+            libro.remove(reventa);
+            if (libro.isEmpty()) {
+                eliminarLibro(clave, calcularVencimiento(reventa.getTiquete()));
+            }
+        }
+        avisarCambio(reventa);
+        return true;
+    }
+
+    /**
+     * Cambia el precio de una reventa publicada conservando el orden del libro
+     * @param reventa - reventa publicada
+     * @param nuevoPrecio - nuevo precio de reventa
+     */
+    public synchronized void actualizarPrecio(TiqueteReventa reventa, double nuevoPrecio) {
+        boolean estabaPublicada = retirar(reventa);
+        reventa.setPrecioReventa(nuevoPrecio);
+        if (estabaPublicada) {
+            publicar(reventa);
+        }
+    }
+
+    // ==================== MÉTODOS DE CONSULTA ====================
+
+    /**
+     * @return la reventa más barata (y más antigua a igual precio) o null si no hay
+     */
+    public synchronized TiqueteReventa mejorOferta(Evento evento, Localidad localidad) {
+        TreeSet<TiqueteReventa> libro = obtenerLibroVigente(evento, localidad);
+        return libro != null ? libro.first() : null;
+    }
+
+    /**
+     * @return cantidad de reventas activas para el evento y localidad
+     */
+    public synchronized int profundidad(Evento evento, Localidad localidad) {
+        TreeSet<TiqueteReventa> libro = obtenerLibroVigente(evento, localidad);
+        return libro != null ? libro.size() : 0;
+    }
+
+    /**
+     * Obtiene las primeras reventas del libro sin retirarlas
+     * @param cantidad - número máximo de reventas
+     * @return reventas en orden de prioridad precio-tiempo
+     */
+    public synchronized ArrayList<TiqueteReventa> getMejoresOfertas(Evento evento, Localidad localidad, int cantidad) {
+        ArrayList<TiqueteReventa> resultado = new ArrayList<>();
+        TreeSet<TiqueteReventa> libro = obtenerLibroVigente(evento, localidad);
+        if (libro != null) {
+            Iterator<TiqueteReventa> iterador = libro.iterator();
+            while (iterador.hasNext() && resultado.size() < cantidad) {
+                resultado.add(iterador.next());
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Retira del libro las N reventas más baratas para liquidarlas.
+     * Si la liquidación de alguna falla, debe devolverse con publicar().
+     * @param cantidad - número de reventas a tomar
+     * @return reventas retiradas en orden de prioridad
+     */
+    public synchronized ArrayList<TiqueteReventa> tomarMasBaratas(Evento evento, Localidad localidad, int cantidad) {
+        ArrayList<TiqueteReventa> tomadas = new ArrayList<>();
+        TreeSet<TiqueteReventa> libro = obtenerLibroVigente(evento, localidad);
+        while (libro != null && !libro.isEmpty() && tomadas.size() < cantidad) {
+            TiqueteReventa reventa = libro.first();
+            retirar(reventa);
+            tomadas.add(reventa);
+        }
+        return tomadas;
+    }
+
+    /**
+     * @return reventa activa de un tiquete o null si no está publicado
+     */
+    public synchronized TiqueteReventa buscarPorTiquete(Tiquete tiquete) {
+        if (tiquete == null) {
+            return null;
+        }
+        purgarVencidos();
+        return reventaPorTiquete.get(tiquete.getId());
+    }
+
+    /**
+     * @return todas las reventas activas agrupadas por libro y en orden de prioridad
+     */
+    public synchronized ArrayList<TiqueteReventa> getReventasActivas() {
+        purgarVencidos();
+        ArrayList<TiqueteReventa> activas = new ArrayList<>();
+        for (TreeSet<TiqueteReventa> libro : libros.values()) {
+            activas.addAll(libro);
+        }
+        return activas;
+    }
+
+    /**
+     * @return cantidad total de reventas activas
+     */
+    public synchronized int getCantidadReventas() {
+        purgarVencidos();
+        return reventaPorTiquete.size();
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * Obtiene el libro de un evento/localidad descartando antes los libros vencidos
+     */
+    private TreeSet<TiqueteReventa> obtenerLibroVigente(Evento evento, Localidad localidad) {
+        purgarVencidos();
+        TreeSet<TiqueteReventa> libro = libros.get(calcularClave(evento, localidad));
+        // Un tiquete usado deja de ser revendible antes de que pase el evento
+        while (libro != null && !libro.isEmpty() && !libro.first().puedeSerRevendido()) {
+            TiqueteReventa invalida = libro.first();
+            invalida.setActivo(false);
+            retirar(invalida);
+            libro = libros.get(calcularClave(evento, localidad));
+        }
+        return libro;
+    }
+
+    /**
+     * Descarta los libros de eventos que ya ocurrieron, en orden de fecha
+     */
+    private void purgarVencidos() {
+        long ahora = System.currentTimeMillis();
+        while (!librosPorVencimiento.isEmpty() && librosPorVencimiento.firstKey() <= ahora) {
+            Map.Entry<Long, HashSet<String>> vencidos = librosPorVencimiento.pollFirstEntry();
+            for (String clave : vencidos.getValue()) {
+                TreeSet<TiqueteReventa> libro = libros.remove(clave);
+                if (libro != null) {
+                    for (TiqueteReventa reventa : libro) {
+                        reventa.setActivo(false);
+                        reventaPorTiquete.remove(reventa.getTiquete().getId());
+                    }
+                }
+            }
+        }
+    }
+
+    private void avisarCambio(TiqueteReventa reventa) {
+        BiConsumer<Evento, Localidad> aviso = alCambiar;
+        if (aviso != null) {
+            aviso.accept(reventa.getTiquete().getEvento(), reventa.getTiquete().getLocalidad());
+        }
+    }
+
+    private void eliminarLibro(String clave, long vencimiento) {
+        libros.remove(clave);
+        HashSet<String> claves = librosPorVencimiento.get(vencimiento);
+        if (claves != null) {
+            claves.remove(clave);
+            if (claves.isEmpty()) {
+                librosPorVencimiento.remove(vencimiento);
+            }
+        }
+    }
+
+    private long calcularVencimiento(Tiquete tiquete) {
+        return tiquete.getFechaHora() != null ? tiquete.getFechaHora().getTime() : Long.MAX_VALUE;
+    }
+
+    private String calcularClave(Tiquete tiquete) {
+        return calcularClave(tiquete.getEvento(), tiquete.getLocalidad());
+    }
+
+    private String calcularClave(Evento evento, Localidad localidad) {
+        String eventoId = evento != null ? evento.getId() : "?";
+        String localidadId = localidad != null ? localidad.getId() : "?";
+        return eventoId + "|" + localidadId;
+    }
+}
@@ -0,0 +1,183 @@
+package modelo.tiquetes;
+
+import modelo.usuarios.Usuario;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.TreeSet;
+
+/**
+ * Motor de emparejamiento de contraofertas.
+ * Cada contraoferta entrante se compara en tiempo constante con las reglas de su
+ * reventa (precio mínimo y precio de aceptación automática). Las que quedan
+ * pendientes se guardan por reventa de la mejor a la peor (mayor precio y, a
+ * igual precio, la más antigua), de modo que las pujas en competencia se
+ * atienden en orden de precio y las perdedoras se rechazan en un solo lote
+ * cuando la reventa se cierra.
+ */
+public class MotorContraofertas {
+    public enum Decision { ACEPTAR, RECHAZAR, PENDIENTE }
+
+    private static final Comparator<Contraoferta> PRIORIDAD_PRECIO_TIEMPO =
+        Comparator.comparingDouble(Contraoferta::getPrecioOfertado).reversed()
+                  .thenComparing(Contraoferta::getFechaOferta)
+                  .thenComparing(Contraoferta::getId);
+
+    private HashMap<String, TreeSet<Contraoferta>> pendientesPorReventa; // id reventa -> pujas ordenadas
+    private HashMap<String, Contraoferta> pendientePorComprador; // id reventa + login -> puja pendiente
+
+    public MotorContraofertas() {
+        this.pendientesPorReventa = new HashMap<>();
+        this.pendientePorComprador = new HashMap<>();
+    }
+
+    // ==================== MÉTODOS DE EVALUACIÓN ====================
+
+    /**
+     * Evalúa un precio ofertado contra las reglas de la reventa
+     * @return ACEPTAR, RECHAZAR o PENDIENTE (decide el vendedor)
+     */
+    public static Decision evaluar(TiqueteReventa reventa, double precioOfertado) {
+        if (precioOfertado < reventa.getPrecioMinimo()) {
+            return Decision.RECHAZAR;
+        }
+        if (reventa.tieneAutoAceptacion() && precioOfertado >= reventa.getPrecioAutoAceptar()) {
+            return Decision.ACEPTAR;
+        }
+        return Decision.PENDIENTE;
+    }
+
+    /**
+     * Recibe una contraoferta nueva: la evalúa y, si queda pendiente, la registra.
+     * Las decisiones ACEPTAR y RECHAZAR deben liquidarse por quien llama.
+     * @param contraoferta - contraoferta entrante
+     * @return decisión tomada
+     */
+    public synchronized Decision recibir(Contraoferta contraoferta) {
+        Decision decision = evaluar(contraoferta.getTiqueteReventa(), contraoferta.getPrecioOfertado());
+        if (decision == Decision.PENDIENTE) {
+            registrar(contraoferta);
+        }
+        return decision;
+    }
+
+    /**
+     * Registra una contraoferta pendiente (por ejemplo, al cargar los datos)
+     */
+    public synchronized void registrar(Contraoferta contraoferta) {
+        if (contraoferta == null || !contraoferta.estaPendiente()) {
+            return;
+        }
+        String reventaId = contraoferta.getTiqueteReventa().getId();
+        pendientesPorReventa.computeIfAbsent(reventaId, k -> new TreeSet<>(PRIORIDAD_PRECIO_TIEMPO)).add(contraoferta);
+        pendientePorComprador.put(calcularClave(reventaId, contraoferta.getComprador()), contraoferta);
+    }
+
+    /**
+     * Retira una contraoferta de las pendientes (aceptada o rechazada a mano)
+     * @return true si estaba registrada
+     */
+    public synchronized boolean retirar(Contraoferta contraoferta) {
+        String reventaId = contraoferta.getTiqueteReventa().getId();
+        TreeSet<Contraoferta> pendientes = pendientesPorReventa.get(reventaId);
+        if (pendientes == null || !pendientes.remove(contraoferta)) {
+            return false;
+        }
+        pendientePorComprador.remove(calcularClave(reventaId, contraoferta.getComprador()));
+        if (pendientes.isEmpty()) {
+            pendientesPorReventa.remove(reventaId);
+        }
+        return true;
+    }
+
+    // ==================== MÉTODOS DE CIERRE ====================
+
+    /**
+     * Cierra una reventa rechazando en un solo lote todas sus contraofertas pendientes
+     * @param reventa - reventa vendida o eliminada
+     * @return contraofertas rechazadas
+     */
+    public synchronized ArrayList<Contraoferta> cerrarReventa(TiqueteReventa reventa) {
+        ArrayList<Contraoferta> rechazadas = new ArrayList<>();
+        TreeSet<Contraoferta> pendientes = pendientesPorReventa.remove(reventa.getId());
+        if (pendientes == null) {
+            return rechazadas;
+        }
+        for (Contraoferta contra : pendientes) {
+            contra.rechazar();
+            pendientePorComprador.remove(calcularClave(reventa.getId(), contra.getComprador()));
+            rechazadas.add(contra);
+        }
+        return rechazadas;
+    }
+
+    /**
+     * Rechaza en lote las pendientes que quedaron por debajo del precio mínimo
+     * (se usa cuando el vendedor cambia las reglas). Recorre desde la peor puja.
+     * @return contraofertas rechazadas
+     */
+    public synchronized ArrayList<Contraoferta> rechazarBajoMinimo(TiqueteReventa reventa) {
+        ArrayList<Contraoferta> rechazadas = new ArrayList<>();
+        TreeSet<Contraoferta> pendientes = pendientesPorReventa.get(reventa.getId());
+        if (pendientes == null) {
+            return rechazadas;
+        }
+        Iterator<Contraoferta> iterador = pendientes.descendingIterator();
+        while (iterador.hasNext()) {
+            Contraoferta contra = iterador.next();
+            if (contra.getPrecioOfertado() >= reventa.getPrecioMinimo()) {
+                break;
+            }
+            iterador.remove();
+            contra.rechazar();
+            pendientePorComprador.remove(calcularClave(reventa.getId(), contra.getComprador()));
+            rechazadas.add(contra);
+        }
+        if (pendientes.isEmpty()) {
+            pendientesPorReventa.remove(reventa.getId());
+        }
+        return rechazadas;
+    }
+
+    // ==================== MÉTODOS DE CONSULTA ====================
+
+    /**
+     * @return la mejor contraoferta pendiente de una reventa o null
+     */
+    public synchronized Contraoferta mejorPendiente(TiqueteReventa reventa) {
+        TreeSet<Contraoferta> pendientes = pendientesPorReventa.get(reventa.getId());
+        return pendientes != null ? pendientes.first() : null;
+    }
+
+    /**
+     * @return la mejor pendiente si alcanza el precio de aceptación automática, o null
+     */
+    public synchronized Contraoferta ganadoraAutomatica(TiqueteReventa reventa) {
+        Contraoferta mejor = mejorPendiente(reventa);
+        if (mejor != null && evaluar(reventa, mejor.getPrecioOfertado()) == Decision.ACEPTAR) {
+            return mejor;
+        }
+        return null;
+    }
+
+    /**
+     * @return contraoferta pendiente de un comprador para una reventa, o null
+     */
+    public synchronized Contraoferta buscarPendiente(TiqueteReventa reventa, Usuario comprador) {
+        return pendientePorComprador.get(calcularClave(reventa.getId(), comprador));
+    }
+
+    /**
+     * @return pendientes de una reventa de la mejor a la peor
+     */
+    public synchronized ArrayList<Contraoferta> getPendientes(TiqueteReventa reventa) {
+        TreeSet<Contraoferta> pendientes = pendientesPorReventa.get(reventa.getId());
+        return pendientes != null ? new ArrayList<>(pendientes) : new ArrayList<>();
+    }
+
+    private String calcularClave(String reventaId, Usuario comprador) {
+        return reventaId + "|" + comprador.getLogin();
+    }
+}
@@ -0,0 +1,276 @@
+package modelo.tiquetes;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Function;
+
+import modelo.eventos.Evento;
+import modelo.usuarios.Usuario;
+
+/**
+ * Índice global de propiedad de tiquetes.
+ * Guarda el propietario actual de cada tiquete (id -> usuario) y, para cada
+ * tiquete, la cadena de traspasos en el orden en que ocurrieron. La cadena solo
+ * crece: un traspaso registrado no se modifica ni se borra. Así verificar quién
+ * es el dueño o mover un tiquete no depende de recorrer los historiales de los
+ * compradores, y se puede responder quién tuvo un tiquete en cualquier momento.
+ * Además se indexan los tiquetes por evento: como el dueño de cada tiquete se
+ * resuelve en el mapa de propietarios, las transferencias y reventas no tocan
+ * este índice y al cancelar un evento solo se recorren sus propios tiquetes.
+ *
+ * Cada traspaso se anota en un diario de solo agregar (cargar), así que la
+ * cadena sobrevive a los reinicios tal como ocurrió.
+ * Formato de una línea: tiquete;origen;destino;fecha;tipo
+ */
+public class RegistroPropiedad {
+    public static final String ARCHIVO_PROPIEDAD = "data/propiedad.csv";
+    private static final String SEPARADOR = ";";
+
+    public enum TipoTraspaso {
+        CARGA,          // Propiedad reconstruida al cargar los datos
+        COMPRA,         // Compra directa en taquilla
+        TRANSFERENCIA,  // Transferencia entre compradores
+        REVENTA         // Venta en el mercado de reventa
+    }
+
+    /**
+     * Un eslabón de la cadena de propiedad de un tiquete
+     */
+    public static class Traspaso {
+        private final String origen; // null en la primera asignación
+        private final String destino;
+        private final Date fecha;
+        private final TipoTraspaso tipo;
+
+        Traspaso(String origen, String destino, Date fecha, TipoTraspaso tipo) {
+            this.origen = origen;
+            this.destino = destino;
+            this.fecha = fecha;
+            this.tipo = tipo;
+        }
+
+        public String getOrigen() { return origen; }
+        public String getDestino() { return destino; }
+        public Date getFecha() { return new Date(fecha.getTime()); }
+        public TipoTraspaso getTipo() { return tipo; }
+
+        @Override
+        public String toString() {
+            return tipo + ": " + (origen != null ? origen : "-") + " -> " + destino;
+        }
+    }
+
+    private HashMap<String, Usuario> propietarioPorTiquete;
+    private HashMap<String, ArrayList<Traspaso>> cadenaPorTiquete;
+    private HashMap<String, LinkedHashSet<Tiquete>> tiquetesPorEvento; // eventoId -> tiquetes
+    private File diario; // null hasta cargar: sin diario los traspasos no se anotan
+
+    public RegistroPropiedad() {
+        this.propietarioPorTiquete = new HashMap<>();
+        this.cadenaPorTiquete = new HashMap<>();
+        this.tiquetesPorEvento = new HashMap<>();
+    }
+
+    // ==================== REGISTRO DE TRASPASOS ====================
+
+    /**
+     * Registra al primer propietario de un tiquete
+     * @return false si el tiquete ya tenía propietario
+     */
+    public synchronized boolean registrar(Tiquete tiquete, Usuario propietario, TipoTraspaso tipo) {
+        if (tiquete == null || propietario == null || propietarioPorTiquete.containsKey(tiquete.getId())) {
+            return false;
+        }
+        propietarioPorTiquete.put(tiquete.getId(), propietario);
+        Traspaso traspaso = new Traspaso(null, propietario.getLogin(), new Date(), tipo);
+        agregarTraspaso(tiquete.getId(), traspaso);
+        indexarPorEvento(tiquete);
+        anotar(tiquete.getId(), traspaso);
+        return true;
+    }
+
+    /**
+     * Pasa un tiquete de su propietario actual a otro usuario
+     * @return false si el origen no es el propietario actual
+     */
+    public synchronized boolean traspasar(Tiquete tiquete, Usuario origen, Usuario destino, TipoTraspaso tipo) {
+        if (tiquete == null || destino == null || !esPropietario(origen, tiquete)) {
+            return false;
+        }
+        propietarioPorTiquete.put(tiquete.getId(), destino);
+        Traspaso traspaso = new Traspaso(origen.getLogin(), destino.getLogin(), new Date(), tipo);
+        agregarTraspaso(tiquete.getId(), traspaso);
+        anotar(tiquete.getId(), traspaso);
+        return true;
+    }
+
+    private void agregarTraspaso(String tiqueteId, Traspaso traspaso) {
+        cadenaPorTiquete.computeIfAbsent(tiqueteId, k -> new ArrayList<>(2)).add(traspaso);
+    }
+
+    private void indexarPorEvento(Tiquete tiquete) {
+        if (tiquete.getEvento() != null && tiquete.getEvento().getId() != null) {
+            tiquetesPorEvento.computeIfAbsent(tiquete.getEvento().getId(), k -> new LinkedHashSet<>()).add(tiquete);
+        }
+    }
+
+    // ==================== DIARIO ====================
+
+    private void anotar(String tiqueteId, Traspaso traspaso) {
+        if (diario == null) {
+            return;
+        }
+        File directorio = diario.getParentFile();
+        if (directorio != null) {
+            directorio.mkdirs();
+        }
+        try (PrintWriter writer = new PrintWriter(new FileWriter(diario, true))) {
+            writer.println(tiqueteId + SEPARADOR + (traspaso.origen != null ? traspaso.origen : "") + SEPARADOR
+                    + traspaso.destino + SEPARADOR + traspaso.fecha.getTime() + SEPARADOR + traspaso.tipo);
+        } catch (IOException e) {
+            System.err.println("Error al anotar el traspaso: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reconstruye las cadenas del diario y desde entonces anota en él cada traspaso
+     * nuevo. Se llama al iniciar, después de cargar los usuarios; solo los tiquetes
+     * que no aparecen en el diario quedan para registrarse como CARGA.
+     * @param archivo - diario de traspasos
+     * @param usuarios - busca un usuario por login
+     * @param tiquetes - busca un tiquete por id (para el índice por evento)
+     * @return cantidad de traspasos cargados
+     */
+    public synchronized int cargar(File archivo, Function<String, Usuario> usuarios, Function<String, Tiquete> tiquetes) {
+        if (diario != null) {
+            return 0;
+        }
+        diario = archivo;
+        if (!archivo.exists()) {
+            return 0;
+        }
+        int cargados = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(archivo))) {
+            String linea;
+            while ((linea = reader.readLine()) != null) {
+                String[] partes = linea.split(SEPARADOR, -1);
+                if (partes.length != 5) {
+                    continue;
+                }
+                Usuario destino = usuarios.apply(partes[2]);
+                if (destino == null) {
+                    System.out.println("Error: Propietario no encontrado para el tiquete " + partes[0]);
+                    continue;
+                }
+                try {
+                    Traspaso traspaso = new Traspaso(partes[1].isEmpty() ? null : partes[1], partes[2],
+                                                     new Date(Long.parseLong(partes[3])), TipoTraspaso.valueOf(partes[4]));
+                    propietarioPorTiquete.put(partes[0], destino);
+                    agregarTraspaso(partes[0], traspaso);
+                    Tiquete tiquete = tiquetes.apply(partes[0]);
+                    if (tiquete != null) {
+                        indexarPorEvento(tiquete);
+                    }
+                    cargados++;
+                } catch (IllegalArgumentException e) {
+                    // Línea incompleta (p. ej. un corte a mitad de escritura): se ignora
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error al cargar los traspasos: " + e.getMessage());
+        }
+        return cargados;
+    }
+
+    // ==================== CONSULTAS ====================
+
+    public synchronized boolean esPropietario(Usuario usuario, Tiquete tiquete) {
+        return usuario != null && tiquete != null && propietarioPorTiquete.get(tiquete.getId()) == usuario;
+    }
+
+    /**
+     * @return propietario actual del tiquete o null si no está registrado
+     */
+    public synchronized Usuario getPropietario(Tiquete tiquete) {
+        return tiquete == null ? null : propietarioPorTiquete.get(tiquete.getId());
+    }
+
+    /**
+     * @return traspasos del tiquete, del más antiguo al más reciente
+     */
+    public synchronized List<Traspaso> getCadena(Tiquete tiquete) {
+        ArrayList<Traspaso> cadena = tiquete == null ? null : cadenaPorTiquete.get(tiquete.getId());
+        return cadena == null ? Collections.emptyList() : new ArrayList<>(cadena);
+    }
+
+    /**
+     * @return logins de todos los que han tenido el tiquete, en orden y sin repetir
+     */
+    public synchronized ArrayList<String> getPropietariosHistoricos(Tiquete tiquete) {
+        ArrayList<String> propietarios = new ArrayList<>();
+        for (Traspaso traspaso : getCadena(tiquete)) {
+            if (!propietarios.contains(traspaso.getDestino())) {
+                propietarios.add(traspaso.getDestino());
+            }
+        }
+        return propietarios;
+    }
+
+    /**
+     * @return true si el usuario fue propietario del tiquete en algún momento
+     */
+    public synchronized boolean fuePropietario(Usuario usuario, Tiquete tiquete) {
+        return usuario != null && getPropietariosHistoricos(tiquete).contains(usuario.getLogin());
+    }
+
+    // ==================== ÍNDICE POR EVENTO ====================
+
+    /**
+     * @return tiquetes vigentes del evento, sin importar quién los tenga ahora
+     */
+    public synchronized ArrayList<Tiquete> getTiquetesDelEvento(Evento evento) {
+        ArrayList<Tiquete> vigentes = new ArrayList<>();
+        if (evento == null) {
+            return vigentes;
+        }
+        LinkedHashSet<Tiquete> tiquetes = tiquetesPorEvento.get(evento.getId());
+        if (tiquetes != null) {
+            for (Tiquete tiquete : tiquetes) {
+                if (tiquete.estaVigente()) {
+                    vigentes.add(tiquete);
+                }
+            }
+        }
+        return vigentes;
+    }
+
+    /**
+     * Agrupa los tiquetes vigentes del evento por su propietario actual
+     * @return propietario -> tiquetes, en el orden en que se registraron
+     */
+    public synchronized LinkedHashMap<Usuario, ArrayList<Tiquete>> getTenedores(Evento evento) {
+        LinkedHashMap<Usuario, ArrayList<Tiquete>> tenedores = new LinkedHashMap<>();
+        for (Tiquete tiquete : getTiquetesDelEvento(evento)) {
+            Usuario propietario = propietarioPorTiquete.get(tiquete.getId());
+            if (propietario != null) {
+                tenedores.computeIfAbsent(propietario, k -> new ArrayList<>()).add(tiquete);
+            }
+        }
+        return tenedores;
+    }
+
+    public synchronized int getCantidadTiquetes() {
+        return propietarioPorTiquete.size();
+    }
+}
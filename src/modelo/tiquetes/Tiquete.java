@@ -16,6 +16,7 @@ public class Tiquete {
     protected Localidad localidad;
     protected Evento evento;
     protected boolean utilizado; // Para controlar si ya fue usado
+    protected double precioPagado = -1; // precio cobrado al emitirlo (-1 si no se ha cobrado)
     
     // Constructor de Tiquete
     public Tiquete(String id, double precioBase, Date fechaHora, Localidad localidad, Evento evento) {
@@ -40,6 +41,7 @@ public class Tiquete {
     public void setLocalidad(Localidad localidad) { this.localidad = localidad; }
     public void setEvento(Evento evento) { this.evento = evento; }
     public void setUtilizado(boolean utilizado) { this.utilizado = utilizado; }
+    public void setPrecioPagado(double precioPagado) { this.precioPagado = precioPagado; }
     
     // ==================== MÉTODOS GETTER ====================
     
@@ -47,6 +49,14 @@ public class Tiquete {
 
     public double getPrecioBase() { return precioBase; }
 
+    /**
+     * @return precio cobrado al emitir el tiquete (sin cargos), o el precio base
+     *         si se emitió sin cobro o antes de guardar el precio cobrado
+     */
+    public double getPrecioPagado() { return precioPagado >= 0 ? precioPagado : precioBase; }
+
+    public boolean tienePrecioPagado() { return precioPagado >= 0; }
+
     public Date getFechaHora() { return fechaHora; }
 
     public boolean getEsTransferible() { return transferible; }
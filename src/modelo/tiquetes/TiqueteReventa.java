@@ -13,6 +13,8 @@ public class TiqueteReventa {
     private double precioReventa;
     private Date fechaPublicacion;
     private boolean activo;
+    private double precioMinimo; // Contraofertas por debajo se rechazan automáticamente (0 = sin mínimo)
+    private double precioAutoAceptar; // Contraofertas iguales o superiores se aceptan automáticamente (0 = desactivado)
     
     public TiqueteReventa(String id, Tiquete tiquete, Usuario vendedor, double precioReventa) {
         this.id = id;
@@ -30,10 +32,35 @@ public class TiqueteReventa {
     public double getPrecioReventa() { return precioReventa; }
     public Date getFechaPublicacion() { return fechaPublicacion; }
     public boolean isActivo() { return activo; }
+    public double getPrecioMinimo() { return precioMinimo; }
+    public double getPrecioAutoAceptar() { return precioAutoAceptar; }
     
     public void setPrecioReventa(double precioReventa) { this.precioReventa = precioReventa; }
     public void setActivo(boolean activo) { this.activo = activo; }
     
+    /**
+     * Configura las reglas automáticas para las contraofertas
+     * @param precioMinimo - precio por debajo del cual se rechaza (0 = sin mínimo)
+     * @param precioAutoAceptar - precio desde el cual se acepta sin intervención (0 = desactivado)
+     */
+    public void setReglasContraoferta(double precioMinimo, double precioAutoAceptar) {
+        if (precioMinimo < 0 || precioAutoAceptar < 0) {
+            throw new IllegalArgumentException("Los precios de las reglas no pueden ser negativos");
+        }
+        if (precioMinimo >= precioReventa) {
+            throw new IllegalArgumentException("El precio mínimo debe ser menor al precio de reventa");
+        }
+        if (precioAutoAceptar > 0 && (precioAutoAceptar < precioMinimo || precioAutoAceptar >= precioReventa)) {
+            throw new IllegalArgumentException("El precio de aceptación automática debe estar entre el mínimo y el precio de reventa");
+        }
+        this.precioMinimo = precioMinimo;
+        this.precioAutoAceptar = precioAutoAceptar;
+    }
+    
+    public boolean tieneAutoAceptacion() {
+        return precioAutoAceptar > 0;
+    }
+    
     /**
      * Verifica si el tiquete puede ser revendido
      */
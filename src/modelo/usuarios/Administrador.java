@@ -4,8 +4,15 @@ import modelo.eventos.Venue;
 import modelo.eventos.Evento;
 import modelo.pagos.Pagos;
 import modelo.pagos.Compra;
+import modelo.pagos.AgregadosIngresos;
+import modelo.pagos.ReembolsoMasivo;
+import modelo.tiquetes.RegistroPropiedad;
 import modelo.tiquetes.Tiquete;
+import java.io.File;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Clase que representa al Administrador del sistema.
@@ -53,6 +60,11 @@ public class Administrador extends Usuario {
         throw new UnsupportedOperationException("El administrador no puede tener saldo virtual");
     }
     
+    @Override
+    public void acreditar(long centavos, String concepto) {
+        throw new UnsupportedOperationException("El administrador no puede tener saldo virtual");
+    }
+    
     @Override
     public double getSaldoVirtual() {
         return 0.0; // Siempre 0 para administrador
@@ -115,46 +127,67 @@ public class Administrador extends Usuario {
      */
     public void cancelarEvento(Evento evento, ArrayList<Comprador> compradoresConTiquetes) {
         if (evento != null) {
-            evento.rechazar(); // Marcamos el evento como rechazado/cancelado
-            System.out.println("Evento '" + evento.getNombre() + "' cancelado por el administrador: " + this.login);
-            
-            // Procesar reembolsos a los compradores afectados
-            procesarReembolsosPorCancelacion(evento, compradoresConTiquetes);
+            LinkedHashMap<Usuario, ArrayList<Tiquete>> tenedores = new LinkedHashMap<>();
+            for (Comprador comprador : compradoresConTiquetes) {
+                ArrayList<Tiquete> tiquetesEvento = obtenerTiquetesDelEvento(comprador, evento);
+                if (!tiquetesEvento.isEmpty()) {
+                    tenedores.put(comprador, tiquetesEvento);
+                }
+            }
+            cancelarEvento(evento, tenedores, null, null);
         }
     }
     
     /**
-     * Procesa reembolsos por cancelación de evento
-     * @param evento - evento cancelado
-     * @param compradores - compradores con tiquetes del evento
+     * Cancela un evento usando el índice de tiquetes por evento del registro de
+     * propiedad, de modo que solo se recorren los tiquetes afectados
+     * @param evento - evento a cancelar
+     * @param registro - registro de propiedad de los tiquetes
      */
-    private void procesarReembolsosPorCancelacion(Evento evento, ArrayList<Comprador> compradores) {
-        Pagos servicioPagos = Pagos.getInstancia();
-        int reembolsosProcesados = 0;
-        double totalReembolsado = 0;
-        
-        for (Comprador comprador : compradores) {
-            // Buscar tiquetes del comprador para este evento
-            ArrayList<Tiquete> tiquetesEvento = obtenerTiquetesDelEvento(comprador, evento);
-            
-            for (Tiquete tiquete : tiquetesEvento) {
-                // DELEGAR CÁLCULO A PAGOS - Cancelación: true
-                double montoReembolso = servicioPagos.calcularMontoReembolso(tiquete, true, this.cobroFijo);
-                
-                if (montoReembolso > 0) {
-                    servicioPagos.procesarReembolsoSaldo(comprador, montoReembolso, 
-                        "Cancelación evento: " + evento.getNombre());
-                    reembolsosProcesados++;
-                    totalReembolsado += montoReembolso;
-                    
-                    // Marcar tiquete como no vigente
-                    tiquete.marcarComoUtilizado();
-                }
-            }
+    public void cancelarEvento(Evento evento, RegistroPropiedad registro) {
+        cancelarEvento(evento, registro, null, null);
+    }
+    
+    /**
+     * Cancela un evento y reembolsa a los propietarios actuales con el trabajo
+     * de reembolsos masivos
+     * @param archivoControl - punto de control para reanudar los reembolsos (null para no guardarlo)
+     * @param guardado - guarda billeteras y libro mayor antes de confirmar cada lote (null para no guardar)
+     * @return el trabajo de reembolsos, o null si no se pudo cancelar
+     */
+    public ReembolsoMasivo cancelarEvento(Evento evento, RegistroPropiedad registro, File archivoControl,
+                                          Runnable guardado) {
+        if (evento == null || registro == null) {
+            return null;
         }
+        return cancelarEvento(evento, registro.getTenedores(evento), archivoControl, guardado);
+    }
+    
+    private ReembolsoMasivo cancelarEvento(Evento evento, LinkedHashMap<Usuario, ArrayList<Tiquete>> tenedores,
+                                          File archivoControl, Runnable guardado) {
+        evento.rechazar(); // Marcamos el evento como rechazado/cancelado
+        System.out.println("Evento '" + evento.getNombre() + "' cancelado por el administrador: " + this.login);
         
-        System.out.println("Reembolsos procesados: " + reembolsosProcesados + " tiquetes");
-        System.out.println("Total reembolsado: $" + totalReembolsado);
+        // Procesar reembolsos a los compradores afectados
+        return procesarReembolsosPorCancelacion(evento, tenedores, archivoControl, guardado);
+    }
+    
+    /**
+     * Procesa reembolsos por cancelación de evento. También sirve para reanudar
+     * los reembolsos de un evento ya cancelado con el mismo punto de control.
+     * @param evento - evento cancelado
+     * @param tenedores - propietario actual -> tiquetes vigentes del evento
+     * @param archivoControl - punto de control de los reembolsos (null para no guardarlo)
+     * @param guardado - guarda billeteras y libro mayor antes de confirmar cada lote (null para no guardar)
+     */
+    public ReembolsoMasivo procesarReembolsosPorCancelacion(Evento evento, LinkedHashMap<Usuario, ArrayList<Tiquete>> tenedores,
+                                                            File archivoControl, Runnable guardado) {
+        ReembolsoMasivo trabajo = new ReembolsoMasivo(evento, this.cobroFijo, archivoControl, guardado);
+        trabajo.ejecutar(tenedores, ReembolsoMasivo.HILOS_POR_DEFECTO, ReembolsoMasivo.TAMANO_LOTE_POR_DEFECTO);
+        
+        System.out.println("Reembolsos procesados: " + trabajo.getProcesados() + " tiquetes");
+        System.out.println("Total reembolsado: $" + trabajo.getMontoReembolsado());
+        return trabajo;
     }
     
     /**
@@ -163,7 +196,7 @@ public class Administrador extends Usuario {
     private ArrayList<Tiquete> obtenerTiquetesDelEvento(Comprador comprador, Evento evento) {
         ArrayList<Tiquete> tiquetesEvento = new ArrayList<>();
         for (Tiquete tiquete : comprador.getHistorialTiquetes()) {
-            if (tiquete.getEvento().equals(evento) && tiquete.estaVigente()) {
+            if (evento.equals(tiquete.getEvento()) && tiquete.estaVigente()) {
                 tiquetesEvento.add(tiquete);
             }
         }
@@ -259,6 +292,58 @@ public class Administrador extends Usuario {
         System.out.println("GANANCIAS TOTALES: $" + String.format("%.2f", gananciasTotales));
     }
     
+    /**
+     * Reporte de ganancias a partir de los totales que se actualizan con cada
+     * compra y reembolso; no recorre las compras, así que tarda lo mismo sin
+     * importar el tamaño del historial. Los cargos son los cobrados en cada compra.
+     * @param agregados - totales de ventas e ingresos de la plataforma
+     */
+    public void observarGanancias(AgregadosIngresos agregados) {
+        System.out.println("=== REPORTE DE GANANCIAS REALES - Administrador: " + this.login + " ===");
+        
+        AgregadosIngresos.Acumulado total = agregados.getTotal();
+        System.out.println("Compras procesadas: " + total.getCompras());
+        System.out.println("Tiquetes vendidos: " + total.getTiquetes());
+        System.out.println("Ventas brutas: $" + String.format("%.2f", total.getVentasBrutas()));
+        System.out.println("Tiquetes reembolsados: " + total.getReembolsados() + 
+                         " ($" + String.format("%.2f", total.getMontoReembolsado()) + ")");
+        System.out.println("Ganancias por cobro fijo: $" + String.format("%.2f", total.getIngresosCobroFijo()));
+        System.out.println("Ganancias por porcentaje adicional: $" + String.format("%.2f", total.getIngresosPorcentaje()));
+        System.out.println("GANANCIAS TOTALES: $" + String.format("%.2f", total.getIngresosTotales()));
+    }
+    
+    /**
+     * Ganancias por evento a partir de los totales del evento
+     * @param evento - evento a analizar
+     * @param agregados - totales de ventas e ingresos de la plataforma
+     */
+    public void observarGananciasPorEvento(Evento evento, AgregadosIngresos agregados) {
+        System.out.println("=== GANANCIAS POR EVENTO: " + evento.getNombre() + " ===");
+        
+        AgregadosIngresos.Acumulado acumulado = agregados.getAcumulado(AgregadosIngresos.Dimension.EVENTO, evento.getId());
+        System.out.println("Tiquetes vendidos: " + acumulado.getTiquetes());
+        System.out.println("Ganancias del evento: $" + String.format("%.2f", acumulado.getIngresosTotales()));
+        System.out.println("Porcentaje de venta: " + 
+                         calcularPorcentajeVenta(acumulado.getTiquetes(), evento.getTotalTiquetes()) + "%");
+    }
+    
+    /**
+     * Ganancias desglosadas por evento, localidad, organizador o día, en orden de clave
+     * @param agregados - totales de ventas e ingresos de la plataforma
+     * @param dimension - desglose deseado
+     */
+    public void observarGananciasPor(AgregadosIngresos agregados, AgregadosIngresos.Dimension dimension) {
+        System.out.println("=== GANANCIAS POR " + dimension + " ===");
+        
+        TreeMap<String, AgregadosIngresos.Acumulado> ordenados = new TreeMap<>(agregados.getAcumulados(dimension));
+        for (Map.Entry<String, AgregadosIngresos.Acumulado> entrada : ordenados.entrySet()) {
+            System.out.println(entrada.getKey() + " - " + entrada.getValue());
+        }
+        if (ordenados.isEmpty()) {
+            System.out.println("No hay ventas registradas.");
+        }
+    }
+    
     /**
      * Calcula el subtotal de una compra (suma de precios base de tiquetes)
      */
@@ -295,7 +380,7 @@ public class Administrador extends Usuario {
         System.out.println("Tiquetes vendidos: " + tiquetesVendidos);
         System.out.println("Ganancias del evento: $" + String.format("%.2f", gananciasEvento));
         System.out.println("Porcentaje de venta: " + 
-                         calcularPorcentajeVenta(tiquetesVendidos, evento.getTiquetes().size()) + "%");
+                         calcularPorcentajeVenta(tiquetesVendidos, evento.getTotalTiquetes()) + "%");
     }
     
     /**
@@ -0,0 +1,294 @@
+package modelo.usuarios;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Sesiones abiertas, identificadas por tokens opacos.
+ * Buscar una sesión por su token es una lectura de un mapa concurrente y una
+ * escritura de la marca de último uso de esa sesión; no hay cerrojos
+ * compartidos. Un usuario puede tener varias sesiones (una por dispositivo),
+ * hasta un máximo: la más antigua se cierra al abrir una nueva.
+ *
+ * Las sesiones inactivas vencen con una rueda de tiempo: cada sesión está en la
+ * ranura del instante en que vencería. Al pasar una ranura solo se revisan sus
+ * sesiones; las que se usaron mientras tanto pasan a la ranura de su nuevo
+ * vencimiento y las demás se cierran. Usar una sesión no la mueve de ranura,
+ * así que la búsqueda no toca la rueda, y nunca se recorren todas las sesiones.
+ */
+public class AlmacenSesiones {
+    public static final long INACTIVIDAD_POR_DEFECTO = 30 * 60 * 1000L; // 30 minutos
+    public static final int DISPOSITIVOS_POR_DEFECTO = 5;
+    public static final int SESIONES_MAXIMAS_POR_DEFECTO = 100_000;
+    private static final int RANURAS = 64;
+
+    /**
+     * Sesión de un usuario en un dispositivo
+     */
+    public static class Sesion {
+        private final String token;
+        private final Usuario usuario;
+        private final String dispositivo;
+        private final long creada;
+        private final long numero; // orden de apertura, para desempatar
+        private volatile long ultimoUso;
+        private volatile boolean cerrada;
+
+        Sesion(String token, Usuario usuario, String dispositivo, long ahora, long numero) {
+            this.token = token;
+            this.usuario = usuario;
+            this.dispositivo = dispositivo;
+            this.creada = ahora;
+            this.numero = numero;
+            this.ultimoUso = ahora;
+        }
+
+        public String getToken() { return token; }
+        public Usuario getUsuario() { return usuario; }
+        public String getDispositivo() { return dispositivo; }
+        public long getCreada() { return creada; }
+        public long getUltimoUso() { return ultimoUso; }
+        public boolean estaCerrada() { return cerrada; }
+
+        @Override
+        public String toString() {
+            return "Sesion{" + usuario.getLogin() + ", " + dispositivo + "}";
+        }
+    }
+
+    private static final SecureRandom ALEATORIO = new SecureRandom();
+
+    private final long inactividadMaxima;
+    private final int dispositivosMaximos;
+    private final int sesionesMaximas;
+    private final long duracionTic;
+
+    private final ConcurrentHashMap<String, Sesion> porToken;
+    private final ConcurrentHashMap<String, Set<Sesion>> porLogin;
+    private final AtomicInteger abiertas;
+    private final AtomicLong aperturas;
+    private final ArrayList<ConcurrentLinkedQueue<Sesion>> rueda; // se llena al construir; después solo se lee
+    private final AtomicLong ultimoTicProcesado;
+    private final LongSupplier reloj; // instante actual en milisegundos
+
+    /**
+     * @param inactividadMaxima - milisegundos sin uso tras los cuales la sesión vence
+     * @param dispositivosMaximos - sesiones simultáneas por usuario
+     * @param sesionesMaximas - tope de sesiones abiertas en total
+     */
+    public AlmacenSesiones(long inactividadMaxima, int dispositivosMaximos, int sesionesMaximas) {
+        this(inactividadMaxima, dispositivosMaximos, sesionesMaximas, System::currentTimeMillis);
+    }
+
+    /**
+     * @param reloj - da el instante actual (milisegundos); las pruebas lo avanzan a mano
+     */
+    @SuppressWarnings("unchecked")
+    public AlmacenSesiones(long inactividadMaxima, int dispositivosMaximos, int sesionesMaximas, LongSupplier reloj) {
+        if (inactividadMaxima <= 0 || dispositivosMaximos <= 0 || sesionesMaximas <= 0) {
+            throw new IllegalArgumentException("Los límites de las sesiones deben ser positivos");
+        }
+        this.inactividadMaxima = inactividadMaxima;
+        this.dispositivosMaximos = dispositivosMaximos;
+        this.sesionesMaximas = sesionesMaximas;
+        // Un vencimiento siempre cae a menos de una vuelta de la rueda
+        this.duracionTic = inactividadMaxima / (RANURAS - 1) + 1;
+        this.porToken = new ConcurrentHashMap<>();
+        this.porLogin = new ConcurrentHashMap<>();
+        this.abiertas = new AtomicInteger();
+        this.aperturas = new AtomicLong();
+        this.rueda = new ArrayList<>(RANURAS);
+        for (int i = 0; i < RANURAS; i++) {
+            rueda.add(new ConcurrentLinkedQueue<>());
+        }
+        this.reloj = reloj;
+        this.ultimoTicProcesado = new AtomicLong(reloj.getAsLong() / duracionTic);
+    }
+
+    public AlmacenSesiones() {
+        this(INACTIVIDAD_POR_DEFECTO, DISPOSITIVOS_POR_DEFECTO, SESIONES_MAXIMAS_POR_DEFECTO);
+    }
+
+    // ==================== APERTURA Y CIERRE ====================
+
+    /**
+     * Abre una sesión para el usuario en un dispositivo
+     * @return la sesión, o null si se alcanzó el tope de sesiones abiertas
+     */
+    public Sesion abrir(Usuario usuario, String dispositivo) {
+        long ahora = reloj.getAsLong();
+        avanzar(ahora);
+        if (abiertas.incrementAndGet() > sesionesMaximas) {
+            abiertas.decrementAndGet();
+            return null;
+        }
+
+        Sesion sesion = new Sesion(generarToken(), usuario, dispositivo, ahora, aperturas.incrementAndGet());
+        porToken.put(sesion.token, sesion);
+        // Agregar dentro de compute: cerrar no puede retirar el conjunto mientras tanto
+        Set<Sesion> delUsuario = porLogin.compute(usuario.getLogin(), (login, actuales) -> {
+            Set<Sesion> conjunto = actuales != null ? actuales : ConcurrentHashMap.newKeySet();
+            conjunto.add(sesion);
+            return conjunto;
+        });
+        programar(sesion, ticDe(ahora + inactividadMaxima), ahora / duracionTic);
+
+        // Demasiados dispositivos: se cierra la sesión usada hace más tiempo
+        while (delUsuario.size() > dispositivosMaximos) {
+            Sesion masAntigua = null;
+            for (Sesion otra : delUsuario) {
+                if (masAntigua == null || otra.ultimoUso < masAntigua.ultimoUso
+                        || (otra.ultimoUso == masAntigua.ultimoUso && otra.numero < masAntigua.numero)) {
+                    masAntigua = otra;
+                }
+            }
+            if (masAntigua == null || masAntigua == sesion) {
+                break;
+            }
+            cerrar(masAntigua);
+        }
+        return sesion;
+    }
+
+    /**
+     * Busca la sesión de un token y renueva su marca de uso
+     * @return la sesión, o null si el token no existe o la sesión venció
+     */
+    public Sesion buscar(String token) {
+        if (token == null) {
+            return null;
+        }
+        long ahora = reloj.getAsLong();
+        if (ahora / duracionTic > ultimoTicProcesado.get()) {
+            avanzar(ahora);
+        }
+        Sesion sesion = porToken.get(token);
+        if (sesion == null) {
+            return null;
+        }
+        if (ahora - sesion.ultimoUso >= inactividadMaxima) {
+            cerrar(sesion);
+            return null;
+        }
+        sesion.ultimoUso = ahora;
+        return sesion;
+    }
+
+    /**
+     * Cierra la sesión de un token (un dispositivo)
+     */
+    public boolean cerrar(String token) {
+        Sesion sesion = token != null ? porToken.get(token) : null;
+        return sesion != null && cerrar(sesion);
+    }
+
+    /**
+     * Cierra todas las sesiones de un usuario
+     * @return cantidad de sesiones cerradas
+     */
+    public int cerrarTodas(String login) {
+        Set<Sesion> delUsuario = porLogin.get(login);
+        int cerradas = 0;
+        if (delUsuario != null) {
+            for (Sesion sesion : delUsuario) {
+                if (cerrar(sesion)) {
+                    cerradas++;
+                }
+            }
+        }
+        return cerradas;
+    }
+
+    private boolean cerrar(Sesion sesion) {
+        if (!porToken.remove(sesion.token, sesion)) {
+            return false;
+        }
+        sesion.cerrada = true;
+        abiertas.decrementAndGet();
+        porLogin.computeIfPresent(sesion.usuario.getLogin(), (login, delUsuario) -> {
+            delUsuario.remove(sesion);
+            return delUsuario.isEmpty() ? null : delUsuario;
+        });
+        // La sesión sale de la rueda cuando se procese su ranura
+        return true;
+    }
+
+    // ==================== RUEDA DE TIEMPO ====================
+
+    private long ticDe(long instante) {
+        return instante / duracionTic;
+    }
+
+    private void programar(Sesion sesion, long tic, long ticActual) {
+        // Nunca en la ranura que se está procesando ni en una ya pasada
+        long destino = Math.max(tic, ticActual + 1);
+        rueda.get((int) (destino % RANURAS)).add(sesion);
+    }
+
+    /**
+     * Procesa las ranuras cuyo instante ya pasó. Un solo hilo procesa cada tic.
+     */
+    public void avanzar(long ahora) {
+        long ticActual = ticDe(ahora);
+        long procesado;
+        while ((procesado = ultimoTicProcesado.get()) < ticActual) {
+            // Tras mucho tiempo sin actividad basta con una vuelta completa
+            long siguiente = Math.max(procesado + 1, ticActual - RANURAS + 1);
+            if (ultimoTicProcesado.compareAndSet(procesado, siguiente)) {
+                procesarRanura(siguiente, ahora);
+            }
+        }
+    }
+
+    private void procesarRanura(long tic, long ahora) {
+        ConcurrentLinkedQueue<Sesion> ranura = rueda.get((int) (tic % RANURAS));
+        ArrayList<Sesion> reprogramar = new ArrayList<>();
+        Sesion sesion;
+        while ((sesion = ranura.poll()) != null) {
+            if (sesion.cerrada) {
+                continue;
+            }
+            long vence = sesion.ultimoUso + inactividadMaxima;
+            if (vence <= ahora) {
+                cerrar(sesion);
+            } else {
+                reprogramar.add(sesion);
+            }
+        }
+        for (Sesion activa : reprogramar) {
+            programar(activa, ticDe(activa.ultimoUso + inactividadMaxima), tic);
+        }
+    }
+
+    private static String generarToken() {
+        byte[] bytes = new byte[32];
+        ALEATORIO.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    // ==================== CONSULTAS ====================
+
+    public int getSesionesAbiertas() {
+        return abiertas.get();
+    }
+
+    /**
+     * @return sesiones abiertas del usuario, una por dispositivo
+     */
+    public ArrayList<Sesion> getSesiones(String login) {
+        Set<Sesion> delUsuario = porLogin.get(login);
+        return delUsuario != null ? new ArrayList<>(delUsuario) : new ArrayList<>();
+    }
+
+    public boolean tieneSesion(String login) {
+        Set<Sesion> delUsuario = porLogin.get(login);
+        return delUsuario != null && !delUsuario.isEmpty();
+    }
+}
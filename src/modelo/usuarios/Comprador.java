@@ -1,12 +1,18 @@
 package modelo.usuarios;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import modelo.tiquetes.Tiquete;
 import modelo.eventos.Evento;
 import modelo.eventos.Localidad;
+import modelo.eventos.CerrojosLocalidad;
+import modelo.eventos.ReservasLocalidad;
 import modelo.pagos.Pagos;
 import modelo.pagos.Compra;
+import modelo.GeneradorIds;
+import modelo.pagos.LibroMayor;
 import java.util.Date;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Clase que representa a un Comprador en el sistema.
@@ -14,20 +20,22 @@ import java.util.Date;
  */
 public class Comprador extends Usuario {
     // Atributo específico del comprador: historial de tiquetes comprados
-    private ArrayList<Tiquete> historialTiquetes;
+    // (conjunto ordenado por llegada: agregar, buscar y quitar no recorren la lista;
+    //  se accede con el monitor del comprador)
+    private LinkedHashSet<Tiquete> historialTiquetes;
     
     //Constructor de Comprador
     public Comprador(String login, String password) {
         // Llama al constructor padre con tipoUsuario "comprador"
         super(login, password, "comprador");
-        this.historialTiquetes = new ArrayList<>();
+        this.historialTiquetes = new LinkedHashSet<>();
     }
 
     //Constructor vacio para persistencia
     public Comprador() {
         super();
         this.tipoUsuario = "comprador";
-        this.historialTiquetes = new ArrayList<>();
+        this.historialTiquetes = new LinkedHashSet<>();
     }
     
     // ==================== MÉTODOS DE COMPRA ====================
@@ -43,6 +51,18 @@ public class Comprador extends Usuario {
      */
     public ArrayList<Tiquete> comprarTiquete(Evento evento, Localidad localidad, int cantidad, 
                                            double porcentajeAdicional, double cobroFijo) {
+        return comprarTiquete(evento, localidad, cantidad, porcentajeAdicional, cobroFijo, false);
+    }
+    
+    /**
+     * Compra tiquetes, opcionalmente como un bloque de asientos contiguos
+     * @param asientosContiguos - si es true y la localidad tiene mapa de asientos,
+     *                            se asigna el mejor bloque de asientos juntos en una fila
+     * @return lista de tiquetes comprados o lista vacía si falló
+     */
+    public ArrayList<Tiquete> comprarTiquete(Evento evento, Localidad localidad, int cantidad, 
+                                           double porcentajeAdicional, double cobroFijo,
+                                           boolean asientosContiguos) {
         System.out.println("Comprador " + this.login + " está comprando " + cantidad + 
                          " tiquetes para evento: " + evento.getNombre());
         
@@ -52,53 +72,151 @@ public class Comprador extends Usuario {
             return new ArrayList<>();
         }
         
-        if (!evento.isAprobado()) {
-            System.out.println("Error: El evento no está aprobado");
+        // Verificar, reservar y cobrar en un solo paso por localidad: las compras de
+        // la misma localidad van en fila y las de otras localidades siguen en paralelo
+        ReentrantLock cerrojo = CerrojosLocalidad.de(localidad);
+        cerrojo.lock();
+        try {
+            if (!evento.isAprobado()) {
+                System.out.println("Error: El evento no está aprobado");
+                return new ArrayList<>();
+            }
+            
+            if (!localidad.hayDisponibilidad(evento) || localidad.getTiquetesDisponibles(evento) < cantidad) {
+                System.out.println("Error: No hay suficientes tiquetes disponibles en la localidad");
+                return new ArrayList<>();
+            }
+            
+            // Crear tiquetes para la compra (en modo compacto se reservan los asientos)
+            ArrayList<Tiquete> tiquetesAComprar = new ArrayList<>();
+            if (asientosContiguos && localidad.tieneMapaAsientos()) {
+                tiquetesAComprar = localidad.venderAsientosContiguos(evento, cantidad);
+                if (tiquetesAComprar.isEmpty()) {
+                    System.out.println("Error: No hay " + cantidad + " asientos contiguos libres en una misma fila");
+                    return new ArrayList<>();
+                }
+            } else if (localidad.usaInventarioCompacto()) {
+                tiquetesAComprar = localidad.venderTiquetesCompactos(evento, cantidad);
+                if (tiquetesAComprar.isEmpty()) {
+                    System.out.println("Error: No hay suficientes asientos libres en la localidad");
+                    return new ArrayList<>();
+                }
+            }
+            for (int i = tiquetesAComprar.size(); i < cantidad; i++) {
+                String tiqueteId = GeneradorIds.getInstancia().siguiente("TQ-" + evento.getId() + "-" + localidad.getId());
+                double precioBase = localidad.getPrecioBase();
+                Tiquete tiquete = new Tiquete(tiqueteId, precioBase, evento.getFechaHora(), localidad, evento);
+                tiquetesAComprar.add(tiquete);
+            }
+            
+            // Usar el servicio de pagos para calcular el total con el precio que guarda cada tiquete
+            Pagos servicioPagos = Pagos.getInstancia();
+            servicioPagos.fijarPreciosPagados(tiquetesAComprar);
+            double montoTotal = servicioPagos.calcularPrecioTotal(tiquetesAComprar, porcentajeAdicional, cobroFijo);
+            
+            // Procesar pago con saldo virtual
+            if (servicioPagos.procesarPagoConSaldo(this, montoTotal)) {
+                // Pago exitoso - completar la compra
+                
+                // Crear compra
+                String compraId = GeneradorIds.getInstancia().siguiente("COMP");
+                Compra compra = new Compra(compraId, new Date(), montoTotal, tiquetesAComprar, this);
+                compra.setEstado("aprobada");
+                
+                // Agregar tiquetes al historial del comprador
+                for (Tiquete tiquete : tiquetesAComprar) {
+                    agregarTiqueteAlHistorial(tiquete);
+                    // Agregar tiquete a la localidad (actualizar disponibilidad)
+                    localidad.agregarTiquete(tiquete);
+                }
+                localidad.registrarPropietario(tiquetesAComprar, this.login);
+                
+                System.out.println("Compra exitosa: " + cantidad + " tiquetes comprados por " + 
+                                 this.login + " - Total: $" + montoTotal);
+                
+                return tiquetesAComprar;
+            } else {
+                System.out.println("Compra fallida: Saldo insuficiente");
+                localidad.liberarTiquetesCompactos(tiquetesAComprar);
+                return new ArrayList<>();
+            }
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * @return true si la reserva es de este comprador, para esa localidad y evento,
+     *         y la localidad administra las reservas del evento
+     */
+    public boolean esSuReserva(Evento evento, Localidad localidad, ReservasLocalidad.Reserva reserva) {
+        return evento != null && localidad != null && reserva != null && localidad.getReservas(evento) != null
+                && this.login.equals(reserva.getLogin()) && localidad.getId().equals(reserva.getLocalidadId())
+                && evento.getId().equals(reserva.getEventoId());
+    }
+
+    /**
+     * Paga y emite los tiquetes de una reserva temporal de asientos.
+     * Los asientos ya están retenidos, así que el cobro ocurre sin el cerrojo de la
+     * localidad; si el pago falla la reserva se cancela y si la reserva venció
+     * mientras se pagaba se devuelve el dinero.
+     * @param reserva - reserva activa obtenida con localidad.getReservas(evento).reservar(...)
+     * @return lista de tiquetes comprados o lista vacía si falló
+     */
+    public ArrayList<Tiquete> comprarReserva(Evento evento, Localidad localidad, ReservasLocalidad.Reserva reserva,
+                                             double porcentajeAdicional, double cobroFijo) {
+        if (evento == null || localidad == null || reserva == null || localidad.getReservas(evento) == null) {
+            System.out.println("Error: Parámetros inválidos para la compra");
             return new ArrayList<>();
         }
-        
-        if (!localidad.hayDisponibilidad() || localidad.getTiquetesDisponibles() < cantidad) {
-            System.out.println("Error: No hay suficientes tiquetes disponibles en la localidad");
+        if (!esSuReserva(evento, localidad, reserva)) {
+            System.out.println("Error: La reserva no pertenece al comprador, a la localidad o al evento");
             return new ArrayList<>();
         }
+        ReservasLocalidad reservas = localidad.getReservas(evento);
         
-        // Crear tiquetes para la compra
-        ArrayList<Tiquete> tiquetesAComprar = new ArrayList<>();
-        for (int i = 0; i < cantidad; i++) {
-            String tiqueteId = "TQ-" + evento.getId() + "-" + localidad.getId() + "-" + System.currentTimeMillis() + "-" + i;
-            double precioBase = localidad.getPrecioBase();
-            Tiquete tiquete = new Tiquete(tiqueteId, precioBase, evento.getFechaHora(), localidad, evento);
-            tiquetesAComprar.add(tiquete);
+        // Calcular el total con tiquetes provisionales del precio de la localidad
+        ArrayList<Tiquete> provisionales = new ArrayList<>();
+        for (int i = 0; i < reserva.getCantidad(); i++) {
+            provisionales.add(new Tiquete(null, localidad.getPrecioBase(), evento.getFechaHora(), localidad, evento));
         }
-        
-        // Usar el servicio de pagos para calcular el total
         Pagos servicioPagos = Pagos.getInstancia();
-        double montoTotal = servicioPagos.calcularPrecioTotal(tiquetesAComprar, porcentajeAdicional, cobroFijo);
+        servicioPagos.fijarPreciosPagados(provisionales);
+        double montoTotal = servicioPagos.calcularPrecioTotal(provisionales, porcentajeAdicional, cobroFijo);
         
-        // Procesar pago con saldo virtual
-        if (servicioPagos.procesarPagoConSaldo(this, montoTotal)) {
-            // Pago exitoso - completar la compra
-            
-            // Crear compra
-            String compraId = "COMP-" + System.currentTimeMillis();
-            Compra compra = new Compra(compraId, new Date(), montoTotal, tiquetesAComprar, this);
-            compra.setEstado("aprobada");
-            
-            // Agregar tiquetes al historial del comprador
-            for (Tiquete tiquete : tiquetesAComprar) {
-                agregarTiqueteAlHistorial(tiquete);
-                // Agregar tiquete a la localidad (actualizar disponibilidad)
-                localidad.agregarTiquete(tiquete);
-            }
-            
-            System.out.println("Compra exitosa: " + cantidad + " tiquetes comprados por " + 
-                             this.login + " - Total: $" + montoTotal);
-            
-            return tiquetesAComprar;
-        } else {
+        if (!servicioPagos.procesarPagoConSaldo(this, montoTotal)) {
             System.out.println("Compra fallida: Saldo insuficiente");
+            reservas.cancelar(reserva);
+            return new ArrayList<>();
+        }
+        if (!reservas.confirmar(reserva)) {
+            System.out.println("Error: La reserva " + reserva.getId() + " venció antes de completar el pago");
+            acreditar(LibroMayor.aCentavos(montoTotal), "Devolución de la reserva vencida " + reserva.getId());
             return new ArrayList<>();
         }
+        
+        // Emitir los tiquetes: solo esta parte necesita el cerrojo de la localidad
+        ArrayList<Tiquete> tiquetesComprados;
+        ReentrantLock cerrojo = CerrojosLocalidad.de(localidad);
+        cerrojo.lock();
+        try {
+            tiquetesComprados = localidad.venderReservados(evento, reserva);
+            for (int i = 0; i < tiquetesComprados.size(); i++) {
+                Tiquete tiquete = tiquetesComprados.get(i);
+                // Cada tiquete emitido guarda el precio con el que se cobró la reserva
+                if (i < provisionales.size()) {
+                    tiquete.setPrecioPagado(provisionales.get(i).getPrecioPagado());
+                }
+                agregarTiqueteAlHistorial(tiquete);
+            }
+            localidad.registrarPropietario(tiquetesComprados, this.login);
+        } finally {
+            cerrojo.unlock();
+        }
+        
+        System.out.println("Compra exitosa: " + tiquetesComprados.size() + " tiquetes de la reserva " + 
+                         reserva.getId() + " - Total: $" + montoTotal);
+        return tiquetesComprados;
     }
 
     /**
@@ -179,32 +297,47 @@ public class Comprador extends Usuario {
      * Agrega un tiquete al historial del comprador
      * @param tiquete - tiquete a agregar
      */
-    public void agregarTiqueteAlHistorial(Tiquete tiquete) {
+    public synchronized void agregarTiqueteAlHistorial(Tiquete tiquete) {
         if (tiquete != null) {
             this.historialTiquetes.add(tiquete);
             System.out.println("Tiquete " + tiquete.getId() + " agregado al historial de " + this.login);
         }
     }
     
+    /**
+     * Quita un tiquete del historial (al venderlo o transferirlo)
+     * @return true si el tiquete estaba en el historial
+     */
+    public synchronized boolean removerTiqueteDelHistorial(Tiquete tiquete) {
+        return tiquete != null && this.historialTiquetes.remove(tiquete);
+    }
+    
+    /**
+     * @return true si el tiquete está en el historial del comprador
+     */
+    public synchronized boolean tieneTiquete(Tiquete tiquete) {
+        return tiquete != null && historialTiquetes.contains(tiquete);
+    }
+    
     /**
      * @return todo el historial de tiquetes del comprador
      */
-    public ArrayList<Tiquete> getHistorialTiquetes() {
+    public synchronized ArrayList<Tiquete> getHistorialTiquetes() {
         return new ArrayList<>(historialTiquetes);
     }
     
     /**
      * Muestra el historial de tiquetes por consola
      */
-    public void mostrarHistorialTiquetes() {
+    public synchronized void mostrarHistorialTiquetes() {
         System.out.println("=== Historial de Tiquetes de " + this.login + " ===");
         if (historialTiquetes.isEmpty()) {
             System.out.println("No hay tiquetes en el historial.");
         } else {
-            for (int i = 0; i < historialTiquetes.size(); i++) {
-                Tiquete tiquete = historialTiquetes.get(i);
+            int i = 1;
+            for (Tiquete tiquete : historialTiquetes) {
                 String estado = tiquete.estaVigente() ? "VIGENTE" : "USADO/VENCIDO";
-                System.out.println((i + 1) + ". " + tiquete + " - " + estado);
+                System.out.println(i++ + ". " + tiquete + " - " + estado);
             }
         }
     }
@@ -213,7 +346,7 @@ public class Comprador extends Usuario {
      * Obtiene los tiquetes vigentes (no vencidos)
      * @return lista de tiquetes vigentes
      */
-    public ArrayList<Tiquete> getTiquetesVigentes() {
+    public synchronized ArrayList<Tiquete> getTiquetesVigentes() {
         ArrayList<Tiquete> vigentes = new ArrayList<>();
         for (Tiquete tiquete : historialTiquetes) {
             if (tiquete.estaVigente()) {
@@ -223,19 +356,11 @@ public class Comprador extends Usuario {
         return vigentes;
     }
     
-    /**
-     * Obtiene el saldo virtual del comprador
-     * @return saldo virtual
-     */
-    public double getSaldoVirtual() {
-        return saldoVirtual;
-    }
-    
     @Override
     public String toString() {
         return "Comprador{" +
                 "login='" + login + '\'' +
-                ", saldoVirtual=" + saldoVirtual +
+                ", saldoVirtual=" + getSaldoVirtual() +
                 ", cantidadTiquetes=" + historialTiquetes.size() +
                 '}';
     }
@@ -0,0 +1,18 @@
+package modelo.usuarios;
+
+/**
+ * Cuenta de la plataforma que recibe las comisiones de las reventas.
+ * No inicia sesión ni compra: solo acumula saldo en su billetera.
+ */
+public class CuentaPlataforma extends Usuario {
+    public static final String LOGIN_PLATAFORMA = "plataforma";
+
+    public CuentaPlataforma() {
+        super(LOGIN_PLATAFORMA, null, "plataforma");
+    }
+
+    @Override
+    public boolean validarCredenciales(String loginInput, String passwordInput) {
+        return false; // nadie inicia sesión con esta cuenta
+    }
+}
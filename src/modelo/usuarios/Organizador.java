@@ -4,10 +4,13 @@ import java.util.ArrayList;
 import modelo.eventos.Evento;
 import modelo.eventos.Venue;
 import modelo.eventos.Localidad;
+import modelo.eventos.CerrojosLocalidad;
 import modelo.eventos.Oferta;
 import modelo.tiquetes.Tiquete;
 import modelo.pagos.Compra;
+import modelo.pagos.AgregadosIngresos;
 import java.util.Date;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Clase que representa a un Organizador de eventos.
@@ -77,11 +80,25 @@ public class Organizador extends Usuario {
         System.out.println("Localidad: " + localidad.getTipoLocalidad());
         System.out.println("Precio base: $" + precioBase);
         
-        for (int i = 0; i < cantidad; i++) {
-            String tiqueteId = "TQ-" + evento.getId() + "-" + localidad.getId() + "-" + i;
-            Tiquete tiquete = new Tiquete(tiqueteId, precioBase, evento.getFechaHora(), localidad, evento);
-            evento.agregarTiquete(tiquete);
-            localidad.agregarTiquete(tiquete);
+        // Se asigna con el mismo cerrojo que usan las compras de la localidad
+        ReentrantLock cerrojo = CerrojosLocalidad.de(localidad);
+        cerrojo.lock();
+        try {
+            // Las localidades grandes guardan sus tiquetes estándar como bits por asiento
+            if (localidad.usaInventarioCompacto()) {
+                int asignados = localidad.asignarTiquetesCompactos(evento, cantidad);
+                System.out.println(asignados + " tiquetes asignados exitosamente");
+                return;
+            }
+            
+            for (int i = 0; i < cantidad; i++) {
+                String tiqueteId = "TQ-" + evento.getId() + "-" + localidad.getId() + "-" + i;
+                Tiquete tiquete = new Tiquete(tiqueteId, precioBase, evento.getFechaHora(), localidad, evento);
+                evento.agregarTiquete(tiquete);
+                localidad.agregarTiquete(tiquete);
+            }
+        } finally {
+            cerrojo.unlock();
         }
         
         System.out.println(cantidad + " tiquetes asignados exitosamente");
@@ -176,16 +193,16 @@ public class Organizador extends Usuario {
     }
     
     /**
-     * Calcula ganancias para un evento específico
+     * Calcula ganancias para un evento específico: lo pagado por sus tiquetes, sin cargos
      */
-    private double calcularGananciasEvento(Evento evento, ArrayList<Compra> compras) {
+    public double calcularGananciasEvento(Evento evento, ArrayList<Compra> compras) {
         double ganancias = 0;
         for (Compra compra : compras) {
             if ("aprobada".equals(compra.getEstado()) && compraContieneEvento(compra, evento)) {
-                // Organizador recibe solo el precio base (sin cargos adicionales)
+                // Organizador recibe lo pagado por el tiquete (sin cargos adicionales)
                 for (Tiquete tiquete : compra.getTiquetes()) {
                     if (tiquete.getEvento().equals(evento)) {
-                        ganancias += tiquete.getPrecioBase();
+                        ganancias += tiquete.getPrecioPagado();
                     }
                 }
             }
@@ -309,7 +326,7 @@ public class Organizador extends Usuario {
      */
     public double getPorcentajeVentaEvento(Evento evento, ArrayList<Compra> compras) {
         int tiquetesVendidos = contarTiquetesVendidos(evento, compras);
-        int tiquetesTotales = evento.getTiquetes().size();
+        int tiquetesTotales = evento.getTotalTiquetes();
         
         if (tiquetesTotales == 0) return 0;
         return (tiquetesVendidos * 100.0) / tiquetesTotales;
@@ -324,7 +341,7 @@ public class Organizador extends Usuario {
         for (Localidad localidad : evento.getVenue().getLocalidades()) {
             double gananciasLocalidad = calcularGananciasLocalidad(evento, localidad, compras);
             int vendidos = contarTiquetesVendidosLocalidad(evento, localidad, compras);
-            int total = localidad.getTiquetesLocalidad().size();
+            int total = evento.getTotalTiquetes(localidad);
             double porcentaje = total > 0 ? (vendidos * 100.0) / total : 0;
             
             System.out.println("Localidad: " + localidad.getTipoLocalidad() +
@@ -343,7 +360,7 @@ public class Organizador extends Usuario {
             if ("aprobada".equals(compra.getEstado())) {
                 for (Tiquete tiquete : compra.getTiquetes()) {
                     if (tiquete.getEvento().equals(evento) && tiquete.getLocalidad().equals(localidad)) {
-                        ganancias += tiquete.getPrecioBase();
+                        ganancias += tiquete.getPrecioPagado();
                     }
                 }
             }
@@ -368,11 +385,72 @@ public class Organizador extends Usuario {
         return vendidos;
     }
     
+    // ==================== REPORTES DESDE LA VISTA DE GANANCIAS ====================
+    
+    /**
+     * Revisa las ganancias de los eventos organizados a partir de la vista del
+     * organizador, que se mantiene con cada compra, reembolso y cancelación.
+     * Cuesta O(eventos) sin importar cuántas compras haya. Las ganancias son lo
+     * pagado por los tiquetes, sin los cargos de la plataforma.
+     * @param agregados - totales de ventas e ingresos de la plataforma
+     */
+    public void revisarGanancias(AgregadosIngresos agregados) {
+        System.out.println("=== GANANCIAS DEL ORGANIZADOR: " + this.login + " ===");
+        
+        AgregadosIngresos.VistaOrganizador vista = agregados.getVistaOrganizador(this.login);
+        int eventosConVentas = 0;
+        for (Evento evento : eventosCreados) {
+            AgregadosIngresos.Acumulado acumulado = vista.getEvento(evento.getId());
+            if (evento.isAprobado() && acumulado.getVentasBrutas() > 0) {
+                eventosConVentas++;
+                System.out.println("Evento: " + evento.getNombre() + 
+                                 " - Ganancias: $" + String.format("%.2f", acumulado.getVentasBrutas()) +
+                                 " - Tiquetes vendidos: " + acumulado.getTiquetes());
+            }
+        }
+        
+        System.out.println("--- RESUMEN ---");
+        System.out.println("Eventos con ventas: " + eventosConVentas + " de " + eventosCreados.size());
+        System.out.println("GANANCIAS TOTALES: $" + String.format("%.2f", vista.getTotal().getVentasBrutas()));
+    }
+    
+    /**
+     * Obtiene el porcentaje de venta de un evento desde la vista del organizador
+     * @return porcentaje de venta (0-100)
+     */
+    public double getPorcentajeVentaEvento(Evento evento, AgregadosIngresos agregados) {
+        int tiquetesVendidos = agregados.getAcumulado(AgregadosIngresos.Dimension.EVENTO, evento.getId()).getTiquetes();
+        int tiquetesTotales = evento.getTotalTiquetes();
+        
+        if (tiquetesTotales == 0) return 0;
+        return (tiquetesVendidos * 100.0) / tiquetesTotales;
+    }
+    
+    /**
+     * Revisa ganancias y porcentaje de venta por localidad de un evento desde la
+     * vista del organizador. El porcentaje se calcula sobre los tiquetes del evento en la localidad.
+     */
+    public void revisarGananciasPorLocalidad(Evento evento, AgregadosIngresos agregados) {
+        System.out.println("=== GANANCIAS POR LOCALIDAD - " + evento.getNombre() + " ===");
+        
+        AgregadosIngresos.VistaOrganizador vista = agregados.getVistaOrganizador(this.login);
+        for (Localidad localidad : evento.getVenue().getLocalidades()) {
+            AgregadosIngresos.Acumulado acumulado = vista.getLocalidad(evento.getId(), localidad.getId());
+            int total = evento.getTotalTiquetes(localidad);
+            double porcentaje = total > 0 ? (acumulado.getTiquetes() * 100.0) / total : 0;
+            
+            System.out.println("Localidad: " + localidad.getTipoLocalidad() +
+                             " - Ganancias: $" + String.format("%.2f", acumulado.getVentasBrutas()) +
+                             " - Vendidos: " + acumulado.getTiquetes() + "/" + total +
+                             " (" + String.format("%.1f", porcentaje) + "%)");
+        }
+    }
+    
     @Override
     public String toString() {
         return "Organizador{" +
                 "login='" + login + '\'' +
-                ", saldoVirtual=" + saldoVirtual +
+                ", saldoVirtual=" + getSaldoVirtual() +
                 ", cantidadEventos=" + eventosCreados.size() +
                 '}';
     }
@@ -1,21 +1,28 @@
 package modelo.usuarios;
 
+import java.util.concurrent.atomic.AtomicLong;
+
+import modelo.pagos.LibroMayor;
+
 /**
  * Clase base que representa a un usuario del sistema.
  * Contiene información básica de autenticación y saldo virtual.
+ * El saldo se guarda en centavos en una celda atómica: los débitos se aplican con
+ * compare-and-set verificando que alcance, y cada crédito o débito se anota en el
+ * LibroMayor para poder reconstruir y auditar los saldos.
  * La persistencia será manejada por PersistenciaUsuarios.
  */
 public abstract class Usuario {
     protected String login;
     protected String password;
-    protected double saldoVirtual;
+    protected final AtomicLong saldoCentavos = new AtomicLong();
     protected String tipoUsuario;
 
     //Constructor de la clase Usuario
     public Usuario(String login, String password, String tipoUsuario) {
         this.login = login; // nombre de usuario para login
         this.password = password; // contraseña del usuario 
-        this.saldoVirtual = 0.0; // Saldo inicial en 0
+        // Saldo inicial en 0 (la celda arranca en 0 centavos)
         this.tipoUsuario = tipoUsuario; // tipo de usuario (cliente, organizador, administrador)
     }
 
@@ -40,14 +47,65 @@ public abstract class Usuario {
     public String getPassword() { return password; }
     
     // devuelve el saldo virtual actual del usuario
-    public double getSaldoVirtual() { return saldoVirtual; }
+    public double getSaldoVirtual() { return LibroMayor.aPesos(saldoCentavos.get()); }
     
-    //Actualiza el saldo virtual del usuario
-    public void setSaldoVirtual(double nuevoSaldo) { this.saldoVirtual = nuevoSaldo; }
+    // devuelve el saldo virtual en centavos
+    public long getSaldoCentavos() { return saldoCentavos.get(); }
+    
+    // Actualiza el saldo virtual del usuario (al cargar desde persistencia).
+    // Solo una billetera sin historia en el libro mayor se abre con una APERTURA;
+    // las demás ya se reconstruyen con sus movimientos guardados.
+    public void setSaldoVirtual(double nuevoSaldo) {
+        long centavos = LibroMayor.aCentavos(nuevoSaldo);
+        saldoCentavos.set(centavos);
+        if (!LibroMayor.getInstancia().tieneHistoria(login)) {
+            LibroMayor.getInstancia().registrar(login, LibroMayor.TipoMovimiento.APERTURA, centavos, centavos, null);
+        }
+    }
     
     // Agrega cantidad al saldo virtual (para recargas o reembolsos)
     public void agregarSaldo(double cantidad) {
-        this.saldoVirtual += cantidad;
+        acreditar(LibroMayor.aCentavos(cantidad), null);
+    }
+    
+    // Descuenta del saldo solo si alcanza; verificar y descontar es una sola operación
+    public boolean descontarSaldo(double cantidad) {
+        return debitar(LibroMayor.aCentavos(cantidad), null);
+    }
+    
+    /**
+     * Suma centavos al saldo y anota el crédito en el libro mayor
+     * @param concepto - motivo del movimiento (puede ser null)
+     */
+    public void acreditar(long centavos, String concepto) {
+        if (centavos <= 0) {
+            return;
+        }
+        long saldo = saldoCentavos.addAndGet(centavos);
+        LibroMayor.getInstancia().registrar(login, LibroMayor.TipoMovimiento.CREDITO, centavos, saldo, concepto);
+    }
+    
+    /**
+     * Resta centavos del saldo solo si alcanza, con compare-and-set, y anota el débito
+     * @return false si el saldo no alcanza
+     */
+    public boolean debitar(long centavos, String concepto) {
+        if (centavos < 0) {
+            return false;
+        }
+        while (true) {
+            long actual = saldoCentavos.get();
+            if (actual < centavos) {
+                return false;
+            }
+            if (saldoCentavos.compareAndSet(actual, actual - centavos)) {
+                if (centavos > 0) {
+                    LibroMayor.getInstancia().registrar(login, LibroMayor.TipoMovimiento.DEBITO, -centavos,
+                                                         actual - centavos, concepto);
+                }
+                return true;
+            }
+        }
     }
     
     // devuelve el tipo de usuario
@@ -67,7 +125,7 @@ public abstract class Usuario {
         return "Usuario{" +
                 "login='" + login + '\'' +
                 ", tipoUsuario='" + tipoUsuario + '\'' +
-                ", saldoVirtual=" + saldoVirtual +
+                ", saldoVirtual=" + getSaldoVirtual() +
                 '}';
     }
 